@@ -214,6 +214,13 @@ import { EmailJobService } from '../../../services/email-job.service';
                           <span class="email-count-badge">{{ ec.jobs.length }} emails</span>
                         </div>
                       }
+                      @if (jobsHasMore) {
+                        <div class="load-more">
+                          <button mat-stroked-button (click)="loadMoreJobs()" [disabled]="loadingJobs">
+                            <mat-icon>expand_more</mat-icon> Load more
+                          </button>
+                        </div>
+                      }
                     </div>
                     <!-- Panel 2: Email list -->
                     <div class="panel panel-emails">
@@ -264,7 +271,7 @@ import { EmailJobService } from '../../../services/email-job.service';
                               <span class="status-chip {{ activeJob.status.toLowerCase() }}">{{ activeJob.status }}</span>
                             </div>
                           </div>
-                          <pre class="email-body-pre">{{ activeJob.body }}</pre>
+                          <pre class="email-body-pre">{{ activeJob.body ?? 'Loading…' }}</pre>
                         </div>
                       }
                     </div>
@@ -274,7 +281,7 @@ import { EmailJobService } from '../../../services/email-job.service';
             </mat-tab>
 
             <!-- TAB 3: Email Jobs -->
-            <mat-tab label="Email Jobs ({{ jobsDataSource.data.length }})">
+            <mat-tab label="Email Jobs ({{ jobsTotal ?? jobsDataSource.data.length }})">
               <div class="tab-content">
                 <div class="jobs-toolbar">
                   <button mat-stroked-button (click)="refreshJobs()" matTooltip="Refresh jobs list">
@@ -325,7 +332,7 @@ import { EmailJobService } from '../../../services/email-job.service';
                   <ng-container matColumnDef="actions">
                     <th mat-header-cell *matHeaderCellDef></th>
                     <td mat-cell *matCellDef="let j">
-                      @if (j.status === 'FAILED' || j.status === 'SKIPPED') {
+                      @if (!j.archived && (j.status === 'FAILED' || j.status === 'SKIPPED')) {
                         <button mat-icon-button (click)="retryJob(j)"
                                 [matTooltip]="j.status === 'SKIPPED' ? 'Send now' : 'Retry'">
                           <mat-icon>replay</mat-icon>
@@ -342,6 +349,15 @@ import { EmailJobService } from '../../../services/email-job.service';
                   <tr mat-row *matRowDef="let row; columns: jobColumns;"></tr>
                 </table>
 
+                @if (jobsHasMore) {
+                  <div class="load-more">
+                    <span class="cell-sub">Showing {{ jobsDataSource.data.length }}{{ jobsTotal != null ? ' of ' + jobsTotal : '' }}</span>
+                    <button mat-stroked-button (click)="loadMoreJobs()" [disabled]="loadingJobs">
+                      <mat-icon>expand_more</mat-icon> Load more
+                    </button>
+                  </div>
+                }
+
                 @if (jobsDataSource.data.length === 0) {
                   <div class="empty-state">
                     <mat-icon>inbox</mat-icon>
@@ -385,6 +401,7 @@ import { EmailJobService } from '../../../services/email-job.service';
       mat-icon { font-size: 48px; width: 48px; height: 48px; display: block; margin: 0 auto 12px; }
     }
     .jobs-toolbar { margin-bottom: 12px; }
+    .load-more { display: flex; align-items: center; justify-content: center; gap: 16px; padding: 16px 0; }
 
     /* Overview bar */
     .overview-bar {
@@ -462,6 +479,12 @@ export class CampaignDetailComponent implements OnInit, AfterViewInit {
   jobsDataSource = new MatTableDataSource<EmailJob>();
   loading = true;
 
+  // Jobs are loaded a page at a time (newest first); "Load more" continues from the cursor
+  jobsCursor?: string;
+  jobsHasMore = false;
+  jobsTotal?: number;
+  loadingJobs = false;
+
   @ViewChild(MatSort) sort!: MatSort;
 
   showContactPicker = false;
@@ -512,10 +535,7 @@ export class CampaignDetailComponent implements OnInit, AfterViewInit {
       this.loading = false;
     });
     this.campaignService.getContacts(id).subscribe(c => this.enrolledContacts = c);
-    this.campaignService.getJobs(id).subscribe(j => {
-      this.jobsDataSource.data = j;
-      this.buildEmailContacts(j);
-    });
+    this.loadJobs(id);
     this.contactService.getAll().subscribe(all => {
       this.availableContacts = all.filter(c => !this.enrolledContacts.some(e => e.id === c.id));
     });
@@ -587,7 +607,7 @@ export class CampaignDetailComponent implements OnInit, AfterViewInit {
         this.snackBar.open(msg, 'Close', { duration: 6000, panelClass: result.errors?.length ? 'snack-error' : 'snack-success' });
         this.campaignService.getContacts(this.campaignId).subscribe(c => this.enrolledContacts = c);
         this.campaignService.getById(this.campaignId).subscribe(c => this.campaign = c);
-        this.campaignService.getJobs(this.campaignId).subscribe(j => this.jobsDataSource.data = j);
+        this.loadJobs(this.campaignId);
       },
       error: err => {
         this.importingGSheet = false;
@@ -597,14 +617,34 @@ export class CampaignDetailComponent implements OnInit, AfterViewInit {
   }
 
   refreshJobs(): void {
-    this.campaignService.getJobs(this.campaignId).subscribe(j => {
-      this.jobsDataSource.data = j;
-      this.buildEmailContacts(j);
-      this.snackBar.open('Jobs refreshed', '', { duration: 2000 });
+    this.loadJobs(this.campaignId, false, () => this.snackBar.open('Jobs refreshed', '', { duration: 2000 }));
+  }
+
+  loadMoreJobs(): void {
+    this.loadJobs(this.campaignId, true);
+  }
+
+  // First page (with the total) unless more=true, which appends the page after jobsCursor.
+  private loadJobs(campaignId: number, more = false, loaded?: () => void): void {
+    this.loadingJobs = true;
+    this.campaignService.getJobsPage(campaignId, undefined, more ? this.jobsCursor : undefined, 200, !more).subscribe({
+      next: page => {
+        const jobs = more ? this.jobsDataSource.data.concat(page.items) : page.items;
+        this.jobsDataSource.data = jobs;
+        this.buildEmailContacts(jobs, more);
+        this.jobsCursor = page.nextCursor;
+        this.jobsHasMore = page.hasMore;
+        if (!more) this.jobsTotal = page.total;
+        this.loadingJobs = false;
+        loaded?.();
+      },
+      error: () => { this.loadingJobs = false; }
     });
   }
 
-  private buildEmailContacts(jobs: EmailJob[]): void {
+  // keepSelection: a page was appended, so stay on the contact being viewed
+  private buildEmailContacts(jobs: EmailJob[], keepSelection = false): void {
+    const selected = keepSelection ? this.activeEmailContact?.email : undefined;
     const map = new Map<string, { name: string; email: string; jobs: EmailJob[] }>();
     for (const job of jobs) {
       const key = job.contactEmail ?? job.contactName ?? '';
@@ -618,6 +658,10 @@ export class CampaignDetailComponent implements OnInit, AfterViewInit {
       ...ec,
       jobs: ec.jobs.sort((a, b) => a.stepNumber - b.stepNumber)
     }));
+    if (selected !== undefined) {
+      this.activeEmailContact = this.emailContacts.find(ec => ec.email === selected) ?? null;
+      return;
+    }
     this.activeEmailContact = null;
     this.activeJob = null;
   }
@@ -625,19 +669,25 @@ export class CampaignDetailComponent implements OnInit, AfterViewInit {
   selectEmailContact(ec: { name: string; email: string; jobs: EmailJob[] }): void {
     this.activeEmailContact = ec;
     this.activeJob = ec.jobs[0] ?? null;
+    if (this.activeJob) this.loadBody(this.activeJob);
   }
 
   selectEmailJob(job: EmailJob): void {
     this.activeJob = job;
+    this.loadBody(job);
+  }
+
+  // Job lists come without bodies; fetch one when it is first shown.
+  private loadBody(job: EmailJob): void {
+    if (job.body !== undefined && job.body !== null) return;
+    this.emailJobService.getById(job.id).subscribe(full => job.body = full.body);
   }
 
   retryJob(job: EmailJob): void {
     this.emailJobService.retry(job.id).subscribe({
       next: () => {
         this.snackBar.open('Job scheduled for retry', '', { duration: 3000 });
-        this.campaignService.getJobs(this.campaignId).subscribe(j => {
-          this.jobsDataSource.data = j;
-        });
+        this.loadJobs(this.campaignId);
       }
     });
   }
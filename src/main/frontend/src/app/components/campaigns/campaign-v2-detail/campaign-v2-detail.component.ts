@@ -181,7 +181,7 @@ import { EmailJobService } from '../../../services/email-job.service';
             <!-- Tab 3: Email Jobs -->
             <mat-tab>
               <ng-template mat-tab-label>
-                Email Jobs ({{ jobs.length }})
+                Email Jobs ({{ jobsTotal ?? jobs.length }})
               </ng-template>
               <div class="tab-content">
                 <div class="jobs-toolbar">
@@ -229,7 +229,7 @@ import { EmailJobService } from '../../../services/email-job.service';
                   <ng-container matColumnDef="actions">
                     <th mat-header-cell *matHeaderCellDef></th>
                     <td mat-cell *matCellDef="let j">
-                      @if (j.status === 'FAILED' || j.status === 'SKIPPED') {
+                      @if (!j.archived && (j.status === 'FAILED' || j.status === 'SKIPPED')) {
                         <button mat-icon-button matTooltip="Retry now"
                                 (click)="retry(j)">
                           <mat-icon>replay</mat-icon>
@@ -240,6 +240,14 @@ import { EmailJobService } from '../../../services/email-job.service';
                   <tr mat-header-row *matHeaderRowDef="jobColumns; sticky: true"></tr>
                   <tr mat-row *matRowDef="let row; columns: jobColumns;"></tr>
                 </table>
+                @if (jobsHasMore) {
+                  <div class="load-more">
+                    <span>Showing {{ jobs.length }}{{ jobsTotal != null ? ' of ' + jobsTotal : '' }}</span>
+                    <button mat-stroked-button (click)="loadMoreJobs()" [disabled]="loadingJobs">
+                      <mat-icon>expand_more</mat-icon> Load more
+                    </button>
+                  </div>
+                }
               </div>
             </mat-tab>
 
@@ -318,6 +326,10 @@ import { EmailJobService } from '../../../services/email-job.service';
     /* Jobs table */
     .jobs-toolbar { margin-bottom: 12px; }
     .jobs-table { width: 100%; }
+    .load-more {
+      display: flex; align-items: center; justify-content: center; gap: 16px;
+      padding: 16px 0; font-size: 13px; color: #5f6368;
+    }
     .job-status { padding: 2px 8px; border-radius: 10px; font-size: 12px; font-weight: 600; }
     .job-scheduled { background: #e8f0fe; color: #1a73e8; }
     .job-sent      { background: #e6f4ea; color: #137333; }
@@ -332,6 +344,11 @@ export class CampaignV2DetailComponent implements OnInit {
   campaign: any = null;
   contacts: ProspectContact[] = [];
   jobs: any[] = [];
+  // Loaded a page at a time, newest first; "Load more" continues from the cursor
+  jobsCursor?: string;
+  jobsHasMore = false;
+  jobsTotal?: number;
+  loadingJobs = false;
   loading = true;
   launching = false;
 
@@ -376,8 +393,28 @@ export class CampaignV2DetailComponent implements OnInit {
   }
 
   refreshJobs(): void {
+    this.loadJobs(false);
+  }
+
+  loadMoreJobs(): void {
+    this.loadJobs(true);
+  }
+
+  // First page (with the total) unless more=true, which appends the page after jobsCursor.
+  private loadJobs(more: boolean): void {
     if (!this.plan?.resultCampaignId) return;
-    this.campaignService.getJobs(this.plan.resultCampaignId).subscribe(jobs => this.jobs = jobs);
+    this.loadingJobs = true;
+    this.campaignService.getJobsPage(this.plan.resultCampaignId, undefined,
+        more ? this.jobsCursor : undefined, 200, !more).subscribe({
+      next: page => {
+        this.jobs = more ? this.jobs.concat(page.items) : page.items;
+        this.jobsCursor = page.nextCursor;
+        this.jobsHasMore = page.hasMore;
+        if (!more) this.jobsTotal = page.total;
+        this.loadingJobs = false;
+      },
+      error: () => { this.loadingJobs = false; }
+    });
   }
 
   selectContact(contact: ProspectContact): void {
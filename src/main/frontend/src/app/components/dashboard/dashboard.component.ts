@@ -290,6 +290,14 @@ type Panel = 'campaigns' | 'contacts' | 'sent' | 'scheduled' | 'failed' | null;
                     <tr mat-header-row *matHeaderRowDef="jobColumns"></tr>
                     <tr mat-row *matRowDef="let row; columns: jobColumns;"></tr>
                   </table>
+                  @if (jobsHasMore) {
+                    <div class="load-more">
+                      <span>Showing {{ jobsDS.data.length }}{{ jobsTotal != null ? ' of ' + jobsTotal : '' }}</span>
+                      <button mat-stroked-button (click)="loadMoreJobs()" [disabled]="loadingJobs">
+                        <mat-icon>expand_more</mat-icon> Load more
+                      </button>
+                    </div>
+                  }
                   @if (jobsDS.data.length === 0) {
                     <p class="empty-msg">No {{ activePanel }} emails.</p>
                   }
@@ -369,6 +377,10 @@ type Panel = 'campaigns' | 'contacts' | 'sent' | 'scheduled' | 'failed' | null;
     .link { color: #1a73e8; text-decoration: none; font-weight: 500; &:hover { text-decoration: underline; } }
     .sub { font-size: 11px; color: #9aa0a6; }
     .empty-msg { text-align: center; color: #9aa0a6; padding: 24px; font-size: 14px; }
+    .load-more {
+      display: flex; align-items: center; justify-content: center; gap: 16px;
+      padding: 16px 0; font-size: 13px; color: #5f6368;
+    }
     .error-msg { font-size: 12px; color: #c62828; }
     .quick-actions h2 { font-size: 13px; font-weight: 600; color: #5f6368; margin-bottom: 12px; text-transform: uppercase; letter-spacing: 0.6px; }
     .action-cards { display: flex; gap: 12px; flex-wrap: wrap; }
@@ -393,6 +405,12 @@ export class DashboardComponent implements OnInit {
   contactsDS  = new MatTableDataSource<Contact>();
   jobsDS      = new MatTableDataSource<EmailJob>();
 
+  // Job panels load a page at a time (newest first); "Load more" continues from the cursor
+  jobsCursor?: string;
+  jobsHasMore = false;
+  jobsTotal?: number;
+  loadingJobs = false;
+
   senderFilter = '';
 
   // Setter-based ViewChild so sort attaches as soon as the conditional table renders
@@ -478,26 +496,33 @@ export class DashboardComponent implements OnInit {
         });
         break;
       case 'sent':
-        this.emailJobService.getAll('SENT').subscribe({
-          next: j => { this.jobsDS.data = j; this.panelLoading = false; },
-          error: () => { this.panelLoading = false; }
-        });
-        break;
       case 'scheduled':
-        this.emailJobService.getAll('SCHEDULED').subscribe({
-          next: j => { this.jobsDS.data = j; this.panelLoading = false; },
-          error: () => { this.panelLoading = false; }
-        });
-        break;
       case 'failed':
-        this.emailJobService.getAll('FAILED').subscribe({
-          next: j => { this.jobsDS.data = j; this.panelLoading = false; },
-          error: () => { this.panelLoading = false; }
-        });
+        this.loadJobs(panel.toUpperCase());
         break;
     }
   }
 
+  loadMoreJobs(): void {
+    if (this.activePanel) this.loadJobs(this.activePanel.toUpperCase(), true);
+  }
+
+  // First page (with the total) unless more=true, which appends the page after jobsCursor.
+  private loadJobs(status: string, more = false): void {
+    this.loadingJobs = true;
+    this.emailJobService.getPage({ status, limit: 200, cursor: more ? this.jobsCursor : undefined, count: !more }).subscribe({
+      next: page => {
+        this.jobsDS.data = more ? this.jobsDS.data.concat(page.items) : page.items;
+        this.jobsCursor = page.nextCursor;
+        this.jobsHasMore = page.hasMore;
+        if (!more) this.jobsTotal = page.total;
+        this.panelLoading = false;
+        this.loadingJobs = false;
+      },
+      error: () => { this.panelLoading = false; this.loadingJobs = false; }
+    });
+  }
+
   applyFilter(value: string): void {
     const filter = value.trim().toLowerCase();
     this.jobsDS.filterPredicate = (job: EmailJob, f: string) =>
@@ -512,7 +537,7 @@ export class DashboardComponent implements OnInit {
   retryJob(job: EmailJob): void {
     this.emailJobService.retry(job.id).subscribe({
       next: () => {
-        this.emailJobService.getAll('FAILED').subscribe(j => this.jobsDS.data = j);
+        this.loadJobs('FAILED');
         this.dashboardService.getStats().subscribe(s => this.stats = s);
       }
     });
@@ -8,12 +8,32 @@ export interface EmailJob {
   contactEmail: string;
   stepNumber: number;
   subject: string;
-  body: string;
+  body?: string;  // not in list responses — EmailJobService.getById loads it
   scheduledAt: string;
   sentAt?: string;
   status: 'SCHEDULED' | 'SENT' | 'FAILED' | 'SKIPPED' | 'HOLD';
   errorMessage?: string;
   gmailEmail?: string;
+  archived?: boolean;  // moved to the archive table; read-only
+}
+
+export interface EmailJobPage {
+  items: EmailJob[];
+  nextCursor?: string;
+  hasMore: boolean;
+  total?: number;
+}
+
+export interface EmailJobQuery {
+  status?: string;
+  sender?: string;
+  campaignId?: number;
+  from?: string;
+  to?: string;
+  cursor?: string;
+  limit?: number;
+  count?: boolean;
+  includeArchived?: boolean;
 }
 
 export interface DashboardStats {
@@ -1,9 +1,10 @@
 import { Injectable } from '@angular/core';
 import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { Observable, of, throwError, timer } from 'rxjs';
+import { last, switchMap, takeWhile } from 'rxjs/operators';
 import { Campaign, EmailTemplate } from '../models/campaign.model';
 import { Contact } from '../models/contact.model';
-import { EmailJob } from '../models/email-job.model';
+import { EmailJobPage } from '../models/email-job.model';
 
 @Injectable({ providedIn: 'root' })
 export class CampaignService {
@@ -74,29 +75,109 @@ export class CampaignService {
   }
 
   // Jobs
-  getJobs(campaignId: number, status?: string): Observable<EmailJob[]> {
-    const params = status ? `?status=${status}` : '';
-    return this.http.get<EmailJob[]>(`${this.base}/${campaignId}/jobs${params}`);
+  // One page of a campaign's jobs, newest first; pass the previous page's nextCursor to
+  // continue.  Includes archived (old SENT/SKIPPED) jobs so the campaign shows its whole
+  // history; count=true also returns the total (ask for it on the first page only).
+  getJobsPage(campaignId: number, status?: string, cursor?: string, limit = 200, count = false): Observable<EmailJobPage> {
+    const params: Record<string, string> = { limit: String(limit), includeArchived: 'true' };
+    if (status) params['status'] = status;
+    if (cursor) params['cursor'] = cursor;
+    if (count) params['count'] = 'true';
+    return this.http.get<EmailJobPage>(`${this.base}/${campaignId}/jobs`, { params });
+  }
+
+  // Excel import — replace=true clears existing contacts before importing.
+  // Runs as a background job on the server; emits the result once the job is done.
+  importExcel(campaignId: number, file: File, replace = false): Observable<ExcelImportResult> {
+    const formData = new FormData();
+    formData.append('file', file);
+    return this.http.post<ImportJob>(
+      `${this.base}/${campaignId}/import-excel?replace=${replace}&async=true`, formData)
+      .pipe(switchMap(job => this.awaitImportJob(campaignId, job)));
   }
 
-  // Excel import — replace=true clears existing contacts before importing
-  importExcel(campaignId: number, file: File, replace = false): Observable<ExcelImportResult> {
+  // Google Sheet import — downloads sheet via Playwright session, same logic as Excel.
+  // Rows unchanged since the sheet's last import are skipped; sync=true re-imports it hourly.
+  importGoogleSheet(campaignId: number, sheetUrl: string, replace = false, sync = false): Observable<ExcelImportResult> {
+    const params = `url=${encodeURIComponent(sheetUrl)}&replace=${replace}&async=true&sync=${sync}`;
+    return this.http.post<ImportJob>(`${this.base}/${campaignId}/import-gsheet?${params}`, {})
+      .pipe(switchMap(job => this.awaitImportJob(campaignId, job)));
+  }
+
+  // Dry runs — validate every row and report the problems without importing anything.
+  // probeDocs=true also fetches each row's Google Doc and checks its Email N sections.
+  validateExcel(campaignId: number, file: File, probeDocs = false): Observable<ImportValidation> {
     const formData = new FormData();
     formData.append('file', file);
-    return this.http.post<ExcelImportResult>(
-      `${this.base}/${campaignId}/import-excel?replace=${replace}`, formData);
+    return this.http.post<ImportValidation>(
+      `${this.base}/${campaignId}/import-excel?dryRun=true&probeDocs=${probeDocs}`, formData);
+  }
+
+  validateGoogleSheet(campaignId: number, sheetUrl: string, probeDocs = false): Observable<ImportValidation> {
+    const params = `url=${encodeURIComponent(sheetUrl)}&dryRun=true&probeDocs=${probeDocs}`;
+    return this.http.post<ImportValidation>(`${this.base}/${campaignId}/import-gsheet?${params}`, {});
+  }
+
+  getImportJob(campaignId: number, jobId: number): Observable<ImportJob> {
+    return this.http.get<ImportJob>(`${this.base}/${campaignId}/import-jobs/${jobId}`);
   }
 
-  // Google Sheet import — downloads sheet via Playwright session, same logic as Excel
-  importGoogleSheet(campaignId: number, sheetUrl: string, replace = false): Observable<ExcelImportResult> {
-    const params = `url=${encodeURIComponent(sheetUrl)}&replace=${replace}`;
-    return this.http.post<ExcelImportResult>(`${this.base}/${campaignId}/import-gsheet?${params}`, {});
+  // Polls an import job until it finishes; a failed job errors like a failed request did
+  private awaitImportJob(campaignId: number, job: ImportJob): Observable<ExcelImportResult> {
+    const done$ = job.done ? of(job) : timer(1000, 2000).pipe(
+      switchMap(() => this.getImportJob(campaignId, job.id)),
+      takeWhile(j => !j.done, true),
+      last()
+    );
+    return done$.pipe(switchMap(j => j.status === 'FAILED'
+      ? throwError(() => ({ error: { message: j.message, errors: j.errors } }))
+      : of({
+          contactsImported: j.contactsImported,
+          templatesImported: j.templatesImported,
+          unchanged: j.unchanged,
+          removedRows: j.removedRows,
+          errors: j.errors,
+          message: j.message
+        })));
   }
 }
 
 export interface ExcelImportResult {
   contactsImported: number;
   templatesImported: number;
+  unchanged?: number;
+  removedRows?: string[];
   errors: string[];
   message: string;
 }
+
+export interface ImportJob {
+  id: number;
+  campaignId: number;
+  source: string;
+  status: 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED';
+  done: boolean;
+  rowsProcessed: number;
+  rowsPerSecond: number;
+  attempts: number;
+  contactsImported: number;
+  templatesImported: number;
+  skipped: number;
+  unchanged: number;
+  removedRows: string[];
+  errors: string[];
+  message: string;
+}
+
+export interface ImportValidation {
+  format: 'direct' | 'legacy';
+  rowsChecked: number;
+  rowsValid: number;
+  optedOut: number;
+  aeSaMismatched: number;
+  contacts: number;
+  jobsPlanned: number;
+  docsProbed: boolean;
+  issues: { row: number; email: string | null; message: string }[];
+  message: string;
+}
@@ -1,7 +1,7 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
 import { Observable } from 'rxjs';
-import { EmailJob } from '../models/email-job.model';
+import { EmailJob, EmailJobPage, EmailJobQuery } from '../models/email-job.model';
 
 @Injectable({ providedIn: 'root' })
 export class EmailJobService {
@@ -9,11 +9,18 @@ export class EmailJobService {
 
   constructor(private http: HttpClient) {}
 
-  getAll(status?: string): Observable<EmailJob[]> {
-    if (status) {
-      return this.http.get<EmailJob[]>(this.base, { params: { status } });
+  // Keyset-paged: pass the previous page's nextCursor to continue.  The full list can run
+  // to hundreds of thousands of jobs, so views load a page and then "load more".
+  getPage(query: EmailJobQuery = {}): Observable<EmailJobPage> {
+    let params = new HttpParams();
+    for (const [key, value] of Object.entries(query)) {
+      if (value !== undefined && value !== null && value !== '') params = params.set(key, String(value));
     }
-    return this.http.get<EmailJob[]>(this.base);
+    return this.http.get<EmailJobPage>(this.base, { params });
+  }
+
+  getById(id: number): Observable<EmailJob> {
+    return this.http.get<EmailJob>(`${this.base}/${id}`);
   }
 
   retry(id: number): Observable<EmailJob> {
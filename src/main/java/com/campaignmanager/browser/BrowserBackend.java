@@ -0,0 +1,52 @@
+package com.campaignmanager.browser;
+
+import com.campaignmanager.dto.BrowserContextStatsDto;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Where Gmail sends and Google export downloads actually run: a {@link BrowserEngine}
+ * inside the app, or a {@link BrowserWorkerPool} of separate worker processes.
+ */
+public interface BrowserBackend extends AutoCloseable {
+
+    void start() throws Exception;
+
+    /**
+     * Sends {@code mails} from {@code account}, pipelining up to {@code depth} compose
+     * windows.  Returns one result per mail that was attempted.
+     */
+    List<MailResult> sendAll(String account, List<OutgoingMail> mails, int depth);
+
+    /**
+     * Which lane sends for {@code account}: sends in one lane run one after another, sends
+     * in different lanes can run at the same time.  One lane unless overridden.
+     */
+    default int laneOf(String account) {
+        return 0;
+    }
+
+    /** Opens a Gmail tab for {@code account} ahead of its next send. */
+    void prewarm(String account);
+
+    /** Authenticated GET with {@code account}'s cookies and any extra request headers. */
+    FetchResult fetch(String account, String url, Map<String, String> headers);
+
+    /** Drops cached contexts for {@code account}, or for every account if null. */
+    void invalidate(String account);
+
+    /** Loads Gmail with the given storageState file and returns the signed-in address, or null. */
+    String detectEmail(Path sessionFile);
+
+    /** Closes contexts idle longer than {@code idleTimeout}, except for {@code pinned} accounts. */
+    void evictIdle(Duration idleTimeout, Set<String> pinned);
+
+    BrowserContextStatsDto stats();
+
+    @Override
+    void close();
+}
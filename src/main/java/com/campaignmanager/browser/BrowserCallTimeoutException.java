@@ -0,0 +1,12 @@
+package com.campaignmanager.browser;
+
+/**
+ * A browser worker did not answer in time.  The work may still be running (or done) in
+ * the worker, so callers must not assume it failed — for sends, the outcome is unknown.
+ */
+public class BrowserCallTimeoutException extends IllegalStateException {
+
+    public BrowserCallTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,453 @@
+package com.campaignmanager.browser;
+
+import com.campaignmanager.dto.BrowserContextStatsDto;
+import com.campaignmanager.dto.ResidentContextDto;
+import com.microsoft.playwright.*;
+import com.microsoft.playwright.options.RequestOptions;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Playwright side of the app: one Chromium with a bounded cache of per-account
+ * BrowserContexts, pre-warmed Gmail tabs, and authenticated request contexts for
+ * Google exports.  Not a Spring bean — it runs inside the app or inside a
+ * {@link BrowserWorkerMain} process, configured by {@link EngineSettings}.
+ *
+ * Resident BrowserContexts are bounded by {@link EngineSettings#effectiveCapacity()},
+ * least recently used first out; an evicted context is recreated on the next send.
+ *
+ * Threading: Playwright objects may only be used by the thread that created them.  The
+ * browser, its contexts and pages belong to the {@code playwright-browser} actor;
+ * authenticated downloads use separate Playwright instances with plain request contexts,
+ * one per {@code playwright-fetch-N} actor ({@link EngineSettings#fetchLanes()} of them,
+ * taken in turn), so downloads never wait behind a send wave and run in parallel.
+ * Every public method is safe to call from any thread.
+ */
+@Slf4j
+public class BrowserEngine implements BrowserBackend {
+
+    static final String GMAIL_URL = "https://mail.google.com/mail/u/0/";
+    /** Sent by fetch contexts so Google serves the same exports it serves the browser. */
+    private static final String CHROME_UA =
+            "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/122.0.0.0 Safari/537.36";
+
+    private final EngineSettings settings;
+    /** Time source for idle eviction; fixed in tests. */
+    private final Clock clock;
+    private final GmailComposer composer = new GmailComposer(this);
+
+    private final PlaywrightActor browserActor = new PlaywrightActor("playwright-browser");
+
+    // Owned by the browser actor
+    private Playwright playwright;
+    private Browser browser;
+
+    /**
+     * BrowserContext cache — one per Gmail account email, kept in access order so the
+     * first entry is always the least recently used.  Owned by the browser actor.
+     */
+    private final LinkedHashMap<String, ResidentContext> sessionContexts =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    private final List<FetchLane> fetchLanes;
+    private final AtomicLong nextLane = new AtomicLong();
+
+    private final AtomicLong idleEvictions = new AtomicLong();
+    private final AtomicLong capacityEvictions = new AtomicLong();
+
+    public BrowserEngine(EngineSettings settings) {
+        this(settings, Clock.systemUTC());
+    }
+
+    BrowserEngine(EngineSettings settings, Clock clock) {
+        this.settings = settings;
+        this.clock = clock;
+        List<FetchLane> lanes = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, settings.fetchLanes()); i++) lanes.add(new FetchLane(i));
+        this.fetchLanes = List.copyOf(lanes);
+    }
+
+    // ─── Playwright Factory ───────────────────────────────────────────────────
+
+    /** Creates a Playwright instance with the CF system-library path applied, if any. */
+    public static Playwright createPlaywright(EngineSettings settings) {
+        String libPath = settings.libraryPath();
+        if (libPath != null) {
+            Map<String, String> env = new HashMap<>(System.getenv());
+            env.put("LD_LIBRARY_PATH", libPath);
+            log.info("Playwright: creating with CF LD_LIBRARY_PATH={}", libPath);
+            return Playwright.create(new Playwright.CreateOptions().setEnv(env));
+        }
+        return Playwright.create();
+    }
+
+    public static BrowserType.LaunchOptions launchOptions(EngineSettings settings, boolean headless) {
+        BrowserType.LaunchOptions opts = new BrowserType.LaunchOptions().setHeadless(headless);
+        if (settings.noSandbox()) {
+            opts.setArgs(List.of("--no-sandbox", "--disable-setuid-sandbox"));
+        }
+        return opts;
+    }
+
+    /**
+     * Parses the Gmail account email from the Gmail inbox page title.
+     * Typical formats:
+     *   "Inbox - user@example.com - Gmail"
+     *   "Inbox (5) - user@example.com - Gmail"
+     */
+    public static String extractEmailFromTitle(String title) {
+        if (title == null) return null;
+        for (String part : title.split(" - ")) {
+            part = part.trim();
+            if (part.contains("@") && part.contains(".")) {
+                return part;
+            }
+        }
+        return null;
+    }
+
+    /** Creates the Playwright driver (and downloads browser binaries on first run). */
+    @Override
+    public void start() {
+        browserActor.run(() -> {
+            if (playwright == null) playwright = createPlaywright(settings);
+        });
+    }
+
+    // ─── Sending ──────────────────────────────────────────────────────────────
+
+    @Override
+    public List<MailResult> sendAll(String account, List<OutgoingMail> mails, int depth) {
+        return browserActor.call(() -> composer.sendForAccount(account, mails, depth));
+    }
+
+    /**
+     * Ensures the account has a resident context with a Gmail tab already loaded, so the
+     * next send skips both context creation and the inbox load.  No-op if a warm tab is
+     * already waiting.
+     */
+    @Override
+    public void prewarm(String email) {
+        browserActor.run(() -> {
+            BrowserContext context;
+            try {
+                context = contextFor(email);
+            } catch (Exception e) {
+                log.warn("Pre-warm skipped for {}: {}", email, e.getMessage());
+                return;
+            }
+            ResidentContext resident = sessionContexts.get(email);
+            if (resident.warmPage != null && !resident.warmPage.isClosed()) return;
+
+            Page page = context.newPage();
+            try {
+                page.navigate(GMAIL_URL);
+                if (page.url().contains("accounts.google.com")) {
+                    log.warn("Pre-warm: Gmail session for {} has expired — not keeping a tab", email);
+                    try { page.close(); } catch (Exception ignored) {}
+                    return;
+                }
+                page.waitForSelector("[gh='cm'], .T-I.T-I-KE",
+                        new Page.WaitForSelectorOptions().setTimeout(20_000));
+            } catch (Exception e) {
+                log.warn("Pre-warm failed for {}: {}", email, e.getMessage());
+                try { page.close(); } catch (Exception ignored) {}
+                return;
+            }
+            resident.warmPage = page;
+            log.info("Pre-warmed Gmail tab for {}", email);
+        });
+    }
+
+    // ─── BrowserContext Pool (browser thread) ─────────────────────────────────
+
+    /**
+     * Returns (or creates) a cached BrowserContext for the given Gmail account.
+     * Throws if no session file exists for that email.  Creating a context when the
+     * cache is full closes the least recently used one first.
+     */
+    BrowserContext contextFor(String email) {
+        browserActor.checkOwnerThread();
+        if (!Files.exists(settings.sessionPath(email))) {
+            throw new IllegalStateException(
+                    "No Gmail session for " + email +
+                    ". Upload a session file in Settings → Gmail Sessions.");
+        }
+        ensureBrowser();
+        ResidentContext resident = sessionContexts.get(email);
+        if (resident == null) {
+            evictLeastRecentlyUsed(settings.effectiveCapacity() - 1);
+            resident = new ResidentContext(browser.newContext(new Browser.NewContextOptions()
+                    .setStorageStatePath(settings.sessionPath(email))
+                    .setViewportSize(1280, 900)), clock.instant());
+            sessionContexts.put(email, resident);
+            log.info("Created browser context for {} ({}/{} resident)",
+                    email, sessionContexts.size(), settings.effectiveCapacity());
+        }
+        resident.lastUsedAt = clock.instant();
+        return resident.context;
+    }
+
+    /**
+     * Hands over the pre-loaded Gmail tab for {@code email}, or null if none is ready.
+     * The caller owns the page from then on and closes it after use.
+     */
+    Page takeWarmPage(String email) {
+        browserActor.checkOwnerThread();
+        ResidentContext resident = sessionContexts.get(email);
+        if (resident == null || resident.warmPage == null) return null;
+        Page page = resident.warmPage;
+        resident.warmPage = null;
+        if (page.isClosed()) return null;
+        resident.lastUsedAt = clock.instant();
+        return page;
+    }
+
+    /** Closes the cached context for one email — browser thread only. */
+    void dropContext(String email) {
+        browserActor.checkOwnerThread();
+        ResidentContext resident = sessionContexts.remove(email);
+        if (resident != null) {
+            resident.close();
+            log.info("Invalidated cached context for {}", email);
+        }
+    }
+
+    private void ensureBrowser() {
+        if (playwright == null) playwright = createPlaywright(settings);
+        if (browser == null || !browser.isConnected()) {
+            // A crashed Chromium takes its contexts with it; start over with a fresh one.
+            sessionContexts.clear();
+            browser = playwright.chromium().launch(launchOptions(settings, settings.headless()));
+        }
+    }
+
+    /** Closes least recently used contexts until at most {@code limit} remain. Browser thread only. */
+    private void evictLeastRecentlyUsed(int limit) {
+        Iterator<Map.Entry<String, ResidentContext>> it = sessionContexts.entrySet().iterator();
+        while (sessionContexts.size() > limit && it.hasNext()) {
+            Map.Entry<String, ResidentContext> lru = it.next();
+            lru.getValue().close();
+            it.remove();
+            capacityEvictions.incrementAndGet();
+            log.info("Evicted least recently used browser context for {} (capacity {})",
+                    lru.getKey(), settings.effectiveCapacity());
+        }
+    }
+
+    @Override
+    public void invalidate(String email) {
+        browserActor.run(() -> {
+            if (email != null) {
+                dropContext(email);
+            } else {
+                sessionContexts.values().forEach(ResidentContext::close);
+                sessionContexts.clear();
+            }
+        });
+        fetchLanes.forEach(lane -> lane.invalidate(email));
+    }
+
+    @Override
+    public void evictIdle(Duration idleTimeout, Set<String> pinned) {
+        Instant cutoff = clock.instant().minus(idleTimeout);
+        browserActor.run(() -> {
+            Iterator<Map.Entry<String, ResidentContext>> it = sessionContexts.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, ResidentContext> entry = it.next();
+                if (entry.getValue().lastUsedAt.isBefore(cutoff) && !pinned.contains(entry.getKey())) {
+                    entry.getValue().close();
+                    it.remove();
+                    idleEvictions.incrementAndGet();
+                    log.info("Evicted idle browser context for {} ({} resident)",
+                            entry.getKey(), sessionContexts.size());
+                }
+            }
+        });
+    }
+
+    @Override
+    public BrowserContextStatsDto stats() {
+        return browserActor.call(() -> {
+            BrowserContextStatsDto stats = new BrowserContextStatsDto();
+            stats.setCapacity(settings.effectiveCapacity());
+            stats.setResidentCount(sessionContexts.size());
+            stats.setIdleEvictions(idleEvictions.get());
+            stats.setCapacityEvictions(capacityEvictions.get());
+            Instant now = clock.instant();
+            sessionContexts.forEach((email, resident) -> {
+                ResidentContextDto dto = new ResidentContextDto();
+                dto.setEmail(email);
+                dto.setCreatedAt(LocalDateTime.ofInstant(resident.createdAt, ZoneId.systemDefault()));
+                dto.setLastUsedAt(LocalDateTime.ofInstant(resident.lastUsedAt, ZoneId.systemDefault()));
+                dto.setIdleSeconds(Duration.between(resident.lastUsedAt, now).toSeconds());
+                dto.setWarm(resident.warmPage != null && !resident.warmPage.isClosed());
+                stats.getContexts().add(dto);
+            });
+            return stats;
+        });
+    }
+
+    // ─── Email Detection ──────────────────────────────────────────────────────
+
+    /**
+     * Opens a temporary browser context from the given session file,
+     * navigates to Gmail, and extracts the account email from the page title.
+     * Returns null if detection fails or times out.
+     */
+    @Override
+    public String detectEmail(Path sessionPath) {
+        try {
+            return browserActor.call(() -> {
+                ensureBrowser();
+                BrowserContext tempCtx = browser.newContext(
+                        new Browser.NewContextOptions()
+                                .setStorageStatePath(sessionPath)
+                                .setViewportSize(1280, 900));
+                Page page = tempCtx.newPage();
+                try {
+                    page.navigate(GMAIL_URL);
+                    page.waitForSelector("[gh='cm'], .T-I.T-I-KE",
+                            new Page.WaitForSelectorOptions().setTimeout(20_000));
+                    String email = extractEmailFromTitle(page.title());
+                    if (email != null) log.info("detectEmailSync: detected {}", email);
+                    else log.warn("detectEmailSync: could not parse email from title '{}'", page.title());
+                    return email;
+                } finally {
+                    try { page.close(); }    catch (Exception ignored) {}
+                    try { tempCtx.close(); } catch (Exception ignored) {}
+                }
+            });
+        } catch (Exception e) {
+            log.warn("detectEmailSync failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // ─── Authenticated Fetch (fetch lanes) ───────────────────────────────────
+
+    @Override
+    public FetchResult fetch(String email, String url, Map<String, String> headers) {
+        int lane = (int) (nextLane.getAndIncrement() % fetchLanes.size());
+        return fetchLanes.get(lane).fetch(email, url, headers);
+    }
+
+    // ─── Cleanup ──────────────────────────────────────────────────────────────
+
+    @Override
+    public void close() {
+        try {
+            browserActor.run(() -> {
+                sessionContexts.values().forEach(ResidentContext::close);
+                sessionContexts.clear();
+                if (browser != null) {
+                    try { browser.close(); } catch (Exception ignored) {}
+                    browser = null;
+                }
+                if (playwright != null) {
+                    try { playwright.close(); } catch (Exception ignored) {}
+                    playwright = null;
+                }
+            });
+            fetchLanes.forEach(FetchLane::close);
+        } finally {
+            browserActor.close();
+        }
+    }
+
+    /** A cached BrowserContext plus the bookkeeping used for eviction. */
+    private static final class ResidentContext {
+        final BrowserContext context;
+        final Instant createdAt;
+        Instant lastUsedAt;
+        /** Gmail tab opened by {@link #prewarm(String)}; closed along with the context. */
+        Page warmPage;
+
+        ResidentContext(BrowserContext context, Instant createdAt) {
+            this.context = context;
+            this.createdAt = createdAt;
+            this.lastUsedAt = createdAt;
+        }
+
+        void close() {
+            try { context.close(); } catch (Exception ignored) {}
+        }
+    }
+
+    /** One download thread with its own Playwright instance and per-account request contexts. */
+    private final class FetchLane {
+        private final PlaywrightActor actor;
+
+        // Owned by the actor
+        private Playwright playwright;
+        private final Map<String, APIRequestContext> requestContexts = new HashMap<>();
+
+        FetchLane(int index) {
+            this.actor = new PlaywrightActor("playwright-fetch-" + index);
+        }
+
+        FetchResult fetch(String email, String url, Map<String, String> headers) {
+            return actor.call(() -> {
+                RequestOptions options = RequestOptions.create();
+                headers.forEach(options::setHeader);
+                APIResponse response = requestContextFor(email).get(url, options);
+                try {
+                    return new FetchResult(response.status(), response.body(), response.headers());
+                } finally {
+                    response.dispose();
+                }
+            });
+        }
+
+        void invalidate(String email) {
+            actor.post(() -> {
+                if (email != null) dispose(email);
+                else List.copyOf(requestContexts.keySet()).forEach(this::dispose);
+            });
+        }
+
+        void close() {
+            try {
+                actor.run(() -> {
+                    List.copyOf(requestContexts.keySet()).forEach(this::dispose);
+                    if (playwright != null) {
+                        try { playwright.close(); } catch (Exception ignored) {}
+                        playwright = null;
+                    }
+                });
+            } finally {
+                actor.close();
+            }
+        }
+
+        private APIRequestContext requestContextFor(String email) {
+            if (playwright == null) playwright = createPlaywright(settings);
+            return requestContexts.computeIfAbsent(email, e -> playwright.request().newContext(
+                    new APIRequest.NewContextOptions()
+                            .setStorageStatePath(settings.sessionPath(e))
+                            .setUserAgent(CHROME_UA)));
+        }
+
+        private void dispose(String email) {
+            APIRequestContext ctx = requestContexts.remove(email);
+            if (ctx != null) {
+                try { ctx.dispose(); } catch (Exception ignored) {}
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.campaignmanager.browser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The app's end of the connection to one {@link BrowserWorkerMain} process.
+ *
+ * Requests are JSON lines {@code {"id":n,"op":"...",...}}; the worker answers each with
+ * {@code {"id":n,"ok":true,"result":...}} or {@code {"id":n,"ok":false,"error":"..."}},
+ * possibly out of order.  A reader thread completes the matching future.  When the
+ * socket closes (worker exited or crashed) every pending call fails and the client
+ * reports itself dead, so the pool can start a replacement.
+ */
+@Slf4j
+final class BrowserWorkerClient {
+
+    private final int index;
+    private final Process process;
+    private final Socket socket;
+    private final ObjectMapper mapper;
+    private final BufferedWriter out;
+    private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private volatile boolean alive = true;
+    private volatile boolean closing = false;
+
+    BrowserWorkerClient(int index, Process process, Socket socket, BufferedReader in, ObjectMapper mapper)
+            throws IOException {
+        this.index = index;
+        this.process = process;
+        this.socket = socket;
+        this.mapper = mapper;
+        this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+        Thread reader = new Thread(() -> readLoop(in), "browser-worker-" + index + "-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    int index() { return index; }
+
+    long pid() { return process.pid(); }
+
+    boolean isAlive() {
+        return alive && process.isAlive();
+    }
+
+    /** Sends {@code op} with {@code args} and waits up to {@code timeout} for the result. */
+    JsonNode call(String op, ObjectNode args, Duration timeout) {
+        if (!isAlive()) throw new IllegalStateException("Browser worker " + index + " is not running");
+
+        long id = ids.incrementAndGet();
+        ObjectNode request = args != null ? args.deepCopy() : mapper.createObjectNode();
+        request.put("id", id);
+        request.put("op", op);
+
+        CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        pending.put(id, future);
+        try {
+            synchronized (out) {
+                out.write(mapper.writeValueAsString(request));
+                out.newLine();
+                out.flush();
+            }
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException re ? re : new RuntimeException(cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new BrowserCallTimeoutException("Browser worker " + index + " did not answer '" + op +
+                    "' within " + timeout.toSeconds() + "s");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for browser worker " + index, e);
+        } catch (IOException e) {
+            markDead("write failed: " + e.getMessage());
+            throw new IllegalStateException("Browser worker " + index + " connection lost", e);
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    private void readLoop(BufferedReader in) {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                JsonNode response = mapper.readTree(line);
+                CompletableFuture<JsonNode> future = pending.get(response.path("id").asLong());
+                if (future == null) continue;
+                if (response.path("ok").asBoolean()) {
+                    future.complete(response.path("result"));
+                } else {
+                    future.completeExceptionally(new RuntimeException(response.path("error").asText()));
+                }
+            }
+            markDead("connection closed");
+        } catch (IOException e) {
+            markDead(e.getMessage());
+        }
+    }
+
+    private void markDead(String reason) {
+        if (!alive) return;
+        alive = false;
+        if (closing) log.info("Browser worker {} (pid {}) stopped", index, process.pid());
+        else log.warn("Browser worker {} (pid {}) is gone: {}", index, process.pid(), reason);
+        IllegalStateException failure = new IllegalStateException(
+                "Browser worker " + index + " exited: " + reason);
+        pending.values().forEach(f -> f.completeExceptionally(failure));
+        try { socket.close(); } catch (IOException ignored) {}
+    }
+
+    /** Asks the worker to exit; kills it if it hasn't within the grace period. */
+    void shutdown(Duration grace) {
+        closing = true;
+        if (isAlive()) {
+            try {
+                synchronized (out) {
+                    out.write("{\"id\":0,\"op\":\"shutdown\"}");
+                    out.newLine();
+                    out.flush();
+                }
+            } catch (IOException ignored) {}
+        }
+        try {
+            if (!process.waitFor(grace.toMillis(), TimeUnit.MILLISECONDS)) process.destroyForcibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+        markDead("shut down");
+    }
+}
@@ -0,0 +1,148 @@
+package com.campaignmanager.browser;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Entry point of a browser worker process (see {@link BrowserWorkerPool}).
+ *
+ * No Spring here: the worker builds a {@link BrowserEngine} from the settings in its
+ * environment, connects back to the app's loopback socket, and serves JSON-line
+ * requests until the app closes the connection or asks it to shut down.  Requests
+ * are handled concurrently; the engine's actors keep Playwright access on its own
+ * threads, so a long send doesn't hold up a fetch.
+ */
+@Slf4j
+public final class BrowserWorkerMain {
+
+    private BrowserWorkerMain() {}
+
+    public static void main(String[] args) throws Exception {
+        // Without Spring Boot's logging setup logback defaults to DEBUG for everything.
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+                .setLevel(Level.INFO);
+
+        int port    = Integer.parseInt(System.getenv(BrowserWorkerPool.ENV_PORT));
+        int index   = Integer.parseInt(System.getenv(BrowserWorkerPool.ENV_INDEX));
+        String token = System.getenv(BrowserWorkerPool.ENV_TOKEN);
+
+        ObjectMapper mapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        EngineSettings settings = mapper.readValue(
+                System.getenv(BrowserWorkerPool.ENV_SETTINGS), EngineSettings.class);
+
+        BrowserEngine engine = new BrowserEngine(settings);
+        engine.start();
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            BufferedReader in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            BufferedWriter out = new BufferedWriter(
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+            ObjectNode hello = mapper.createObjectNode();
+            hello.put("op", "hello");
+            hello.put("token", token);
+            hello.put("index", index);
+            write(out, mapper.writeValueAsString(hello));
+            log.info("Browser worker {}: connected to app on port {}", index, port);
+
+            ExecutorService handlers = Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "browser-worker-" + index + "-handler");
+                t.setDaemon(true);
+                return t;
+            });
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                JsonNode request = mapper.readTree(line);
+                if ("shutdown".equals(request.path("op").asText())) break;
+                handlers.execute(() -> respond(engine, mapper, out, request));
+            }
+            handlers.shutdownNow();
+        } finally {
+            log.info("Browser worker {}: shutting down", index);
+            try { engine.close(); } catch (Exception ignored) {}
+        }
+        System.exit(0);
+    }
+
+    private static void respond(BrowserEngine engine, ObjectMapper mapper, BufferedWriter out, JsonNode request) {
+        ObjectNode response = mapper.createObjectNode();
+        response.put("id", request.path("id").asLong());
+        try {
+            response.set("result", mapper.valueToTree(handle(engine, mapper, request)));
+            response.put("ok", true);
+        } catch (Exception e) {
+            response.put("ok", false);
+            response.put("error", e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+        try {
+            write(out, mapper.writeValueAsString(response));
+        } catch (IOException e) {
+            log.warn("Could not answer request {}: {}", request.path("id").asLong(), e.getMessage());
+        }
+    }
+
+    private static Object handle(BrowserEngine engine, ObjectMapper mapper, JsonNode request) throws Exception {
+        String account = request.hasNonNull("account") ? request.get("account").asText() : null;
+        switch (request.path("op").asText()) {
+            case "ping":
+                return "pong";
+            case "sendAll":
+                List<OutgoingMail> mails = mapper.convertValue(
+                        request.get("mails"), new TypeReference<List<OutgoingMail>>() {});
+                return engine.sendAll(account, mails, request.path("depth").asInt(1));
+            case "prewarm":
+                engine.prewarm(account);
+                return null;
+            case "fetch":
+                return engine.fetch(account, request.path("url").asText(),
+                        mapper.convertValue(request.path("headers"), new TypeReference<Map<String, String>>() {}));
+            case "invalidate":
+                engine.invalidate(account);
+                return null;
+            case "detectEmail":
+                return engine.detectEmail(Paths.get(request.path("path").asText()));
+            case "evictIdle":
+                engine.evictIdle(Duration.ofSeconds(request.path("idleTimeoutSeconds").asLong()),
+                        mapper.convertValue(request.get("pinned"), new TypeReference<HashSet<String>>() {}));
+                return null;
+            case "stats":
+                return engine.stats();
+            default:
+                throw new IllegalArgumentException("Unknown op: " + request.path("op").asText());
+        }
+    }
+
+    private static void write(BufferedWriter out, String line) throws IOException {
+        synchronized (out) {
+            out.write(line);
+            out.newLine();
+            out.flush();
+        }
+    }
+}
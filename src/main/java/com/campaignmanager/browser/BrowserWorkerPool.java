@@ -0,0 +1,406 @@
+package com.campaignmanager.browser;
+
+import com.campaignmanager.dto.BrowserContextStatsDto;
+import com.campaignmanager.dto.ResidentContextDto;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Runs the browser side in separate worker processes, so Chromium memory spikes count
+ * against each worker's budget rather than the app's JVM, and a browser crash takes
+ * down one worker instead of the app.
+ *
+ * Each worker is a JVM running {@link BrowserWorkerMain} with its own heap limit and its
+ * own {@link BrowserEngine} (and so its own context budget).  Workers connect back to a
+ * loopback-only server socket owned by the pool and prove themselves with a per-launch
+ * random token.  Accounts are pinned to a worker by hash, so an account's contexts,
+ * warm tabs and fetch cookies always live in the same process; {@link #laneOf} exposes
+ * that pinning so callers can send for accounts on different workers in parallel.
+ *
+ * A worker that exits is restarted on its next use, and a monitor pings every worker
+ * periodically so idle crashes are noticed too.  Restarts are spaced by a short backoff.
+ * Each slot has its own lock, so a slow (re)start of one worker doesn't hold up calls to
+ * the others; a single acceptor thread reads the hello of every incoming connection and
+ * hands it to the launch waiting for that index.
+ */
+@Slf4j
+public class BrowserWorkerPool implements BrowserBackend {
+
+    /**
+     * @param count       number of worker processes
+     * @param heapMb      -Xmx for each worker JVM
+     * @param jvmArgs     extra JVM arguments for workers (space separated), may be blank
+     * @param callTimeout how long to wait for a worker to answer one request (a send batch
+     *                    gets this plus {@link #PER_MAIL_TIMEOUT} per mail)
+     */
+    public record Settings(int count, int heapMb, String jvmArgs, Duration callTimeout) {}
+
+    static final String ENV_PORT     = "CM_WORKER_PORT";
+    static final String ENV_TOKEN    = "CM_WORKER_TOKEN";
+    static final String ENV_INDEX    = "CM_WORKER_INDEX";
+    static final String ENV_SETTINGS = "CM_WORKER_SETTINGS";
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(90);
+    private static final Duration RESTART_BACKOFF = Duration.ofSeconds(5);
+    private static final Duration PING_TIMEOUT    = Duration.ofSeconds(15);
+    private static final Duration HELLO_TIMEOUT   = Duration.ofSeconds(10);
+    /** Extra time a send batch gets per mail on top of the call timeout. */
+    static final Duration PER_MAIL_TIMEOUT        = Duration.ofSeconds(60);
+
+    private final EngineSettings engineSettings;
+    private final Settings settings;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final String token = HexFormat.of().formatHex(randomBytes());
+
+    private final AtomicReferenceArray<BrowserWorkerClient> workers;
+    /** One lock per slot; guards (re)starting that slot and its {@link #lastLaunch} entry. */
+    private final Object[] slotLocks;
+    private final Instant[] lastLaunch;
+    /** Launches waiting for their worker to connect, by index. */
+    private final Map<Integer, CompletableFuture<Connection>> pendingHellos = new ConcurrentHashMap<>();
+    private final AtomicLong restarts = new AtomicLong();
+    private ServerSocket server;
+    private ScheduledExecutorService monitor;
+
+    private record Connection(Socket socket, BufferedReader in) {}
+
+    public BrowserWorkerPool(EngineSettings engineSettings, Settings settings) {
+        this.engineSettings = engineSettings;
+        this.settings = settings;
+        int count = Math.max(1, settings.count());
+        this.workers = new AtomicReferenceArray<>(count);
+        this.slotLocks = new Object[count];
+        for (int i = 0; i < count; i++) slotLocks[i] = new Object();
+        this.lastLaunch = new Instant[count];
+    }
+
+    private static byte[] randomBytes() {
+        byte[] bytes = new byte[24];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+
+    @Override
+    public void start() throws IOException {
+        server = new ServerSocket(0, 16, InetAddress.getLoopbackAddress());
+        log.info("Browser worker pool: starting {} worker(s), {} MB heap each, listening on 127.0.0.1:{}",
+                workers.length(), settings.heapMb(), server.getLocalPort());
+        Thread acceptor = new Thread(this::acceptLoop, "browser-worker-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        for (int i = 0; i < workers.length(); i++) {
+            worker(i);
+        }
+
+        monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "browser-worker-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        monitor.scheduleWithFixedDelay(this::checkWorkers, 30, 30, TimeUnit.SECONDS);
+    }
+
+    // ─── Routing ──────────────────────────────────────────────────────────────
+
+    /** The index of the worker that owns {@code account}'s contexts. */
+    @Override
+    public int laneOf(String account) {
+        return Math.floorMod(account.toLowerCase().hashCode(), workers.length());
+    }
+
+    /** The worker that owns {@code account}'s contexts. */
+    private BrowserWorkerClient workerFor(String account) {
+        return worker(laneOf(account));
+    }
+
+    /** Returns worker {@code i}, (re)starting it if it isn't running. */
+    private BrowserWorkerClient worker(int i) {
+        BrowserWorkerClient w = workers.get(i);
+        if (w != null && w.isAlive()) return w;
+
+        synchronized (slotLocks[i]) {
+            w = workers.get(i);
+            if (w != null && w.isAlive()) return w;
+
+            if (lastLaunch[i] != null) {
+                Duration since = Duration.between(lastLaunch[i], Instant.now());
+                if (since.compareTo(RESTART_BACKOFF) < 0) {
+                    throw new IllegalStateException("Browser worker " + i + " is restarting — try again shortly");
+                }
+                restarts.incrementAndGet();
+                log.warn("Restarting browser worker {}", i);
+            }
+            lastLaunch[i] = Instant.now();
+            try {
+                w = launch(i);
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not start browser worker " + i + ": " + e.getMessage(), e);
+            }
+            workers.set(i, w);
+            return w;
+        }
+    }
+
+    private void checkWorkers() {
+        for (int i = 0; i < workers.length(); i++) {
+            try {
+                worker(i).call("ping", null, PING_TIMEOUT);
+            } catch (Exception e) {
+                log.warn("Browser worker {} health check failed: {}", i, e.getMessage());
+            }
+        }
+    }
+
+    // ─── Launch ───────────────────────────────────────────────────────────────
+
+    /** Starts worker {@code i} and waits for it to connect back. Caller holds slot {@code i}'s lock. */
+    private BrowserWorkerClient launch(int i) throws Exception {
+        ProcessBuilder pb = new ProcessBuilder(command()).inheritIO();
+        Map<String, String> env = pb.environment();
+        env.put(ENV_PORT, String.valueOf(server.getLocalPort()));
+        env.put(ENV_TOKEN, token);
+        env.put(ENV_INDEX, String.valueOf(i));
+        env.put(ENV_SETTINGS, mapper.writeValueAsString(engineSettings));
+
+        CompletableFuture<Connection> hello = new CompletableFuture<>();
+        pendingHellos.put(i, hello);
+        try {
+            Process process = pb.start();
+            log.info("Browser worker {}: launched pid {}", i, process.pid());
+
+            Instant deadline = Instant.now().plus(CONNECT_TIMEOUT);
+            while (Instant.now().isBefore(deadline)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("worker exited with code " + process.exitValue() + " during startup");
+                }
+                Connection conn;
+                try {
+                    conn = hello.get(1, TimeUnit.SECONDS);
+                } catch (TimeoutException e) {
+                    continue;
+                }
+                log.info("Browser worker {}: connected (pid {})", i, process.pid());
+                return new BrowserWorkerClient(i, process, conn.socket(), conn.in(), mapper);
+            }
+
+            process.destroyForcibly();
+            throw new IllegalStateException("worker did not connect within " + CONNECT_TIMEOUT.toSeconds() + "s");
+        } catch (Exception e) {
+            // A worker that connects just as we give up is turned away by the acceptor.
+            if (!hello.cancel(false)) closeQuietly(hello.getNow(null).socket());
+            throw e;
+        } finally {
+            pendingHellos.remove(i, hello);
+        }
+    }
+
+    /**
+     * Reads the hello line of each incoming connection and hands the socket to the launch
+     * waiting for that index.  Anything else — a stale worker from an earlier launch, or
+     * something that isn't ours — is closed.
+     */
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (!server.isClosed()) log.warn("Browser worker pool: accept failed: {}", e.getMessage());
+                continue;
+            }
+            try {
+                // Hello line: {"op":"hello","token":"...","index":i}
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                socket.setSoTimeout((int) HELLO_TIMEOUT.toMillis());
+                JsonNode hello = mapper.readTree(in.readLine());
+                CompletableFuture<Connection> pending = token.equals(hello.path("token").asText())
+                        ? pendingHellos.get(hello.path("index").asInt(-1))
+                        : null;
+                socket.setSoTimeout(0);
+                if (pending == null || !pending.complete(new Connection(socket, in))) {
+                    closeQuietly(socket);
+                }
+            } catch (Exception e) {
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try { socket.close(); } catch (IOException ignored) {}
+    }
+
+    /**
+     * The worker command line.  From a Spring Boot jar (or the exploded jar CF runs) the
+     * app classes live under BOOT-INF, so the worker goes through Boot's PropertiesLauncher
+     * with {@code loader.main}; from an IDE or {@code mvn spring-boot:run} the plain class
+     * path already has everything.
+     */
+    private List<String> command() {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        cmd.add("-Xmx" + settings.heapMb() + "m");
+        if (settings.jvmArgs() != null && !settings.jvmArgs().isBlank()) {
+            cmd.addAll(List.of(settings.jvmArgs().trim().split("\\s+")));
+        }
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+
+        String location = String.valueOf(
+                BrowserWorkerMain.class.getProtectionDomain().getCodeSource().getLocation());
+        if (location.contains("BOOT-INF")) {
+            cmd.add("-Dloader.main=" + BrowserWorkerMain.class.getName());
+            cmd.add("org.springframework.boot.loader.PropertiesLauncher");
+        } else {
+            cmd.add(BrowserWorkerMain.class.getName());
+        }
+        return cmd;
+    }
+
+    // ─── BrowserBackend ───────────────────────────────────────────────────────
+
+    /**
+     * The batch timeout grows with the batch, so a large batch that is still sending isn't
+     * cut off.  A timeout surfaces as {@link BrowserCallTimeoutException}: the worker may
+     * still be sending, so the caller must treat the outcome as unknown.
+     */
+    @Override
+    public List<MailResult> sendAll(String account, List<OutgoingMail> mails, int depth) {
+        ObjectNode args = mapper.createObjectNode();
+        args.put("account", account);
+        args.put("depth", depth);
+        args.set("mails", mapper.valueToTree(mails));
+        Duration timeout = settings.callTimeout().plus(PER_MAIL_TIMEOUT.multipliedBy(mails.size()));
+        JsonNode result = workerFor(account).call("sendAll", args, timeout);
+        return mapper.convertValue(result, new TypeReference<List<MailResult>>() {});
+    }
+
+    @Override
+    public void prewarm(String account) {
+        ObjectNode args = mapper.createObjectNode();
+        args.put("account", account);
+        workerFor(account).call("prewarm", args, settings.callTimeout());
+    }
+
+    @Override
+    public FetchResult fetch(String account, String url, Map<String, String> headers) {
+        ObjectNode args = mapper.createObjectNode();
+        args.put("account", account);
+        args.put("url", url);
+        args.set("headers", mapper.valueToTree(headers));
+        JsonNode result = workerFor(account).call("fetch", args, settings.callTimeout());
+        return mapper.convertValue(result, FetchResult.class);
+    }
+
+    @Override
+    public void invalidate(String account) {
+        ObjectNode args = mapper.createObjectNode();
+        args.put("account", account);
+        if (account != null) {
+            workerFor(account).call("invalidate", args, settings.callTimeout());
+            return;
+        }
+        forEachLiveWorker(w -> w.call("invalidate", args, settings.callTimeout()));
+    }
+
+    @Override
+    public String detectEmail(Path sessionFile) {
+        ObjectNode args = mapper.createObjectNode();
+        args.put("path", sessionFile.toAbsolutePath().toString());
+        try {
+            JsonNode result = worker(0).call("detectEmail", args, settings.callTimeout());
+            return result.isNull() || result.isMissingNode() ? null : result.asText();
+        } catch (Exception e) {
+            log.warn("detectEmailSync failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void evictIdle(Duration idleTimeout, Set<String> pinned) {
+        ObjectNode args = mapper.createObjectNode();
+        args.put("idleTimeoutSeconds", idleTimeout.toSeconds());
+        args.set("pinned", mapper.valueToTree(pinned));
+        forEachLiveWorker(w -> w.call("evictIdle", args, settings.callTimeout()));
+    }
+
+    @Override
+    public BrowserContextStatsDto stats() {
+        BrowserContextStatsDto total = new BrowserContextStatsDto();
+        total.setWorkers(workers.length());
+        total.setWorkerRestarts(restarts.get());
+        forEachLiveWorker(w -> {
+            BrowserContextStatsDto s = mapper.convertValue(
+                    w.call("stats", null, PING_TIMEOUT), BrowserContextStatsDto.class);
+            total.setCapacity(total.getCapacity() + s.getCapacity());
+            total.setResidentCount(total.getResidentCount() + s.getResidentCount());
+            total.setIdleEvictions(total.getIdleEvictions() + s.getIdleEvictions());
+            total.setCapacityEvictions(total.getCapacityEvictions() + s.getCapacityEvictions());
+            for (ResidentContextDto ctx : s.getContexts()) {
+                ctx.setWorker(w.index());
+                total.getContexts().add(ctx);
+            }
+        });
+        return total;
+    }
+
+    private void forEachLiveWorker(java.util.function.Consumer<BrowserWorkerClient> action) {
+        List<BrowserWorkerClient> live = new ArrayList<>();
+        for (int i = 0; i < workers.length(); i++) {
+            BrowserWorkerClient w = workers.get(i);
+            if (w != null && w.isAlive()) live.add(w);
+        }
+        for (BrowserWorkerClient w : live) {
+            try {
+                action.accept(w);
+            } catch (Exception e) {
+                log.warn("Browser worker {}: {}", w.index(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (monitor != null) monitor.shutdownNow();
+        for (int i = 0; i < workers.length(); i++) {
+            BrowserWorkerClient w = workers.get(i);
+            if (w != null) w.shutdown(Duration.ofSeconds(10));
+        }
+        if (server != null) {
+            try { server.close(); } catch (IOException ignored) {}
+        }
+    }
+}
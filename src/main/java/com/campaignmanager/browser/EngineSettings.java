@@ -0,0 +1,39 @@
+package com.campaignmanager.browser;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Everything a {@link BrowserEngine} needs, whether it runs inside the app or in a
+ * worker process (where it arrives as JSON).
+ *
+ * @param sessionsDir           directory holding the per-account storageState files
+ * @param headless              launch Chromium headless
+ * @param libraryPath           LD_LIBRARY_PATH for the Playwright driver (CF system deps), or null
+ * @param noSandbox             launch Chromium with --no-sandbox (CF containers)
+ * @param maxResident           upper bound on resident BrowserContexts
+ * @param estimatedMbPerContext rough Chromium cost of one logged-in Gmail context
+ * @param memoryBudgetMb        budget that caps the resident count further
+ * @param fetchLanes            parallel export downloads (one Playwright driver each)
+ */
+public record EngineSettings(String sessionsDir,
+                             boolean headless,
+                             String libraryPath,
+                             boolean noSandbox,
+                             int maxResident,
+                             long estimatedMbPerContext,
+                             long memoryBudgetMb,
+                             int fetchLanes) {
+
+    public Path sessionPath(String email) {
+        return Paths.get(sessionsDir, email + ".json");
+    }
+
+    /** Max resident contexts: the configured count, further capped by the memory budget. */
+    public int effectiveCapacity() {
+        long byBudget = estimatedMbPerContext > 0
+                ? memoryBudgetMb / estimatedMbPerContext
+                : Long.MAX_VALUE;
+        return (int) Math.max(1, Math.min(maxResident, byBudget));
+    }
+}
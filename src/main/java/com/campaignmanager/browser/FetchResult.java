@@ -0,0 +1,17 @@
+package com.campaignmanager.browser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/** Result of an authenticated GET: plain data, safe to use from any thread or process. */
+public record FetchResult(int status, byte[] body, Map<String, String> headers) {
+
+    public boolean ok() { return status >= 200 && status < 300; }
+
+    public String text() { return new String(body, StandardCharsets.UTF_8); }
+
+    /** Header lookup by lower-case name, as Playwright reports them. */
+    public String header(String name, String fallback) {
+        return headers.getOrDefault(name.toLowerCase(), fallback);
+    }
+}
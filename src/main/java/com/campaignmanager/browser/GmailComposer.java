@@ -0,0 +1,280 @@
+package com.campaignmanager.browser;
+
+import com.campaignmanager.browser.SendPipeline.Compose;
+import com.microsoft.playwright.*;
+import com.microsoft.playwright.options.WaitForSelectorState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Drives the Gmail web UI for one account's batch of emails.
+ *
+ * Batches are pipelined: while one message is waiting for Gmail's confirmation, the
+ * next one is already being typed into its own compose window.  Only one message is
+ * ever between "Send clicked" and "confirmed", so every "Message sent" snackbar
+ * belongs to exactly one job.  The ordering lives in {@link SendPipeline}; this class
+ * supplies its browser steps.
+ *
+ * Runs entirely on the {@link BrowserEngine}'s browser thread.
+ */
+@Slf4j
+final class GmailComposer {
+
+    private final BrowserEngine engine;
+
+    GmailComposer(BrowserEngine engine) {
+        this.engine = engine;
+    }
+
+    // ─── Per-account pipeline ──────────────────────────────────────────────────
+
+    /**
+     * Runs the account's jobs through one Gmail tab.  A failure invalidates the context
+     * (as a single send always has); the jobs that hadn't been sent yet are retried on a
+     * fresh tab, so one bad recipient doesn't hold up the rest of the wave.
+     */
+    List<MailResult> sendForAccount(String account, List<OutgoingMail> mails, int depth) {
+        List<MailResult> outcomes = new ArrayList<>();
+        Deque<OutgoingMail> remaining = new ArrayDeque<>(mails);
+
+        while (!remaining.isEmpty()) {
+            Page page;
+            try {
+                page = openGmail(account);
+            } catch (Exception e) {
+                engine.dropContext(account);
+                String failure = "Playwright Gmail send failed: " + e.getMessage();
+                remaining.forEach(mail -> outcomes.add(new MailResult(mail.id(), failure)));
+                return outcomes;
+            }
+
+            try {
+                boolean clean = SendPipeline.run(steps(page, account), depth, remaining, outcomes);
+                if (!clean) engine.dropContext(account);
+            } finally {
+                try { page.close(); } catch (Exception ignored) {}
+            }
+        }
+        return outcomes;
+    }
+
+    /** Returns a Gmail tab for the account — the pre-warmed one if available. */
+    private Page openGmail(String account) throws Exception {
+        BrowserContext context = engine.contextFor(account);
+
+        // A tab pre-warmed by the scheduler already has the inbox loaded.
+        Page page = engine.takeWarmPage(account);
+        boolean warm = page != null;
+        if (!warm) page = context.newPage();
+
+        try {
+            if (!warm) page.navigate(BrowserEngine.GMAIL_URL);
+
+            // If session expired and redirected to login, invalidate only that account's context
+            if (page.url().contains("accounts.google.com")) {
+                throw new Exception(
+                        "Gmail session has expired for " + account +
+                        ". Go to Settings → Gmail Sessions and upload a new session.");
+            }
+
+            installSentCounter(page);
+            return page;
+        } catch (Exception e) {
+            try { page.close(); } catch (Exception ignored) {}
+            throw e;
+        }
+    }
+
+    /** {@link SendPipeline}'s steps, bound to one tab. */
+    private SendPipeline.Steps steps(Page page, String account) {
+        return new SendPipeline.Steps() {
+            @Override public Compose compose(OutgoingMail mail) { return GmailComposer.this.compose(page, mail); }
+            @Override public int sentCount() { return GmailComposer.this.sentCount(page); }
+            @Override public void clickSend(Compose c) { GmailComposer.this.clickSend(page, c); }
+            @Override public MailResult confirm(Compose c, int baseline) {
+                return GmailComposer.this.confirm(page, c, baseline, account);
+            }
+            @Override public void discard(Compose c) { GmailComposer.this.discard(page, c); }
+        };
+    }
+
+    // ─── Compose window steps ──────────────────────────────────────────────────
+
+    private Compose compose(Page page, OutgoingMail mail) {
+        String to = mail.to();
+
+        // ── Step 1: Open compose window and tag it ──────────────────────────────
+        // The new window is the smallest ancestor of an untagged subject box that also
+        // contains a body and a Send button; tagging it lets several windows coexist.
+        page.waitForSelector("[gh='cm'], .T-I.T-I-KE", new Page.WaitForSelectorOptions().setTimeout(15_000));
+        page.click("[gh='cm'], .T-I.T-I-KE");
+        page.waitForSelector("input[name='subjectbox']:not([data-cm-job] *)",
+                new Page.WaitForSelectorOptions().setTimeout(10_000));
+
+        Compose c = new Compose(mail);
+        Object tagged = page.evaluate(
+            "(tag) => {" +
+            "  const boxes = [...document.querySelectorAll(\"input[name='subjectbox']\")].reverse();" +
+            "  for (const box of boxes) {" +
+            "    if (box.closest('[data-cm-job]')) continue;" +
+            "    let el = box.parentElement;" +
+            "    while (el && !(el.querySelector(\".T-I.aoO\") && el.querySelector(\"div[aria-label='Message Body']\")))" +
+            "      el = el.parentElement;" +
+            "    if (el) { el.setAttribute('data-cm-job', tag); return true; }" +
+            "  }" +
+            "  return false;" +
+            "}",
+            c.tag());
+        if (!Boolean.TRUE.equals(tagged)) {
+            throw new RuntimeException("Could not locate the new compose window for " + to);
+        }
+        page.waitForSelector(c.scope() + " div[aria-label='To']", new Page.WaitForSelectorOptions().setTimeout(10_000));
+
+        // ── Step 2: Fill the To field ────────────────────────────────────────────
+        // Click the To area, type the address, then press Tab.
+        // Tab is Gmail's standard mechanism to confirm the address as a chip
+        // and move focus to the Subject field. We wait 1 second after Tab
+        // to let Gmail render the chip before we proceed.
+        page.click(c.scope() + " div[aria-label='To']");
+        page.keyboard().type(to);
+        page.keyboard().press("Tab");
+        page.waitForTimeout(1_000);
+
+        // ── Step 3: Fill Subject ─────────────────────────────────────────────────
+        // page.fill() is reliable for standard input elements and does not depend
+        // on keyboard focus.
+        page.fill(c.scope() + " input[name='subjectbox']", mail.subject());
+
+        // ── Step 4: Fill Body (above Gmail signature) ───────────────────────────
+        // Uses direct DOM manipulation (no execCommand) to avoid Chrome's Trusted Types
+        // policy which blocks execCommand('insertHTML', false, plainString).
+        // Builds a styled wrapper div from text nodes + <br> elements so the font
+        // colour is explicitly black regardless of Gmail's compose theme.
+        page.click(c.scope() + " div[aria-label='Message Body']");
+        page.waitForTimeout(300);
+        page.evaluate(
+            "([scope, text]) => {" +
+            "  const body = document.querySelector(scope + ' div[aria-label=\"Message Body\"]');" +
+            "  if (!body) return;" +
+            "  body.focus();" +
+            "  const wrapper = document.createElement('div');" +
+            "  wrapper.style.color = '#000000';" +
+            "  wrapper.style.fontFamily = 'Arial,sans-serif';" +
+            "  wrapper.style.fontSize = '14px';" +
+            "  const lines = text.split('\\n');" +
+            "  lines.forEach((line, i) => {" +
+            "    if (line) wrapper.appendChild(document.createTextNode(line));" +
+            "    if (i < lines.length - 1) wrapper.appendChild(document.createElement('br'));" +
+            "  });" +
+            "  const sig = body.querySelector('.gmail_signature, [data-smartmail=\"gmail_signature\"]');" +
+            "  if (sig) {" +
+            "    let sigTop = sig;" +
+            "    while (sigTop.parentElement && sigTop.parentElement !== body) sigTop = sigTop.parentElement;" +
+            "    const frag = document.createDocumentFragment();" +
+            "    frag.appendChild(wrapper);" +
+            "    frag.appendChild(document.createElement('br'));" +
+            "    frag.appendChild(document.createElement('br'));" +
+            "    body.insertBefore(frag, sigTop);" +
+            "  } else {" +
+            "    body.insertBefore(wrapper, body.firstChild);" +
+            "  }" +
+            "}",
+            List.of(c.scope(), mail.body()));
+
+        return c;
+    }
+
+    private void clickSend(Page page, Compose c) {
+        // ── Step 5: Send ─────────────────────────────────────────────────────────
+        // Primary: click this window's Send button (.aoO is the compose Send button class).
+        // This is more reliable than keyboard shortcuts because it does not depend
+        // on which element currently has keyboard focus.
+        // Fallback: Ctrl+Enter from this window's body if the button cannot be located.
+        log.info("Clicking Send for job to={} subject='{}'", c.to(), c.mail().subject());
+        try {
+            page.click(c.scope() + " .T-I.aoO", new Page.ClickOptions().setTimeout(6_000));
+            log.info("Clicked Send button (.aoO) for {}", c.to());
+        } catch (Exception e) {
+            log.warn("Send button (.aoO) not clickable for {} — trying Ctrl+Enter fallback", c.to());
+            page.click(c.scope() + " div[aria-label='Message Body']");
+            page.keyboard().press("Control+Enter");
+        }
+    }
+
+    private MailResult confirm(Page page, Compose c, int baseline, String account) {
+        try {
+            // ── Step 6: Confirm this compose window closed ───────────────────────
+            // The tagged window disappears when Gmail accepts the email.
+            // If it stays open, Gmail is showing a validation error.
+            try {
+                page.waitForSelector(c.scope(), new Page.WaitForSelectorOptions()
+                        .setState(WaitForSelectorState.HIDDEN)
+                        .setTimeout(15_000));
+            } catch (Exception e) {
+                discard(page, c);
+                throw new RuntimeException(
+                        "Compose window did not close after Send — email NOT sent to " + c.to() +
+                        ". Check Gmail for a validation error (invalid recipient address?).", e);
+            }
+
+            // ── Step 7: Require snackbar confirmation ────────────────────────────
+            // The "Message sent" snackbar appears ONLY on a successful send, NOT on a
+            // draft save. The page counts them, and since only this message is in
+            // flight, one more than before the click is this message's confirmation.
+            try {
+                page.waitForFunction("(baseline) => (window.__cmSent || 0) > baseline", baseline,
+                        new Page.WaitForFunctionOptions().setTimeout(8_000));
+                log.info("'Message sent' snackbar confirmed for {}", c.to());
+            } catch (Exception e) {
+                throw new RuntimeException(
+                        "Gmail did not confirm send for " + c.to() +
+                        " — email may have been saved as Draft. Job will be retried.", e);
+            }
+
+            log.info("Email sent via Gmail to {} from {} (job id: {})", c.to(), account, c.mail().id());
+            return new MailResult(c.mail().id(), null);
+        } catch (Exception e) {
+            return new MailResult(c.mail().id(), "Playwright Gmail send failed: " + e.getMessage());
+        }
+    }
+
+    /** Best-effort discard so an abandoned compose window doesn't linger as a draft. */
+    private void discard(Page page, Compose c) {
+        try {
+            page.click(c.scope() + " [aria-label^='Discard draft']", new Page.ClickOptions().setTimeout(2_000));
+        } catch (Exception ignored) {}
+    }
+
+    // ─── "Message sent" counter ────────────────────────────────────────────────
+
+    /**
+     * Installs a MutationObserver that counts each time the .vh snackbar changes to a
+     * "sent" message.  Counting transitions (rather than checking that a snackbar is
+     * visible) keeps a lingering snackbar from a previous send from confirming the next.
+     */
+    private void installSentCounter(Page page) {
+        page.evaluate(
+            "() => {" +
+            "  if (window.__cmSentObserver) return;" +
+            "  window.__cmSent = 0;" +
+            "  let last = '';" +
+            "  window.__cmSentObserver = new MutationObserver(() => {" +
+            "    const vh = document.querySelector('.vh');" +
+            "    const text = vh ? vh.textContent.trim() : '';" +
+            "    if (text === last) return;" +
+            "    last = text;" +
+            "    if (/\\bsent\\b/i.test(text)) window.__cmSent++;" +
+            "  });" +
+            "  window.__cmSentObserver.observe(document.body, { childList: true, subtree: true, characterData: true });" +
+            "}");
+    }
+
+    private int sentCount(Page page) {
+        Object count = page.evaluate("() => window.__cmSent || 0");
+        return count instanceof Number n ? n.intValue() : 0;
+    }
+}
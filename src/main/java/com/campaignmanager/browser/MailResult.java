@@ -0,0 +1,6 @@
+package com.campaignmanager.browser;
+
+/** Outcome of one {@link OutgoingMail}; {@code error} is null when the email was sent. */
+public record MailResult(long id, String error) {
+    public boolean sent() { return error == null; }
+}
@@ -0,0 +1,4 @@
+package com.campaignmanager.browser;
+
+/** One email to send: plain data, so it can cross threads and process boundaries. */
+public record OutgoingMail(long id, String to, String subject, String body) {}
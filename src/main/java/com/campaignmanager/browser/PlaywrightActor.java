@@ -0,0 +1,106 @@
+package com.campaignmanager.browser;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single owner thread for a Playwright instance and every object created from it.
+ *
+ * Playwright Java is not thread-safe: a Playwright, its Browser, contexts, pages and
+ * request contexts must all be used from the thread that created them.  Callers on any
+ * other thread hand work to {@link #call} and block on the result; calls made from the
+ * owner thread itself run inline, so actor code can freely call other actor methods.
+ */
+@Slf4j
+final class PlaywrightActor implements AutoCloseable {
+
+    private final String name;
+    private final ExecutorService executor;
+    private volatile Thread owner;
+
+    PlaywrightActor(String name) {
+        this.name = name;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            owner = t;
+            return t;
+        });
+    }
+
+    /** Runs {@code task} on the owner thread and returns its result. */
+    <T> T call(Callable<T> task) {
+        if (isOwnerThread()) {
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e.getMessage(), e);
+            }
+        }
+
+        Future<T> future = executor.submit(task);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw new RuntimeException(cause.getMessage(), cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new IllegalStateException(name + ": interrupted while waiting for Playwright", e);
+        }
+    }
+
+    /** Runs {@code task} on the owner thread and waits for it to finish. */
+    void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /** Queues {@code task} on the owner thread without waiting. */
+    void post(Runnable task) {
+        if (executor.isShutdown()) return;
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.warn("{}: background task failed: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    boolean isOwnerThread() {
+        return Thread.currentThread() == owner;
+    }
+
+    /** Guards methods that hand out Playwright objects: they are only valid on the owner thread. */
+    void checkOwnerThread() {
+        if (!isOwnerThread()) {
+            throw new IllegalStateException(
+                    "Playwright objects belong to the " + name + " thread; go through BrowserEngine");
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) executor.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.campaignmanager.browser;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The ordering half of {@link GmailComposer}'s pipeline: which mail is typed, sent and
+ * confirmed when, which outcome belongs to which job, and what goes back on the queue
+ * after a failure.  The browser work itself is behind {@link Steps}.
+ *
+ * At most {@code depth} compose windows are open at once, and at most one of them has
+ * had Send clicked without being confirmed yet — so the "sent" counter that confirms a
+ * message can only have been moved by that one message.
+ */
+final class SendPipeline {
+
+    /** One mail's compose window, tagged in the DOM so every selector is scoped to it. */
+    record Compose(OutgoingMail mail) {
+        String tag()   { return String.valueOf(mail.id()); }
+        String scope() { return "[data-cm-job='" + tag() + "']"; }
+        String to()    { return mail.to(); }
+    }
+
+    /** The browser steps for one Gmail tab.  Any of them may throw, except {@code confirm} and {@code discard}. */
+    interface Steps {
+        /** Opens a compose window for the mail and types it. */
+        Compose compose(OutgoingMail mail);
+
+        /** The tab's "Message sent" count so far. */
+        int sentCount();
+
+        void clickSend(Compose compose);
+
+        /** Waits for the window to close and the sent count to pass {@code baseline}. */
+        MailResult confirm(Compose compose, int baseline);
+
+        /** Best-effort discard of a window that won't be sent. */
+        void discard(Compose compose);
+    }
+
+    private SendPipeline() {}
+
+    /**
+     * Drains {@code remaining} through one tab, adding one outcome per mail that was sent
+     * or definitely failed.  Returns false after the first failure, leaving every mail
+     * that wasn't attempted (including ones already typed) at the front of
+     * {@code remaining}, in their original order, for the next tab.
+     */
+    static boolean run(Steps steps, int depth, Deque<OutgoingMail> remaining, List<MailResult> outcomes) {
+        Deque<Compose> prefilled = new ArrayDeque<>();
+        Compose inFlight = null;
+        int inFlightBaseline = 0;
+        int windows = Math.max(1, depth);
+
+        try {
+            while (!remaining.isEmpty() || !prefilled.isEmpty() || inFlight != null) {
+                // ── Fill: type the next messages while the in-flight one is being confirmed
+                while (!remaining.isEmpty() && prefilled.size() + (inFlight != null ? 1 : 0) < windows) {
+                    OutgoingMail mail = remaining.poll();
+                    try {
+                        prefilled.add(steps.compose(mail));
+                    } catch (Exception e) {
+                        steps.discard(new Compose(mail));
+                        outcomes.add(new MailResult(mail.id(), "Playwright Gmail send failed: " + e.getMessage()));
+                        if (inFlight != null) outcomes.add(steps.confirm(inFlight, inFlightBaseline));
+                        inFlight = null;
+                        return false;
+                    }
+                }
+
+                // ── Confirm the message sent on the previous turn
+                if (inFlight != null) {
+                    MailResult outcome = steps.confirm(inFlight, inFlightBaseline);
+                    outcomes.add(outcome);
+                    inFlight = null;
+                    if (!outcome.sent()) return false;
+                }
+
+                // ── Send the oldest prefilled compose
+                if (!prefilled.isEmpty()) {
+                    Compose next = prefilled.poll();
+                    try {
+                        inFlightBaseline = steps.sentCount();
+                        steps.clickSend(next);
+                        inFlight = next;
+                    } catch (Exception e) {
+                        outcomes.add(new MailResult(next.mail().id(), "Playwright Gmail send failed: " + e.getMessage()));
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            // Anything typed but not sent goes back to the front of the queue for the next tab.
+            while (!prefilled.isEmpty()) {
+                Compose abandoned = prefilled.pollLast();
+                steps.discard(abandoned);
+                remaining.addFirst(abandoned.mail());
+            }
+        }
+    }
+}
@@ -2,12 +2,15 @@ package com.campaignmanager.config;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
 
@@ -22,46 +25,122 @@ import javax.sql.DataSource;
  *   cf create-service p.mysql db-small campaign-db
  *   cf bind-service sh-campaign-manager campaign-db
  *   cf restage sh-campaign-manager
+ *
+ * A second bound MySQL service named by {@code db.replica.service} (or, when that is
+ * empty, one whose name or tags contain "replica") is used as a read replica by the
+ * dashboard and report reads that opt in (see {@link ReadReplicaRoutingDataSource}).
+ * Without one, everything uses the primary.
  */
 @Configuration
 @Profile("cloud")
 @Slf4j
 public class CloudDataSourceConfig {
 
+    @Value("${db.pool.max-size:10}")
+    private int maxPoolSize;
+
+    @Value("${db.pool.min-idle:2}")
+    private int minIdle;
+
+    @Value("${db.pool.connection-timeout-ms:10000}")
+    private long connectionTimeoutMs;
+
+    @Value("${db.pool.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    /** Kept below the server's (and any proxy's) idle cutoff so the pool retires connections first. */
+    @Value("${db.pool.max-lifetime-ms:1500000}")
+    private long maxLifetimeMs;
+
+    @Value("${db.pool.leak-detection-ms:0}")
+    private long leakDetectionMs;
+
+    @Value("${db.replica.service:}")
+    private String replicaService;
+
+    @Value("${db.replica.max-size:6}")
+    private int replicaMaxPoolSize;
+
+    /** Credentials of one bound MySQL service. */
+    private record MySqlService(String name, String jdbcUrl, String username, String password) {}
+
     @Bean
     @Primary
     public DataSource dataSource() {
         String vcapServices = System.getenv("VCAP_SERVICES");
         if (vcapServices != null && !vcapServices.isBlank()) {
             try {
-                DataSource ds = buildMySqlDataSource(vcapServices);
-                if (ds != null) {
-                    log.info("CloudDataSource: using MySQL from bound VCAP_SERVICES");
-                    return ds;
+                MySqlService primary = findMySqlService(vcapServices, false);
+                if (primary != null) {
+                    log.info("CloudDataSource: using MySQL from bound VCAP_SERVICES ({})", primary.name());
+                    HikariDataSource primaryPool = mySqlPool("primary", primary, maxPoolSize, false);
+
+                    MySqlService replica = findMySqlService(vcapServices, true);
+                    if (replica == null) return primaryPool;
+                    log.info("CloudDataSource: read-only transactions use replica {}", replica.name());
+                    HikariDataSource replicaPool = mySqlPool("replica", replica, replicaMaxPoolSize, true);
+                    return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(primaryPool, replicaPool));
                 }
             } catch (Exception e) {
                 log.warn("CloudDataSource: could not parse VCAP_SERVICES ({}), falling back to H2", e.getMessage());
             }
         }
         log.info("CloudDataSource: no MySQL service bound — using H2 (data is ephemeral on restart)");
-        return DataSourceBuilder.create()
-                .url("jdbc:h2:file:./data/campaigndb;DB_CLOSE_ON_EXIT=FALSE;AUTO_RECONNECT=TRUE")
-                .driverClassName("org.h2.Driver")
-                .username("sa")
-                .password("")
-                .build();
+        HikariConfig config = poolConfig("h2", maxPoolSize);
+        config.setJdbcUrl("jdbc:h2:file:./data/campaigndb;DB_CLOSE_ON_EXIT=FALSE;AUTO_RECONNECT=TRUE");
+        config.setDriverClassName("org.h2.Driver");
+        config.setUsername("sa");
+        config.setPassword("");
+        return new HikariDataSource(config);
+    }
+
+    private HikariDataSource mySqlPool(String name, MySqlService service, int size, boolean readOnly) {
+        HikariConfig config = poolConfig(name, size);
+        config.setJdbcUrl(service.jdbcUrl());
+        config.setUsername(service.username());
+        config.setPassword(service.password());
+        config.setDriverClassName("com.mysql.cj.jdbc.Driver");
+        config.setReadOnly(readOnly);
+        // Connector/J: cache parsed statements per connection and skip round trips the pool
+        // makes redundant. Client-side prepares are kept (no useServerPrepStmts) so
+        // rewriteBatchedStatements can still turn JDBC batches (bulk imports) into
+        // multi-row INSERTs.
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", "250");
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        config.addDataSourceProperty("cacheResultSetMetadata", "true");
+        config.addDataSourceProperty("cacheServerConfiguration", "true");
+        config.addDataSourceProperty("elideSetAutoCommits", "true");
+        config.addDataSourceProperty("maintainTimeStats", "false");
+        return new HikariDataSource(config);
+    }
+
+    private HikariConfig poolConfig(String name, int size) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(Math.min(minIdle, size));
+        config.setConnectionTimeout(connectionTimeoutMs);
+        config.setIdleTimeout(idleTimeoutMs);
+        config.setMaxLifetime(maxLifetimeMs);
+        config.setLeakDetectionThreshold(leakDetectionMs);
+        return config;
     }
 
     /**
      * Searches every service entry in VCAP_SERVICES for a MySQL jdbcUrl.
      * Handles p.mysql (TAS), cleardb, and generic mysql service credential formats.
+     *
+     * @param replica true for the read replica, false for the first other MySQL service
      */
-    private DataSource buildMySqlDataSource(String vcapServices) throws Exception {
+    private MySqlService findMySqlService(String vcapServices, boolean replica) throws Exception {
         ObjectMapper mapper = new ObjectMapper();
         JsonNode root = mapper.readTree(vcapServices);
 
         for (JsonNode serviceList : root) {
             for (JsonNode service : serviceList) {
+                if (isReplica(service) != replica) continue;
                 JsonNode creds = service.path("credentials");
 
                 // Try common jdbcUrl field names
@@ -83,19 +162,24 @@ public class CloudDataSourceConfig {
                             creds.path("username").asText(null),
                             creds.path("user").asText(null)
                     );
-                    String password = creds.path("password").asText("");
-                    return DataSourceBuilder.create()
-                            .url(jdbcUrl)
-                            .username(username)
-                            .password(password)
-                            .driverClassName("com.mysql.cj.jdbc.Driver")
-                            .build();
+                    return new MySqlService(service.path("name").asText("mysql"),
+                            jdbcUrl, username, creds.path("password").asText(""));
                 }
             }
         }
         return null;
     }
 
+    private boolean isReplica(JsonNode service) {
+        String name = service.path("name").asText("");
+        if (!replicaService.isBlank()) return replicaService.equals(name);
+        if (name.toLowerCase().contains("replica")) return true;
+        for (JsonNode tag : service.path("tags")) {
+            if (tag.asText("").toLowerCase().contains("replica")) return true;
+        }
+        return false;
+    }
+
     private static String firstNonNull(String... values) {
         for (String v : values) {
             if (v != null && !v.isEmpty()) return v;
@@ -0,0 +1,86 @@
+package com.campaignmanager.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hands out replica connections to read-only transactions that run inside
+ * {@link #replicaReads}, and primary connections everywhere else.  If the replica can't
+ * give a connection, the read goes to the primary instead of failing.
+ *
+ * Replica reads are opt-in because the replica trails the primary: only dashboards and
+ * reports use it.  Lists a user reloads right after changing something (campaigns,
+ * contacts, jobs) stay on the primary even when read-only, so they see their own writes.
+ *
+ * Must sit behind a {@code LazyConnectionDataSourceProxy}: the transaction manager asks for
+ * a connection before the read-only flag is bound to the thread, and the proxy delays the
+ * real {@link #getConnection()} until the first statement.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> REPLICA_READS = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+
+    private final AtomicLong replicaConnections  = new AtomicLong();
+    private final AtomicLong primaryConnections  = new AtomicLong();
+    private final AtomicLong replicaFallbacks    = new AtomicLong();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    /**
+     * Runs {@code reads} with its read-only transaction's statements on the replica.  Call
+     * it inside the {@code @Transactional(readOnly = true)} method: the connection is taken
+     * at the first statement, so the whole body must be in here.
+     */
+    public static <T> T replicaReads(Supplier<T> reads) {
+        boolean outermost = REPLICA_READS.get() == null;
+        REPLICA_READS.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (outermost) REPLICA_READS.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (REPLICA_READS.get() != null && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.incrementAndGet();
+                return connection;
+            } catch (SQLException e) {
+                // Logged on the first failure and every 100th after, not once per request
+                if (replicaFallbacks.getAndIncrement() % 100 == 0) {
+                    log.warn("Read replica unavailable ({}) — reading from the primary", e.getMessage());
+                }
+            }
+        }
+        primaryConnections.incrementAndGet();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Pooled data sources use their configured credentials");
+    }
+
+    public DataSource getPrimary() { return primary; }
+    public DataSource getReplica() { return replica; }
+    public long getReplicaConnections() { return replicaConnections.get(); }
+    public long getPrimaryConnections() { return primaryConnections.get(); }
+    public long getReplicaFallbacks() { return replicaFallbacks.get(); }
+}
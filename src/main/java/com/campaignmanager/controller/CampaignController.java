@@ -1,28 +1,31 @@
 package com.campaignmanager.controller;
 
 import com.campaignmanager.dto.*;
-import com.campaignmanager.model.Campaign;
-import com.campaignmanager.model.CampaignContact;
 import com.campaignmanager.model.Contact;
 import com.campaignmanager.repository.CampaignContactRepository;
-import com.campaignmanager.repository.CampaignRepository;
 import com.campaignmanager.repository.ContactRepository;
+import com.campaignmanager.repository.ImportBulkRepository;
 import com.campaignmanager.service.CampaignService;
 import com.campaignmanager.service.ContactService;
 import com.campaignmanager.service.EmailJobService;
 import com.campaignmanager.service.EmailTemplateService;
 import com.campaignmanager.service.ExcelImportService;
+import com.campaignmanager.service.ImportJobService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,9 +38,10 @@ public class CampaignController {
     private final ContactService contactService;
     private final EmailJobService emailJobService;
     private final ExcelImportService excelImportService;
+    private final ImportJobService importJobService;
     private final CampaignContactRepository campaignContactRepository;
-    private final CampaignRepository campaignRepository;
     private final ContactRepository contactRepository;
+    private final ImportBulkRepository importBulkRepository;
 
     @GetMapping
     public List<CampaignDto> getAll(Authentication auth) {
@@ -117,13 +121,9 @@ public class CampaignController {
     @GetMapping("/{id}/contacts")
     public List<ContactDto> getContacts(@PathVariable Long id, Authentication auth) {
         campaignService.checkCampaignAccess(id, auth);
-        return campaignContactRepository.findByCampaignId(id).stream()
-                .map(cc -> {
-                    ContactDto dto = contactService.toDto(cc.getContact());
-                    dto.setEnrolledInCampaign(true);
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        List<ContactDto> contacts = contactService.toDtos(campaignContactRepository.findContactsByCampaignId(id));
+        contacts.forEach(dto -> dto.setEnrolledInCampaign(true));
+        return contacts;
     }
 
     @PostMapping("/{id}/contacts")
@@ -132,23 +132,14 @@ public class CampaignController {
                                                               @RequestBody BulkContactAssignDto body,
                                                               Authentication auth) {
         campaignService.checkCampaignAccess(id, auth);
-        Campaign campaign = campaignRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Campaign not found: " + id));
-
-        int added = 0;
-        for (Long contactId : body.getContactIds()) {
-            if (!campaignContactRepository.existsByCampaignIdAndContactId(id, contactId)) {
-                Contact contact = contactRepository.findById(contactId)
-                        .orElseThrow(() -> new RuntimeException("Contact not found: " + contactId));
-
-                CampaignContact cc = new CampaignContact();
-                cc.setCampaign(campaign);
-                cc.setContact(contact);
-                cc.setEnrolledAt(LocalDateTime.now());
-                campaignContactRepository.save(cc);
-                added++;
-            }
-        }
+        List<Long> contactIds = body.getContactIds().stream().distinct().collect(Collectors.toList());
+        Set<Long> existing = contactRepository.findAllById(contactIds).stream()
+                .map(Contact::getId).collect(Collectors.toSet());
+        contactIds.stream().filter(contactId -> !existing.contains(contactId)).findFirst()
+                .ifPresent(contactId -> { throw new RuntimeException("Contact not found: " + contactId); });
+
+        // Set-based: one lookup of current enrollments, one JDBC batch for the new ones
+        int added = importBulkRepository.enroll(id, contactIds).inserted();
         return ResponseEntity.ok(Map.of("added", added));
     }
 
@@ -157,8 +148,10 @@ public class CampaignController {
     public ResponseEntity<Void> removeContact(@PathVariable Long id, @PathVariable Long contactId,
                                               Authentication auth) {
         campaignService.checkCampaignAccess(id, auth);
-        campaignContactRepository.findByCampaignIdAndContactId(id, contactId)
-                .ifPresent(campaignContactRepository::delete);
+        campaignContactRepository.findByCampaignIdAndContactId(id, contactId).ifPresent(cc -> {
+            campaignContactRepository.delete(cc);
+            importBulkRepository.deleteRowStatesForEmail(List.of(id), cc.getContact().getEmail());
+        });
         return ResponseEntity.noContent().build();
     }
 
@@ -168,14 +161,27 @@ public class CampaignController {
      * Import contacts (and optionally templates) from an Excel file.
      * ?replace=true removes all existing campaign contacts first (replace mode).
      * Default (false) is additive — new contacts added, existing ones updated.
+     * ?async=true runs it as a background job: answers 202 with the job, poll
+     * GET /{id}/import-jobs/{jobId} for progress.
+     * ?dryRun=true validates every row without writing anything (see the Google Sheet import).
      */
     @PostMapping("/{id}/import-excel")
-    public ResponseEntity<ExcelImportResultDto> importExcel(@PathVariable Long id,
-                                                            @RequestParam("file") MultipartFile file,
-                                                            @RequestParam(defaultValue = "false") boolean replace,
-                                                            Authentication auth) {
+    public ResponseEntity<?> importExcel(@PathVariable Long id,
+                                         @RequestParam("file") MultipartFile file,
+                                         @RequestParam(defaultValue = "false") boolean replace,
+                                         @RequestParam(defaultValue = "false") boolean async,
+                                         @RequestParam(defaultValue = "false") boolean dryRun,
+                                         @RequestParam(defaultValue = "false") boolean probeDocs,
+                                         Authentication auth) {
         campaignService.checkCampaignAccess(id, auth);
         try {
+            if (dryRun) {
+                return ResponseEntity.ok(excelImportService.validateExcel(id, file, probeDocs));
+            }
+            if (async) {
+                return ResponseEntity.accepted().body(
+                        importJobService.submitExcel(id, file, replace, auth != null ? auth.getName() : null));
+            }
             ExcelImportResultDto result = excelImportService.importFromExcel(id, file, replace);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -188,14 +194,33 @@ public class CampaignController {
 
     // --- Google Sheet Import ---
 
+    /**
+     * Re-importing the same sheet only processes rows that changed since its last import.
+     * ?sync=true also re-imports it on a schedule (see SheetSyncScheduler), starting once
+     * this import has succeeded.
+     * ?dryRun=true (on both import endpoints) only validates every row and returns the
+     * report; ?probeDocs=true also fetches each row's Google Doc and checks its sections.
+     */
     @PostMapping("/{id}/import-gsheet")
-    public ResponseEntity<ExcelImportResultDto> importGoogleSheet(@PathVariable Long id,
-                                                                   @RequestParam String url,
-                                                                   @RequestParam(defaultValue = "false") boolean replace,
-                                                                   Authentication auth) {
+    public ResponseEntity<?> importGoogleSheet(@PathVariable Long id,
+                                               @RequestParam String url,
+                                               @RequestParam(defaultValue = "false") boolean replace,
+                                               @RequestParam(defaultValue = "false") boolean async,
+                                               @RequestParam(defaultValue = "false") boolean sync,
+                                               @RequestParam(defaultValue = "false") boolean dryRun,
+                                               @RequestParam(defaultValue = "false") boolean probeDocs,
+                                               Authentication auth) {
         campaignService.checkCampaignAccess(id, auth);
         try {
+            if (dryRun) {
+                return ResponseEntity.ok(excelImportService.validateGoogleSheet(id, url, probeDocs));
+            }
+            if (async) {
+                return ResponseEntity.accepted().body(importJobService.submitGoogleSheet(
+                        id, url, replace, auth != null ? auth.getName() : null, sync));
+            }
             ExcelImportResultDto result = excelImportService.importFromGoogleSheet(id, url, replace);
+            if (sync) campaignService.setSheetSync(id, url, auth);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             ExcelImportResultDto error = new ExcelImportResultDto();
@@ -205,13 +230,45 @@ public class CampaignController {
         }
     }
 
+    @DeleteMapping("/{id}/sheet-sync")
+    public CampaignDto stopSheetSync(@PathVariable Long id, Authentication auth) {
+        return campaignService.setSheetSync(id, null, auth);
+    }
+
+    // --- Import Jobs ---
+
+    @GetMapping("/{id}/import-jobs")
+    public List<ImportJobDto> getImportJobs(@PathVariable Long id, Authentication auth) {
+        campaignService.checkCampaignAccess(id, auth);
+        return importJobService.findByCampaign(id);
+    }
+
+    @GetMapping("/{id}/import-jobs/{jobId}")
+    public ImportJobDto getImportJob(@PathVariable Long id, @PathVariable Long jobId, Authentication auth) {
+        campaignService.checkCampaignAccess(id, auth);
+        ImportJobDto job = importJobService.findById(jobId);
+        if (!job.getCampaignId().equals(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found: " + jobId);
+        }
+        return job;
+    }
+
     // --- Email Jobs ---
 
+    /** Same paging and filters as GET /api/email-jobs, scoped to this campaign. */
     @GetMapping("/{id}/jobs")
-    public List<EmailJobDto> getJobs(@PathVariable Long id,
-                                     @RequestParam(required = false) String status,
-                                     Authentication auth) {
+    public EmailJobPageDto getJobs(@PathVariable Long id,
+                                   @RequestParam(required = false) String status,
+                                   @RequestParam(required = false)
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                   @RequestParam(required = false)
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(required = false) Integer limit,
+                                   @RequestParam(defaultValue = "false") boolean count,
+                                   @RequestParam(defaultValue = "false") boolean includeArchived,
+                                   Authentication auth) {
         campaignService.checkCampaignAccess(id, auth);
-        return emailJobService.findByCampaign(id, status);
+        return emailJobService.findPage(id, status, null, from, to, cursor, limit, count, includeArchived);
     }
 }
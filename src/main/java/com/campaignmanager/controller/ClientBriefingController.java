@@ -3,8 +3,10 @@ package com.campaignmanager.controller;
 import com.campaignmanager.dto.ClientBriefingDto;
 import com.campaignmanager.model.ClientBriefing;
 import com.campaignmanager.service.ClientBriefingService;
+import com.campaignmanager.service.DocumentContentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -22,6 +24,7 @@ import java.util.List;
 public class ClientBriefingController {
 
     private final ClientBriefingService briefingService;
+    private final DocumentContentService documentContentService;
 
     @GetMapping
     public List<ClientBriefingDto> getAll() {
@@ -54,14 +57,16 @@ public class ClientBriefingController {
     }
 
     /**
-     * Serves the uploaded document from DB storage.
-     * PDF and HTML open inline in the browser; DOC/DOCX trigger a download.
+     * Serves the uploaded document, streamed from the blob store (or the DB row for
+     * documents not yet moved there). PDF and HTML open inline in the browser; DOC/DOCX
+     * trigger a download.
      */
     @GetMapping("/{id}/document")
-    public ResponseEntity<byte[]> serveDocument(@PathVariable Long id) {
+    public ResponseEntity<Resource> serveDocument(@PathVariable Long id) {
         ClientBriefing briefing = briefingService.getEntity(id);
-        if (briefing.getFileContent() == null || briefing.getFileContent().length == 0) {
-            log.warn("Briefing {} has no file content in DB", id);
+        Resource content = documentContentService.resource(briefing);
+        if (content == null) {
+            log.warn("Briefing {} has no file content", id);
             return ResponseEntity.notFound().build();
         }
 
@@ -92,9 +97,13 @@ public class ClientBriefingController {
             disposition = ContentDisposition.attachment().filename(originalName).build();
         }
 
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .contentType(mediaType)
-                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
-                .body(briefing.getFileContent());
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString());
+        if (briefing.getContentHash() != null) {
+            // Content-addressed: the hash changes whenever the bytes do
+            response.eTag("\"" + briefing.getContentHash() + "\"");
+        }
+        return response.body(content);
     }
 }
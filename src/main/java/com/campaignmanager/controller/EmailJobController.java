@@ -1,11 +1,13 @@
 package com.campaignmanager.controller;
 
 import com.campaignmanager.dto.EmailJobDto;
+import com.campaignmanager.dto.EmailJobPageDto;
 import com.campaignmanager.service.EmailJobService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/email-jobs")
@@ -14,9 +16,31 @@ public class EmailJobController {
 
     private final EmailJobService emailJobService;
 
+    /**
+     * Jobs newest first, one page at a time: follow {@code nextCursor} for the next page.
+     * {@code from}/{@code to} bound scheduledAt (ISO date-time, to exclusive); the total
+     * is only computed with {@code count=true}. Archived jobs (old SENT/SKIPPED ones) are
+     * only listed with {@code includeArchived=true}.
+     */
     @GetMapping
-    public List<EmailJobDto> getAll(@RequestParam(required = false) String status) {
-        return emailJobService.findAll(status);
+    public EmailJobPageDto getAll(@RequestParam(required = false) String status,
+                                  @RequestParam(required = false) String sender,
+                                  @RequestParam(required = false) Long campaignId,
+                                  @RequestParam(required = false)
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                  @RequestParam(required = false)
+                                  @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit,
+                                  @RequestParam(defaultValue = "false") boolean count,
+                                  @RequestParam(defaultValue = "false") boolean includeArchived) {
+        return emailJobService.findPage(campaignId, status, sender, from, to, cursor, limit, count,
+                includeArchived);
+    }
+
+    @GetMapping("/{id}")
+    public EmailJobDto getById(@PathVariable Long id) {
+        return emailJobService.findById(id);
     }
 
     @PostMapping("/{id}/retry")
@@ -1,6 +1,8 @@
 package com.campaignmanager.controller;
 
+import com.campaignmanager.dto.BrowserContextStatsDto;
 import com.campaignmanager.dto.ConnectedSessionDto;
+import com.campaignmanager.dto.DatabaseStatsDto;
 import com.campaignmanager.dto.GeminiSettingsDto;
 import com.campaignmanager.dto.GmailSessionStatusDto;
 import com.campaignmanager.model.User;
@@ -8,6 +10,7 @@ import com.campaignmanager.model.UserGeminiSettings;
 import com.campaignmanager.repository.CampaignRepository;
 import com.campaignmanager.repository.UserGeminiSettingsRepository;
 import com.campaignmanager.repository.UserRepository;
+import com.campaignmanager.service.DatabaseStatsService;
 import com.campaignmanager.service.GeminiApiService;
 import com.campaignmanager.service.PlaywrightSessionService;
 import com.campaignmanager.service.PlaywrightSystemDepsInstaller;
@@ -56,6 +59,7 @@ public class SettingsController {
     private final UserGeminiSettingsRepository geminiSettingsRepository;
     private final UserRepository userRepository;
     private final GeminiApiService geminiApiService;
+    private final DatabaseStatsService databaseStatsService;
 
     // ─── Setup: capture script download ───────────────────────────────────────
 
@@ -88,6 +92,24 @@ public class SettingsController {
         return buildSessionList(auth);
     }
 
+    /** Resident browser contexts and eviction counters (admin only). */
+    @GetMapping("/gmail/contexts")
+    public BrowserContextStatsDto getContextStats(Authentication auth) {
+        if (!isAdmin(auth)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin access required.");
+        }
+        return sessionService.getContextStats();
+    }
+
+    /** Connection pools and read-replica routing counters (admin only). */
+    @GetMapping("/database")
+    public DatabaseStatsDto getDatabaseStats(Authentication auth) {
+        if (!isAdmin(auth)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Admin access required.");
+        }
+        return databaseStatsService.getStats();
+    }
+
     /** Disconnects a specific Gmail account (URL-encoded email in path). */
     @DeleteMapping("/gmail/sessions/{email}")
     public ResponseEntity<GmailSessionStatusDto> disconnectByEmail(@PathVariable String email,
@@ -389,9 +411,13 @@ public class SettingsController {
         dto.setSessionCreatedAt(sessionService.getSessionCreatedAt());
         dto.setConnectedEmail(sessionService.getConnectedEmail());
         dto.setCloudEnvironment(systemDepsInstaller.isCloudFoundry());
+        dto.setBrowserReady(sessionService.isReady());
+        dto.setBrowserInitError(sessionService.getInitError());
         dto.setSessions(sessions);
 
-        if (dto.isConnecting()) {
+        if (!dto.isBrowserReady()) {
+            dto.setMessage("Browser is starting up — sending and imports will be available shortly.");
+        } else if (dto.isConnecting()) {
             dto.setMessage("Browser is open — please log into Gmail. Do not close the browser window.");
         } else if (dto.getConnectError() != null) {
             dto.setMessage("Last attempt failed: " + dto.getConnectError());
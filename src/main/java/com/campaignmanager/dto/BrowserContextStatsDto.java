@@ -0,0 +1,17 @@
+package com.campaignmanager.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class BrowserContextStatsDto {
+    private int capacity;            // max resident contexts (count limit capped by memory budget)
+    private int residentCount;
+    private long idleEvictions;      // closed after the idle timeout
+    private long capacityEvictions;  // closed to make room for another account (LRU)
+    private int workers;             // browser worker processes; 0 = browser runs inside the app
+    private long workerRestarts;
+    private List<ResidentContextDto> contexts = new ArrayList<>();
+}
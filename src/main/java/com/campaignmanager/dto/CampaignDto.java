@@ -22,6 +22,10 @@ public class CampaignDto {
     private String tanzuContact;
     private String company;
 
+    /** Read-only here — set by a Google Sheet import with sync=true. */
+    private String sheetSyncUrl;
+    private LocalDateTime sheetSyncedAt;
+
     private CampaignStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime launchedAt;
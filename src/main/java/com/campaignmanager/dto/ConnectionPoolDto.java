@@ -0,0 +1,14 @@
+package com.campaignmanager.dto;
+
+import lombok.Data;
+
+@Data
+public class ConnectionPoolDto {
+    private String name;      // Hikari pool name: "primary", "replica", or Spring Boot's default
+    private int active;       // connections in use
+    private int idle;
+    private int total;
+    private int waiting;      // threads blocked waiting for a connection
+    private int maxSize;
+    private int minIdle;
+}
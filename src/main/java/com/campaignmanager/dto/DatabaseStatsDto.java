@@ -0,0 +1,15 @@
+package com.campaignmanager.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class DatabaseStatsDto {
+    private boolean replicaRouting;     // a read replica is bound and dashboard reads use it
+    private long replicaConnections;     // connections handed out for replica reads
+    private long primaryConnections;
+    private long replicaFallbacks;       // replica reads sent to the primary because the replica failed
+    private List<ConnectionPoolDto> pools = new ArrayList<>();
+}
@@ -16,10 +16,13 @@ public class EmailJobDto {
     private String contactEmail;
     private Integer stepNumber;
     private String subject;
+    /** Only on single-job responses; list pages leave it null. */
     private String body;
     private LocalDateTime scheduledAt;
     private LocalDateTime sentAt;
     private EmailJobStatus status;
     private String errorMessage;
     private String gmailEmail;
+    /** Moved to email_jobs_archive; read-only. */
+    private boolean archived;
 }
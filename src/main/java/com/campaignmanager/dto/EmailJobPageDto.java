@@ -0,0 +1,15 @@
+package com.campaignmanager.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class EmailJobPageDto {
+    private List<EmailJobDto> items;
+    /** Opaque cursor for the next page; null on the last page. */
+    private String nextCursor;
+    private boolean hasMore;
+    /** Jobs matching the filters across all pages; only set when a count was requested. */
+    private Long total;
+}
@@ -10,6 +10,10 @@ public class ExcelImportResultDto {
     private int contactsImported;
     private int templatesImported;
     private int skipped;
+    /** Re-import of a Google Sheet: rows unchanged since the last import, not touched. */
+    private int unchanged;
+    /** Re-import of a Google Sheet: emails of rows no longer in the sheet (reported, not deleted). */
+    private List<String> removedRows = new ArrayList<>();
     private List<String> errors = new ArrayList<>();
     private String message;
 }
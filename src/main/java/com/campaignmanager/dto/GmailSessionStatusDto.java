@@ -15,5 +15,7 @@ public class GmailSessionStatusDto {
     private String message;
     private String connectedEmail;    // Most recently connected Gmail account (backward compat)
     private boolean cloudEnvironment; // true when running on CF / headless (no display server)
+    private boolean browserReady;     // false while Playwright is still being set up in the background
+    private String browserInitError;  // set when background browser setup failed
     private List<ConnectedSessionDto> sessions = new ArrayList<>(); // All connected accounts
 }
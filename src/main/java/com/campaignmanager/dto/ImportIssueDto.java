@@ -0,0 +1,15 @@
+package com.campaignmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** One problem found by a dry-run import; {@code row} is the sheet row number (0 = whole sheet). */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportIssueDto {
+    private int row;
+    private String email;
+    private String message;
+}
@@ -0,0 +1,33 @@
+package com.campaignmanager.dto;
+
+import com.campaignmanager.model.ImportJobStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class ImportJobDto {
+    private Long id;
+    private Long campaignId;
+    private String source;
+    private ImportJobStatus status;
+    private boolean done;
+    /** Sheet data rows processed so far (committed, skipped or failed). */
+    private int rowsProcessed;
+    /** Rows per second over the current run. */
+    private double rowsPerSecond;
+    private int attempts;
+    private int contactsImported;
+    private int templatesImported;
+    private int skipped;
+    private int unchanged;
+    private List<String> removedRows = new ArrayList<>();
+    private List<String> errors = new ArrayList<>();
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime finishedAt;
+}
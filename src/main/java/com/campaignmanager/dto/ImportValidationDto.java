@@ -0,0 +1,29 @@
+package com.campaignmanager.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/** Result of a dry-run import (?dryRun=true): what the import would do, and every bad row. Nothing is written. */
+@Data
+public class ImportValidationDto {
+    /** "direct" (one row per contact) or "legacy" (Contacts + Templates sheets). */
+    private String format;
+    private int rowsChecked;
+    /** Rows that would import with no issue at all. */
+    private int rowsValid;
+    private int optedOut;
+    private int aeSaMismatched;
+    /** Contacts the import would add or update. */
+    private int contacts;
+    /**
+     * Email jobs (direct format) or templates (legacy format) the import would create, at
+     * most: steps that already have a job are left alone by the import.
+     */
+    private int jobsPlanned;
+    /** True when each row's Google Doc was fetched and checked for its Email N sections. */
+    private boolean docsProbed;
+    private List<ImportIssueDto> issues = new ArrayList<>();
+    private String message;
+}
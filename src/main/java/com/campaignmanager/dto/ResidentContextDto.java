@@ -0,0 +1,15 @@
+package com.campaignmanager.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ResidentContextDto {
+    private String email;
+    private LocalDateTime createdAt;
+    private LocalDateTime lastUsedAt;
+    private long idleSeconds;
+    private boolean warm;  // a pre-loaded Gmail tab is waiting for the next send
+    private Integer worker;  // worker process holding this context; null when in-process
+}
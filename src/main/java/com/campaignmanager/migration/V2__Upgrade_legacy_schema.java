@@ -0,0 +1,124 @@
+package com.campaignmanager.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Brings a database created by the old {@code ddl-auto=update} up to the V1 schema.
+ *
+ * Such databases are baselined at version 0, so V1 only created the tables they were
+ * missing.  This migration does, once, what DataInitializer used to attempt on every
+ * startup — add columns that arrived after their table, drop the enum CHECK constraints
+ * and the old global unique key on contacts.email, and give ownerless rows to admin —
+ * plus the columns added since.  On a database V1 created it finds nothing to do.
+ *
+ * Picked up by Spring Boot's Flyway auto-configuration as a bean; runs on H2 and MySQL.
+ */
+@Component
+@Slf4j
+public class V2__Upgrade_legacy_schema extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+
+        // ─── Columns added after their table was created ──────────────────────
+        addColumnIfMissing(connection, jdbc, "client_briefings", "mime_type", "VARCHAR(255)");
+        addColumnIfMissing(connection, jdbc, "client_briefings", "file_content", "LONGBLOB");
+        addColumnIfMissing(connection, jdbc, "campaign_plans", "email_format", "VARCHAR(255)");
+        addColumnIfMissing(connection, jdbc, "campaign_plans", "gmail_email", "VARCHAR(255)");
+        addColumnIfMissing(connection, jdbc, "campaigns", "sheet_sync_url", "VARCHAR(2048)");
+        addColumnIfMissing(connection, jdbc, "campaigns", "sheet_synced_at", mysql ? "DATETIME(6)" : "TIMESTAMP(6)");
+        addColumnIfMissing(connection, jdbc, "import_jobs", "unchanged", "INT DEFAULT 0 NOT NULL");
+        addColumnIfMissing(connection, jdbc, "import_jobs", "removed_rows", "LONGTEXT");
+
+        // ─── Status columns: plain VARCHAR(20), no enum CHECK ─────────────────
+        // Hibernate 6 maps enums to a native ENUM on MySQL and adds a CHECK on H2;
+        // either one rejects values added to the Java enum later (e.g. HOLD).  H2 in
+        // MySQL mode (used to test this against a MySQL-style schema) has ENUM too.
+        for (String table : List.of("campaigns", "email_jobs", "import_jobs")) {
+            dropCheckConstraints(jdbc, table, mysql);
+            String type = columnType(connection, table, "status");
+            if (mysql ? !"VARCHAR".equalsIgnoreCase(type) : type != null && type.startsWith("ENUM")) {
+                jdbc.execute("ALTER TABLE " + table + (mysql ? " MODIFY COLUMN" : " ALTER COLUMN")
+                        + " status VARCHAR(20) NOT NULL");
+                log.info("Converted {}.status to VARCHAR(20)", table);
+            }
+        }
+
+        // ─── contacts: unique per owner, not globally ─────────────────────────
+        List<String> emailKeys = mysql
+                ? jdbc.queryForList(
+                    "SELECT INDEX_NAME FROM information_schema.STATISTICS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'contacts' " +
+                    "AND NON_UNIQUE = 0 AND INDEX_NAME <> 'PRIMARY' " +
+                    "GROUP BY INDEX_NAME HAVING COUNT(*) = 1 AND MAX(COLUMN_NAME) = 'email'", String.class)
+                : jdbc.queryForList(
+                    "SELECT tc.CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc " +
+                    "JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE k " +
+                    "ON k.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA AND k.CONSTRAINT_NAME = tc.CONSTRAINT_NAME " +
+                    "WHERE tc.TABLE_SCHEMA = CURRENT_SCHEMA AND tc.TABLE_NAME = 'CONTACTS' " +
+                    "AND tc.CONSTRAINT_TYPE = 'UNIQUE' " +
+                    "GROUP BY tc.CONSTRAINT_NAME HAVING COUNT(*) = 1 AND MAX(k.COLUMN_NAME) = 'EMAIL'", String.class);
+        for (String name : emailKeys) {
+            jdbc.execute(mysql
+                    ? "ALTER TABLE contacts DROP INDEX `" + name + "`"
+                    : "ALTER TABLE contacts DROP CONSTRAINT \"" + name + "\"");
+            log.info("Dropped global unique key {} on contacts.email", name);
+        }
+
+        // ─── Rows from before multi-user support belong to admin ──────────────
+        for (String table : List.of("campaigns", "contacts")) {
+            int updated = jdbc.update("UPDATE " + table + " SET owner_id = " +
+                    "(SELECT MIN(id) FROM users WHERE username = 'admin') WHERE owner_id IS NULL");
+            if (updated > 0) log.info("Gave {} ownerless row(s) in {} to admin", updated, table);
+        }
+    }
+
+    private void addColumnIfMissing(Connection connection, JdbcTemplate jdbc, String table, String column,
+                                    String definition) throws SQLException {
+        if (columnType(connection, table, column) != null) return;
+        jdbc.execute("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        log.info("Added column {}.{}", table, column);
+    }
+
+    private void dropCheckConstraints(JdbcTemplate jdbc, String table, boolean mysql) {
+        List<String> checks = mysql
+                ? jdbc.queryForList(
+                    "SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND CONSTRAINT_TYPE = 'CHECK'",
+                    String.class, table)
+                : jdbc.queryForList(
+                    "SELECT CONSTRAINT_NAME FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS " +
+                    "WHERE TABLE_SCHEMA = CURRENT_SCHEMA AND TABLE_NAME = ? AND CONSTRAINT_TYPE = 'CHECK'",
+                    String.class, table.toUpperCase());
+        for (String name : checks) {
+            jdbc.execute(mysql
+                    ? "ALTER TABLE " + table + " DROP CHECK `" + name + "`"
+                    : "ALTER TABLE " + table + " DROP CONSTRAINT \"" + name + "\"");
+            log.info("Dropped check constraint {} from {}", name, table);
+        }
+    }
+
+    /** The column's type name, or null if the table has no such column. */
+    private String columnType(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        boolean upper = meta.storesUpperCaseIdentifiers();
+        try (ResultSet rs = meta.getColumns(connection.getCatalog(), connection.getSchema(),
+                upper ? table.toUpperCase() : table, upper ? column.toUpperCase() : column)) {
+            return rs.next() ? rs.getString("TYPE_NAME") : null;
+        }
+    }
+}
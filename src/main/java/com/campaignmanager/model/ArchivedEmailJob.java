@@ -0,0 +1,50 @@
+package com.campaignmanager.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A finished (SENT or SKIPPED) email job moved out of email_jobs by the archiver.
+ * Keeps the job's original id; read-only as far as the app is concerned.
+ */
+@Entity
+@Table(name = "email_jobs_archive")
+@Data
+@NoArgsConstructor
+public class ArchivedEmailJob {
+
+    @Id
+    private Long id;
+
+    /** The enrollment the job belonged to (no foreign key, see V7). */
+    @Column(name = "campaign_contact_id", nullable = false)
+    private Long campaignContactId;
+
+    @Column(name = "step_number", nullable = false)
+    private Integer stepNumber;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "scheduled_at", nullable = false)
+    private LocalDateTime scheduledAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "VARCHAR(20)")
+    private EmailJobStatus status;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -39,6 +39,13 @@ public class Campaign {
     @Column(name = "company")
     private String company;
 
+    /** Google Sheet re-imported on a schedule (only changed rows are processed); null = off. */
+    @Column(name = "sheet_sync_url", length = 2048)
+    private String sheetSyncUrl;
+
+    @Column(name = "sheet_synced_at")
+    private LocalDateTime sheetSyncedAt;
+
     /**
      * Retained for database compatibility. Each email template now carries
      * its own {@code scheduled_at} datetime; this field is no longer used.
@@ -48,7 +55,7 @@ public class Campaign {
     private String intervalDays = "";
 
     @Enumerated(EnumType.STRING)
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = "VARCHAR(20)")
     private CampaignStatus status = CampaignStatus.DRAFT;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
 @Table(name = "campaign_plan_documents")
 @Data
 @NoArgsConstructor
-public class CampaignPlanDocument {
+public class CampaignPlanDocument implements StoredDocument {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,10 +26,18 @@ public class CampaignPlanDocument {
     @Column(name = "mime_type")
     private String mimeType;
 
+    /** In-row content, for files written without a blob store; null once in the store. */
     @Lob
     @Column(name = "file_content", columnDefinition = "LONGBLOB")
     private byte[] fileContent;
 
+    /** SHA-256 (hex) of the content; its key in the blob store. */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "content_size")
+    private Long contentSize;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 }
@@ -1,9 +1,15 @@
 package com.campaignmanager.model;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum EmailJobStatus {
     SCHEDULED,
     SENT,
     FAILED,
     SKIPPED,
-    HOLD
+    HOLD;
+
+    /** Final states; jobs in them are moved to email_jobs_archive once old enough. */
+    public static final Set<EmailJobStatus> ARCHIVABLE = EnumSet.of(SENT, SKIPPED);
 }
@@ -0,0 +1,38 @@
+package com.campaignmanager.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Plain text extracted from a document's content, so generation prompts don't parse
+ * the same PDF or DOCX again. Keyed by content hash, so it follows the bytes rather
+ * than the row, and by extractor version, so changing the extractor invalidates it.
+ */
+@Entity
+@Table(name = "extracted_texts",
+        uniqueConstraints = @UniqueConstraint(name = "uk_extracted_texts_hash_version",
+                columnNames = {"content_hash", "extractor_version"}))
+@Data
+@NoArgsConstructor
+public class ExtractedText {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "extractor_version", nullable = false)
+    private int extractorVersion;
+
+    /** Empty when the file type is not supported (so it is not tried again). */
+    @Column(name = "content", nullable = false, columnDefinition = "LONGTEXT")
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,41 @@
+package com.campaignmanager.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Last fetched plain-text export of a Google Doc, with the validators Google sent,
+ * so imports that point at the same doc don't download it again.
+ */
+@Entity
+@Table(name = "google_doc_cache")
+@Data
+@NoArgsConstructor
+public class GoogleDocCache {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "doc_id", nullable = false, unique = true, length = 200)
+    private String docId;
+
+    @Column(name = "etag", length = 500)
+    private String etag;
+
+    @Column(name = "last_modified", length = 100)
+    private String lastModified;
+
+    @Column(name = "content", nullable = false, columnDefinition = "LONGTEXT")
+    private String content;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    /** Last time the content was confirmed current (fetched or revalidated). */
+    @Column(name = "checked_at", nullable = false)
+    private LocalDateTime checkedAt;
+}
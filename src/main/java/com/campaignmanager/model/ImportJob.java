@@ -0,0 +1,102 @@
+package com.campaignmanager.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A campaign spreadsheet import running in the background.  The workbook is kept on
+ * disk until the job finishes, and {@code checkpointRow} records how far it has
+ * committed, so a job interrupted by a restart continues where it stopped.
+ */
+@Entity
+@Table(name = "import_jobs")
+@Data
+@NoArgsConstructor
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "campaign_id", nullable = false)
+    private Long campaignId;
+
+    @Column(name = "created_by")
+    private String createdBy;
+
+    /** Original file name, or the Google Sheet URL. */
+    @Column(name = "source", length = 2048)
+    private String source;
+
+    /** Google Sheet to download before importing; null for uploaded files. */
+    @Column(name = "sheet_url", length = 2048)
+    private String sheetUrl;
+
+    /** Turn on the campaign's scheduled sync of {@code sheetUrl} once this import completes. */
+    @Column(name = "enable_sheet_sync", nullable = false)
+    private boolean enableSheetSync;
+
+    /** The workbook being imported, once uploaded or downloaded. */
+    @Column(name = "file_path", length = 1024)
+    private String filePath;
+
+    @Column(name = "replace_existing", nullable = false)
+    private boolean replaceExisting;
+
+    /** Replace mode's delete has run — it must not run again on resume. */
+    @Column(name = "cleared", nullable = false)
+    private boolean cleared;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, columnDefinition = "VARCHAR(20)")
+    private ImportJobStatus status = ImportJobStatus.QUEUED;
+
+    /** Last sheet row whose batch has committed; 0 = nothing yet. */
+    @Column(name = "checkpoint_row", nullable = false)
+    private int checkpointRow;
+
+    /** {@code checkpointRow} when the current run started, for the throughput figure. */
+    @Column(name = "run_start_row", nullable = false)
+    private int runStartRow;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "contacts_imported", nullable = false)
+    private int contactsImported;
+
+    @Column(name = "jobs_created", nullable = false)
+    private int jobsCreated;
+
+    @Column(name = "skipped", nullable = false)
+    private int skipped;
+
+    @Column(name = "unchanged", nullable = false, columnDefinition = "INT DEFAULT 0")
+    private int unchanged;
+
+    /** Emails of rows that left the sheet since its last import, as a JSON array. */
+    @Column(name = "removed_rows", columnDefinition = "LONGTEXT")
+    private String removedRows;
+
+    /** Row errors so far, as a JSON array of strings. */
+    @Column(name = "errors", columnDefinition = "LONGTEXT")
+    private String errors;
+
+    @Column(name = "message", columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
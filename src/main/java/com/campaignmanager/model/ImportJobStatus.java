@@ -0,0 +1,8 @@
+package com.campaignmanager.model;
+
+public enum ImportJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
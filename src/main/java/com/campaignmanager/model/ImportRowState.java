@@ -0,0 +1,47 @@
+package com.campaignmanager.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hash of a direct-format sheet row as last imported into a campaign, keyed by the
+ * row's email, with the hash of its Google Doc.  A re-import of the same Google Sheet
+ * skips rows whose cells and doc are both unchanged and reports rows that have
+ * disappeared.  Written through {@code ImportBulkRepository}.
+ */
+@Entity
+@Table(name = "import_row_states",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"campaign_id", "sheet_key", "row_key"}))
+@Data
+@NoArgsConstructor
+public class ImportRowState {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "campaign_id", nullable = false)
+    private Long campaignId;
+
+    /** Google Sheet ID. */
+    @Column(name = "sheet_key", nullable = false, length = 200)
+    private String sheetKey;
+
+    /** Lower-cased email of the row. */
+    @Column(name = "row_key", nullable = false, length = 320)
+    private String rowKey;
+
+    /** SHA-256 (hex) of the row's imported cell values. */
+    @Column(name = "row_hash", nullable = false, length = 64)
+    private String rowHash;
+
+    /** SHA-256 (hex) of the Email N sections parsed from the row's Google Doc; null without one. */
+    @Column(name = "doc_hash", length = 64)
+    private String docHash;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,24 @@
+package com.campaignmanager.model;
+
+/**
+ * An uploaded file: its content is in the blob store under contentHash or, for rows
+ * written while no store is configured, in the file_content column.
+ */
+public interface StoredDocument {
+
+    String getOriginalFileName();
+
+    String getMimeType();
+
+    byte[] getFileContent();
+
+    void setFileContent(byte[] fileContent);
+
+    String getContentHash();
+
+    void setContentHash(String contentHash);
+
+    Long getContentSize();
+
+    void setContentSize(Long contentSize);
+}
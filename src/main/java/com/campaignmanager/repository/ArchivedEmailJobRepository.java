@@ -0,0 +1,66 @@
+package com.campaignmanager.repository;
+
+import com.campaignmanager.model.ArchivedEmailJob;
+import com.campaignmanager.model.EmailJobStatus;
+import com.campaignmanager.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads of email_jobs_archive; the archiver writes it with plain SQL. Queries mirror
+ * their {@link EmailJobRepository} counterparts so callers can combine the two.
+ */
+public interface ArchivedEmailJobRepository extends JpaRepository<ArchivedEmailJob, Long> {
+
+    /** {@link EmailJobRepository#findPage} over the archive (same filters, keyset and order). */
+    @Query("SELECT a.id AS id, cc.id AS campaignContactId, c.id AS campaignId, " +
+           "c.name AS campaignName, c.gmailEmail AS gmailEmail, ct.id AS contactId, " +
+           "ct.name AS contactName, ct.email AS contactEmail, a.stepNumber AS stepNumber, " +
+           "a.subject AS subject, a.scheduledAt AS scheduledAt, a.sentAt AS sentAt, " +
+           "a.status AS status, a.errorMessage AS errorMessage " +
+           "FROM ArchivedEmailJob a JOIN CampaignContact cc ON cc.id = a.campaignContactId " +
+           "JOIN cc.campaign c JOIN cc.contact ct " +
+           "WHERE (:status IS NULL OR a.status = :status) " +
+           "AND (:campaignId IS NULL OR c.id = :campaignId) " +
+           "AND (:sender IS NULL OR c.gmailEmail = :sender) " +
+           "AND (:from IS NULL OR a.scheduledAt >= :from) " +
+           "AND (:to IS NULL OR a.scheduledAt < :to) " +
+           "AND (:afterAt IS NULL OR (a.scheduledAt <= :afterAt " +
+           "     AND (a.scheduledAt < :afterAt OR a.id < :afterId))) " +
+           "ORDER BY a.scheduledAt DESC, a.id DESC")
+    List<EmailJobSummary> findPage(@Param("status") EmailJobStatus status,
+                                   @Param("campaignId") Long campaignId,
+                                   @Param("sender") String sender,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("afterAt") LocalDateTime afterAt,
+                                   @Param("afterId") Long afterId,
+                                   Pageable page);
+
+    @Query("SELECT COUNT(a) FROM ArchivedEmailJob a JOIN CampaignContact cc ON cc.id = a.campaignContactId " +
+           "JOIN cc.campaign c " +
+           "WHERE (:status IS NULL OR a.status = :status) " +
+           "AND (:campaignId IS NULL OR c.id = :campaignId) " +
+           "AND (:sender IS NULL OR c.gmailEmail = :sender) " +
+           "AND (:from IS NULL OR a.scheduledAt >= :from) " +
+           "AND (:to IS NULL OR a.scheduledAt < :to)")
+    long countPage(@Param("status") EmailJobStatus status,
+                   @Param("campaignId") Long campaignId,
+                   @Param("sender") String sender,
+                   @Param("from") LocalDateTime from,
+                   @Param("to") LocalDateTime to);
+
+    boolean existsByCampaignContactIdAndStepNumber(Long campaignContactId, int stepNumber);
+
+    @Query("SELECT COUNT(a) FROM ArchivedEmailJob a WHERE a.status = :status")
+    long countByStatus(@Param("status") EmailJobStatus status);
+
+    @Query("SELECT COUNT(a) FROM ArchivedEmailJob a JOIN CampaignContact cc ON cc.id = a.campaignContactId " +
+           "WHERE a.status = :status AND cc.campaign.owner = :owner")
+    long countByStatusAndOwner(@Param("status") EmailJobStatus status, @Param("owner") User owner);
+}
@@ -1,10 +1,12 @@
 package com.campaignmanager.repository;
 
 import com.campaignmanager.model.CampaignContact;
+import com.campaignmanager.model.Contact;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +18,16 @@ public interface CampaignContactRepository extends JpaRepository<CampaignContact
     @Query("SELECT COUNT(cc) FROM CampaignContact cc WHERE cc.campaign.id = :campaignId")
     long countByCampaignId(@Param("campaignId") Long campaignId);
 
+    /** Grouped form of {@link #countByCampaignId}; see {@link IdCount#byId}. */
+    @Query("SELECT cc.campaign.id AS id, COUNT(cc) AS count FROM CampaignContact cc " +
+           "WHERE cc.campaign.id IN :campaignIds GROUP BY cc.campaign.id")
+    List<IdCount> countByCampaignIds(@Param("campaignIds") Collection<Long> campaignIds);
+
+    /** The campaign's enrolled contacts with their owners, in one query. */
+    @Query("SELECT ct FROM CampaignContact cc JOIN cc.contact ct LEFT JOIN FETCH ct.owner " +
+           "WHERE cc.campaign.id = :campaignId")
+    List<Contact> findContactsByCampaignId(@Param("campaignId") Long campaignId);
+
     void deleteByCampaignId(Long campaignId);
 
     List<CampaignContact> findByContactId(Long contactId);
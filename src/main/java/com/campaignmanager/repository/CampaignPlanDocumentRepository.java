@@ -13,5 +13,7 @@ public interface CampaignPlanDocumentRepository extends JpaRepository<CampaignPl
 
     List<CampaignPlanDocument> findAllByCampaignPlan(CampaignPlan plan);
 
+    List<CampaignPlanDocumentSummary> findSummariesByCampaignPlan(CampaignPlan plan);
+
     Optional<CampaignPlanDocument> findByIdAndCampaignPlan(Long id, CampaignPlan plan);
 }
@@ -0,0 +1,11 @@
+package com.campaignmanager.repository;
+
+import java.time.LocalDateTime;
+
+/** Campaign plan document without its file content. */
+public interface CampaignPlanDocumentSummary {
+    Long getId();
+    String getOriginalFileName();
+    String getMimeType();
+    LocalDateTime getCreatedAt();
+}
@@ -4,14 +4,20 @@ import com.campaignmanager.model.Campaign;
 import com.campaignmanager.model.CampaignStatus;
 import com.campaignmanager.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CampaignRepository extends JpaRepository<Campaign, Long> {
     List<Campaign> findByStatus(CampaignStatus status);
+    List<Campaign> findBySheetSyncUrlIsNotNullAndStatusIn(Collection<CampaignStatus> statuses);
     long countByStatus(CampaignStatus status);
     long countByGmailEmail(String gmailEmail);
 
+    @Query("SELECT c FROM Campaign c LEFT JOIN FETCH c.owner")
+    List<Campaign> findAllWithOwner();
+
     List<Campaign> findAllByOwner(User owner);
     List<Campaign> findByStatusAndOwner(CampaignStatus status, User owner);
     long countByOwner(User owner);
@@ -4,8 +4,11 @@ import com.campaignmanager.model.ClientBriefing;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ClientBriefingRepository extends JpaRepository<ClientBriefing, Long> {
 
-    List<ClientBriefing> findAllByOrderByCreatedAtDesc();
+    List<ClientBriefingSummary> findSummariesByOrderByCreatedAtDesc();
+
+    Optional<ClientBriefingSummary> findSummaryById(Long id);
 }
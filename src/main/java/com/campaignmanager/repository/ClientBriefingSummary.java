@@ -0,0 +1,13 @@
+package com.campaignmanager.repository;
+
+import java.time.LocalDateTime;
+
+/** Client briefing without its uploaded file (served by GET /api/client-briefings/{id}/document). */
+public interface ClientBriefingSummary {
+    Long getId();
+    String getClientName();
+    String getDocumentLink();
+    String getUploadedFileName();
+    String getOriginalFileName();
+    LocalDateTime getCreatedAt();
+}
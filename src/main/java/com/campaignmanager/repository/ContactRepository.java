@@ -13,20 +13,19 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
     Optional<Contact> findByEmail(String email);
     boolean existsByEmail(String email);
 
-    @Query("SELECT c FROM Contact c WHERE " +
-           "(:search IS NULL OR LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
-           "OR LOWER(c.email) LIKE LOWER(CONCAT('%', :search, '%')) " +
-           "OR LOWER(c.company) LIKE LOWER(CONCAT('%', :search, '%')))")
-    List<Contact> searchContacts(@Param("search") String search);
-
     Optional<Contact> findByEmailAndOwner(String email, User owner);
     boolean existsByEmailAndOwner(String email, User owner);
-    List<Contact> findAllByOwner(User owner);
     long countByOwner(User owner);
 
-    @Query("SELECT c FROM Contact c WHERE c.owner = :owner AND " +
+    /** Contact list rows; {@code ownerId} null = every owner, {@code search} null = no filter. */
+    @Query("SELECT c.id AS id, c.name AS name, c.email AS email, c.role AS role, " +
+           "c.company AS company, c.category AS category, c.phone AS phone, c.play AS play, " +
+           "c.subPlay AS subPlay, c.aeRole AS aeRole, c.createdAt AS createdAt, " +
+           "o.username AS ownerUsername " +
+           "FROM Contact c LEFT JOIN c.owner o WHERE " +
+           "(:ownerId IS NULL OR o.id = :ownerId) AND " +
            "(:search IS NULL OR LOWER(c.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
            "OR LOWER(c.email) LIKE LOWER(CONCAT('%', :search, '%')) " +
            "OR LOWER(c.company) LIKE LOWER(CONCAT('%', :search, '%')))")
-    List<Contact> searchContactsByOwner(@Param("search") String search, @Param("owner") User owner);
+    List<ContactSummary> findSummaries(@Param("search") String search, @Param("ownerId") Long ownerId);
 }
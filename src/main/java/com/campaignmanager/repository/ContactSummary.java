@@ -0,0 +1,19 @@
+package com.campaignmanager.repository;
+
+import java.time.LocalDateTime;
+
+/** List row of a contact: no email link, owner reduced to its username. */
+public interface ContactSummary {
+    Long getId();
+    String getName();
+    String getEmail();
+    String getRole();
+    String getCompany();
+    String getCategory();
+    String getPhone();
+    String getPlay();
+    String getSubPlay();
+    String getAeRole();
+    LocalDateTime getCreatedAt();
+    String getOwnerUsername();
+}
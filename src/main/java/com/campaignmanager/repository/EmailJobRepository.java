@@ -3,21 +3,39 @@ package com.campaignmanager.repository;
 import com.campaignmanager.model.EmailJob;
 import com.campaignmanager.model.EmailJobStatus;
 import com.campaignmanager.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface EmailJobRepository extends JpaRepository<EmailJob, Long> {
 
-    @Query("SELECT ej FROM EmailJob ej WHERE ej.status = 'SCHEDULED' AND ej.scheduledAt <= :now")
+    /** Due jobs with what the scheduler checks before sending (campaign, contact, the contact's other steps) in one query. */
+    @Query("SELECT ej FROM EmailJob ej JOIN FETCH ej.campaignContact cc JOIN FETCH cc.campaign " +
+           "JOIN FETCH cc.contact LEFT JOIN FETCH cc.emailJobs " +
+           "WHERE ej.status = 'SCHEDULED' AND ej.scheduledAt <= :now")
     List<EmailJob> findDueJobs(@Param("now") LocalDateTime now);
 
-    List<EmailJob> findByCampaignContactCampaignId(Long campaignId);
+    /** Assigned sender accounts (campaign gmailEmail, possibly null) with SCHEDULED jobs due by {@code until} on ACTIVE campaigns. */
+    @Query("SELECT DISTINCT ej.campaignContact.campaign.gmailEmail FROM EmailJob ej " +
+           "WHERE ej.status = 'SCHEDULED' AND ej.scheduledAt <= :until " +
+           "AND ej.campaignContact.campaign.status = 'ACTIVE'")
+    List<String> findSenderEmailsDueBefore(@Param("until") LocalDateTime until);
+
+    /** Same as {@link #findSenderEmailsDueBefore} but only for jobs due in ({@code from}, {@code until}]. */
+    @Query("SELECT DISTINCT ej.campaignContact.campaign.gmailEmail FROM EmailJob ej " +
+           "WHERE ej.status = 'SCHEDULED' AND ej.scheduledAt > :from AND ej.scheduledAt <= :until " +
+           "AND ej.campaignContact.campaign.status = 'ACTIVE'")
+    List<String> findSenderEmailsDueBetween(@Param("from") LocalDateTime from,
+                                            @Param("until") LocalDateTime until);
 
-    List<EmailJob> findByCampaignContactCampaignIdAndStatus(Long campaignId, EmailJobStatus status);
+    List<EmailJob> findByCampaignContactCampaignId(Long campaignId);
 
     List<EmailJob> findByCampaignContactContactId(Long contactId);
 
@@ -27,21 +45,70 @@ public interface EmailJobRepository extends JpaRepository<EmailJob, Long> {
     @Query("SELECT COUNT(ej) FROM EmailJob ej WHERE ej.status = 'SENT' AND ej.sentAt >= :since")
     long countSentSince(@Param("since") LocalDateTime since);
 
-    List<EmailJob> findByStatus(EmailJobStatus status);
-
-    List<EmailJob> findAllByOrderByScheduledAtDesc();
+    /**
+     * One page of the job listing, newest first, keyset-paginated on (scheduledAt, id).
+     * Every filter is optional (null = no filter); {@code afterAt}/{@code afterId} are the
+     * last row of the previous page, written as a {@code <=} bound so the database can
+     * range-scan the (scheduled_at, id) index.  Selects only the listed columns (no body).
+     */
+    @Query("SELECT ej.id AS id, cc.id AS campaignContactId, c.id AS campaignId, " +
+           "c.name AS campaignName, c.gmailEmail AS gmailEmail, ct.id AS contactId, " +
+           "ct.name AS contactName, ct.email AS contactEmail, ej.stepNumber AS stepNumber, " +
+           "ej.subject AS subject, ej.scheduledAt AS scheduledAt, ej.sentAt AS sentAt, " +
+           "ej.status AS status, ej.errorMessage AS errorMessage " +
+           "FROM EmailJob ej JOIN ej.campaignContact cc JOIN cc.campaign c JOIN cc.contact ct " +
+           "WHERE (:status IS NULL OR ej.status = :status) " +
+           "AND (:campaignId IS NULL OR c.id = :campaignId) " +
+           "AND (:sender IS NULL OR c.gmailEmail = :sender) " +
+           "AND (:from IS NULL OR ej.scheduledAt >= :from) " +
+           "AND (:to IS NULL OR ej.scheduledAt < :to) " +
+           "AND (:afterAt IS NULL OR (ej.scheduledAt <= :afterAt " +
+           "     AND (ej.scheduledAt < :afterAt OR ej.id < :afterId))) " +
+           "ORDER BY ej.scheduledAt DESC, ej.id DESC")
+    List<EmailJobSummary> findPage(@Param("status") EmailJobStatus status,
+                                   @Param("campaignId") Long campaignId,
+                                   @Param("sender") String sender,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to,
+                                   @Param("afterAt") LocalDateTime afterAt,
+                                   @Param("afterId") Long afterId,
+                                   Pageable page);
+
+    /** Total for {@link #findPage} with the same filters (no cursor). */
+    @Query("SELECT COUNT(ej) FROM EmailJob ej JOIN ej.campaignContact cc JOIN cc.campaign c " +
+           "WHERE (:status IS NULL OR ej.status = :status) " +
+           "AND (:campaignId IS NULL OR c.id = :campaignId) " +
+           "AND (:sender IS NULL OR c.gmailEmail = :sender) " +
+           "AND (:from IS NULL OR ej.scheduledAt >= :from) " +
+           "AND (:to IS NULL OR ej.scheduledAt < :to)")
+    long countPage(@Param("status") EmailJobStatus status,
+                   @Param("campaignId") Long campaignId,
+                   @Param("sender") String sender,
+                   @Param("from") LocalDateTime from,
+                   @Param("to") LocalDateTime to);
 
     boolean existsByCampaignContactIdAndStepNumber(Long campaignContactId, int stepNumber);
 
     long countByCampaignContactCampaignId(Long campaignId);
 
-    @Query("SELECT ej FROM EmailJob ej WHERE ej.campaignContact.campaign.id = :campaignId " +
-           "ORDER BY ej.scheduledAt DESC")
-    List<EmailJob> findByCampaignIdOrdered(@Param("campaignId") Long campaignId);
-
     @Query("SELECT COUNT(ej) FROM EmailJob ej WHERE ej.campaignContact.contact.id = :contactId AND ej.status = 'SCHEDULED'")
     long countScheduledByContactId(@Param("contactId") Long contactId);
 
+    /** Grouped form of {@link #countScheduledByContactId}; see {@link IdCount#byId}. */
+    @Query("SELECT cc.contact.id AS id, COUNT(ej) AS count FROM EmailJob ej JOIN ej.campaignContact cc " +
+           "WHERE ej.status = 'SCHEDULED' AND cc.contact.id IN :contactIds GROUP BY cc.contact.id")
+    List<IdCount> countScheduledByContactIds(@Param("contactIds") Collection<Long> contactIds);
+
+    /** Scheduled jobs per contact for every contact of an owner (null = all owners). */
+    @Query("SELECT cc.contact.id AS id, COUNT(ej) AS count FROM EmailJob ej JOIN ej.campaignContact cc " +
+           "WHERE ej.status = 'SCHEDULED' AND (:ownerId IS NULL OR cc.contact.owner.id = :ownerId) " +
+           "GROUP BY cc.contact.id")
+    List<IdCount> countScheduledByContactOwner(@Param("ownerId") Long ownerId);
+
+    /** A job with its enrollment, campaign and contact loaded in the same query. */
+    @EntityGraph(attributePaths = {"campaignContact.campaign", "campaignContact.contact"})
+    Optional<EmailJob> findDetailedById(Long id);
+
     @Query("SELECT COUNT(ej) FROM EmailJob ej WHERE ej.status = :status AND ej.campaignContact.campaign.owner = :owner")
     long countByStatusAndOwner(@Param("status") EmailJobStatus status, @Param("owner") User owner);
 
@@ -0,0 +1,26 @@
+package com.campaignmanager.repository;
+
+import com.campaignmanager.model.EmailJobStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * List row of an email job: everything the job tables show, without the body
+ * (fetched per job from GET /api/email-jobs/{id}).
+ */
+public interface EmailJobSummary {
+    Long getId();
+    Long getCampaignContactId();
+    Long getCampaignId();
+    String getCampaignName();
+    String getGmailEmail();
+    Long getContactId();
+    String getContactName();
+    String getContactEmail();
+    Integer getStepNumber();
+    String getSubject();
+    LocalDateTime getScheduledAt();
+    LocalDateTime getSentAt();
+    EmailJobStatus getStatus();
+    String getErrorMessage();
+}
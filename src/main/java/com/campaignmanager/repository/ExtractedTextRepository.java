@@ -0,0 +1,22 @@
+package com.campaignmanager.repository;
+
+import com.campaignmanager.model.ExtractedText;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ExtractedTextRepository extends JpaRepository<ExtractedText, Long> {
+
+    List<ExtractedText> findByContentHashInAndExtractorVersion(Collection<String> contentHashes, int extractorVersion);
+
+    /** Entries from an older extractor, or for content no plan document has any more. */
+    @Modifying
+    @Query("DELETE FROM ExtractedText t WHERE t.createdAt < :before AND (t.extractorVersion <> :version"
+            + " OR NOT EXISTS (SELECT 1 FROM CampaignPlanDocument d WHERE d.contentHash = t.contentHash))")
+    int deleteStale(@Param("version") int version, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,10 @@
+package com.campaignmanager.repository;
+
+import com.campaignmanager.model.GoogleDocCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface GoogleDocCacheRepository extends JpaRepository<GoogleDocCache, Long> {
+    Optional<GoogleDocCache> findByDocId(String docId);
+}
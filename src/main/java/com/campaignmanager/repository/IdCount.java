@@ -0,0 +1,38 @@
+package com.campaignmanager.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/** One row of a grouped count ({@code SELECT x.id AS id, COUNT(..) AS count ... GROUP BY x.id}). */
+public interface IdCount {
+
+    /** IN-list size per grouped count query; keeps bind parameters well under driver limits. */
+    int CHUNK = 1000;
+
+    Long getId();
+    long getCount();
+
+    /** The rows of a grouped count by id. */
+    static Map<Long, Long> byId(List<IdCount> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (IdCount row : rows) counts.put(row.getId(), row.getCount());
+        return counts;
+    }
+
+    /**
+     * Runs a grouped count over {@code ids} in chunks of {@link #CHUNK} and returns the
+     * counts by id.  Ids with no rows are absent from the map (count 0).
+     */
+    static Map<Long, Long> byId(Collection<Long> ids, Function<Collection<Long>, List<IdCount>> query) {
+        Map<Long, Long> counts = new HashMap<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += CHUNK) {
+            counts.putAll(byId(query.apply(all.subList(from, Math.min(from + CHUNK, all.size())))));
+        }
+        return counts;
+    }
+}
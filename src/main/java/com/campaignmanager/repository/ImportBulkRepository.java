@@ -0,0 +1,321 @@
+package com.campaignmanager.repository;
+
+import com.campaignmanager.model.Contact;
+import com.campaignmanager.model.EmailJobStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Set-based writes for spreadsheet imports.
+ *
+ * Contacts, enrollments and email jobs all use IDENTITY keys, which stops Hibernate
+ * from batching their inserts, so a row-at-a-time import costs several round trips
+ * per row.  Here each chunk of rows is handled with one query that preloads what
+ * already exists, JDBC batches for the inserts and updates, and one query to read
+ * back the new ids.  Nothing goes through the persistence context, so it does not
+ * grow with the import.  Callers run each chunk inside a transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ImportBulkRepository {
+
+    private static final String CONTACT_COLUMNS =
+            "id, name, email, role, company, category, phone, play, sub_play, ae_role, email_link, created_at";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Result of {@link #enroll}: the enrollment (campaign_contacts) id by contact id for every
+     * given contact, and how many of them were newly enrolled.
+     */
+    public record Enrollments(Map<Long, Long> byContact, int inserted) {}
+
+    /** A new email job; {@code campaignContactId} is the enrollment it belongs to. */
+    public record JobRow(long campaignContactId, int stepNumber, String subject, String body,
+                         LocalDateTime scheduledAt, EmailJobStatus status) {}
+
+    // ─── Contacts ─────────────────────────────────────────────────────────────
+
+    /**
+     * Existing contacts by {@link #emailKey}, as detached {@link Contact} objects (owner not
+     * loaded).  Emails match regardless of case.  With no owner any contact with the email
+     * matches, oldest first, as {@code findByEmail} did for ownerless campaigns.
+     */
+    public Map<String, Contact> findContacts(Long ownerId, Collection<String> emails) {
+        Map<String, Contact> byEmail = new HashMap<>();
+        if (emails.isEmpty()) return byEmail;
+        MapSqlParameterSource params = new MapSqlParameterSource("emails",
+                emails.stream().map(ImportBulkRepository::emailKey).distinct().toList());
+        String sql = "SELECT " + CONTACT_COLUMNS + " FROM contacts WHERE LOWER(email) IN (:emails)";
+        if (ownerId != null) {
+            sql += " AND owner_id = :owner";
+            params.addValue("owner", ownerId);
+        }
+        namedJdbcTemplate.query(sql + " ORDER BY id", params, rs -> {
+            Contact c = new Contact();
+            c.setId(rs.getLong("id"));
+            c.setName(rs.getString("name"));
+            c.setEmail(rs.getString("email"));
+            c.setRole(rs.getString("role"));
+            c.setCompany(rs.getString("company"));
+            c.setCategory(rs.getString("category"));
+            c.setPhone(rs.getString("phone"));
+            c.setPlay(rs.getString("play"));
+            c.setSubPlay(rs.getString("sub_play"));
+            c.setAeRole(rs.getString("ae_role"));
+            c.setEmailLink(rs.getString("email_link"));
+            Timestamp created = rs.getTimestamp("created_at");
+            c.setCreatedAt(created != null ? created.toLocalDateTime() : null);
+            byEmail.putIfAbsent(emailKey(c.getEmail()), c);
+        });
+        return byEmail;
+    }
+
+    /**
+     * Id of every contact the owner has, by {@link #emailKey} — the whole import's existence
+     * index in one pass.  With no owner all contacts are indexed, the oldest winning for an email.
+     */
+    public Map<String, Long> findContactIds(Long ownerId) {
+        Map<String, Long> ids = new HashMap<>();
+        RowCallbackHandler row = rs -> { ids.putIfAbsent(emailKey(rs.getString("email")), rs.getLong("id")); };
+        if (ownerId != null) {
+            jdbcTemplate.query("SELECT id, email FROM contacts WHERE owner_id = ? ORDER BY id", row, ownerId);
+        } else {
+            jdbcTemplate.query("SELECT id, email FROM contacts ORDER BY id", row);
+        }
+        return ids;
+    }
+
+    /** How contact maps here are keyed: emails compare without case, as MySQL's collation does. */
+    public static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Inserts contacts without an id and updates the rest, one JDBC batch each, then sets
+     * the generated ids on the inserted objects.
+     */
+    public void saveContacts(Collection<Contact> contacts, Long ownerId) {
+        List<Contact> inserts = new ArrayList<>();
+        List<Contact> updates = new ArrayList<>();
+        for (Contact c : contacts) (c.getId() == null ? inserts : updates).add(c);
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE contacts SET name = ?, role = ?, company = ?, category = ?, phone = ?, " +
+                    "play = ?, sub_play = ?, ae_role = ?, email_link = ? WHERE id = ?",
+                    updates, updates.size(), (ps, c) -> {
+                        ps.setString(1, c.getName());
+                        ps.setString(2, c.getRole());
+                        ps.setString(3, c.getCompany());
+                        ps.setString(4, c.getCategory());
+                        ps.setString(5, c.getPhone());
+                        ps.setString(6, c.getPlay());
+                        ps.setString(7, c.getSubPlay());
+                        ps.setString(8, c.getAeRole());
+                        ps.setString(9, c.getEmailLink());
+                        ps.setLong(10, c.getId());
+                    });
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO contacts (name, email, owner_id, role, company, category, phone, play, " +
+                    "sub_play, ae_role, email_link, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                    inserts, inserts.size(), (ps, c) -> {
+                        ps.setString(1, c.getName());
+                        ps.setString(2, c.getEmail());
+                        ps.setObject(3, ownerId);
+                        ps.setString(4, c.getRole());
+                        ps.setString(5, c.getCompany());
+                        ps.setString(6, c.getCategory());
+                        ps.setString(7, c.getPhone());
+                        ps.setString(8, c.getPlay());
+                        ps.setString(9, c.getSubPlay());
+                        ps.setString(10, c.getAeRole());
+                        ps.setString(11, c.getEmailLink());
+                        ps.setTimestamp(12, Timestamp.valueOf(
+                                c.getCreatedAt() != null ? c.getCreatedAt() : LocalDateTime.now()));
+                    });
+            Map<String, Contact> saved = findContacts(ownerId, inserts.stream().map(Contact::getEmail).toList());
+            for (Contact c : inserts) {
+                Contact row = saved.get(emailKey(c.getEmail()));
+                if (row == null) throw new IllegalStateException("Inserted contact not found: " + c.getEmail());
+                c.setId(row.getId());
+            }
+        }
+    }
+
+    // ─── Enrollments ──────────────────────────────────────────────────────────
+
+    /**
+     * Enrolls the contacts in the campaign where they aren't already.  {@code inserted} sums
+     * the batch's update counts; a driver that reports {@code SUCCESS_NO_INFO} counts as one
+     * row per statement.
+     */
+    public Enrollments enroll(Long campaignId, Collection<Long> contactIds) {
+        Map<Long, Long> enrolled = findEnrollments(campaignId, contactIds);
+        List<Long> missing = contactIds.stream().distinct().filter(id -> !enrolled.containsKey(id)).toList();
+        int inserted = 0;
+        if (!missing.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[][] counts = jdbcTemplate.batchUpdate(
+                    "INSERT INTO campaign_contacts (campaign_id, contact_id, enrolled_at) VALUES (?, ?, ?)",
+                    missing, missing.size(), (ps, contactId) -> {
+                        ps.setLong(1, campaignId);
+                        ps.setLong(2, contactId);
+                        ps.setTimestamp(3, now);
+                    });
+            for (int[] batch : counts) {
+                for (int count : batch) inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+            enrolled.putAll(findEnrollments(campaignId, missing));
+        }
+        return new Enrollments(enrolled, inserted);
+    }
+
+    private Map<Long, Long> findEnrollments(Long campaignId, Collection<Long> contactIds) {
+        Map<Long, Long> byContact = new LinkedHashMap<>();
+        if (contactIds.isEmpty()) return byContact;
+        namedJdbcTemplate.query(
+                "SELECT contact_id, id FROM campaign_contacts WHERE campaign_id = :campaign AND contact_id IN (:contacts)",
+                new MapSqlParameterSource("campaign", campaignId).addValue("contacts", contactIds),
+                rs -> { byContact.put(rs.getLong("contact_id"), rs.getLong("id")); });
+        return byContact;
+    }
+
+    // ─── Email jobs ───────────────────────────────────────────────────────────
+
+    /** Step numbers that already have a job, by enrollment id (archived jobs included). */
+    public Map<Long, Set<Integer>> findJobSteps(Collection<Long> campaignContactIds) {
+        Map<Long, Set<Integer>> steps = new HashMap<>();
+        if (campaignContactIds.isEmpty()) return steps;
+        namedJdbcTemplate.query(
+                "SELECT campaign_contact_id, step_number FROM email_jobs WHERE campaign_contact_id IN (:ids) " +
+                "UNION ALL " +
+                "SELECT campaign_contact_id, step_number FROM email_jobs_archive WHERE campaign_contact_id IN (:ids)",
+                new MapSqlParameterSource("ids", campaignContactIds),
+                rs -> {
+                    steps.computeIfAbsent(rs.getLong("campaign_contact_id"), k -> new HashSet<>())
+                            .add(rs.getInt("step_number"));
+                });
+        return steps;
+    }
+
+    public void insertJobs(List<JobRow> jobs) {
+        if (jobs.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO email_jobs (campaign_contact_id, step_number, subject, body, scheduled_at, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                jobs, jobs.size(), (ps, job) -> {
+                    ps.setLong(1, job.campaignContactId());
+                    ps.setInt(2, job.stepNumber());
+                    ps.setString(3, job.subject());
+                    ps.setString(4, job.body());
+                    ps.setTimestamp(5, Timestamp.valueOf(job.scheduledAt()));
+                    ps.setString(6, job.status().name());
+                });
+    }
+
+    /**
+     * Refreshes the content and date of jobs that exist and are still {@code SCHEDULED};
+     * jobs already sent, failed, skipped or on hold are left alone.
+     */
+    public void updateScheduledJobs(List<JobRow> jobs) {
+        if (jobs.isEmpty()) return;
+        jdbcTemplate.batchUpdate(
+                "UPDATE email_jobs SET subject = ?, body = ?, scheduled_at = ? " +
+                "WHERE campaign_contact_id = ? AND step_number = ? AND status = 'SCHEDULED'",
+                jobs, jobs.size(), (ps, job) -> {
+                    ps.setString(1, job.subject());
+                    ps.setString(2, job.body());
+                    ps.setTimestamp(3, Timestamp.valueOf(job.scheduledAt()));
+                    ps.setLong(4, job.campaignContactId());
+                    ps.setInt(5, job.stepNumber());
+                });
+    }
+
+    // ─── Sheet row states ─────────────────────────────────────────────────────
+
+    /** What a row looked like when it was last imported: its cells, and its doc (null = none recorded). */
+    public record RowState(String rowHash, String docHash) {}
+
+    /** Row states by row key from the last import of this sheet into the campaign. */
+    public Map<String, RowState> findRowStates(Long campaignId, String sheetKey) {
+        Map<String, RowState> states = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT row_key, row_hash, doc_hash FROM import_row_states WHERE campaign_id = ? AND sheet_key = ?",
+                (RowCallbackHandler) rs -> states.put(rs.getString("row_key"),
+                        new RowState(rs.getString("row_hash"), rs.getString("doc_hash"))),
+                campaignId, sheetKey);
+        return states;
+    }
+
+    /** Replaces the stored states of the given rows (delete + batch insert, portable across H2 and MySQL). */
+    public void saveRowStates(Long campaignId, String sheetKey, Map<String, RowState> states) {
+        if (states.isEmpty()) return;
+        deleteRowStates(campaignId, sheetKey, states.keySet());
+        List<Map.Entry<String, RowState>> rows = new ArrayList<>(states.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO import_row_states (campaign_id, sheet_key, row_key, row_hash, doc_hash, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setLong(1, campaignId);
+                    ps.setString(2, sheetKey);
+                    ps.setString(3, row.getKey());
+                    ps.setString(4, row.getValue().rowHash());
+                    ps.setString(5, row.getValue().docHash());
+                    ps.setTimestamp(6, now);
+                });
+    }
+
+    public void deleteRowStates(Long campaignId, String sheetKey, Collection<String> rowKeys) {
+        if (rowKeys.isEmpty()) return;
+        namedJdbcTemplate.update(
+                "DELETE FROM import_row_states WHERE campaign_id = :campaign AND sheet_key = :sheet AND row_key IN (:keys)",
+                new MapSqlParameterSource("campaign", campaignId)
+                        .addValue("sheet", sheetKey)
+                        .addValue("keys", rowKeys));
+    }
+
+    /** Forgets every sheet imported into the campaign, e.g. after replace mode cleared it. */
+    public void deleteRowStates(Long campaignId) {
+        jdbcTemplate.update("DELETE FROM import_row_states WHERE campaign_id = ?", campaignId);
+    }
+
+    /**
+     * Forgets {@code email}'s row in every sheet imported into these campaigns, so the next
+     * re-import enrolls the contact again instead of skipping the row as unchanged.
+     */
+    public void deleteRowStatesForEmail(Collection<Long> campaignIds, String email) {
+        if (campaignIds.isEmpty() || email == null) return;
+        namedJdbcTemplate.update(
+                "DELETE FROM import_row_states WHERE campaign_id IN (:campaigns) AND row_key = :key",
+                new MapSqlParameterSource("campaigns", campaignIds)
+                        .addValue("key", rowKey(email)));
+    }
+
+    /** The key of a sheet row in {@code import_row_states}: its normalised email. */
+    public static String rowKey(String email) {
+        return email.trim().toLowerCase();
+    }
+}
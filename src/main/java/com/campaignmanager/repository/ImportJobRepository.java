@@ -0,0 +1,14 @@
+package com.campaignmanager.repository;
+
+import com.campaignmanager.model.ImportJob;
+import com.campaignmanager.model.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ImportJobRepository extends JpaRepository<ImportJob, Long> {
+    List<ImportJob> findByStatusInOrderByIdAsc(Collection<ImportJobStatus> statuses);
+    List<ImportJob> findTop20ByCampaignIdOrderByIdDesc(Long campaignId);
+    boolean existsByCampaignIdAndStatusIn(Long campaignId, Collection<ImportJobStatus> statuses);
+}
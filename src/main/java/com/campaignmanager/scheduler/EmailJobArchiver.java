@@ -0,0 +1,92 @@
+package com.campaignmanager.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves finished email jobs (SENT, SKIPPED) older than {@code email-jobs.archive.min-age-days}
+ * from email_jobs into email_jobs_archive, so the table the scheduler, dashboard and
+ * listings read holds active work only.  Each batch is copied and deleted in one short
+ * transaction with its rows locked, so a job is never in both tables nor in neither.
+ * FAILED and HOLD jobs stay: they can still be retried or released.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EmailJobArchiver {
+
+    private static final String TERMINAL = "status IN ('SENT', 'SKIPPED')";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${email-jobs.archive.enabled:true}")
+    private boolean enabled;
+
+    /** At least 1, so the dashboard's "sent today" never has to look in the archive. */
+    @Value("${email-jobs.archive.min-age-days:30}")
+    private int minAgeDays;
+
+    @Value("${email-jobs.archive.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(cron = "${email-jobs.archive.cron:0 30 3 * * *}")
+    public void archive() {
+        if (!enabled) return;
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(Math.max(1, minAgeDays));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long start = System.currentTimeMillis();
+        int archived = 0;
+        try {
+            int moved;
+            do {
+                moved = tx.execute(status -> archiveBatch(cutoff));
+                archived += moved;
+            } while (moved == batchSize);
+
+            int purged = tx.execute(status -> jdbcTemplate.update(
+                    "DELETE FROM email_jobs_archive WHERE NOT EXISTS " +
+                    "(SELECT 1 FROM campaign_contacts cc WHERE cc.id = email_jobs_archive.campaign_contact_id)"));
+            if (archived > 0 || purged > 0) {
+                log.info("Archived {} email job(s) scheduled before {} in {} ms; purged {} without an enrollment",
+                        archived, cutoff.toLocalDate(), System.currentTimeMillis() - start, purged);
+            }
+        } catch (Exception e) {
+            log.error("Email job archival stopped after {} job(s): {}", archived, e.getMessage(), e);
+        }
+    }
+
+    /** Copies and deletes up to one batch of the oldest archivable jobs; returns how many. */
+    private int archiveBatch(LocalDateTime cutoff) {
+        // Locking the batch keeps a concurrent retry from changing a row between copy and delete.
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM email_jobs WHERE " + TERMINAL + " AND scheduled_at < ? " +
+                "ORDER BY scheduled_at LIMIT " + batchSize + " FOR UPDATE",
+                Long.class, Timestamp.valueOf(cutoff));
+        if (ids.isEmpty()) return 0;
+
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", ids)
+                .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+        namedJdbcTemplate.update(
+                "INSERT INTO email_jobs_archive (id, campaign_contact_id, step_number, subject, body, " +
+                "scheduled_at, sent_at, status, error_message, archived_at) " +
+                "SELECT id, campaign_contact_id, step_number, subject, body, " +
+                "scheduled_at, sent_at, status, error_message, :now FROM email_jobs WHERE id IN (:ids)",
+                params);
+        namedJdbcTemplate.update("DELETE FROM email_jobs WHERE id IN (:ids)", params);
+        return ids.size();
+    }
+}
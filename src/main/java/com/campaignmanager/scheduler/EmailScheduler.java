@@ -3,16 +3,22 @@ package com.campaignmanager.scheduler;
 import com.campaignmanager.model.CampaignStatus;
 import com.campaignmanager.model.EmailJob;
 import com.campaignmanager.model.EmailJobStatus;
+import com.campaignmanager.repository.ArchivedEmailJobRepository;
 import com.campaignmanager.repository.EmailJobRepository;
 import com.campaignmanager.service.PlaywrightGmailService;
+import com.campaignmanager.service.PlaywrightSessionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 @Component
 @RequiredArgsConstructor
@@ -20,70 +26,128 @@ import java.util.List;
 public class EmailScheduler {
 
     private final EmailJobRepository emailJobRepository;
+    private final ArchivedEmailJobRepository archivedEmailJobRepository;
     private final PlaywrightGmailService gmailService;
+    private final PlaywrightSessionService sessionService;
+
+    @Value("${playwright.prewarm.lookahead-minutes:10}")
+    private long prewarmLookaheadMinutes;
 
     /**
-     * Runs every 60 seconds. Finds all due email jobs and sends them via Playwright.
+     * Runs every 60 seconds. Finds all due email jobs and sends them via Playwright,
+     * then pre-warms the accounts that have jobs coming up next.  Cycles are skipped
+     * until the browser has finished its background startup.
      */
     @Scheduled(fixedDelay = 60000)
     @Transactional
     public void processEmailQueue() {
+        if (!sessionService.isReady()) {
+            log.debug("Email scheduler: browser still starting up, skipping this cycle");
+            return;
+        }
         List<EmailJob> dueJobs = emailJobRepository.findDueJobs(LocalDateTime.now());
 
-        if (dueJobs.isEmpty()) return;
-
-        log.info("Email scheduler: {} due job(s) found", dueJobs.size());
+        if (!dueJobs.isEmpty()) {
+            log.info("Email scheduler: {} due job(s) found", dueJobs.size());
 
-        for (EmailJob job : dueJobs) {
-            // Skip if campaign is paused or still in draft
-            CampaignStatus campaignStatus = job.getCampaignContact().getCampaign().getStatus();
-            if (campaignStatus == CampaignStatus.PAUSED || campaignStatus == CampaignStatus.DRAFT) {
-                log.debug("Skipping job id={} — campaign is {}", job.getId(), campaignStatus);
-                continue;
+            List<EmailJob> ready = new ArrayList<>();
+            for (EmailJob job : dueJobs) {
+                if (isReadyToSend(job)) {
+                    log.info("Sending job id={} step={} scheduledAt={} to={} subject='{}'",
+                            job.getId(),
+                            job.getStepNumber(),
+                            job.getScheduledAt(),
+                            job.getCampaignContact().getContact().getEmail(),
+                            job.getSubject());
+                    ready.add(job);
+                }
             }
 
-            // Enforce step ordering: step N only sends after step N-1 is done.
-            // "Done" means SENT (at least 30s ago, to prevent back-to-back sends in the
-            // same scheduler cycle) OR SKIPPED (past-date jobs that will never send —
-            // the next step should still proceed on its own scheduled date).
-            int stepNumber = job.getStepNumber();
-            if (stepNumber > 1) {
-                LocalDateTime cutoff = LocalDateTime.now().minusSeconds(30);
-                boolean previousStepDone = job.getCampaignContact().getEmailJobs().stream()
-                        .anyMatch(j -> j.getStepNumber() == stepNumber - 1
-                                && (j.getStatus() == EmailJobStatus.SKIPPED
-                                    || (j.getStatus() == EmailJobStatus.SENT
-                                        && j.getSentAt() != null
-                                        && j.getSentAt().isBefore(cutoff))));
-                if (!previousStepDone) {
-                    log.info("Deferring job id={} step={} for contact={} — step {} not yet done",
-                            job.getId(), stepNumber,
-                            job.getCampaignContact().getContact().getEmail(),
-                            stepNumber - 1);
-                    continue;
+            // Sent as one batch so each account's jobs are pipelined through one Gmail tab.
+            // Jobs without an outcome weren't attempted and stay SCHEDULED for the next cycle.
+            for (PlaywrightGmailService.SendOutcome outcome : gmailService.sendAll(ready)) {
+                EmailJob job = outcome.job();
+                if (outcome.sent()) {
+                    job.setStatus(EmailJobStatus.SENT);
+                    job.setSentAt(LocalDateTime.now());
+                    job.setErrorMessage(null);
+                } else if (outcome.unknown()) {
+                    // Timed out: it may still have gone out.  HOLD keeps it from being resent
+                    // until someone has checked the Sent folder and released it.
+                    log.error("Send of job id={} timed out, holding: {}", job.getId(), outcome.error().getMessage());
+                    job.setStatus(EmailJobStatus.HOLD);
+                    job.setErrorMessage(outcome.error().getMessage());
+                } else {
+                    log.error("Failed to send job id={}: {}", job.getId(), outcome.error().getMessage());
+                    job.setStatus(EmailJobStatus.FAILED);
+                    job.setErrorMessage(outcome.error().getMessage());
                 }
+                emailJobRepository.save(job);
             }
+        }
 
-            try {
-                log.info("Sending job id={} step={} scheduledAt={} to={} subject='{}'",
-                        job.getId(),
-                        job.getStepNumber(),
-                        job.getScheduledAt(),
+        prewarmUpcomingSenders();
+    }
+
+    private boolean isReadyToSend(EmailJob job) {
+        // Skip if campaign is paused or still in draft
+        CampaignStatus campaignStatus = job.getCampaignContact().getCampaign().getStatus();
+        if (campaignStatus == CampaignStatus.PAUSED || campaignStatus == CampaignStatus.DRAFT) {
+            log.debug("Skipping job id={} — campaign is {}", job.getId(), campaignStatus);
+            return false;
+        }
+
+        // Enforce step ordering: step N only sends after step N-1 is done.
+        // "Done" means SENT (at least 30s ago, to prevent back-to-back sends in the
+        // same scheduler cycle) OR SKIPPED (past-date jobs that will never send —
+        // the next step should still proceed on its own scheduled date).
+        int stepNumber = job.getStepNumber();
+        if (stepNumber > 1) {
+            LocalDateTime cutoff = LocalDateTime.now().minusSeconds(30);
+            boolean previousStepDone = job.getCampaignContact().getEmailJobs().stream()
+                    .anyMatch(j -> j.getStepNumber() == stepNumber - 1
+                            && (j.getStatus() == EmailJobStatus.SKIPPED
+                                || (j.getStatus() == EmailJobStatus.SENT
+                                    && j.getSentAt() != null
+                                    && j.getSentAt().isBefore(cutoff))));
+            if (!previousStepDone && job.getCampaignContact().getEmailJobs().stream()
+                    .noneMatch(j -> j.getStepNumber() == stepNumber - 1)) {
+                // Archived jobs are all SENT or SKIPPED and days old, so they count as done
+                previousStepDone = archivedEmailJobRepository.existsByCampaignContactIdAndStepNumber(
+                        job.getCampaignContact().getId(), stepNumber - 1);
+            }
+            if (!previousStepDone) {
+                log.info("Deferring job id={} step={} for contact={} — step {} not yet done",
+                        job.getId(), stepNumber,
                         job.getCampaignContact().getContact().getEmail(),
-                        job.getSubject());
+                        stepNumber - 1);
+                return false;
+            }
+        }
+
+        return true;
+    }
 
-                gmailService.send(job);
+    /**
+     * Opens a Gmail tab for every account with jobs due in the next lookahead window, so
+     * the first send of a wave doesn't pay for context creation and the inbox load.
+     */
+    private void prewarmUpcomingSenders() {
+        if (prewarmLookaheadMinutes <= 0) return;
 
-                job.setStatus(EmailJobStatus.SENT);
-                job.setSentAt(LocalDateTime.now());
-                job.setErrorMessage(null);
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> accounts = new LinkedHashSet<>();
+        for (String sender : emailJobRepository.findSenderEmailsDueBetween(
+                now, now.plusMinutes(prewarmLookaheadMinutes))) {
+            try {
+                accounts.add(gmailService.resolveAccount(sender));
             } catch (Exception e) {
-                log.error("Failed to send job id={}: {}", job.getId(), e.getMessage());
-                job.setStatus(EmailJobStatus.FAILED);
-                job.setErrorMessage(e.getMessage());
+                log.debug("Not pre-warming for sender '{}': {}", sender, e.getMessage());
             }
+        }
 
-            emailJobRepository.save(job);
+        for (String account : accounts) {
+            sessionService.prewarm(account);
         }
     }
 }
@@ -0,0 +1,55 @@
+package com.campaignmanager.scheduler;
+
+import com.campaignmanager.model.Campaign;
+import com.campaignmanager.model.CampaignStatus;
+import com.campaignmanager.repository.CampaignRepository;
+import com.campaignmanager.service.ImportJobService;
+import com.campaignmanager.service.PlaywrightSessionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-imports each campaign's synced Google Sheet as a background import job.  The sheet
+ * is downloaded whole, but rows whose hash matches the last import are skipped before
+ * any Google Doc is fetched, so a sync only does work for the rows that changed.
+ * Only DRAFT and ACTIVE campaigns are synced; paused or completed ones keep their URL
+ * and pick up again when they are resumed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SheetSyncScheduler {
+
+    private static final Set<CampaignStatus> SYNCED_STATUSES = EnumSet.of(CampaignStatus.DRAFT, CampaignStatus.ACTIVE);
+
+    private final CampaignRepository campaignRepository;
+    private final ImportJobService importJobService;
+    private final PlaywrightSessionService sessionService;
+
+    @Value("${import.sheet-sync.enabled:true}")
+    private boolean enabled;
+
+    @Scheduled(fixedDelayString = "${import.sheet-sync.interval-minutes:60}",
+               initialDelayString = "${import.sheet-sync.interval-minutes:60}",
+               timeUnit = TimeUnit.MINUTES)
+    public void syncSheets() {
+        if (!enabled || !sessionService.isReady()) return;
+        for (Campaign campaign : campaignRepository.findBySheetSyncUrlIsNotNullAndStatusIn(SYNCED_STATUSES)) {
+            if (importJobService.hasActiveJob(campaign.getId())) {
+                log.debug("Sheet sync: campaign {} already has an import running, skipping", campaign.getId());
+                continue;
+            }
+            importJobService.submitGoogleSheet(campaign.getId(), campaign.getSheetSyncUrl(), false, "sheet-sync");
+            campaign.setSheetSyncedAt(LocalDateTime.now());
+            campaignRepository.save(campaign);
+        }
+    }
+}
@@ -4,8 +4,11 @@ import com.campaignmanager.dto.*;
 import com.campaignmanager.model.*;
 import com.campaignmanager.repository.*;
 import com.campaignmanager.util.EmailScheduleCalculator;
+import com.campaignmanager.util.SheetRow;
+import com.campaignmanager.util.WorkbookRowReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
@@ -13,11 +16,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
@@ -47,9 +49,11 @@ public class CampaignPlanService {
     private final GeminiApiService geminiApiService;
     private final CampaignPlanDocumentRepository documentRepository;
     private final DocumentTextExtractorService documentTextExtractorService;
+    private final DocumentContentService documentContentService;
     private final GoogleDriveImportService googleDriveImportService;
     private final ExcelImportService excelImportService;
     private final EmailGenerationAsyncWorker emailWorker;
+    private final ApplicationEventPublisher eventPublisher;
 
     private final ConcurrentHashMap<Long, String> emailErrors = new ConcurrentHashMap<>();
 
@@ -572,7 +576,7 @@ public class CampaignPlanService {
 
     public List<CampaignPlanDocumentDto> getDocuments(Long planId, Authentication auth) {
         CampaignPlan plan = resolvePlan(planId, auth);
-        return documentRepository.findAllByCampaignPlan(plan).stream()
+        return documentRepository.findSummariesByCampaignPlan(plan).stream()
                 .map(this::toDocumentDto)
                 .collect(Collectors.toList());
     }
@@ -589,10 +593,14 @@ public class CampaignPlanService {
             doc.setCampaignPlan(plan);
             doc.setOriginalFileName(file.getOriginalFilename());
             doc.setMimeType(file.getContentType());
-            doc.setFileContent(file.getBytes());
+            try (InputStream in = file.getInputStream()) {
+                documentContentService.store(doc, in);
+            }
             saved.add(toDocumentDto(documentRepository.save(doc)));
             log.info("Uploaded briefing doc '{}' ({} bytes) for plan {}", file.getOriginalFilename(), file.getSize(), planId);
         }
+        eventPublisher.publishEvent(new DocumentTextExtractorService.DocumentsStored(
+                saved.stream().map(CampaignPlanDocumentDto::getId).collect(Collectors.toList())));
         return saved;
     }
 
@@ -612,6 +620,8 @@ public class CampaignPlanService {
                     "No files could be downloaded. Make sure the links are Google Docs or Slides and your Gmail account is connected.");
         }
 
+        eventPublisher.publishEvent(new DocumentTextExtractorService.DocumentsStored(
+                imported.stream().map(CampaignPlanDocument::getId).collect(Collectors.toList())));
         return imported.stream().map(this::toDocumentDto).collect(Collectors.toList());
     }
 
@@ -622,23 +632,15 @@ public class CampaignPlanService {
         prospectContactRepository.deleteAllByCampaignPlan(plan);
 
         List<ProspectContact> imported = new ArrayList<>();
-        try (Workbook wb = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = wb.getSheetAt(0);
-            Row header = sheet.getRow(0);
-            if (header == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Excel file is empty");
+        try (WorkbookRowReader wb = WorkbookRowReader.open(file.getInputStream())) {
+            Iterator<SheetRow> rows = wb.rows(0);
+            if (!rows.hasNext()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Excel file is empty");
 
             // Build column index map (case-insensitive header matching)
-            Map<String, Integer> colIdx = new HashMap<>();
-            for (Cell c : header) {
-                if (c != null) {
-                    String h = c.toString().trim().toLowerCase();
-                    colIdx.put(h, c.getColumnIndex());
-                }
-            }
+            Map<String, Integer> colIdx = headerIndex(rows.next());
 
-            for (int r = 1; r <= sheet.getLastRowNum(); r++) {
-                Row row = sheet.getRow(r);
-                if (row == null) continue;
+            while (rows.hasNext()) {
+                SheetRow row = rows.next();
 
                 String name = cell(row, colIdx, "name", "full name", "contact name");
                 if (name == null || name.isBlank()) continue;
@@ -692,19 +694,14 @@ public class CampaignPlanService {
 
         prospectContactRepository.deleteAllByCampaignPlan(plan);
         List<ProspectContact> imported = new ArrayList<>();
-        try (Workbook wb = new XSSFWorkbook(new ByteArrayInputStream(bytes))) {
-            Sheet sheet = wb.getSheetAt(0);
-            Row header = sheet.getRow(0);
-            if (header == null) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sheet is empty");
-
-            Map<String, Integer> colIdx = new HashMap<>();
-            for (Cell c : header) {
-                if (c != null) colIdx.put(c.toString().trim().toLowerCase(), c.getColumnIndex());
-            }
+        try (WorkbookRowReader wb = WorkbookRowReader.open(new ByteArrayInputStream(bytes))) {
+            Iterator<SheetRow> rows = wb.rows(0);
+            if (!rows.hasNext()) throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Sheet is empty");
 
-            for (int r = 1; r <= sheet.getLastRowNum(); r++) {
-                Row row = sheet.getRow(r);
-                if (row == null) continue;
+            Map<String, Integer> colIdx = headerIndex(rows.next());
+
+            while (rows.hasNext()) {
+                SheetRow row = rows.next();
                 String name = cell(row, colIdx, "name", "full name", "contact name");
                 if (name == null || name.isBlank()) continue;
                 ProspectContact pc = new ProspectContact();
@@ -744,14 +741,23 @@ public class CampaignPlanService {
         return imported.stream().map(this::toProspectDto).collect(Collectors.toList());
     }
 
+    /** Maps lower-cased header text to its column index. */
+    private Map<String, Integer> headerIndex(SheetRow header) {
+        Map<String, Integer> colIdx = new HashMap<>();
+        for (int col = 0; col <= header.lastColumn(); col++) {
+            String h = header.getString(col);
+            if (h != null) colIdx.put(h.trim().toLowerCase(), col);
+        }
+        return colIdx;
+    }
+
     /** Returns the cell value for the first matching column header, or null if none found. */
-    private String cell(Row row, Map<String, Integer> colIdx, String... headers) {
+    private String cell(SheetRow row, Map<String, Integer> colIdx, String... headers) {
         for (String h : headers) {
             Integer idx = colIdx.get(h.toLowerCase());
             if (idx != null) {
-                Cell c = row.getCell(idx);
-                if (c != null) {
-                    String v = c.toString().trim();
+                String v = row.getString(idx);
+                if (v != null) {
                     return v.isEmpty() ? null : v;
                 }
             }
@@ -775,4 +781,13 @@ public class CampaignPlanService {
         dto.setCreatedAt(doc.getCreatedAt());
         return dto;
     }
+
+    private CampaignPlanDocumentDto toDocumentDto(CampaignPlanDocumentSummary doc) {
+        CampaignPlanDocumentDto dto = new CampaignPlanDocumentDto();
+        dto.setId(doc.getId());
+        dto.setOriginalFileName(doc.getOriginalFileName());
+        dto.setMimeType(doc.getMimeType());
+        dto.setCreatedAt(doc.getCreatedAt());
+        return dto;
+    }
 }
@@ -14,6 +14,7 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +29,7 @@ public class CampaignService {
     private final ContactRepository contactRepository;
     private final UserRepository userRepository;
     private final CampaignPlanRepository campaignPlanRepository;
+    private final ImportBulkRepository importBulkRepository;
 
     private boolean isAdmin(Authentication auth) {
         return auth != null && auth.getAuthorities().stream()
@@ -47,12 +49,13 @@ public class CampaignService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<CampaignDto> findAll(Authentication auth) {
         if (isAdmin(auth)) {
-            return campaignRepository.findAll().stream().map(this::toDto).collect(Collectors.toList());
+            return toDtos(campaignRepository.findAllWithOwner());
         }
         User owner = resolveOwner(auth);
-        return campaignRepository.findAllByOwner(owner).stream().map(this::toDto).collect(Collectors.toList());
+        return toDtos(campaignRepository.findAllByOwner(owner));
     }
 
     public CampaignDto findById(Long id, Authentication auth) {
@@ -93,9 +96,34 @@ public class CampaignService {
         checkAccess(campaign, auth);
         // Null out any campaign plan reference to this campaign before deleting
         campaignPlanRepository.clearResultCampaignById(id);
+        // No FK from import_row_states: clear it, or a new campaign reusing the id would skip rows
+        importBulkRepository.deleteRowStates(id);
         campaignRepository.deleteById(id);
     }
 
+    /**
+     * Turns scheduled Google Sheet sync on ({@code sheetUrl}) or off (null).  Only turn it on
+     * after an import of the sheet has succeeded.
+     */
+    @Transactional
+    public CampaignDto setSheetSync(Long id, String sheetUrl, Authentication auth) {
+        Campaign campaign = campaignRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Campaign not found: " + id));
+        checkAccess(campaign, auth);
+        campaign.setSheetSyncUrl(sheetUrl);
+        return toDto(campaignRepository.save(campaign));
+    }
+
+    /** Turns sheet sync on once an import job of the sheet completed; access was checked when it was submitted. */
+    @Transactional
+    public void startSheetSync(Long id, String sheetUrl) {
+        campaignRepository.findById(id).ifPresent(campaign -> {
+            campaign.setSheetSyncUrl(sheetUrl);
+            campaign.setSheetSyncedAt(LocalDateTime.now());
+            campaignRepository.save(campaign);
+        });
+    }
+
     @Transactional
     public CampaignDto launch(Long id, Authentication auth) {
         Campaign campaign = campaignRepository.findById(id)
@@ -161,6 +189,20 @@ public class CampaignService {
     }
 
     public CampaignDto toDto(Campaign c) {
+        return toDto(c, campaignContactRepository.countByCampaignId(c.getId() != null ? c.getId() : 0L));
+    }
+
+    /** Maps a list with one grouped contact count instead of a count per campaign. */
+    public List<CampaignDto> toDtos(List<Campaign> campaigns) {
+        Map<Long, Long> contactCounts = IdCount.byId(
+                campaigns.stream().map(Campaign::getId).collect(Collectors.toList()),
+                campaignContactRepository::countByCampaignIds);
+        return campaigns.stream()
+                .map(c -> toDto(c, contactCounts.getOrDefault(c.getId(), 0L)))
+                .collect(Collectors.toList());
+    }
+
+    private CampaignDto toDto(Campaign c, long contactCount) {
         CampaignDto dto = new CampaignDto();
         dto.setId(c.getId());
         dto.setName(c.getName());
@@ -168,10 +210,12 @@ public class CampaignService {
         dto.setGmailEmail(c.getGmailEmail());
         dto.setTanzuContact(c.getTanzuContact());
         dto.setCompany(c.getCompany());
+        dto.setSheetSyncUrl(c.getSheetSyncUrl());
+        dto.setSheetSyncedAt(c.getSheetSyncedAt());
         dto.setStatus(c.getStatus());
         dto.setCreatedAt(c.getCreatedAt());
         dto.setLaunchedAt(c.getLaunchedAt());
-        dto.setContactCount(campaignContactRepository.countByCampaignId(c.getId() != null ? c.getId() : 0L));
+        dto.setContactCount(contactCount);
         if (c.getOwner() != null) dto.setOwnerUsername(c.getOwner().getUsername());
         return dto;
     }
@@ -3,6 +3,7 @@ package com.campaignmanager.service;
 import com.campaignmanager.dto.ClientBriefingDto;
 import com.campaignmanager.model.ClientBriefing;
 import com.campaignmanager.repository.ClientBriefingRepository;
+import com.campaignmanager.repository.ClientBriefingSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -10,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,16 +22,18 @@ import java.util.stream.Collectors;
 public class ClientBriefingService {
 
     private final ClientBriefingRepository briefingRepository;
+    private final DocumentContentService documentContentService;
 
     public List<ClientBriefingDto> findAll() {
-        return briefingRepository.findAllByOrderByCreatedAtDesc()
+        return briefingRepository.findSummariesByOrderByCreatedAtDesc()
                 .stream()
                 .map(this::toDto)
                 .collect(Collectors.toList());
     }
 
     public ClientBriefingDto findById(Long id) {
-        return toDto(getEntity(id));
+        return toDto(briefingRepository.findSummaryById(id)
+                .orElseThrow(() -> new RuntimeException("Client briefing not found: " + id)));
     }
 
     @Transactional
@@ -49,9 +53,11 @@ public class ClientBriefingService {
             briefing.setUploadedFileName(storedName);
             briefing.setOriginalFileName(originalName);
             briefing.setMimeType(file.getContentType());
-            briefing.setFileContent(file.getBytes());
+            try (InputStream in = file.getInputStream()) {
+                documentContentService.store(briefing, in);
+            }
             briefing = briefingRepository.save(briefing);
-            log.info("Saved briefing file {} ({} bytes) to DB", storedName, file.getSize());
+            log.info("Saved briefing file {} ({} bytes)", storedName, file.getSize());
         }
 
         return toDto(briefing);
@@ -81,6 +87,20 @@ public class ClientBriefingService {
         return dto;
     }
 
+    public ClientBriefingDto toDto(ClientBriefingSummary b) {
+        ClientBriefingDto dto = new ClientBriefingDto();
+        dto.setId(b.getId());
+        dto.setClientName(b.getClientName());
+        dto.setDocumentLink(b.getDocumentLink());
+        dto.setUploadedFileName(b.getUploadedFileName());
+        dto.setOriginalFileName(b.getOriginalFileName());
+        dto.setCreatedAt(b.getCreatedAt());
+        if (b.getUploadedFileName() != null) {
+            dto.setDocumentUrl("/api/client-briefings/" + b.getId() + "/document");
+        }
+        return dto;
+    }
+
     private String sanitize(String filename) {
         if (filename == null) return "file";
         return filename.replaceAll("[^a-zA-Z0-9._\\-]", "_");
@@ -6,7 +6,10 @@ import com.campaignmanager.model.Contact;
 import com.campaignmanager.model.User;
 import com.campaignmanager.repository.CampaignContactRepository;
 import com.campaignmanager.repository.ContactRepository;
+import com.campaignmanager.repository.ContactSummary;
 import com.campaignmanager.repository.EmailJobRepository;
+import com.campaignmanager.repository.IdCount;
+import com.campaignmanager.repository.ImportBulkRepository;
 import com.campaignmanager.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -17,6 +20,7 @@ import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,6 +31,7 @@ public class ContactService {
     private final CampaignContactRepository campaignContactRepository;
     private final EmailJobRepository emailJobRepository;
     private final UserRepository userRepository;
+    private final ImportBulkRepository importBulkRepository;
 
     private boolean isAdmin(Authentication auth) {
         return auth != null && auth.getAuthorities().stream()
@@ -38,18 +43,21 @@ public class ContactService {
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
     }
 
+    @Transactional(readOnly = true)
     public List<ContactDto> findAll(String search, Authentication auth) {
-        if (isAdmin(auth)) {
-            List<Contact> contacts = (search != null && !search.isBlank())
-                    ? contactRepository.searchContacts(search)
-                    : contactRepository.findAll();
-            return contacts.stream().map(this::toDto).collect(Collectors.toList());
+        String filter = search != null && !search.isBlank() ? search : null;
+        Long ownerId = isAdmin(auth) ? null : resolveOwner(auth).getId();
+        List<ContactDto> dtos = contactRepository.findSummaries(filter, ownerId).stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+        if (filter == null) {
+            // Whole list: one grouped count over the owner's contacts beats IN-list chunks.
+            Map<Long, Long> counts = IdCount.byId(emailJobRepository.countScheduledByContactOwner(ownerId));
+            dtos.forEach(dto -> dto.setScheduledJobCount(counts.getOrDefault(dto.getId(), 0L).intValue()));
+        } else {
+            fillScheduledJobCounts(dtos);
         }
-        User owner = resolveOwner(auth);
-        List<Contact> contacts = (search != null && !search.isBlank())
-                ? contactRepository.searchContactsByOwner(search, owner)
-                : contactRepository.findAllByOwner(owner);
-        return contacts.stream().map(this::toDto).collect(Collectors.toList());
+        return dtos;
     }
 
     public ContactDto findById(Long id) {
@@ -111,6 +119,8 @@ public class ContactService {
         }
         List<CampaignContact> ccs = campaignContactRepository.findByContactId(id);
         campaignContactRepository.deleteAll(ccs);
+        importBulkRepository.deleteRowStatesForEmail(
+                ccs.stream().map(cc -> cc.getCampaign().getId()).toList(), contact.getEmail());
         contactRepository.deleteById(id);
     }
 
@@ -145,10 +155,17 @@ public class ContactService {
         contact.setPlay(dto.getPlay());
         contact.setSubPlay(dto.getSubPlay());
         contact.setAeRole(dto.getAeRole());
-        contact.setEmailLink(dto.getEmailLink());
+        // List rows carry no email link, so an edit made from one leaves it alone.
+        if (dto.getEmailLink() != null) contact.setEmailLink(dto.getEmailLink());
     }
 
     public ContactDto toDto(Contact c) {
+        ContactDto dto = mapEntity(c);
+        dto.setScheduledJobCount((int) emailJobRepository.countScheduledByContactId(c.getId()));
+        return dto;
+    }
+
+    private ContactDto mapEntity(Contact c) {
         ContactDto dto = new ContactDto();
         dto.setId(c.getId());
         dto.setName(c.getName());
@@ -162,8 +179,39 @@ public class ContactService {
         dto.setAeRole(c.getAeRole());
         dto.setEmailLink(c.getEmailLink());
         dto.setCreatedAt(c.getCreatedAt());
-        dto.setScheduledJobCount((int) emailJobRepository.countScheduledByContactId(c.getId()));
         if (c.getOwner() != null) dto.setOwnerUsername(c.getOwner().getUsername());
         return dto;
     }
+
+    /** Maps a list with one grouped scheduled-job count instead of a count per contact. */
+    public List<ContactDto> toDtos(List<Contact> contacts) {
+        List<ContactDto> dtos = contacts.stream().map(this::mapEntity).collect(Collectors.toList());
+        fillScheduledJobCounts(dtos);
+        return dtos;
+    }
+
+    private void fillScheduledJobCounts(List<ContactDto> dtos) {
+        Map<Long, Long> counts = IdCount.byId(
+                dtos.stream().map(ContactDto::getId).collect(Collectors.toList()),
+                emailJobRepository::countScheduledByContactIds);
+        dtos.forEach(dto -> dto.setScheduledJobCount(counts.getOrDefault(dto.getId(), 0L).intValue()));
+    }
+
+    /** List variant: the email link is left out; the contact detail has it. */
+    private ContactDto toDto(ContactSummary c) {
+        ContactDto dto = new ContactDto();
+        dto.setId(c.getId());
+        dto.setName(c.getName());
+        dto.setEmail(c.getEmail());
+        dto.setRole(c.getRole());
+        dto.setCompany(c.getCompany());
+        dto.setCategory(c.getCategory());
+        dto.setPhone(c.getPhone());
+        dto.setPlay(c.getPlay());
+        dto.setSubPlay(c.getSubPlay());
+        dto.setAeRole(c.getAeRole());
+        dto.setCreatedAt(c.getCreatedAt());
+        dto.setOwnerUsername(c.getOwnerUsername());
+        return dto;
+    }
 }
@@ -2,31 +2,44 @@ package com.campaignmanager.service;
 
 import com.campaignmanager.dto.ContactDto;
 import com.campaignmanager.dto.CsvImportResultDto;
+import com.campaignmanager.model.Contact;
 import com.campaignmanager.model.User;
+import com.campaignmanager.repository.ImportBulkRepository;
 import com.campaignmanager.repository.UserRepository;
+import com.campaignmanager.util.SheetRow;
+import com.campaignmanager.util.WorkbookRowReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CsvImportService {
 
-    private final ContactService contactService;
     private final UserRepository userRepository;
+    private final ImportBulkRepository bulkRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${import.batch-size:50}")
+    private int batchSize;
 
     public CsvImportResultDto importContacts(MultipartFile file, Authentication auth) {
         User owner = null;
@@ -44,8 +57,7 @@ public class CsvImportService {
     }
 
     private CsvImportResultDto importFromCsv(MultipartFile file, User owner) {
-        int imported = 0, updated = 0, failed = 0;
-        List<String> errors = new ArrayList<>();
+        ContactImport run = new ContactImport(owner);
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream()));
              CSVParser parser = CSVFormat.DEFAULT
@@ -56,50 +68,142 @@ public class CsvImportService {
 
             for (CSVRecord record : parser) {
                 try {
-                    ContactDto dto = recordToDto(record);
-                    boolean existed = contactService.findAll(dto.getEmail(), null).stream()
-                            .anyMatch(c -> c.getEmail().equalsIgnoreCase(dto.getEmail()));
-                    contactService.upsertByEmail(dto, owner);
-                    if (existed) updated++; else imported++;
+                    run.add(record.getRecordNumber(), recordToDto(record));
                 } catch (Exception e) {
-                    failed++;
-                    errors.add("Row " + record.getRecordNumber() + ": " + e.getMessage());
+                    run.fail(record.getRecordNumber(), e.getMessage());
                 }
             }
         } catch (Exception e) {
-            errors.add("Failed to parse CSV: " + e.getMessage());
+            run.result.getErrors().add("Failed to parse CSV: " + e.getMessage());
         }
 
-        return new CsvImportResultDto(imported, updated, failed, errors);
+        run.flush();
+        return run.result;
     }
 
     private CsvImportResultDto importFromExcel(MultipartFile file, User owner) {
-        int imported = 0, updated = 0, failed = 0;
-        List<String> errors = new ArrayList<>();
-
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Row headerRow = sheet.getRow(0);
+        ContactImport run = new ContactImport(owner);
+
+        try (WorkbookRowReader workbook = WorkbookRowReader.open(file.getInputStream())) {
+            Iterator<SheetRow> rows = workbook.rows(0);
+            Map<String, Integer> columns = new HashMap<>();
+            if (rows.hasNext()) {
+                SheetRow headerRow = rows.next();
+                for (int col = 0; col <= headerRow.lastColumn(); col++) {
+                    String header = headerRow.getString(col);
+                    if (header != null) columns.put(header.toLowerCase(), col);
+                }
+            }
 
-            for (int i = 1; i <= sheet.getLastRowNum(); i++) {
-                Row row = sheet.getRow(i);
-                if (row == null) continue;
+            while (rows.hasNext()) {
+                SheetRow row = rows.next();
                 try {
-                    ContactDto dto = rowToDto(row, headerRow);
-                    boolean existed = contactService.findAll(dto.getEmail(), null).stream()
-                            .anyMatch(c -> c.getEmail().equalsIgnoreCase(dto.getEmail()));
-                    contactService.upsertByEmail(dto, owner);
-                    if (existed) updated++; else imported++;
+                    run.add(row.rowNum(), rowToDto(row, columns));
                 } catch (Exception e) {
-                    failed++;
-                    errors.add("Row " + (i + 1) + ": " + e.getMessage());
+                    run.fail(row.rowNum(), e.getMessage());
                 }
             }
         } catch (Exception e) {
-            errors.add("Failed to parse Excel: " + e.getMessage());
+            run.result.getErrors().add("Failed to parse Excel: " + e.getMessage());
+        }
+
+        run.flush();
+        return run.result;
+    }
+
+    // ─── Batched upsert ───────────────────────────────────────────────────────
+
+    private record PendingContact(long rowNum, ContactDto dto) {}
+
+    private record Written(int imported, int updated, Map<String, Long> newIds) {}
+
+    /**
+     * One import's state.  Existing contacts are looked up in an email → id index loaded
+     * once for the owner (the same scope the upsert writes to), so a row costs no query
+     * of its own; rows are written {@code import.batch-size} at a time through
+     * {@link ImportBulkRepository}, and each batch's new contacts are added to the index
+     * so a repeated email later in the file counts as an update.
+     */
+    private class ContactImport {
+
+        private final Long ownerId;
+        private final Map<String, Long> index;
+        private final List<PendingContact> pending = new ArrayList<>();
+        private final TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        final CsvImportResultDto result = new CsvImportResultDto(0, 0, 0, new ArrayList<>());
+
+        ContactImport(User owner) {
+            this.ownerId = owner != null ? owner.getId() : null;
+            this.index = bulkRepository.findContactIds(ownerId);
+        }
+
+        void add(long rowNum, ContactDto dto) {
+            pending.add(new PendingContact(rowNum, dto));
+            if (pending.size() >= batchSize) flush();
         }
 
-        return new CsvImportResultDto(imported, updated, failed, errors);
+        void fail(long rowNum, String message) {
+            result.setFailed(result.getFailed() + 1);
+            result.getErrors().add("Row " + rowNum + ": " + message);
+        }
+
+        /** Writes the pending rows in one transaction, or one per row if that fails. */
+        void flush() {
+            if (pending.isEmpty()) return;
+            List<PendingContact> batch = List.copyOf(pending);
+            pending.clear();
+            try {
+                apply(tx.execute(status -> write(batch)));
+            } catch (Exception e) {
+                log.warn("Contact import batch failed ({}), retrying its {} row(s) one by one",
+                        e.getMessage(), batch.size());
+                for (PendingContact row : batch) {
+                    try {
+                        apply(tx.execute(status -> write(List.of(row))));
+                    } catch (Exception rowError) {
+                        fail(row.rowNum(), rowError.getMessage());
+                    }
+                }
+            }
+        }
+
+        private Written write(List<PendingContact> batch) {
+            Map<String, Contact> touched = new LinkedHashMap<>();
+            int imported = 0, updated = 0;
+            for (PendingContact row : batch) {
+                ContactDto dto = row.dto();
+                String key = ImportBulkRepository.emailKey(dto.getEmail());
+                Long existingId = index.get(key);
+                if (existingId != null || touched.containsKey(key)) updated++; else imported++;
+                Contact contact = touched.computeIfAbsent(key, k -> {
+                    Contact c = new Contact();
+                    c.setId(existingId);
+                    return c;
+                });
+                contact.setName(dto.getName());
+                contact.setEmail(dto.getEmail());
+                contact.setRole(dto.getRole());
+                contact.setCompany(dto.getCompany());
+                contact.setCategory(dto.getCategory());
+                contact.setPhone(dto.getPhone());
+                contact.setPlay(dto.getPlay());
+                contact.setSubPlay(dto.getSubPlay());
+                contact.setAeRole(dto.getAeRole());
+                contact.setEmailLink(dto.getEmailLink());
+            }
+            bulkRepository.saveContacts(touched.values(), ownerId);
+
+            Map<String, Long> newIds = new HashMap<>();
+            touched.forEach((key, c) -> newIds.put(key, c.getId()));
+            return new Written(imported, updated, newIds);
+        }
+
+        /** Counts a committed batch and indexes its new contacts. */
+        private void apply(Written written) {
+            result.setImported(result.getImported() + written.imported());
+            result.setUpdated(result.getUpdated() + written.updated());
+            written.newIds().forEach(index::putIfAbsent);
+        }
     }
 
     private ContactDto recordToDto(CSVRecord record) {
@@ -126,31 +230,15 @@ public class CsvImportService {
         }
     }
 
-    private ContactDto rowToDto(Row row, Row headerRow) {
+    private ContactDto rowToDto(SheetRow row, Map<String, Integer> columns) {
         ContactDto dto = new ContactDto();
-        for (int col = 0; col < headerRow.getLastCellNum(); col++) {
-            String header = headerRow.getCell(col).getStringCellValue().toLowerCase().trim();
-            Cell cell = row.getCell(col);
-            String value = cell != null ? getCellValue(cell) : null;
-            switch (header) {
-                case "email" -> dto.setEmail(value);
-                case "name" -> dto.setName(value);
-                case "role" -> dto.setRole(value);
-                case "company" -> dto.setCompany(value);
-                case "category" -> dto.setCategory(value);
-            }
-        }
+        dto.setEmail(row.getString(columns.getOrDefault("email", -1)));
+        dto.setName(row.getString(columns.getOrDefault("name", -1)));
+        dto.setRole(row.getString(columns.getOrDefault("role", -1)));
+        dto.setCompany(row.getString(columns.getOrDefault("company", -1)));
+        dto.setCategory(row.getString(columns.getOrDefault("category", -1)));
         if (dto.getEmail() == null || dto.getEmail().isBlank()) throw new RuntimeException("Email is required");
         if (dto.getName() == null || dto.getName().isBlank()) throw new RuntimeException("Name is required");
         return dto;
     }
-
-    private String getCellValue(Cell cell) {
-        return switch (cell.getCellType()) {
-            case STRING -> cell.getStringCellValue();
-            case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            default -> null;
-        };
-    }
 }
@@ -1,16 +1,19 @@
 package com.campaignmanager.service;
 
+import com.campaignmanager.config.ReadReplicaRoutingDataSource;
 import com.campaignmanager.dto.DashboardStatsDto;
 import com.campaignmanager.model.CampaignStatus;
 import com.campaignmanager.model.EmailJobStatus;
 import com.campaignmanager.model.User;
 import com.campaignmanager.repository.CampaignRepository;
 import com.campaignmanager.repository.ContactRepository;
+import com.campaignmanager.repository.ArchivedEmailJobRepository;
 import com.campaignmanager.repository.EmailJobRepository;
 import com.campaignmanager.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 
@@ -21,15 +24,20 @@ public class DashboardService {
     private final CampaignRepository campaignRepository;
     private final ContactRepository contactRepository;
     private final EmailJobRepository emailJobRepository;
+    private final ArchivedEmailJobRepository archivedEmailJobRepository;
     private final UserRepository userRepository;
 
+    /** Counts only, so they are read from the replica when there is one. */
+    @Transactional(readOnly = true)
     public DashboardStatsDto getStats(Authentication auth) {
-        boolean admin = auth != null && auth.getAuthorities().stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
-        if (admin) return getGlobalStats();
-        User owner = userRepository.findByUsername(auth.getName()).orElse(null);
-        if (owner == null) return getGlobalStats();
-        return getOwnerStats(owner);
+        return ReadReplicaRoutingDataSource.replicaReads(() -> {
+            boolean admin = auth != null && auth.getAuthorities().stream()
+                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            if (admin) return getGlobalStats();
+            User owner = userRepository.findByUsername(auth.getName()).orElse(null);
+            if (owner == null) return getGlobalStats();
+            return getOwnerStats(owner);
+        });
     }
 
     private DashboardStatsDto getGlobalStats() {
@@ -41,7 +49,9 @@ public class DashboardService {
         stats.setEmailsSentToday(emailJobRepository.countSentSince(LocalDateTime.now().toLocalDate().atStartOfDay()));
         stats.setEmailsScheduled(emailJobRepository.countByStatus(EmailJobStatus.SCHEDULED));
         stats.setEmailsFailed(emailJobRepository.countByStatus(EmailJobStatus.FAILED));
-        stats.setTotalEmailsSent(emailJobRepository.countByStatus(EmailJobStatus.SENT));
+        // Sent-today, scheduled and failed jobs are never archived (EmailJobArchiver)
+        stats.setTotalEmailsSent(emailJobRepository.countByStatus(EmailJobStatus.SENT)
+                + archivedEmailJobRepository.countByStatus(EmailJobStatus.SENT));
         return stats;
     }
 
@@ -55,7 +65,8 @@ public class DashboardService {
                 LocalDateTime.now().toLocalDate().atStartOfDay(), owner));
         stats.setEmailsScheduled(emailJobRepository.countByStatusAndOwner(EmailJobStatus.SCHEDULED, owner));
         stats.setEmailsFailed(emailJobRepository.countByStatusAndOwner(EmailJobStatus.FAILED, owner));
-        stats.setTotalEmailsSent(emailJobRepository.countByStatusAndOwner(EmailJobStatus.SENT, owner));
+        stats.setTotalEmailsSent(emailJobRepository.countByStatusAndOwner(EmailJobStatus.SENT, owner)
+                + archivedEmailJobRepository.countByStatusAndOwner(EmailJobStatus.SENT, owner));
         return stats;
     }
 }
@@ -0,0 +1,55 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.config.ReadReplicaRoutingDataSource;
+import com.campaignmanager.dto.ConnectionPoolDto;
+import com.campaignmanager.dto.DatabaseStatsDto;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+
+/** Connection pool gauges and read-replica routing counters for the settings page. */
+@Service
+@RequiredArgsConstructor
+public class DatabaseStatsService {
+
+    private final DataSource dataSource;
+
+    public DatabaseStatsDto getStats() {
+        DatabaseStatsDto stats = new DatabaseStatsDto();
+        DataSource ds = dataSource;
+        while (ds instanceof DelegatingDataSource delegating) {
+            ds = delegating.getTargetDataSource(); // LazyConnectionDataSourceProxy
+        }
+        if (ds instanceof ReadReplicaRoutingDataSource routing) {
+            stats.setReplicaRouting(true);
+            stats.setReplicaConnections(routing.getReplicaConnections());
+            stats.setPrimaryConnections(routing.getPrimaryConnections());
+            stats.setReplicaFallbacks(routing.getReplicaFallbacks());
+            addPool(stats, routing.getPrimary());
+            addPool(stats, routing.getReplica());
+        } else {
+            addPool(stats, ds);
+        }
+        return stats;
+    }
+
+    private void addPool(DatabaseStatsDto stats, DataSource ds) {
+        if (!(ds instanceof HikariDataSource hikari)) return;
+        ConnectionPoolDto pool = new ConnectionPoolDto();
+        pool.setName(hikari.getPoolName());
+        pool.setMaxSize(hikari.getMaximumPoolSize());
+        pool.setMinIdle(hikari.getMinimumIdle());
+        HikariPoolMXBean mx = hikari.getHikariPoolMXBean(); // null until the pool has started
+        if (mx != null) {
+            pool.setActive(mx.getActiveConnections());
+            pool.setIdle(mx.getIdleConnections());
+            pool.setTotal(mx.getTotalConnections());
+            pool.setWaiting(mx.getThreadsAwaitingConnection());
+        }
+        stats.getPools().add(pool);
+    }
+}
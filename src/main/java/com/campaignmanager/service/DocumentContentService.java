@@ -0,0 +1,84 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.model.StoredDocument;
+import com.campaignmanager.storage.BlobStore;
+import com.campaignmanager.storage.StoredBlob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads and writes the content of uploaded documents (client briefings, campaign plan
+ * documents). Every row records the SHA-256 and size of its content; with a blob store
+ * configured the bytes go to the store, without one they stay in the row's file_content
+ * column. Rows of either kind are read the same way.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentContentService {
+
+    private final BlobStore blobStore;
+
+    /** Stores {@code content} for {@code doc}; the caller saves the entity and closes the stream. */
+    public void store(StoredDocument doc, InputStream content) throws IOException {
+        if (blobStore.isEnabled()) {
+            StoredBlob blob = blobStore.put(content);
+            doc.setContentHash(blob.hash());
+            doc.setContentSize(blob.size());
+            doc.setFileContent(null);
+        } else {
+            byte[] bytes = content.readAllBytes();
+            StoredBlob blob = StoredBlob.of(bytes);
+            doc.setContentHash(blob.hash());
+            doc.setContentSize(blob.size());
+            doc.setFileContent(bytes);
+        }
+    }
+
+    public void store(StoredDocument doc, byte[] content) throws IOException {
+        store(doc, new ByteArrayInputStream(content));
+    }
+
+    /**
+     * SHA-256 of the document's content, or null if it has none. Rows written before
+     * hashes were recorded get theirs computed (and set on the entity) here.
+     */
+    public String contentHash(StoredDocument doc) {
+        if (doc.getContentHash() == null && hasBytes(doc)) {
+            StoredBlob blob = StoredBlob.of(doc.getFileContent());
+            doc.setContentHash(blob.hash());
+            doc.setContentSize(blob.size());
+        }
+        return doc.getContentHash();
+    }
+
+    /** The document's content, or null if it has none. */
+    public InputStream open(StoredDocument doc) throws IOException {
+        if (hasBytes(doc)) return new ByteArrayInputStream(doc.getFileContent());
+        if (doc.getContentHash() == null) return null;
+        return blobStore.open(doc.getContentHash());
+    }
+
+    /** The document's content for an HTTP response, or null if it has none. */
+    public Resource resource(StoredDocument doc) {
+        if (hasBytes(doc)) return new ByteArrayResource(doc.getFileContent());
+        if (doc.getContentHash() == null) return null;
+        Resource blob = blobStore.resource(doc.getContentHash());
+        if (!blob.exists()) {
+            log.warn("Blob {} for '{}' is missing from the store", doc.getContentHash(), doc.getOriginalFileName());
+            return null;
+        }
+        return blob;
+    }
+
+    private static boolean hasBytes(StoredDocument doc) {
+        return doc.getFileContent() != null && doc.getFileContent().length > 0;
+    }
+}
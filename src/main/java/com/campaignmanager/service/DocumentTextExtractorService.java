@@ -1,29 +1,63 @@
 package com.campaignmanager.service;
 
 import com.campaignmanager.model.CampaignPlanDocument;
+import com.campaignmanager.model.ExtractedText;
+import com.campaignmanager.repository.CampaignPlanDocumentRepository;
+import com.campaignmanager.repository.ExtractedTextRepository;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 /**
  * Extracts plain text from uploaded campaign plan documents.
  * Supports HTML, plain text, PDF, DOCX, and DOC.
  * Returns a single concatenated corpus string suitable for inclusion in a Gemini prompt.
+ *
+ * Text is cached in extracted_texts by content hash and {@link #EXTRACTOR_VERSION}:
+ * documents are extracted in the background right after upload, and the corpus is
+ * assembled from the cache, so a document is only parsed again if its content or the
+ * extractor changes.
  */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class DocumentTextExtractorService {
 
     private static final int MAX_CHARS_PER_FILE = 30_000;
 
+    /** Bump when a change here alters extracted text; cached text from older versions is ignored. */
+    static final int EXTRACTOR_VERSION = 1;
+
+    private final DocumentContentService documentContentService;
+    private final ExtractedTextRepository extractedTextRepository;
+    private final CampaignPlanDocumentRepository documentRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Published by uploads and Drive imports; the documents are extracted once it commits. */
+    public record DocumentsStored(List<Long> documentIds) {}
+
     /**
      * Extracts text from all documents and returns a single corpus string,
      * with each file labeled by name.
@@ -31,9 +65,10 @@ public class DocumentTextExtractorService {
     public String extractAll(List<CampaignPlanDocument> docs) {
         if (docs == null || docs.isEmpty()) return "";
 
+        Map<String, String> texts = cachedTexts(docs);
         StringBuilder corpus = new StringBuilder();
         for (CampaignPlanDocument doc : docs) {
-            String text = extractOne(doc);
+            String text = textOf(doc, texts);
             if (text != null && !text.isBlank()) {
                 corpus.append("\n\n=== Document: ").append(doc.getOriginalFileName()).append(" ===\n");
                 if (text.length() > MAX_CHARS_PER_FILE) {
@@ -48,31 +83,113 @@ public class DocumentTextExtractorService {
         return corpus.toString();
     }
 
-    private String extractOne(CampaignPlanDocument doc) {
-        if (doc.getFileContent() == null || doc.getFileContent().length == 0) return null;
+    @Async
+    @TransactionalEventListener
+    public void onDocumentsStored(DocumentsStored event) {
+        List<CampaignPlanDocument> docs = documentRepository.findAllById(event.documentIds());
+        Map<String, String> texts = cachedTexts(docs);
+        long start = System.currentTimeMillis();
+        int extracted = 0;
+        for (CampaignPlanDocument doc : docs) {
+            String hash = documentContentService.contentHash(doc);
+            if (hash == null || texts.containsKey(hash)) continue;
+            textOf(doc, texts);
+            extracted++;
+        }
+        if (extracted > 0) {
+            log.info("Extracted text from {} document(s) in {} ms", extracted, System.currentTimeMillis() - start);
+        }
+    }
+
+    /** Drops cached text for content no document has any more, or from an older extractor. */
+    @Scheduled(initialDelayString = "PT15M", fixedDelayString = "PT24H")
+    public void deleteStaleTexts() {
+        Integer deleted = new TransactionTemplate(transactionManager).execute(status ->
+                extractedTextRepository.deleteStale(EXTRACTOR_VERSION, LocalDateTime.now().minusDays(1)));
+        if (deleted != null && deleted > 0) log.info("Deleted {} stale extracted text(s)", deleted);
+    }
+
+    // ─── Cache ────────────────────────────────────────────────────────────────
+
+    /** Cached text by content hash for the documents that have been extracted before. */
+    private Map<String, String> cachedTexts(List<CampaignPlanDocument> docs) {
+        List<String> hashes = docs.stream()
+                .filter(doc -> doc.getId() != null)
+                .map(documentContentService::contentHash)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (hashes.isEmpty()) return new HashMap<>();
+        return extractedTextRepository.findByContentHashInAndExtractorVersion(hashes, EXTRACTOR_VERSION).stream()
+                .collect(Collectors.toMap(ExtractedText::getContentHash, ExtractedText::getContent,
+                        (a, b) -> a, HashMap::new));
+    }
+
+    /**
+     * The document's text from {@code texts}, or freshly extracted. Saved documents have
+     * the result cached; transient ones (Gem runs on ad-hoc uploads) are just extracted.
+     */
+    private String textOf(CampaignPlanDocument doc, Map<String, String> texts) {
+        String hash = doc.getId() != null ? documentContentService.contentHash(doc) : null;
+        if (hash == null) return extractOne(doc);
 
+        String cached = texts.get(hash);
+        if (cached != null) return cached;
+
+        String text = extractOne(doc);
+        if (text != null) {
+            texts.put(hash, text);
+            saveQuietly(hash, text);
+        }
+        return text;
+    }
+
+    /**
+     * Writes in a transaction of its own so that losing a race with a concurrent
+     * extraction (unique key) doesn't roll back the caller's work.
+     */
+    private void saveQuietly(String hash, String text) {
+        ExtractedText entry = new ExtractedText();
+        entry.setContentHash(hash);
+        entry.setExtractorVersion(EXTRACTOR_VERSION);
+        entry.setContent(text);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            tx.executeWithoutResult(status -> extractedTextRepository.save(entry));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Extracted text cache write for {} skipped: {}", hash, e.getMessage());
+        }
+    }
+
+    // ─── Extraction ───────────────────────────────────────────────────────────
+
+    /** The document's text ("" for unsupported types), or null if it has no content or extraction failed. */
+    private String extractOne(CampaignPlanDocument doc) {
         String mime = doc.getMimeType() != null ? doc.getMimeType().toLowerCase() : "";
         String name = doc.getOriginalFileName() != null ? doc.getOriginalFileName().toLowerCase() : "";
 
-        try {
+        try (InputStream content = documentContentService.open(doc)) {
+            if (content == null) return null;
+
             if (mime.contains("html") || name.endsWith(".html") || name.endsWith(".htm")) {
-                return stripHtml(new String(doc.getFileContent(), StandardCharsets.UTF_8));
+                return stripHtml(new String(content.readAllBytes(), StandardCharsets.UTF_8));
             }
 
             if (mime.contains("text/plain") || name.endsWith(".txt")) {
-                return new String(doc.getFileContent(), StandardCharsets.UTF_8);
+                return new String(content.readAllBytes(), StandardCharsets.UTF_8);
             }
 
             if (mime.contains("pdf") || name.endsWith(".pdf")) {
-                return extractPdf(doc.getFileContent());
+                return extractPdf(content);
             }
 
             if (mime.contains("wordprocessingml") || name.endsWith(".docx")) {
-                return extractDocx(doc.getFileContent());
+                return extractDocx(content);
             }
 
             log.debug("Unsupported file type '{}' ({}), skipping", doc.getOriginalFileName(), mime);
-            return null;
+            return "";
 
         } catch (Exception e) {
             log.warn("Failed to extract text from '{}': {}", doc.getOriginalFileName(), e.getMessage());
@@ -97,15 +214,15 @@ public class DocumentTextExtractorService {
         return stripped;
     }
 
-    private String extractPdf(byte[] bytes) throws Exception {
-        try (PDDocument doc = Loader.loadPDF(bytes)) {
+    private String extractPdf(InputStream in) throws Exception {
+        try (PDDocument doc = Loader.loadPDF(new RandomAccessReadBuffer(in))) {
             PDFTextStripper stripper = new PDFTextStripper();
             return stripper.getText(doc);
         }
     }
 
-    private String extractDocx(byte[] bytes) throws Exception {
-        try (XWPFDocument doc = new XWPFDocument(new ByteArrayInputStream(bytes));
+    private String extractDocx(InputStream in) throws Exception {
+        try (XWPFDocument doc = new XWPFDocument(in);
              XWPFWordExtractor extractor = new XWPFWordExtractor(doc)) {
             return extractor.getText();
         }
@@ -1,16 +1,27 @@
 package com.campaignmanager.service;
 
 import com.campaignmanager.dto.EmailJobDto;
+import com.campaignmanager.dto.EmailJobPageDto;
 import com.campaignmanager.model.*;
+import com.campaignmanager.repository.ArchivedEmailJobRepository;
 import com.campaignmanager.repository.CampaignContactRepository;
 import com.campaignmanager.repository.EmailJobRepository;
+import com.campaignmanager.repository.EmailJobSummary;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -18,31 +29,112 @@ public class EmailJobService {
 
     private final EmailJobRepository emailJobRepository;
     private final CampaignContactRepository campaignContactRepository;
+    private final ArchivedEmailJobRepository archivedEmailJobRepository;
 
-    public List<EmailJobDto> findByCampaign(Long campaignId, String status) {
-        List<EmailJob> jobs;
-        if (status != null && !status.isBlank()) {
-            jobs = emailJobRepository.findByCampaignContactCampaignIdAndStatus(
-                    campaignId, EmailJobStatus.valueOf(status.toUpperCase()));
-        } else {
-            jobs = emailJobRepository.findByCampaignIdOrdered(campaignId);
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private static final Comparator<EmailJobSummary> NEWEST_FIRST =
+            Comparator.comparing(EmailJobSummary::getScheduledAt).thenComparing(EmailJobSummary::getId).reversed();
+
+    /**
+     * One page of jobs, newest first (scheduledAt, then id).  Pass the previous page's
+     * {@code nextCursor} to continue; the total is only counted when {@code includeTotal}
+     * is set, since it costs a second query over every matching row.  With
+     * {@code includeArchived} the archive is paged alongside and merged in by the same key
+     * (archived jobs keep their ids, so one cursor covers both).
+     */
+    @Transactional(readOnly = true)
+    public EmailJobPageDto findPage(Long campaignId, String status, String sender,
+                                    LocalDateTime from, LocalDateTime to,
+                                    String cursor, Integer limit, boolean includeTotal,
+                                    boolean includeArchived) {
+        EmailJobStatus st = parseStatus(status);
+        String snd = sender != null && !sender.isBlank() ? sender.trim() : null;
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        LocalDateTime afterAt = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] key = decodeCursor(cursor);
+            afterAt = LocalDateTime.parse(key[0]);
+            afterId = Long.valueOf(key[1]);
+        }
+
+        // One row past the page tells whether another page exists without counting.
+        List<EmailJobSummary> rows = emailJobRepository.findPage(st, campaignId, snd, from, to,
+                afterAt, afterId, PageRequest.of(0, size + 1));
+        boolean archiveMatches = includeArchived && (st == null || EmailJobStatus.ARCHIVABLE.contains(st));
+        Set<Long> archivedIds = Set.of();
+        if (archiveMatches) {
+            List<EmailJobSummary> archived = archivedEmailJobRepository.findPage(st, campaignId, snd, from, to,
+                    afterAt, afterId, PageRequest.of(0, size + 1));
+            if (!archived.isEmpty()) {
+                archivedIds = archived.stream().map(EmailJobSummary::getId).collect(Collectors.toSet());
+                rows = Stream.concat(rows.stream(), archived.stream())
+                        .sorted(NEWEST_FIRST).limit(size + 1).collect(Collectors.toList());
+            }
         }
-        return jobs.stream().map(this::toDto).collect(Collectors.toList());
+        boolean hasMore = rows.size() > size;
+        if (hasMore) rows = rows.subList(0, size);
+
+        EmailJobPageDto page = new EmailJobPageDto();
+        Set<Long> fromArchive = archivedIds;
+        page.setItems(rows.stream().map(row -> {
+            EmailJobDto dto = toDto(row);
+            dto.setArchived(fromArchive.contains(row.getId()));
+            return dto;
+        }).collect(Collectors.toList()));
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            EmailJobSummary last = rows.get(rows.size() - 1);
+            page.setNextCursor(encodeCursor(last.getScheduledAt(), last.getId()));
+        }
+        if (includeTotal) {
+            long total = emailJobRepository.countPage(st, campaignId, snd, from, to);
+            if (archiveMatches) total += archivedEmailJobRepository.countPage(st, campaignId, snd, from, to);
+            page.setTotal(total);
+        }
+        return page;
     }
 
-    public List<EmailJobDto> findAll(String status) {
-        List<EmailJob> jobs;
-        if (status != null && !status.isBlank()) {
-            jobs = emailJobRepository.findByStatus(EmailJobStatus.valueOf(status.toUpperCase()));
-        } else {
-            jobs = emailJobRepository.findAllByOrderByScheduledAtDesc();
+    /** One job with its body — list pages leave the body out.  Archived jobs are found too. */
+    @Transactional(readOnly = true)
+    public EmailJobDto findById(Long id) {
+        return emailJobRepository.findDetailedById(id).map(this::toDto)
+                .or(() -> archivedEmailJobRepository.findById(id).map(this::toDto))
+                .orElseThrow(() -> new RuntimeException("Email job not found: " + id));
+    }
+
+    private EmailJobStatus parseStatus(String status) {
+        if (status == null || status.isBlank()) return null;
+        try {
+            return EmailJobStatus.valueOf(status.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown job status: " + status);
+        }
+    }
+
+    private static String encodeCursor(LocalDateTime scheduledAt, Long id) {
+        String key = scheduledAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = key.split("\\|", 2);
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
         }
-        return jobs.stream().map(this::toDto).collect(Collectors.toList());
     }
 
     @Transactional
     public EmailJobDto retry(Long id) {
-        EmailJob job = emailJobRepository.findById(id)
+        EmailJob job = emailJobRepository.findDetailedById(id)
                 .orElseThrow(() -> new RuntimeException("Email job not found: " + id));
         if (job.getStatus() != EmailJobStatus.FAILED && job.getStatus() != EmailJobStatus.SKIPPED) {
             throw new RuntimeException("Only FAILED or SKIPPED jobs can be retried");
@@ -55,7 +147,7 @@ public class EmailJobService {
 
     @Transactional
     public EmailJobDto toggleHold(Long id) {
-        EmailJob job = emailJobRepository.findById(id)
+        EmailJob job = emailJobRepository.findDetailedById(id)
                 .orElseThrow(() -> new RuntimeException("Email job not found: " + id));
         if (job.getStatus() == EmailJobStatus.SCHEDULED) {
             job.setStatus(EmailJobStatus.HOLD);
@@ -93,4 +185,46 @@ public class EmailJobService {
         dto.setErrorMessage(j.getErrorMessage());
         return dto;
     }
+
+    private EmailJobDto toDto(ArchivedEmailJob j) {
+        EmailJobDto dto = new EmailJobDto();
+        dto.setId(j.getId());
+        dto.setCampaignContactId(j.getCampaignContactId());
+        campaignContactRepository.findById(j.getCampaignContactId()).ifPresent(cc -> {
+            dto.setCampaignId(cc.getCampaign().getId());
+            dto.setCampaignName(cc.getCampaign().getName());
+            dto.setGmailEmail(cc.getCampaign().getGmailEmail());
+            dto.setContactId(cc.getContact().getId());
+            dto.setContactName(cc.getContact().getName());
+            dto.setContactEmail(cc.getContact().getEmail());
+        });
+        dto.setStepNumber(j.getStepNumber());
+        dto.setSubject(j.getSubject());
+        dto.setBody(j.getBody());
+        dto.setScheduledAt(j.getScheduledAt());
+        dto.setSentAt(j.getSentAt());
+        dto.setStatus(j.getStatus());
+        dto.setErrorMessage(j.getErrorMessage());
+        dto.setArchived(true);
+        return dto;
+    }
+
+    private EmailJobDto toDto(EmailJobSummary j) {
+        EmailJobDto dto = new EmailJobDto();
+        dto.setId(j.getId());
+        dto.setCampaignContactId(j.getCampaignContactId());
+        dto.setCampaignId(j.getCampaignId());
+        dto.setCampaignName(j.getCampaignName());
+        dto.setGmailEmail(j.getGmailEmail());
+        dto.setContactId(j.getContactId());
+        dto.setContactName(j.getContactName());
+        dto.setContactEmail(j.getContactEmail());
+        dto.setStepNumber(j.getStepNumber());
+        dto.setSubject(j.getSubject());
+        dto.setScheduledAt(j.getScheduledAt());
+        dto.setSentAt(j.getSentAt());
+        dto.setStatus(j.getStatus());
+        dto.setErrorMessage(j.getErrorMessage());
+        return dto;
+    }
 }
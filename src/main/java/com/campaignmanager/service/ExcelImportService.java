@@ -1,27 +1,51 @@
 package com.campaignmanager.service;
 
+import com.campaignmanager.browser.FetchResult;
 import com.campaignmanager.dto.ExcelImportResultDto;
+import com.campaignmanager.dto.ImportIssueDto;
+import com.campaignmanager.dto.ImportValidationDto;
 import com.campaignmanager.model.*;
 import com.campaignmanager.repository.*;
-import com.microsoft.playwright.APIResponse;
-import com.microsoft.playwright.BrowserContext;
+import com.campaignmanager.util.SheetRow;
+import com.campaignmanager.util.WorkbookRowReader;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.ss.usermodel.DateUtil;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -49,14 +73,45 @@ public class ExcelImportService {
 
     private static final Pattern SHEET_ID = Pattern.compile(
             "/spreadsheets/d/([a-zA-Z0-9_-]+)");
+    private static final Pattern SHEET_GID = Pattern.compile("[#&?]gid=(\\d+)");
 
     private final ContactRepository contactRepository;
     private final CampaignRepository campaignRepository;
     private final CampaignContactRepository campaignContactRepository;
     private final EmailTemplateRepository templateRepository;
-    private final EmailJobRepository emailJobRepository;
     private final GoogleDocParserService googleDocParser;
     private final PlaywrightSessionService sessionService;
+    private final PlatformTransactionManager transactionManager;
+    private final ImportBulkRepository bulkRepository;
+
+    /** Google Docs fetched at once during a direct-format import. */
+    @Value("${import.docs.fetch-concurrency:4}")
+    private int docFetchConcurrency;
+
+    /** Direct-format rows written per transaction. */
+    @Value("${import.batch-size:50}")
+    private int importBatchSize;
+
+    /** Try a Google Sheet's CSV export before the XLSX one (see {@link #downloadGoogleSheet}). */
+    @Value("${import.gsheet.csv-export:true}")
+    private boolean csvExport;
+
+    /**
+     * Hooks for imports run as background jobs (see {@link ImportJobService}): where a
+     * restarted job picks up, and a callback after each committed direct-format batch.
+     */
+    public interface Progress {
+        Progress NONE = (throughRow, totals) -> {};
+
+        /** Sheet rows up to and including this one were committed by an earlier run; 0 = none. */
+        default int resumeAfterRow() { return 0; }
+
+        /** This is a restarted run (it may have written rows the checkpoint doesn't cover). */
+        default boolean resumed() { return resumeAfterRow() > 0; }
+
+        /** A batch committed; every sheet row up to {@code throughRow} is now done. */
+        void committed(int throughRow, ExcelImportResultDto totals);
+    }
 
     public ExcelImportResultDto importFromExcel(Long campaignId, MultipartFile file) throws Exception {
         return importFromExcel(campaignId, file, false);
@@ -65,82 +120,143 @@ public class ExcelImportService {
     /**
      * @param replace if true, removes all existing CampaignContacts before importing.
      *
-     * NOTE: Not annotated with @Transactional intentionally — each row's saves are committed
-     * immediately at the repository level. This prevents holding an open DB transaction during
-     * Playwright I/O (Google Doc fetches), which can cause connection timeouts.
+     * NOTE: Not annotated with @Transactional intentionally — direct-format rows are committed
+     * in batches once their Google Docs have been fetched (see {@link #importDirectFormat}).
+     * This prevents holding an open DB transaction during Playwright I/O, which can cause
+     * connection timeouts.
      */
     public ExcelImportResultDto importFromExcel(Long campaignId, MultipartFile file, boolean replace) throws Exception {
-        try (InputStream is = file.getInputStream()) {
-            return importFromStream(campaignId, is, replace);
+        try (InputStream is = file.getInputStream();
+             WorkbookRowReader workbook = WorkbookRowReader.open(is)) {
+            return importFromWorkbook(campaignId, workbook, replace, null);
         }
     }
 
-    /**
-     * Downloads a Google Sheet via the saved Gmail/Google session and imports it.
-     * Accepts any Google Sheets URL (view, edit, etc.) — the sheet ID is extracted automatically.
-     *
-     * @param sheetUrl any Google Sheets URL
-     * @param replace  if true, clears existing campaign contacts first
-     */
     /** Downloads a Google Sheet / Drive file as raw XLSX bytes using the active Gmail session. */
     public byte[] downloadGoogleSheetBytes(String sheetUrl) throws Exception {
-        Matcher m = SHEET_ID.matcher(sheetUrl);
-        if (!m.find()) {
+        String sheetId = sheetKey(sheetUrl);
+        if (sheetId == null) {
             throw new IllegalArgumentException("Cannot extract Google Sheet ID from URL: " + sheetUrl);
         }
-        String exportUrl = "https://docs.google.com/spreadsheets/d/" + m.group(1) + "/export?format=xlsx";
+        String exportUrl = "https://docs.google.com/spreadsheets/d/" + sheetId + "/export?format=xlsx";
         log.info("Downloading Google Sheet: {}", exportUrl);
-        BrowserContext ctx = sessionService.getSessionContext();
-        APIResponse response = ctx.request().get(exportUrl);
+        FetchResult response = sessionService.fetch(exportUrl);
         if (!response.ok()) {
             throw new RuntimeException(
                     "Failed to download Google Sheet (HTTP " + response.status() + "). " +
                     "Make sure the Gmail session is active and the sheet is shared with the signed-in account.");
         }
         byte[] body = response.body();
+        // XLSX is a ZIP file — magic bytes are PK (0x50 0x4B). If Google returned HTML
+        // (e.g. a login page or permission error) the bytes won't match.
         if (body.length < 4 || body[0] != 0x50 || body[1] != 0x4B) {
+            String preview = new String(body, 0, Math.min(body.length, 200));
             throw new RuntimeException(
                     "Google Sheet download did not return a valid Excel file. " +
-                    "The Gmail session may have expired — re-upload it in Settings.");
+                    "The Gmail session may have expired — re-upload it in Settings. " +
+                    "Response preview: " + preview);
         }
         return body;
     }
 
-    public ExcelImportResultDto importFromGoogleSheet(Long campaignId, String sheetUrl, boolean replace) throws Exception {
-        Matcher m = SHEET_ID.matcher(sheetUrl);
-        if (!m.find()) {
-            throw new IllegalArgumentException("Cannot extract Google Sheet ID from URL: " + sheetUrl);
+    /** A downloaded Google Sheet: its first tab as CSV, or the whole workbook as XLSX. */
+    public record SheetDownload(byte[] body, boolean csv) {
+        public WorkbookRowReader open() throws IOException {
+            InputStream in = new ByteArrayInputStream(body);
+            return csv ? WorkbookRowReader.openCsv(in) : WorkbookRowReader.open(in);
         }
-        String exportUrl = "https://docs.google.com/spreadsheets/d/" + m.group(1) + "/export?format=xlsx";
-        log.info("Downloading Google Sheet for campaign {}: {}", campaignId, exportUrl);
+    }
 
-        BrowserContext ctx = sessionService.getSessionContext();
-        APIResponse response = ctx.request().get(exportUrl);
-        if (!response.ok()) {
-            throw new RuntimeException(
-                    "Failed to download Google Sheet (HTTP " + response.status() + "). " +
-                    "Make sure the Gmail session is active and the sheet is shared with the signed-in account.");
+    /**
+     * Downloads a Google Sheet for import.  The tab's CSV export is tried first: it is a
+     * fraction of the XLSX size and is parsed as it is read.  It is only used when the
+     * import needs nothing CSV loses — a direct-format sheet (one tab) whose dates are
+     * text the import can parse and whose Email Links are URLs, not link text.  Anything
+     * else falls back to the XLSX workbook.
+     */
+    public SheetDownload downloadGoogleSheet(String sheetUrl) throws Exception {
+        String sheetId = sheetKey(sheetUrl);
+        if (sheetId == null) {
+            throw new IllegalArgumentException("Cannot extract Google Sheet ID from URL: " + sheetUrl);
+        }
+        if (csvExport) {
+            Matcher gid = SHEET_GID.matcher(sheetUrl);
+            byte[] csv = downloadCsvExport(sheetId, gid.find() ? gid.group(1) : null);
+            if (csv != null) return new SheetDownload(csv, true);
         }
+        return new SheetDownload(downloadGoogleSheetBytes(sheetUrl), false);
+    }
 
+    /** The tab's CSV export if it can stand in for the XLSX, otherwise null. */
+    private byte[] downloadCsvExport(String sheetId, String gid) throws Exception {
+        String exportUrl = "https://docs.google.com/spreadsheets/d/" + sheetId + "/export?format=csv"
+                + (gid != null ? "&gid=" + gid : "");
+        log.info("Downloading Google Sheet as CSV: {}", exportUrl);
+        FetchResult response = sessionService.fetch(exportUrl);
         byte[] body = response.body();
-        // XLSX is a ZIP file — magic bytes are PK (0x50 0x4B). If Google returned HTML
-        // (e.g. a login page or permission error) the bytes won't match.
-        if (body.length < 4 || body[0] != 0x50 || body[1] != 0x4B) {
-            String preview = new String(body, 0, Math.min(body.length, 200));
-            throw new RuntimeException(
-                    "Google Sheet download did not return a valid Excel file. " +
-                    "The Gmail session may have expired — re-upload it in Settings. " +
-                    "Response preview: " + preview);
+        if (!response.ok() || body.length == 0 || body[0] == '<') {
+            // Login page, permission error, …: the XLSX download reports it properly
+            log.info("Google Sheet {}: CSV export unavailable (HTTP {}), using XLSX", sheetId, response.status());
+            return null;
+        }
+        String reason = csvFallbackReason(body);
+        if (reason != null) {
+            log.info("Google Sheet {}: {} — using XLSX", sheetId, reason);
+            return null;
         }
+        log.info("Google Sheet {}: using CSV export ({} KB)", sheetId, body.length / 1024);
+        return body;
+    }
 
-        try (InputStream is = new ByteArrayInputStream(body)) {
-            return importFromStream(campaignId, is, replace);
+    /** Why the CSV export can't replace the XLSX for this import, or null if it can. */
+    private String csvFallbackReason(byte[] csv) throws IOException {
+        try (WorkbookRowReader sheet = WorkbookRowReader.openCsv(new ByteArrayInputStream(csv))) {
+            Iterator<SheetRow> rows = sheet.rows(0);
+            SheetRow header = rows.hasNext() ? rows.next() : null;
+            if (!isDirectFormat(header)) return "not a direct-format sheet (needs every tab)";
+            DirectColumns cols = directColumns(header);
+            while (rows.hasNext()) {
+                SheetRow row = rows.next();
+                for (int col : cols.dates()) {
+                    String value = row.getString(col);
+                    if (value != null && parseDateTime(value) == null) {
+                        return "row " + row.rowNum() + " has date '" + value + "' in a format the import can't read";
+                    }
+                }
+                String link = row.getString(cols.emailLink());
+                if (link != null && !link.contains("://")) {
+                    return "row " + row.rowNum() + " shows link text instead of the Email Link URL";
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Downloads a Google Sheet via the saved Gmail/Google session and imports it.
+     * Accepts any Google Sheets URL (view, edit, etc.) — the sheet ID is extracted automatically.
+     *
+     * @param sheetUrl any Google Sheets URL
+     * @param replace  if true, clears existing campaign contacts first
+     */
+    public ExcelImportResultDto importFromGoogleSheet(Long campaignId, String sheetUrl, boolean replace) throws Exception {
+        log.info("Downloading Google Sheet for campaign {}: {}", campaignId, sheetUrl);
+        SheetDownload download = downloadGoogleSheet(sheetUrl);
+        try (WorkbookRowReader workbook = download.open()) {
+            return importFromWorkbook(campaignId, workbook, replace, sheetKey(sheetUrl));
         }
     }
 
+    /** The Google Sheet ID in {@code sheetUrl}, which keys its row states; null if there is none. */
+    public String sheetKey(String sheetUrl) {
+        Matcher m = sheetUrl != null ? SHEET_ID.matcher(sheetUrl) : null;
+        return m != null && m.find() ? m.group(1) : null;
+    }
+
     // ── Shared workbook processing ────────────────────────────────────────────
 
-    private ExcelImportResultDto importFromStream(Long campaignId, InputStream is, boolean replace) throws Exception {
+    private ExcelImportResultDto importFromWorkbook(Long campaignId, WorkbookRowReader workbook, boolean replace,
+                                                    String sheetKey) throws Exception {
         ExcelImportResultDto result = new ExcelImportResultDto();
 
         Campaign campaign = campaignRepository.findById(campaignId)
@@ -151,58 +267,83 @@ public class ExcelImportService {
             log.info("Replace mode: removed all existing contacts from campaign {}", campaignId);
         }
 
-        try (Workbook workbook = WorkbookFactory.create(is)) {
+        importWorkbook(campaign, workbook, sheetKey, result, Progress.NONE);
+        return result;
+    }
 
-            Sheet firstSheet = workbook.getSheetAt(0);
+    /**
+     * Imports a workbook into {@code result}, which may already hold an earlier run's totals.
+     * Replace mode is the caller's job here ({@link #doDeleteByCampaignId}).
+     *
+     * @param sheetKey Google Sheet ID for incremental re-imports (see {@link #sheetKey}); null
+     *                 imports every row
+     */
+    public void importWorkbook(Long campaignId, WorkbookRowReader workbook, String sheetKey,
+                               ExcelImportResultDto result, Progress progress) throws Exception {
+        Campaign campaign = campaignRepository.findById(campaignId)
+                .orElseThrow(() -> new RuntimeException("Campaign not found: " + campaignId));
+        importWorkbook(campaign, workbook, sheetKey, result, progress);
+    }
 
-            // Auto-detect format based on headers in first sheet
-            if (isDirectFormat(firstSheet)) {
-                log.info("Direct per-contact format detected for campaign {}", campaignId);
-                importDirectFormat(firstSheet, campaign, result);
-                return result;
-            }
+    private void importWorkbook(Campaign campaign, WorkbookRowReader workbook, String sheetKey,
+                                ExcelImportResultDto result, Progress progress) throws Exception {
+        Long campaignId = campaign.getId();
 
-            // --- Legacy 2-sheet format ---
+        // Rows are streamed: only the current row (plus the pipeline's window) is in memory.
+        Iterator<SheetRow> firstSheet = workbook.rows(0);
+        SheetRow firstHeader = firstSheet.hasNext() ? firstSheet.next() : null;
 
-            Sheet contactSheet = workbook.getSheet("Contacts");
-            if (contactSheet == null && workbook.getNumberOfSheets() > 0) {
-                contactSheet = firstSheet;
-            }
-            if (contactSheet != null) {
-                importContacts(contactSheet, campaign, result);
-            } else {
-                result.getErrors().add("No 'Contacts' sheet found in the workbook.");
-            }
+        // Auto-detect format based on headers in first sheet
+        if (isDirectFormat(firstHeader)) {
+            log.info("Direct per-contact format detected for campaign {}", campaignId);
+            importDirectFormat(firstHeader, firstSheet, campaign, sheetKey, result, progress);
+            return;
+        }
 
-            Sheet templateSheet = workbook.getSheet("Templates");
-            if (templateSheet == null && workbook.getNumberOfSheets() > 1) {
-                templateSheet = workbook.getSheetAt(1);
-            }
-            if (templateSheet != null) {
-                importTemplates(templateSheet, campaign, result);
-            }
+        // --- Legacy 2-sheet format ---
+        // Imported in one pass with no checkpoints; re-running it would duplicate templates.
+        if (progress.resumed()) {
+            throw new IllegalStateException("This workbook uses the Contacts/Templates format, " +
+                    "which cannot be resumed after an interruption. Start the import again.");
+        }
+
+        Iterator<SheetRow> contactSheet = workbook.rows("Contacts");
+        if (contactSheet == null && !workbook.sheetNames().isEmpty()) {
+            contactSheet = workbook.rows(0);
+        }
+        if (contactSheet != null) {
+            importContacts(contactSheet, campaign, result);
+        } else {
+            result.getErrors().add("No 'Contacts' sheet found in the workbook.");
+        }
+
+        Iterator<SheetRow> templateSheet = workbook.rows("Templates");
+        if (templateSheet == null && workbook.sheetNames().size() > 1) {
+            templateSheet = workbook.rows(1);
+        }
+        if (templateSheet != null) {
+            importTemplates(templateSheet, campaign, result);
         }
 
         result.setMessage(String.format(
                 "Import complete: %d contact(s) added/updated, %d email template(s) imported.",
                 result.getContactsImported(), result.getTemplatesImported()));
-        return result;
     }
 
     /** Wrapped in its own transaction so the delete commits before per-row saves start. */
     @Transactional
-    protected void doDeleteByCampaignId(Long campaignId) {
+    public void doDeleteByCampaignId(Long campaignId) {
         campaignContactRepository.deleteByCampaignId(campaignId);
+        bulkRepository.deleteRowStates(campaignId); // nothing is "unchanged" any more
     }
 
     // ─── Format detection ─────────────────────────────────────────────────────
 
-    private boolean isDirectFormat(Sheet sheet) {
-        Row header = sheet.getRow(0);
+    private boolean isDirectFormat(SheetRow header) {
         if (header == null) return false;
         boolean hasEmailLink = false, hasEmail1 = false;
-        for (Cell cell : header) {
-            String h = getCellStringRaw(cell);
+        for (int col = 0; col <= header.lastColumn(); col++) {
+            String h = header.getString(col);
             if (h == null) continue;
             String norm = h.trim().toLowerCase();
             if (norm.equals("email link")) hasEmailLink = true;
@@ -213,23 +354,231 @@ public class ExcelImportService {
 
     // ─── Direct per-contact format ────────────────────────────────────────────
 
-    private void importDirectFormat(Sheet sheet, Campaign campaign, ExcelImportResultDto result) {
-        Iterator<Row> rows = sheet.iterator();
-        if (!rows.hasNext()) return;
+    /** Column indexes of a direct-format sheet; -1 when the column is absent. */
+    private record DirectColumns(int name, int title, int email, int phone, int company, int play,
+                                 int subPlay, int aeRole, int emailLink, int optOut, int[] dates) {}
+
+    /** Cell values of one direct-format row, read up front so later stages don't touch the sheet. */
+    private record DirectRow(int rowNum, String email, String name, String title, String phone,
+                             String company, String play, String subPlay, String aeRole,
+                             String emailLink, LocalDateTime[] dates) {}
+
+    /**
+     * A row waiting for its Google Doc; {@code docs} completes with null when there is no link.
+     * {@code lastDocHash} is set when the row's cells are as last imported: the row is then
+     * skipped unless its doc has changed since.
+     */
+    private record PendingRow(DirectRow row, CompletableFuture<Map<Integer, GoogleDocParserService.ParsedEmail>> docs,
+                              String lastDocHash) {}
+
+    /** A row ready to be written: its parsed doc, or the reason there isn't one. */
+    private record ResolvedRow(DirectRow row, Map<Integer, GoogleDocParserService.ParsedEmail> docs, String docError) {}
+
+    /**
+     * Opted-out and unchanged rows read ahead of rows still waiting to be written.  They are
+     * only added to the totals once a checkpoint covers them, so the totals saved with a
+     * checkpoint match its row and a resumed job doesn't count them twice.
+     */
+    static final class ReadAhead {
+        private record Counts(int throughRow, int skipped, int unchanged) {}
+
+        private final Deque<Counts> queued = new ArrayDeque<>();
+        private int skipped;
+        private int unchanged;
+        private int lastRow;
+
+        void skipped(int rowNum)   { skipped++;   lastRow = rowNum; }
+        void unchanged(int rowNum) { unchanged++; lastRow = rowNum; }
+
+        /** The row is queued for writing: what was counted before it is due once a batch passes it. */
+        void queued(int rowNum) {
+            if (skipped + unchanged > 0) queued.add(new Counts(rowNum - 1, skipped, unchanged));
+            skipped = 0;
+            unchanged = 0;
+        }
+
+        /** Adds the counts of every row up to {@code throughRow} to {@code totals}. */
+        void release(int throughRow, ExcelImportResultDto totals) {
+            while (!queued.isEmpty() && queued.peek().throughRow() <= throughRow) {
+                Counts c = queued.poll();
+                add(totals, c.skipped(), c.unchanged());
+            }
+            if (queued.isEmpty() && lastRow <= throughRow) {
+                add(totals, skipped, unchanged);
+                skipped = 0;
+                unchanged = 0;
+            }
+        }
+
+        private static void add(ExcelImportResultDto totals, int skipped, int unchanged) {
+            totals.setSkipped(totals.getSkipped() + skipped);
+            totals.setUnchanged(totals.getUnchanged() + unchanged);
+        }
+    }
 
-        Row header = rows.next();
+    /**
+     * Imports a direct-format sheet as a three-stage pipeline:
+     * <ol>
+     *   <li>this thread reads and filters rows;</li>
+     *   <li>up to {@code import.docs.fetch-concurrency} Google Docs are fetched and parsed at once;</li>
+     *   <li>rows are written {@code import.batch-size} at a time, one transaction per batch,
+     *       in sheet order.</li>
+     * </ol>
+     * At most two batches are in flight: while one is written, the next one's docs are
+     * still being fetched, and reading stops until a batch has been written, so memory
+     * stays flat however long the sheet is.  No transaction is ever open during a fetch.
+     */
+    private void importDirectFormat(SheetRow header, Iterator<SheetRow> rows, Campaign campaign,
+                                    String sheetKey, ExcelImportResultDto result, Progress progress) {
+
+        DirectColumns cols = directColumns(header);
+        if (cols.email() == -1) {
+            result.getErrors().add("Direct format sheet must have an 'Email' column.");
+            return;
+        }
+
+        log.info("Direct format columns: name={} title={} email={} emailLink={} optOut={} emailDates={}",
+                cols.name(), cols.title(), cols.email(), cols.emailLink(), cols.optOut(),
+                Arrays.toString(cols.dates()));
+
+        // AE/SA email filtering: prefer the campaign's assigned Gmail account; fall back
+        // to the first connected session. If neither is known, skip the filter.
+        String sessionEmail = senderEmail(campaign);
+        boolean filterByAeSa = cols.aeRole() >= 0 && sessionEmail != null;
+        if (cols.aeRole() >= 0 && sessionEmail == null) {
+            log.warn("AE/SA column found but no Gmail account is assigned — skipping AE/SA filter.");
+        }
+        log.info("AE/SA filter: sessionEmail={} filterEnabled={}", sessionEmail, filterByAeSa);
+
+        LocalDateTime now = LocalDateTime.now();
+        int rowNum = 1;
+        int aeSaFilteredOut = 0;
+
+        ExecutorService fetchPool = Executors.newFixedThreadPool(Math.max(1, docFetchConcurrency), r -> {
+            Thread t = new Thread(r, "import-doc-fetch");
+            t.setDaemon(true);
+            return t;
+        });
+        Deque<PendingRow> window = new ArrayDeque<>();
+        int batchSize = Math.max(1, importBatchSize);
+        int resumeAfterRow = progress.resumeAfterRow();
+        if (resumeAfterRow > 0) log.info("Resuming import of campaign {} after row {}", campaign.getId(), resumeAfterRow);
+
+        // Re-import of a Google Sheet: row states from the last import, and the rows seen now
+        Map<String, ImportBulkRepository.RowState> previous = sheetKey != null
+                ? bulkRepository.findRowStates(campaign.getId(), sheetKey) : Map.of();
+        Set<String> seen = new HashSet<>();
+        ReadAhead readAhead = new ReadAhead();
+        Progress checkpoints = (throughRow, totals) -> {
+            readAhead.release(throughRow, totals);
+            progress.committed(throughRow, totals);
+        };
+        try {
+            while (rows.hasNext()) {
+                SheetRow row = rows.next();
+                rowNum++;
+
+                String email = getCellString(row, cols.email());
+                if (email == null || email.isBlank()) continue;
+                seen.add(rowKey(email));
+                if (rowNum <= resumeAfterRow) continue; // committed by an earlier run
+
+                // Opt Out check
+                String optOut = getCellString(row, cols.optOut());
+                if ("y".equalsIgnoreCase(optOut != null ? optOut.trim() : null)) {
+                    readAhead.skipped(rowNum);
+                    log.debug("Row {}: opted out ({}), skipping", rowNum, email);
+                    continue;
+                }
+
+                // AE/SA sender filter: skip rows whose AE/SA email doesn't match the session
+                if (filterByAeSa) {
+                    String aeEmail = getCellString(row, cols.aeRole());
+                    if (aeEmail == null || !sessionEmail.equalsIgnoreCase(aeEmail.trim())) {
+                        log.info("Row {}: AE/SA '{}' != session '{}' — skipping", rowNum, aeEmail, sessionEmail);
+                        aeSaFilteredOut++;
+                        continue;
+                    }
+                }
 
-        // Column index map
+                DirectRow directRow = readDirectRow(row, rowNum, email, cols);
+                ImportBulkRepository.RowState last = previous.get(rowKey(email));
+                String lastDocHash = null;
+                if (last != null && rowHash(directRow).equals(last.rowHash())) {
+                    if (directRow.emailLink() == null || directRow.emailLink().isBlank()) {
+                        readAhead.unchanged(rowNum);
+                        continue; // same as last import and no doc — no writes
+                    }
+                    // Same cells: only the doc can have changed. Its fetch is usually a
+                    // cache hit or a 304, and the row is skipped if the doc matches.
+                    lastDocHash = last.docHash();
+                }
+                readAhead.queued(rowNum);
+                window.add(new PendingRow(directRow, fetchDocs(fetchPool, directRow.emailLink()), lastDocHash));
+                if (window.size() >= 2 * batchSize) {
+                    writeDirectBatch(drain(window, batchSize), cols, campaign, now, sheetKey, result, checkpoints);
+                }
+            }
+            while (!window.isEmpty()) {
+                writeDirectBatch(drain(window, batchSize), cols, campaign, now, sheetKey, result, checkpoints);
+            }
+
+            // Rows gone from the sheet are reported once; their contacts and jobs stay.
+            List<String> removed = previous.keySet().stream().filter(k -> !seen.contains(k)).sorted().toList();
+            if (!removed.isEmpty()) {
+                bulkRepository.deleteRowStates(campaign.getId(), sheetKey, removed);
+                result.getRemovedRows().addAll(removed);
+                log.info("{} row(s) removed from sheet {} since its last import into campaign {}",
+                        removed.size(), sheetKey, campaign.getId());
+            }
+            checkpoints.committed(rowNum, result);
+        } finally {
+            fetchPool.shutdownNow();
+        }
+
+        // Post-loop AE/SA filter check: if filter was active but nothing matched, set error message
+        if (filterByAeSa && result.getContactsImported() == 0 && aeSaFilteredOut > 0) {
+            result.getErrors().add(0,
+                    "Gmail Session and Sender email address doesn't match. " +
+                    "Connected session: " + sessionEmail + ". " +
+                    "None of the " + aeSaFilteredOut + " row(s) had a matching AE/SA email address.");
+            result.setMessage("Import failed: no rows matched the connected Gmail account.");
+            return;
+        }
+
+        // Set final message (includes AE/SA skip note if applicable)
+        String filterNote = (filterByAeSa && aeSaFilteredOut > 0)
+                ? ", " + aeSaFilteredOut + " row(s) skipped (AE/SA mismatch)" : "";
+        String diffNote = (result.getUnchanged() > 0 ? ", " + result.getUnchanged() + " unchanged" : "")
+                + (!result.getRemovedRows().isEmpty() ? ", " + result.getRemovedRows().size() + " removed from sheet" : "");
+        result.setMessage(String.format(
+                "Import complete: %d contact(s) added/updated, %d email job(s) created%s%s%s.",
+                result.getContactsImported(),
+                result.getTemplatesImported(),
+                result.getSkipped() > 0 ? ", " + result.getSkipped() + " opted out/skipped" : "",
+                filterNote,
+                diffNote));
+    }
+
+    /** The account rows' AE/SA must match: the campaign's Gmail account, else the connected session; null = no filter. */
+    private String senderEmail(Campaign campaign) {
+        String campaignEmail = campaign.getGmailEmail();
+        return (campaignEmail != null && !campaignEmail.isBlank())
+                ? campaignEmail
+                : sessionService.getConnectedEmail();
+    }
+
+    /** Direct-format column indexes, found by header name. */
+    private DirectColumns directColumns(SheetRow header) {
         int nameCol = -1, titleCol = -1, emailCol = -1, phoneCol = -1;
         int companyCol = -1, playCol = -1, subPlayCol = -1, aeRoleCol = -1;
         int emailLinkCol = -1, optOutCol = -1;
         int[] emailDateCols = new int[]{-1, -1, -1, -1, -1, -1, -1}; // Email 1–7
 
-        for (Cell cell : header) {
-            String h = getCellStringRaw(cell);
+        for (int col = 0; col <= header.lastColumn(); col++) {
+            String h = header.getString(col);
             if (h == null) continue;
             String norm = h.trim().toLowerCase();
-            int col = cell.getColumnIndex();
             switch (norm) {
                 case "name"      -> nameCol      = col;
                 case "title"     -> titleCol     = col;
@@ -250,179 +599,544 @@ public class ExcelImportService {
                 }
             }
         }
+        return new DirectColumns(nameCol, titleCol, emailCol, phoneCol, companyCol, playCol,
+                subPlayCol, aeRoleCol, emailLinkCol, optOutCol, emailDateCols);
+    }
 
-        if (emailCol == -1) {
-            result.getErrors().add("Direct format sheet must have an 'Email' column.");
+    // ─── Direct format: pipeline stages ───────────────────────────────────────
+
+    private DirectRow readDirectRow(SheetRow row, int rowNum, String email, DirectColumns cols) {
+        LocalDateTime[] dates = new LocalDateTime[7];
+        for (int step = 0; step < 7; step++) dates[step] = readDateCell(row, cols.dates()[step]);
+        return new DirectRow(rowNum, email,
+                getCellString(row, cols.name()), getCellString(row, cols.title()),
+                getCellString(row, cols.phone()), getCellString(row, cols.company()),
+                getCellString(row, cols.play()), getCellString(row, cols.subPlay()),
+                getCellString(row, cols.aeRole()), getCellString(row, cols.emailLink()), dates);
+    }
+
+    private static String rowKey(String email) {
+        return ImportBulkRepository.rowKey(email);
+    }
+
+    /** SHA-256 of everything the import reads from a row; equal hashes = nothing to redo. */
+    private static String rowHash(DirectRow row) {
+        StringBuilder sb = new StringBuilder();
+        for (Object value : new Object[]{row.email(), row.name(), row.title(), row.phone(), row.company(),
+                row.play(), row.subPlay(), row.aeRole(), row.emailLink()}) {
+            sb.append(value).append('\u0001');
+        }
+        for (LocalDateTime date : row.dates()) sb.append(date).append('\u0001');
+        return sha256(sb);
+    }
+
+    /** Hash of the Email N sections parsed from a row's doc — what its jobs are made from. */
+    private static String docHash(Map<Integer, GoogleDocParserService.ParsedEmail> docs) {
+        if (docs == null) return null;
+        StringBuilder sb = new StringBuilder();
+        new TreeMap<>(docs).forEach((step, pe) ->
+                sb.append(step).append('\u0001').append(pe.subject()).append('\u0001').append(pe.body()).append('\u0001'));
+        return sha256(sb);
+    }
+
+    private static String sha256(CharSequence text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CompletableFuture<Map<Integer, GoogleDocParserService.ParsedEmail>> fetchDocs(
+            ExecutorService pool, String emailLink) {
+        if (emailLink == null || emailLink.isBlank()) return CompletableFuture.completedFuture(null);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return googleDocParser.parseDoc(emailLink);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, pool);
+    }
+
+    private static List<PendingRow> drain(Deque<PendingRow> window, int count) {
+        List<PendingRow> batch = new ArrayList<>(count);
+        while (batch.size() < count && !window.isEmpty()) batch.add(window.poll());
+        return batch;
+    }
+
+    /**
+     * Waits for the batch's docs (outside any transaction), then writes all its rows in one
+     * transaction.  If that fails, the rows are retried one per transaction so a single bad
+     * row only costs itself, as it did before batching.
+     */
+    private void writeDirectBatch(List<PendingRow> batch, DirectColumns cols, Campaign campaign,
+                                  LocalDateTime now, String sheetKey, ExcelImportResultDto result,
+                                  Progress progress) {
+        List<ResolvedRow> resolved = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            try {
+                Map<Integer, GoogleDocParserService.ParsedEmail> docs = pending.docs().join();
+                if (pending.lastDocHash() != null && pending.lastDocHash().equals(docHash(docs))) {
+                    result.setUnchanged(result.getUnchanged() + 1); // cells and doc as last imported
+                    continue;
+                }
+                resolved.add(new ResolvedRow(pending.row(), docs, null));
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Row {}: Google Doc fetch failed for {}: {}",
+                        pending.row().rowNum(), pending.row().emailLink(), cause.getMessage());
+                resolved.add(new ResolvedRow(pending.row(), null, cause.getMessage()));
+            }
+        }
+
+        int throughRow = batch.get(batch.size() - 1).row().rowNum();
+        if (resolved.isEmpty()) {
+            progress.committed(throughRow, result);
             return;
         }
 
-        log.info("Direct format columns: name={} title={} email={} emailLink={} optOut={} emailDates={}",
-                nameCol, titleCol, emailCol, emailLinkCol, optOutCol, java.util.Arrays.toString(emailDateCols));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ExcelImportResultDto part = new ExcelImportResultDto();
+        try {
+            tx.executeWithoutResult(status -> writeDirectRows(resolved, cols, campaign, now, sheetKey, part));
+            mergeInto(result, part);
+            log.info("Import batch written: rows {}–{}, {} contact(s), {} job(s)",
+                    resolved.get(0).row().rowNum(), resolved.get(resolved.size() - 1).row().rowNum(),
+                    part.getContactsImported(), part.getTemplatesImported());
+        } catch (Exception e) {
+            log.warn("Import batch failed ({}), retrying its {} row(s) one by one", e.getMessage(), resolved.size());
+            for (ResolvedRow r : resolved) {
+                ExcelImportResultDto one = new ExcelImportResultDto();
+                try {
+                    tx.executeWithoutResult(status -> writeDirectRows(List.of(r), cols, campaign, now, sheetKey, one));
+                    mergeInto(result, one);
+                } catch (Exception rowError) {
+                    result.getErrors().add("Row " + r.row().rowNum() + ": " + rowError.getMessage());
+                    log.warn("Failed to import row {}: {}", r.row().rowNum(), rowError.getMessage());
+                }
+            }
+        }
+        progress.committed(throughRow, result);
+    }
 
-        // AE/SA email filtering: prefer the campaign's assigned Gmail account; fall back
-        // to the first connected session. If neither is known, skip the filter.
-        String campaignEmail = campaign.getGmailEmail();
-        String sessionEmail = (campaignEmail != null && !campaignEmail.isBlank())
-                ? campaignEmail
-                : sessionService.getConnectedEmail();
-        boolean filterByAeSa = aeRoleCol >= 0 && sessionEmail != null;
-        if (aeRoleCol >= 0 && sessionEmail == null) {
-            log.warn("AE/SA column found but no Gmail account is assigned — skipping AE/SA filter.");
+    /**
+     * Upserts the rows' contacts, enrolls them and creates their email jobs, set-based:
+     * one preload query per table for the whole batch and JDBC-batched writes (see
+     * {@link ImportBulkRepository}).  Runs inside the batch transaction.
+     */
+    private void writeDirectRows(List<ResolvedRow> rows, DirectColumns cols, Campaign campaign,
+                                 LocalDateTime now, String sheetKey, ExcelImportResultDto result) {
+        Long ownerId = campaign.getOwner() != null ? campaign.getOwner().getId() : null;
+
+        // Contacts: merge each row into the existing contact (or a new one) for its email.
+        // A repeated email within the batch merges into the same contact, as sequential
+        // row saves did.
+        Map<String, Contact> existing = bulkRepository.findContacts(ownerId,
+                rows.stream().map(r -> r.row().email()).distinct().toList());
+        Map<String, Contact> touched = new LinkedHashMap<>();
+        for (ResolvedRow resolved : rows) {
+            DirectRow row = resolved.row();
+            Contact contact = touched.computeIfAbsent(ImportBulkRepository.emailKey(row.email()),
+                    key -> existing.getOrDefault(key, new Contact()));
+            contact.setEmail(row.email());
+            if (row.name() != null) contact.setName(row.name());
+            else if (contact.getName() == null) contact.setName(row.email()); // fallback
+            if (cols.title()    >= 0) contact.setRole(row.title());
+            if (cols.phone()    >= 0) contact.setPhone(row.phone());
+            if (cols.company()  >= 0) contact.setCompany(row.company());
+            if (cols.play()     >= 0) contact.setPlay(row.play());
+            if (cols.subPlay()  >= 0) contact.setSubPlay(row.subPlay());
+            if (cols.aeRole()   >= 0) contact.setAeRole(row.aeRole());
+            if (row.emailLink() != null) contact.setEmailLink(row.emailLink());
+            if (contact.getCreatedAt() == null) contact.setCreatedAt(LocalDateTime.now());
         }
-        log.info("AE/SA filter: sessionEmail={} filterEnabled={}", sessionEmail, filterByAeSa);
+        bulkRepository.saveContacts(touched.values(), ownerId);
+
+        // Enroll in campaign
+        Map<Long, Long> enrollments = bulkRepository.enroll(campaign.getId(),
+                touched.values().stream().map(Contact::getId).toList()).byContact();
+
+        // Email jobs: skip steps that already have a job, including ones added earlier in this batch
+        Map<Long, Set<Integer>> existingSteps = bulkRepository.findJobSteps(enrollments.values());
+        List<ImportBulkRepository.JobRow> jobs = new ArrayList<>();
+        List<ImportBulkRepository.JobRow> rescheduled = new ArrayList<>();
+        Map<String, ImportBulkRepository.RowState> rowStates = new HashMap<>(); // rows fully imported, for the next re-import
+
+        for (ResolvedRow resolved : rows) {
+            DirectRow row = resolved.row();
+            int rowNum = row.rowNum();
+            String email = row.email();
+            Contact contact = touched.get(ImportBulkRepository.emailKey(email));
+            long ccId = enrollments.get(contact.getId());
+            result.setContactsImported(result.getContactsImported() + 1);
+
+            String emailLink = row.emailLink();
+            if (emailLink == null || emailLink.isBlank()) {
+                result.getErrors().add("Row " + rowNum + " (" + email + "): no Email Link — skipping job creation.");
+                rowStates.put(rowKey(email), new ImportBulkRepository.RowState(rowHash(row), null)); // nothing more to do until the row changes
+                continue;
+            }
+            if (resolved.docError() != null) {
+                result.getErrors().add("Row " + rowNum + " (" + email + "): could not fetch Google Doc — " + resolved.docError());
+                continue;
+            }
+            Map<Integer, GoogleDocParserService.ParsedEmail> parsedEmails = resolved.docs();
+
+            // Create up to 7 EmailJob records
+            log.debug("Row {}: {} email section(s) parsed from doc", rowNum, parsedEmails.size());
+            Set<Integer> steps = existingSteps.computeIfAbsent(ccId, k -> new HashSet<>());
+            boolean complete = true;
+            for (int step = 1; step <= 7; step++) {
+                LocalDateTime scheduledAt = row.dates()[step - 1];
+                if (scheduledAt == null) {
+                    log.debug("Row {}: step {} has no date (col={}), skipping", rowNum, step, cols.dates()[step - 1]);
+                    continue; // column empty — skip this step
+                }
 
-        LocalDateTime now = LocalDateTime.now();
-        int rowNum = 1;
-        int aeSaFilteredOut = 0;
+                GoogleDocParserService.ParsedEmail pe = parsedEmails.get(step);
+                if (pe == null) {
+                    String msg = "Row " + rowNum + " (" + email + "): Email " + step + " section not found in Google Doc.";
+                    result.getErrors().add(msg);
+                    log.warn(msg);
+                    complete = false;
+                    continue;
+                }
+
+                EmailJobStatus status = scheduledAt.isBefore(now)
+                        ? EmailJobStatus.SKIPPED
+                        : EmailJobStatus.SCHEDULED;
+                ImportBulkRepository.JobRow job = new ImportBulkRepository.JobRow(ccId, step,
+                        resolveTokens(pe.subject(), contact), resolveTokens(pe.body(), contact),
+                        scheduledAt, status);
+
+                // Job already exists for this cc + step: a sheet re-import carries the
+                // row's edits over to it while it is still waiting to be sent
+                if (!steps.add(step)) {
+                    if (sheetKey != null && status == EmailJobStatus.SCHEDULED) rescheduled.add(job);
+                    continue;
+                }
+                jobs.add(job);
+                result.setTemplatesImported(result.getTemplatesImported() + 1);
+            }
+            if (complete) rowStates.put(rowKey(email), new ImportBulkRepository.RowState(rowHash(row), docHash(parsedEmails)));
+        }
+        bulkRepository.insertJobs(jobs);
+        bulkRepository.updateScheduledJobs(rescheduled);
+        if (sheetKey != null) bulkRepository.saveRowStates(campaign.getId(), sheetKey, rowStates);
+    }
+
+    private static void mergeInto(ExcelImportResultDto target, ExcelImportResultDto part) {
+        target.setContactsImported(target.getContactsImported() + part.getContactsImported());
+        target.setTemplatesImported(target.getTemplatesImported() + part.getTemplatesImported());
+        target.setSkipped(target.getSkipped() + part.getSkipped());
+        target.setUnchanged(target.getUnchanged() + part.getUnchanged());
+        target.getErrors().addAll(part.getErrors());
+    }
+
+    // ─── Dry run ──────────────────────────────────────────────────────────────
+
+    /** A direct-format row read for validation, with the date cells that didn't parse (null = fine). */
+    private record CheckedRow(DirectRow row, String[] badDates, boolean optedOut, boolean duplicate) {}
+
+    /** What the import would do with one row, and what's wrong with it. */
+    private record RowVerdict(CheckedRow checked, boolean imported, int jobs, List<ImportIssueDto> issues) {}
+
+    /** Checks an uploaded workbook the way {@link #importFromExcel} would import it. Writes nothing. */
+    public ImportValidationDto validateExcel(Long campaignId, MultipartFile file, boolean probeDocs) throws Exception {
+        try (InputStream is = file.getInputStream();
+             WorkbookRowReader workbook = WorkbookRowReader.open(is)) {
+            return validateWorkbook(campaignId, workbook, probeDocs);
+        }
+    }
+
+    /** Checks a Google Sheet the way {@link #importFromGoogleSheet} would import it. Writes nothing. */
+    public ImportValidationDto validateGoogleSheet(Long campaignId, String sheetUrl, boolean probeDocs) throws Exception {
+        log.info("Downloading Google Sheet for dry run of campaign {}: {}", campaignId, sheetUrl);
+        SheetDownload download = downloadGoogleSheet(sheetUrl);
+        try (WorkbookRowReader workbook = download.open()) {
+            return validateWorkbook(campaignId, workbook, probeDocs);
+        }
+    }
+
+    private ImportValidationDto validateWorkbook(Long campaignId, WorkbookRowReader workbook, boolean probeDocs)
+            throws IOException {
+        Campaign campaign = campaignRepository.findById(campaignId)
+                .orElseThrow(() -> new RuntimeException("Campaign not found: " + campaignId));
+        ImportValidationDto report = new ImportValidationDto();
+
+        Iterator<SheetRow> firstSheet = workbook.rows(0);
+        SheetRow firstHeader = firstSheet.hasNext() ? firstSheet.next() : null;
+        if (isDirectFormat(firstHeader)) {
+            report.setFormat("direct");
+            validateDirectFormat(firstHeader, firstSheet, campaign, probeDocs, report);
+        } else {
+            report.setFormat("legacy");
+            validateLegacyFormat(workbook, report);
+        }
 
+        report.getIssues().sort(Comparator.comparingInt(ImportIssueDto::getRow));
+        report.setMessage(String.format(
+                "Dry run: %d row(s) checked, %d with issues. The import would add/update %d contact(s) " +
+                "and create %d email %s. Nothing was written.",
+                report.getRowsChecked(), report.getRowsChecked() - report.getRowsValid(),
+                report.getContacts(), report.getJobsPlanned(),
+                "direct".equals(report.getFormat()) ? "job(s)" : "template(s)"));
+        return report;
+    }
+
+    /**
+     * Reads the sheet once in order (row readers are single-threaded), then checks the rows
+     * in slices on {@code import.docs.fetch-concurrency} threads.  With {@code probeDocs},
+     * each distinct Email Link of a row the import would take is fetched and parsed on the
+     * same threads and checked for the Email N sections its dated steps need.  Probes read
+     * the doc cache but never write it, so the dry run stays write-free.
+     */
+    private void validateDirectFormat(SheetRow header, Iterator<SheetRow> rows, Campaign campaign,
+                                      boolean probeDocs, ImportValidationDto report) {
+        DirectColumns cols = directColumns(header);
+        if (cols.email() == -1) {
+            report.getIssues().add(new ImportIssueDto(1, null, "Direct format sheet must have an 'Email' column."));
+            return;
+        }
+
+        List<CheckedRow> checked = new ArrayList<>();
+        Set<String> emails = new HashSet<>();
+        int rowNum = 1;
         while (rows.hasNext()) {
-            Row row = rows.next();
+            SheetRow row = rows.next();
             rowNum++;
 
-            String email = getCellString(row, emailCol);
+            String email = getCellString(row, cols.email());
             if (email == null || email.isBlank()) continue;
 
-            // Opt Out check
-            String optOut = getCellString(row, optOutCol);
-            if ("y".equalsIgnoreCase(optOut != null ? optOut.trim() : null)) {
-                result.setSkipped(result.getSkipped() + 1);
-                log.debug("Row {}: opted out ({}), skipping", rowNum, email);
-                continue;
+            String[] badDates = new String[7];
+            for (int step = 0; step < 7; step++) {
+                int col = cols.dates()[step];
+                if (col < 0 || row.getDate(col) != null) continue;
+                String sv = row.getString(col);
+                if (sv != null && !sv.isBlank() && parseDateTime(sv) == null) badDates[step] = sv;
             }
+            String optOut = getCellString(row, cols.optOut());
+            checked.add(new CheckedRow(readDirectRow(row, rowNum, email, cols), badDates,
+                    "y".equalsIgnoreCase(optOut != null ? optOut.trim() : null), !emails.add(rowKey(email))));
+        }
 
-            // AE/SA sender filter: skip rows whose AE/SA email doesn't match the session
-            if (filterByAeSa) {
-                String aeEmail = getCellString(row, aeRoleCol);
-                if (aeEmail == null || !sessionEmail.equalsIgnoreCase(aeEmail.trim())) {
-                    log.info("Row {}: AE/SA '{}' != session '{}' — skipping", rowNum, aeEmail, sessionEmail);
-                    aeSaFilteredOut++;
-                    continue;
-                }
+        String sessionEmail = senderEmail(campaign);
+        String aeSaFilter = cols.aeRole() >= 0 ? sessionEmail : null;
+        LocalDateTime now = LocalDateTime.now();
+        int threads = Math.max(1, docFetchConcurrency);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "import-dry-run");
+            t.setDaemon(true);
+            return t;
+        });
+        List<RowVerdict> verdicts;
+        try {
+            int slice = Math.max(1, (checked.size() + threads - 1) / threads);
+            List<CompletableFuture<List<RowVerdict>>> slices = new ArrayList<>();
+            for (int from = 0; from < checked.size(); from += slice) {
+                List<CheckedRow> part = checked.subList(from, Math.min(checked.size(), from + slice));
+                slices.add(CompletableFuture.supplyAsync(() -> part.stream()
+                        .map(c -> checkDirectRow(c, aeSaFilter, now)).toList(), pool));
             }
+            verdicts = slices.stream().flatMap(f -> f.join().stream()).toList();
 
-            try {
-                // Upsert contact scoped to campaign owner
-                User campaignOwner = campaign.getOwner();
-                Contact contact = (campaignOwner != null)
-                        ? contactRepository.findByEmailAndOwner(email, campaignOwner).orElse(new Contact())
-                        : contactRepository.findByEmail(email).orElse(new Contact());
-                if (campaignOwner != null && contact.getOwner() == null) contact.setOwner(campaignOwner);
-                contact.setEmail(email);
-                String name = getCellString(row, nameCol);
-                if (name != null) contact.setName(name);
-                else if (contact.getName() == null) contact.setName(email); // fallback
-                if (titleCol    >= 0) contact.setRole(getCellString(row, titleCol));
-                if (phoneCol    >= 0) contact.setPhone(getCellString(row, phoneCol));
-                if (companyCol  >= 0) contact.setCompany(getCellString(row, companyCol));
-                if (playCol     >= 0) contact.setPlay(getCellString(row, playCol));
-                if (subPlayCol  >= 0) contact.setSubPlay(getCellString(row, subPlayCol));
-                if (aeRoleCol   >= 0) contact.setAeRole(getCellString(row, aeRoleCol));
-                String emailLink = getCellString(row, emailLinkCol);
-                if (emailLink   != null) contact.setEmailLink(emailLink);
-                if (contact.getCreatedAt() == null) contact.setCreatedAt(LocalDateTime.now());
-                final Contact savedContact = contactRepository.save(contact);
-                log.info("Row {}: saved contact id={} email={}", rowNum, savedContact.getId(), email);
-
-                // Enroll in campaign — immediate commit via repo-level transaction
-                final Long campaignId    = campaign.getId();
-                final Long contactId     = savedContact.getId();
-                final int  currentRowNum = rowNum;
-                CampaignContact cc = campaignContactRepository
-                        .findByCampaignIdAndContactId(campaignId, contactId)
-                        .orElseGet(() -> {
-                            CampaignContact n = new CampaignContact();
-                            n.setCampaign(campaign);
-                            n.setContact(savedContact);
-                            n.setEnrolledAt(LocalDateTime.now());
-                            CampaignContact saved = campaignContactRepository.save(n);
-                            log.info("Row {}: enrolled contact {} in campaign {}", currentRowNum, contactId, campaignId);
-                            return saved;
-                        });
+            if (probeDocs) {
+                verdicts = probeDocs(pool, verdicts);
+                report.setDocsProbed(true);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
 
-                result.setContactsImported(result.getContactsImported() + 1);
+        for (RowVerdict verdict : verdicts) {
+            report.setRowsChecked(report.getRowsChecked() + 1);
+            if (verdict.issues().isEmpty()) report.setRowsValid(report.getRowsValid() + 1);
+            if (verdict.checked().optedOut()) report.setOptedOut(report.getOptedOut() + 1);
+            else if (!verdict.imported()) report.setAeSaMismatched(report.getAeSaMismatched() + 1);
+            if (verdict.imported()) report.setContacts(report.getContacts() + 1);
+            report.setJobsPlanned(report.getJobsPlanned() + verdict.jobs());
+            report.getIssues().addAll(verdict.issues());
+        }
+    }
 
-                // Fetch Google Doc
-                if (emailLink == null || emailLink.isBlank()) {
-                    result.getErrors().add("Row " + rowNum + " (" + email + "): no Email Link — skipping job creation.");
-                    continue;
-                }
+    /** The row checks an import makes as it goes, plus the ones it never reports (bad dates, duplicates). */
+    private RowVerdict checkDirectRow(CheckedRow checked, String sessionEmail, LocalDateTime now) {
+        DirectRow row = checked.row();
+        List<ImportIssueDto> issues = new ArrayList<>();
+        if (checked.optedOut()) return new RowVerdict(checked, false, 0, issues);
 
-                Map<Integer, GoogleDocParserService.ParsedEmail> parsedEmails;
-                try {
-                    parsedEmails = googleDocParser.parseDoc(emailLink);
-                } catch (Exception e) {
-                    result.getErrors().add("Row " + rowNum + " (" + email + "): could not fetch Google Doc — " + e.getMessage());
-                    log.warn("Row {}: Google Doc fetch failed for {}: {}", rowNum, emailLink, e.getMessage());
-                    continue;
+        if (sessionEmail != null && (row.aeRole() == null || !sessionEmail.equalsIgnoreCase(row.aeRole().trim()))) {
+            issues.add(issue(row, "AE/SA '" + row.aeRole() + "' doesn't match the campaign's Gmail account "
+                    + sessionEmail + " — the row would be skipped."));
+            return new RowVerdict(checked, false, 0, issues);
+        }
+
+        if (!row.email().contains("@")) {
+            issues.add(issue(row, "'" + row.email() + "' is not an email address."));
+        }
+        if (checked.duplicate()) {
+            issues.add(issue(row, "email already appears on an earlier row — both rows would update one contact."));
+        }
+
+        int dated = 0;
+        for (int step = 1; step <= 7; step++) {
+            String bad = checked.badDates()[step - 1];
+            LocalDateTime date = row.dates()[step - 1];
+            if (bad != null) {
+                issues.add(issue(row, "Email " + step + " date '" + bad + "' could not be parsed — the step " +
+                        "would be skipped. Use format: yyyy-MM-dd HH:mm"));
+            } else if (date != null) {
+                dated++;
+                if (date.isBefore(now)) {
+                    issues.add(issue(row, "Email " + step + " is dated in the past (" + date +
+                            ") — its job would be created as SKIPPED."));
                 }
+            }
+        }
 
-                // Create up to 7 EmailJob records
-                log.info("Row {}: {} email section(s) parsed from doc", rowNum, parsedEmails.size());
-                for (int step = 1; step <= 7; step++) {
-                    LocalDateTime scheduledAt = readDateCell(row, emailDateCols[step - 1]);
-                    if (scheduledAt == null) {
-                        log.debug("Row {}: step {} has no date (col={}), skipping", rowNum, step, emailDateCols[step - 1]);
-                        continue; // column empty — skip this step
-                    }
+        if (row.emailLink() == null || row.emailLink().isBlank()) {
+            issues.add(issue(row, "no Email Link — the contact would be imported without email jobs."));
+            return new RowVerdict(checked, true, 0, issues);
+        }
+        if (dated == 0 && Arrays.stream(checked.badDates()).allMatch(Objects::isNull)) {
+            issues.add(issue(row, "no Email 1–7 dates — no email jobs would be created."));
+        }
+        return new RowVerdict(checked, true, dated, issues);
+    }
 
-                    GoogleDocParserService.ParsedEmail pe = parsedEmails.get(step);
-                    if (pe == null) {
-                        String msg = "Row " + rowNum + " (" + email + "): Email " + step + " section not found in Google Doc.";
-                        result.getErrors().add(msg);
-                        log.warn(msg);
-                        continue;
+    /** Fetches each distinct doc once and checks it against every row that links to it. */
+    private List<RowVerdict> probeDocs(ExecutorService pool, List<RowVerdict> verdicts) {
+        Map<String, CompletableFuture<Map<Integer, GoogleDocParserService.ParsedEmail>>> docs = new HashMap<>();
+        for (RowVerdict verdict : verdicts) {
+            String link = verdict.checked().row().emailLink();
+            if (verdict.imported() && link != null && !link.isBlank()) {
+                docs.computeIfAbsent(link, l -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return googleDocParser.probeDoc(l);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
                     }
+                }, pool));
+            }
+        }
+        log.info("Dry run: probing {} Google Doc(s)", docs.size());
 
-                    // Skip if job already exists for this cc + step
-                    boolean jobExists = emailJobRepository.existsByCampaignContactIdAndStepNumber(
-                            cc.getId(), step);
-                    if (jobExists) continue;
-
-                    String resolvedSubject = resolveTokens(pe.subject(), savedContact);
-                    String resolvedBody    = resolveTokens(pe.body(),    savedContact);
-
-                    EmailJobStatus status = scheduledAt.isBefore(now)
-                            ? EmailJobStatus.SKIPPED
-                            : EmailJobStatus.SCHEDULED;
-
-                    EmailJob job = new EmailJob();
-                    job.setCampaignContact(cc);
-                    job.setStepNumber(step);
-                    job.setSubject(resolvedSubject);
-                    job.setBody(resolvedBody);
-                    job.setScheduledAt(scheduledAt);
-                    job.setStatus(status);
-                    emailJobRepository.save(job);
-                    log.info("Row {}: created email job step={} scheduledAt={} status={}", rowNum, step, scheduledAt, status);
-
-                    result.setTemplatesImported(result.getTemplatesImported() + 1);
-                }
+        List<RowVerdict> probed = new ArrayList<>(verdicts.size());
+        for (RowVerdict verdict : verdicts) {
+            probed.add(verdict.imported() ? probeDoc(verdict, docs.get(verdict.checked().row().emailLink())) : verdict);
+        }
+        return probed;
+    }
 
-            } catch (Exception e) {
-                result.getErrors().add("Row " + rowNum + ": " + e.getMessage());
-                log.warn("Failed to import row {}: {}", rowNum, e.getMessage());
+    private RowVerdict probeDoc(RowVerdict verdict,
+                                CompletableFuture<Map<Integer, GoogleDocParserService.ParsedEmail>> doc) {
+        if (doc == null) return verdict; // no Email Link, already reported
+        DirectRow row = verdict.checked().row();
+        Map<Integer, GoogleDocParserService.ParsedEmail> parsed;
+        try {
+            parsed = doc.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            verdict.issues().add(issue(row, "could not fetch Google Doc — " + cause.getMessage()));
+            return new RowVerdict(verdict.checked(), true, 0, verdict.issues());
+        }
+        int missing = 0;
+        for (int step = 1; step <= 7; step++) {
+            if (row.dates()[step - 1] != null && !parsed.containsKey(step)) {
+                verdict.issues().add(issue(row, "Email " + step + " section not found in Google Doc."));
+                missing++;
             }
         }
+        return new RowVerdict(verdict.checked(), true, verdict.jobs() - missing, verdict.issues());
+    }
 
-        // Post-loop AE/SA filter check: if filter was active but nothing matched, set error message
-        if (filterByAeSa && result.getContactsImported() == 0 && aeSaFilteredOut > 0) {
-            result.getErrors().add(0,
-                    "Gmail Session and Sender email address doesn't match. " +
-                    "Connected session: " + sessionEmail + ". " +
-                    "None of the " + aeSaFilteredOut + " row(s) had a matching AE/SA email address.");
-            result.setMessage("Import failed: no rows matched the connected Gmail account.");
+    private static ImportIssueDto issue(DirectRow row, String message) {
+        return new ImportIssueDto(row.rowNum(), row.email(), message);
+    }
+
+    // ─── Dry run: legacy 2-sheet format ───────────────────────────────────────
+
+    /** Legacy workbooks are small (one row per contact, one per template), so they are checked in one pass. */
+    private void validateLegacyFormat(WorkbookRowReader workbook, ImportValidationDto report) throws IOException {
+        Iterator<SheetRow> contactSheet = workbook.rows("Contacts");
+        if (contactSheet == null && !workbook.sheetNames().isEmpty()) {
+            contactSheet = workbook.rows(0);
+        }
+        if (contactSheet == null || !contactSheet.hasNext()) {
+            report.getIssues().add(new ImportIssueDto(0, null, "No 'Contacts' sheet found in the workbook."));
+        } else {
+            SheetRow header = contactSheet.next();
+            int emailCol = -1;
+            for (int col = 0; col <= header.lastColumn(); col++) {
+                if ("email".equalsIgnoreCase(header.getString(col))) emailCol = col;
+            }
+            if (emailCol == -1) {
+                report.getIssues().add(new ImportIssueDto(1, null, "Contacts sheet must have an 'email' column."));
+            } else {
+                int rowNum = 1;
+                while (contactSheet.hasNext()) {
+                    SheetRow row = contactSheet.next();
+                    rowNum++;
+                    String email = getCellString(row, emailCol);
+                    if (email == null || email.isBlank()) continue;
+                    report.setRowsChecked(report.getRowsChecked() + 1);
+                    report.setContacts(report.getContacts() + 1);
+                    if (email.contains("@")) {
+                        report.setRowsValid(report.getRowsValid() + 1);
+                    } else {
+                        report.getIssues().add(new ImportIssueDto(rowNum, email,
+                                "Contacts: '" + email + "' is not an email address."));
+                    }
+                }
+            }
+        }
+
+        Iterator<SheetRow> templateSheet = workbook.rows("Templates");
+        if (templateSheet == null && workbook.sheetNames().size() > 1) {
+            templateSheet = workbook.rows(1);
+        }
+        if (templateSheet == null || !templateSheet.hasNext()) return;
+
+        SheetRow header = templateSheet.next();
+        int subjectCol = -1, bodyCol = -1, scheduledAtCol = -1;
+        for (int col = 0; col <= header.lastColumn(); col++) {
+            String raw = header.getString(col);
+            if (raw == null) continue;
+            switch (raw.toLowerCase().replace(" ", "_").replace("-", "_")) {
+                case "subject"               -> subjectCol     = col;
+                case "body", "body_template" -> bodyCol        = col;
+                case "scheduled_at", "scheduled_date", "send_at", "send_date"
+                                             -> scheduledAtCol = col;
+            }
+        }
+        if (subjectCol == -1 || bodyCol == -1) {
+            report.getIssues().add(new ImportIssueDto(1, null,
+                    "Templates sheet must have 'subject' and 'body' columns."));
             return;
         }
 
-        // Set final message (includes AE/SA skip note if applicable)
-        String filterNote = (filterByAeSa && aeSaFilteredOut > 0)
-                ? ", " + aeSaFilteredOut + " row(s) skipped (AE/SA mismatch)" : "";
-        result.setMessage(String.format(
-                "Import complete: %d contact(s) added/updated, %d email job(s) created%s%s.",
-                result.getContactsImported(),
-                result.getTemplatesImported(),
-                result.getSkipped() > 0 ? ", " + result.getSkipped() + " opted out/skipped" : "",
-                filterNote));
+        int rowNum = 1;
+        while (templateSheet.hasNext()) {
+            SheetRow row = templateSheet.next();
+            rowNum++;
+            String subject = getCellString(row, subjectCol);
+            String body    = getCellString(row, bodyCol);
+            if ((subject == null || subject.isBlank()) && (body == null || body.isBlank())) continue;
+
+            report.setRowsChecked(report.getRowsChecked() + 1);
+            report.setJobsPlanned(report.getJobsPlanned() + 1);
+            String sv = scheduledAtCol >= 0 && row.getDate(scheduledAtCol) == null
+                    ? getCellString(row, scheduledAtCol) : null;
+            if (sv != null && !sv.isBlank() && parseDateTime(sv) == null) {
+                report.getIssues().add(new ImportIssueDto(rowNum, null, "Templates: could not parse scheduled_at " +
+                        "value '" + sv + "'. Use format: yyyy-MM-dd HH:mm"));
+            } else {
+                report.setRowsValid(report.getRowsValid() + 1);
+            }
+        }
     }
 
     // ─── Token resolution ─────────────────────────────────────────────────────
@@ -441,20 +1155,20 @@ public class ExcelImportService {
 
     // ─── Legacy 2-sheet: Contacts ─────────────────────────────────────────────
 
-    private void importContacts(Sheet sheet, Campaign campaign, ExcelImportResultDto result) {
-        Iterator<Row> rows = sheet.iterator();
+    private void importContacts(Iterator<SheetRow> rows, Campaign campaign, ExcelImportResultDto result) {
         if (!rows.hasNext()) return;
 
-        Row header = rows.next();
+        SheetRow header = rows.next();
         int nameCol = -1, emailCol = -1, roleCol = -1, companyCol = -1;
 
-        for (Cell cell : header) {
-            String h = cell.getStringCellValue().trim().toLowerCase();
-            switch (h) {
-                case "name"    -> nameCol    = cell.getColumnIndex();
-                case "email"   -> emailCol   = cell.getColumnIndex();
-                case "role"    -> roleCol    = cell.getColumnIndex();
-                case "company" -> companyCol = cell.getColumnIndex();
+        for (int col = 0; col <= header.lastColumn(); col++) {
+            String h = header.getString(col);
+            if (h == null) continue;
+            switch (h.toLowerCase()) {
+                case "name"    -> nameCol    = col;
+                case "email"   -> emailCol   = col;
+                case "role"    -> roleCol    = col;
+                case "company" -> companyCol = col;
             }
         }
 
@@ -465,7 +1179,7 @@ public class ExcelImportService {
 
         int rowNum = 1;
         while (rows.hasNext()) {
-            Row row = rows.next();
+            SheetRow row = rows.next();
             rowNum++;
 
             String email = getCellString(row, emailCol);
@@ -514,22 +1228,22 @@ public class ExcelImportService {
             DateTimeFormatter.ofPattern("M/d/yy H:mm")
     );
 
-    private void importTemplates(Sheet sheet, Campaign campaign, ExcelImportResultDto result) {
-        Iterator<Row> rows = sheet.iterator();
+    private void importTemplates(Iterator<SheetRow> rows, Campaign campaign, ExcelImportResultDto result) {
         if (!rows.hasNext()) return;
 
-        Row header = rows.next();
+        SheetRow header = rows.next();
         int stepCol = -1, subjectCol = -1, bodyCol = -1, scheduledAtCol = -1;
 
-        for (Cell cell : header) {
-            String h = cell.getStringCellValue().trim().toLowerCase()
-                    .replace(" ", "_").replace("-", "_");
+        for (int col = 0; col <= header.lastColumn(); col++) {
+            String raw = header.getString(col);
+            if (raw == null) continue;
+            String h = raw.toLowerCase().replace(" ", "_").replace("-", "_");
             switch (h) {
-                case "step_number", "step" -> stepCol         = cell.getColumnIndex();
-                case "subject"             -> subjectCol      = cell.getColumnIndex();
-                case "body", "body_template" -> bodyCol       = cell.getColumnIndex();
+                case "step_number", "step" -> stepCol         = col;
+                case "subject"             -> subjectCol      = col;
+                case "body", "body_template" -> bodyCol       = col;
                 case "scheduled_at", "scheduled_date", "send_at", "send_date"
-                                           -> scheduledAtCol  = cell.getColumnIndex();
+                                           -> scheduledAtCol  = col;
             }
         }
 
@@ -541,7 +1255,7 @@ public class ExcelImportService {
         int rowNum = 1;
         int stepCounter = 1;
         while (rows.hasNext()) {
-            Row row = rows.next();
+            SheetRow row = rows.next();
             rowNum++;
 
             String subject = getCellString(row, subjectCol);
@@ -559,19 +1273,15 @@ public class ExcelImportService {
 
                 LocalDateTime scheduledAt = null;
                 if (scheduledAtCol >= 0) {
-                    Cell dtCell = row.getCell(scheduledAtCol, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-                    if (dtCell != null) {
-                        if (dtCell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(dtCell)) {
-                            scheduledAt = dtCell.getLocalDateTimeCellValue();
-                        } else {
-                            String sv = getCellString(row, scheduledAtCol);
-                            if (sv != null && !sv.isBlank()) {
-                                scheduledAt = parseDateTime(sv);
-                                if (scheduledAt == null) {
-                                    result.getErrors().add("Template row " + rowNum +
-                                            ": could not parse scheduled_at value '" + sv +
-                                            "'. Use format: yyyy-MM-dd HH:mm");
-                                }
+                    scheduledAt = row.getDate(scheduledAtCol);
+                    if (scheduledAt == null) {
+                        String sv = getCellString(row, scheduledAtCol);
+                        if (sv != null && !sv.isBlank()) {
+                            scheduledAt = parseDateTime(sv);
+                            if (scheduledAt == null) {
+                                result.getErrors().add("Template row " + rowNum +
+                                        ": could not parse scheduled_at value '" + sv +
+                                        "'. Use format: yyyy-MM-dd HH:mm");
                             }
                         }
                     }
@@ -596,14 +1306,11 @@ public class ExcelImportService {
 
     // ─── Helpers ──────────────────────────────────────────────────────────────
 
-    private LocalDateTime readDateCell(Row row, int col) {
+    private LocalDateTime readDateCell(SheetRow row, int col) {
         if (col < 0) return null;
-        Cell cell = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        if (cell == null) return null;
-        if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-            return cell.getLocalDateTimeCellValue();
-        }
-        String sv = getCellStringRaw(cell);
+        LocalDateTime date = row.getDate(col);
+        if (date != null) return date;
+        String sv = row.getString(col);
         if (sv == null || sv.isBlank()) return null;
         return parseDateTime(sv);
     }
@@ -617,23 +1324,7 @@ public class ExcelImportService {
         return null;
     }
 
-    private String getCellString(Row row, int col) {
-        if (col < 0) return null;
-        Cell cell = row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
-        return getCellStringRaw(cell);
-    }
-
-    private String getCellStringRaw(Cell cell) {
-        if (cell == null) return null;
-        return switch (cell.getCellType()) {
-            case STRING  -> cell.getStringCellValue().trim();
-            case NUMERIC -> {
-                double v = cell.getNumericCellValue();
-                yield (v == Math.floor(v)) ? String.valueOf((long) v) : String.valueOf(v);
-            }
-            case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
-            case FORMULA -> cell.getCellFormula();
-            default -> null;
-        };
+    private String getCellString(SheetRow row, int col) {
+        return row.getString(col);
     }
 }
@@ -1,20 +1,29 @@
 package com.campaignmanager.service;
 
-import com.microsoft.playwright.APIResponse;
-import com.microsoft.playwright.BrowserContext;
+import com.campaignmanager.browser.FetchResult;
+import com.campaignmanager.model.GoogleDocCache;
+import com.campaignmanager.repository.GoogleDocCacheRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.sql.SQLException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
- * Fetches a private Google Doc (plain-text export) via the stored Gmail BrowserContext
+ * Fetches a private Google Doc (plain-text export) with the stored Gmail session
  * and parses out up to 7 email sections.
  *
  * <p>Supported doc formats:
@@ -35,6 +44,11 @@ import java.util.regex.Pattern;
  * Email 1: Initial Outreach (Day 1) Subject: Your subject Hi Name, body...
  * Email 2: Follow-up (Day 4) Subject: ...
  * </pre>
+ *
+ * <p>Exports are cached in {@code google_doc_cache} by doc ID.  A cached doc checked
+ * within {@code google-docs.cache.fresh-minutes} is used without any request; an older
+ * one is revalidated with If-None-Match / If-Modified-Since when Google sent validators
+ * (a 304 costs no download).  Concurrent requests for the same doc share one fetch.
  */
 @Service
 @RequiredArgsConstructor
@@ -62,6 +76,13 @@ public class GoogleDocParserService {
             "/document/d/([a-zA-Z0-9_-]+)");
 
     private final PlaywrightSessionService sessionService;
+    private final GoogleDocCacheRepository docCacheRepository;
+
+    @Value("${google-docs.cache.fresh-minutes:10}")
+    private long freshMinutes;
+
+    /** Fetches in progress, by doc ID; later callers for the same doc wait on the first. */
+    private final Map<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
 
     public record ParsedEmail(String subject, String body) {}
 
@@ -72,11 +93,72 @@ public class GoogleDocParserService {
      * @throws Exception if the doc cannot be fetched or is empty
      */
     public Map<Integer, ParsedEmail> parseDoc(String docUrl) throws Exception {
-        String exportUrl = buildExportUrl(docUrl);
-        log.info("Fetching Google Doc via API request: {}", exportUrl);
+        String text = loadText(extractDocId(docUrl));
+        log.info("Google Doc loaded ({} chars), parsing sections", text.length());
+        return parseText(text);
+    }
+
+    /**
+     * {@link #parseDoc} for dry runs: uses or revalidates a cached copy the same way, but
+     * never writes {@code google_doc_cache}.
+     */
+    public Map<Integer, ParsedEmail> probeDoc(String docUrl) throws Exception {
+        return parseText(fetchText(extractDocId(docUrl), false));
+    }
+
+    // ── Fetching & cache ──────────────────────────────────────────────────────
+
+    /** Returns the doc's text, sharing the fetch with any concurrent caller for the same doc. */
+    private String loadText(String docId) throws Exception {
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(docId, mine);
+        if (existing != null) {
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ex ? ex : new Exception(e.getCause());
+            }
+        }
+        try {
+            String text = fetchText(docId, true);
+            mine.complete(text);
+            return text;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(docId, mine);
+        }
+    }
+
+    /** With {@code store} false the cache is only read. */
+    private String fetchText(String docId, boolean store) throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        GoogleDocCache cached = docCacheRepository.findByDocId(docId).orElse(null);
+        if (cached != null && cached.getCheckedAt().isAfter(now.minusMinutes(freshMinutes))) {
+            log.debug("Google Doc {} served from cache (checked {})", docId, cached.getCheckedAt());
+            return cached.getContent();
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        if (cached != null) {
+            if (cached.getEtag() != null) headers.put("If-None-Match", cached.getEtag());
+            if (cached.getLastModified() != null) headers.put("If-Modified-Since", cached.getLastModified());
+        }
+
+        String exportUrl = buildExportUrl(docId);
+        log.info("Fetching Google Doc via API request: {}{}", exportUrl,
+                headers.isEmpty() ? "" : " (revalidating)");
+        FetchResult response = sessionService.fetch(exportUrl, headers);
 
-        BrowserContext ctx = sessionService.getSessionContext();
-        APIResponse response = ctx.request().get(exportUrl);
+        if (response.status() == 304 && cached != null) {
+            log.info("Google Doc {} not modified, using cached copy", docId);
+            if (store) {
+                cached.setCheckedAt(now);
+                saveQuietly(cached);
+            }
+            return cached.getContent();
+        }
         if (!response.ok()) {
             throw new Exception("Google Doc returned HTTP " + response.status() +
                     " for " + exportUrl +
@@ -86,18 +168,70 @@ public class GoogleDocParserService {
         if (text == null || text.isBlank()) {
             throw new Exception("Google Doc is empty or could not be read: " + exportUrl);
         }
-        log.info("Google Doc fetched ({} chars), parsing sections", text.length());
-        return parseText(text);
+        if (!store) return text;
+
+        if (cached == null) {
+            cached = new GoogleDocCache();
+            cached.setDocId(docId);
+        }
+        cached.setEtag(response.header("etag", null));
+        cached.setLastModified(response.header("last-modified", null));
+        cached.setContent(text);
+        cached.setFetchedAt(now);
+        cached.setCheckedAt(now);
+        saveQuietly(cached);
+        return text;
+    }
+
+    /**
+     * The cache is an optimisation, so a failed write never fails the caller.  Losing the
+     * insert race for a doc (unique doc_id) is retried as an update of the row that won;
+     * any other integrity error means the entry itself is bad and is logged.
+     */
+    private void saveQuietly(GoogleDocCache entry) {
+        try {
+            docCacheRepository.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            if (entry.getId() != null || !isDuplicateKey(e)) {
+                log.warn("Google Doc cache write for {} failed: {}", entry.getDocId(), e.getMessage());
+                return;
+            }
+            GoogleDocCache winner = docCacheRepository.findByDocId(entry.getDocId()).orElse(null);
+            if (winner == null) {
+                log.warn("Google Doc cache write for {} failed: {}", entry.getDocId(), e.getMessage());
+                return;
+            }
+            entry.setId(winner.getId());
+            try {
+                docCacheRepository.save(entry);
+            } catch (DataIntegrityViolationException retry) {
+                log.warn("Google Doc cache update for {} failed: {}", entry.getDocId(), retry.getMessage());
+            }
+        }
+    }
+
+    /** H2 reports a unique-key violation as SQLState 23505, MySQL as error 1062. */
+    private static boolean isDuplicateKey(DataIntegrityViolationException e) {
+        if (e instanceof DuplicateKeyException) return true;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && ("23505".equals(sql.getSQLState()) || sql.getErrorCode() == 1062)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     // ── URL handling ──────────────────────────────────────────────────────────
 
-    private String buildExportUrl(String docUrl) throws Exception {
+    private String extractDocId(String docUrl) throws Exception {
         Matcher m = DOC_ID.matcher(docUrl);
         if (!m.find()) {
             throw new Exception("Cannot extract Google Doc ID from URL: " + docUrl);
         }
-        String docId = m.group(1);
+        return m.group(1);
+    }
+
+    private String buildExportUrl(String docId) {
         return "https://docs.google.com/document/d/" + docId + "/export?format=txt";
     }
 
@@ -1,10 +1,9 @@
 package com.campaignmanager.service;
 
+import com.campaignmanager.browser.FetchResult;
 import com.campaignmanager.model.CampaignPlan;
 import com.campaignmanager.model.CampaignPlanDocument;
 import com.campaignmanager.repository.CampaignPlanDocumentRepository;
-import com.microsoft.playwright.APIResponse;
-import com.microsoft.playwright.BrowserContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -18,7 +17,7 @@ import java.util.regex.Pattern;
 /**
  * Downloads Google Docs / Slides / Sheets / Drive files from individual share URLs.
  *
- * Uses ctx.request().get() with docs.google.com export endpoints — CF's corporate proxy
+ * Uses sessionService.fetch() with docs.google.com export endpoints — CF's corporate proxy
  * blocks drive.google.com (folder listing) but allows docs.google.com requests (same
  * pattern as ExcelImportService's Google Sheets download).
  *
@@ -35,6 +34,7 @@ public class GoogleDriveImportService {
 
     private final PlaywrightSessionService sessionService;
     private final CampaignPlanDocumentRepository documentRepository;
+    private final DocumentContentService documentContentService;
 
     /**
      * Extracts a Drive/Docs file ID from a share URL.
@@ -69,7 +69,6 @@ public class GoogleDriveImportService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No file URLs provided.");
         }
 
-        BrowserContext ctx = sessionService.getSessionContext();
         List<CampaignPlanDocument> created = new ArrayList<>();
 
         for (String url : fileUrls) {
@@ -88,7 +87,7 @@ public class GoogleDriveImportService {
 
                 // ── 1. Google Doc export ──
                 String docExport = "https://docs.google.com/document/d/" + fileId + "/export?format=txt";
-                APIResponse resp = ctx.request().get(docExport);
+                FetchResult resp = sessionService.fetch(docExport);
                 if (resp.ok() && resp.body().length > 0) {
                     content = resp.body();
                     effectiveMime = "text/plain";
@@ -99,7 +98,7 @@ public class GoogleDriveImportService {
                 // ── 2. Google Slides export ──
                 if (content == null) {
                     String slidesExport = "https://docs.google.com/presentation/d/" + fileId + "/export/txt";
-                    resp = ctx.request().get(slidesExport);
+                    resp = sessionService.fetch(slidesExport);
                     if (resp.ok() && resp.body().length > 0) {
                         content = resp.body();
                         effectiveMime = "text/plain";
@@ -111,7 +110,7 @@ public class GoogleDriveImportService {
                 // ── 3. Google Sheets export ──
                 if (content == null) {
                     String sheetsExport = "https://docs.google.com/spreadsheets/d/" + fileId + "/export?format=csv";
-                    resp = ctx.request().get(sheetsExport);
+                    resp = sessionService.fetch(sheetsExport);
                     if (resp.ok() && resp.body().length > 0) {
                         content = resp.body();
                         effectiveMime = "text/plain";
@@ -124,12 +123,12 @@ public class GoogleDriveImportService {
                 if (content == null) {
                     String dlUrl = "https://drive.usercontent.google.com/download?id=" + fileId +
                                    "&export=download&authuser=0";
-                    resp = ctx.request().get(dlUrl);
+                    resp = sessionService.fetch(dlUrl);
                     if (resp.ok() && resp.body().length > 0) {
                         content = resp.body();
-                        String ct = resp.headers().getOrDefault("content-type", "application/octet-stream");
+                        String ct = resp.header("content-type", "application/octet-stream");
                         effectiveMime = ct.contains(";") ? ct.substring(0, ct.indexOf(';')).trim() : ct;
-                        String cd = resp.headers().getOrDefault("content-disposition", "");
+                        String cd = resp.header("content-disposition", "");
                         effectiveName = extractFilename(cd, fileId, effectiveMime);
                         log.info("Imported file {} ({} bytes, {})", effectiveName, content.length, effectiveMime);
                     }
@@ -152,7 +151,7 @@ public class GoogleDriveImportService {
                 doc.setCampaignPlan(plan);
                 doc.setOriginalFileName(effectiveName);
                 doc.setMimeType(effectiveMime);
-                doc.setFileContent(content);
+                documentContentService.store(doc, content);
                 created.add(documentRepository.save(doc));
 
             } catch (Exception e) {
@@ -0,0 +1,348 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.dto.ExcelImportResultDto;
+import com.campaignmanager.dto.ImportJobDto;
+import com.campaignmanager.model.ImportJob;
+import com.campaignmanager.model.ImportJobStatus;
+import com.campaignmanager.repository.ImportJobRepository;
+import com.campaignmanager.util.WorkbookRowReader;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs campaign spreadsheet imports as background jobs.
+ *
+ * The request only stores the workbook (or the Google Sheet URL) and an {@link ImportJob}
+ * row, then returns; a job thread does the import.  Direct-format imports commit in
+ * batches and each batch moves the job's checkpoint, totals and errors forward, which is
+ * what the polling endpoint reports.  Jobs still queued or running at startup are picked
+ * up again and skip the rows their checkpoint covers — at most one batch is redone, and
+ * the batch writes are upserts, so that is harmless.  Their totals start from the ones
+ * saved with the checkpoint, which cover exactly the rows it does.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportJobService {
+
+    private final ImportJobRepository jobRepository;
+    private final ExcelImportService excelImportService;
+    private final PlaywrightSessionService sessionService;
+    private final CampaignService campaignService;
+    private final ObjectMapper objectMapper;
+
+    /** Where workbooks wait until their job finishes. */
+    @Value("${import.jobs.dir:./data/imports}")
+    private String jobsDir;
+
+    /** Imports run at once; each also uses {@code import.docs.fetch-concurrency} fetch threads. */
+    @Value("${import.jobs.concurrency:1}")
+    private int concurrency;
+
+    private ExecutorService runner;
+
+    @PostConstruct
+    public void initialize() {
+        runner = Executors.newFixedThreadPool(Math.max(1, concurrency), r -> {
+            Thread t = new Thread(r, "import-job");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+    }
+
+    /** Requeues jobs a shutdown or crash left unfinished. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (ImportJob job : jobRepository.findByStatusInOrderByIdAsc(
+                List.of(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING))) {
+            log.info("Import job {} (campaign {}) was interrupted after row {} — resuming",
+                    job.getId(), job.getCampaignId(), job.getCheckpointRow());
+            runner.execute(() -> run(job.getId()));
+        }
+    }
+
+    // ─── Submit ───────────────────────────────────────────────────────────────
+
+    public ImportJobDto submitExcel(Long campaignId, MultipartFile file, boolean replace, String username)
+            throws IOException {
+        ImportJob job = newJob(campaignId, file.getOriginalFilename(), replace, username);
+        // Stored before the job row exists, so the name can't carry the job id.
+        Path path = Files.createTempFile(jobsPath(), "upload-", uploadExtension(file.getOriginalFilename()));
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        job.setFilePath(path.toString());
+        try {
+            job = jobRepository.save(job);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        return enqueue(job);
+    }
+
+    /** The upload's own extension, which is how {@link #run} reopens it (.xlsx when unknown). */
+    private static String uploadExtension(String filename) {
+        String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".csv")) return ".csv";
+        if (name.endsWith(".xls")) return ".xls";
+        return ".xlsx";
+    }
+
+    /** The sheet itself is downloaded by the job, so this returns before the browser is involved. */
+    public ImportJobDto submitGoogleSheet(Long campaignId, String sheetUrl, boolean replace, String username) {
+        return submitGoogleSheet(campaignId, sheetUrl, replace, username, false);
+    }
+
+    /** With {@code enableSync}, the sheet is synced on a schedule once this import has completed. */
+    public ImportJobDto submitGoogleSheet(Long campaignId, String sheetUrl, boolean replace, String username,
+                                          boolean enableSync) {
+        ImportJob job = newJob(campaignId, sheetUrl, replace, username);
+        job.setSheetUrl(sheetUrl);
+        job.setEnableSheetSync(enableSync);
+        return enqueue(jobRepository.save(job));
+    }
+
+    /** A new, unsaved job. */
+    private ImportJob newJob(Long campaignId, String source, boolean replace, String username) {
+        ImportJob job = new ImportJob();
+        job.setCampaignId(campaignId);
+        job.setSource(source);
+        job.setReplaceExisting(replace);
+        job.setCreatedBy(username);
+        return job;
+    }
+
+    private ImportJobDto enqueue(ImportJob job) {
+        Long id = job.getId();
+        runner.execute(() -> run(id));
+        log.info("Import job {} queued for campaign {}: {}", id, job.getCampaignId(), job.getSource());
+        return toDto(job);
+    }
+
+    // ─── Query ────────────────────────────────────────────────────────────────
+
+    public ImportJobDto findById(Long jobId) {
+        return toDto(findJob(jobId));
+    }
+
+    public ImportJob findJob(Long jobId) {
+        return jobRepository.findById(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job not found: " + jobId));
+    }
+
+    /** A job for the campaign is queued or running. */
+    public boolean hasActiveJob(Long campaignId) {
+        return jobRepository.existsByCampaignIdAndStatusIn(campaignId,
+                List.of(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING));
+    }
+
+    public List<ImportJobDto> findByCampaign(Long campaignId) {
+        return jobRepository.findTop20ByCampaignIdOrderByIdDesc(campaignId).stream().map(this::toDto).toList();
+    }
+
+    // ─── Run ──────────────────────────────────────────────────────────────────
+
+    private void run(Long jobId) {
+        // Sheet downloads and Google Doc fetches need the browser. Jobs requeued at startup
+        // get here before it is up, and the 503 from awaitReady() would fail them, so wait
+        // here instead. The job stays QUEUED meanwhile.
+        try {
+            sessionService.awaitReadyIndefinitely();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        ImportJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus() == ImportJobStatus.COMPLETED || job.getStatus() == ImportJobStatus.FAILED) {
+            return;
+        }
+        boolean resumed = job.getAttempts() > 0;
+        job.setAttempts(job.getAttempts() + 1);
+        job.setStatus(ImportJobStatus.RUNNING);
+        job.setStartedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getStartedAt());
+        job.setRunStartRow(job.getCheckpointRow());
+        job = jobRepository.save(job);
+
+        ExcelImportResultDto totals = totalsOf(job);
+        try {
+            Path path = ensureWorkbook(job);
+
+            if (job.isReplaceExisting() && !job.isCleared()) {
+                excelImportService.doDeleteByCampaignId(job.getCampaignId());
+                job.setCleared(true);
+                job = jobRepository.save(job);
+                log.info("Import job {}: replace mode removed existing contacts of campaign {}",
+                        job.getId(), job.getCampaignId());
+            }
+
+            ImportJob current = job;
+            int resumeAfterRow = job.getCheckpointRow();
+            ExcelImportService.Progress progress = new ExcelImportService.Progress() {
+                @Override public int resumeAfterRow() { return resumeAfterRow; }
+                @Override public boolean resumed() { return resumed; }
+                @Override public void committed(int throughRow, ExcelImportResultDto t) {
+                    checkpoint(current, throughRow, t);
+                }
+            };
+            try (InputStream in = Files.newInputStream(path);
+                 WorkbookRowReader workbook = path.toString().endsWith(".csv")
+                         ? WorkbookRowReader.openCsv(in) : WorkbookRowReader.open(in)) {
+                excelImportService.importWorkbook(job.getCampaignId(), workbook,
+                        excelImportService.sheetKey(job.getSheetUrl()), totals, progress);
+            }
+            finish(job, ImportJobStatus.COMPLETED, totals, totals.getMessage());
+            if (job.isEnableSheetSync()) campaignService.startSheetSync(job.getCampaignId(), job.getSheetUrl());
+        } catch (Exception e) {
+            String reason = e.getMessage() != null ? e.getMessage() : e.toString();
+            log.warn("Import job {} failed: {}", job.getId(), reason);
+            totals.getErrors().add(reason);
+            finish(job, ImportJobStatus.FAILED, totals, "Import failed: " + reason);
+        }
+    }
+
+    /**
+     * The job's workbook on disk, downloading the Google Sheet first if that hasn't happened
+     * yet.  A sheet downloaded as CSV is stored as {@code .csv}, which is how it is reopened.
+     */
+    private Path ensureWorkbook(ImportJob job) throws Exception {
+        Path path = job.getFilePath() != null ? Paths.get(job.getFilePath()) : null;
+        if (path != null && Files.exists(path)) return path;
+        if (job.getSheetUrl() == null) {
+            throw new IllegalStateException("The uploaded file for this import is no longer available. Upload it again.");
+        }
+        ExcelImportService.SheetDownload download = excelImportService.downloadGoogleSheet(job.getSheetUrl());
+        path = workbookPath(job, download.csv() ? ".csv" : ".xlsx");
+        Files.write(path, download.body());
+        job.setFilePath(path.toString());
+        jobRepository.save(job);
+        return path;
+    }
+
+    private Path workbookPath(ImportJob job, String extension) throws IOException {
+        return jobsPath().resolve("import-" + job.getId() + extension);
+    }
+
+    private Path jobsPath() throws IOException {
+        return Files.createDirectories(Paths.get(jobsDir));
+    }
+
+    private void checkpoint(ImportJob job, int throughRow, ExcelImportResultDto totals) {
+        job.setCheckpointRow(Math.max(job.getCheckpointRow(), throughRow));
+        copyTotals(job, totals);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    private void finish(ImportJob job, ImportJobStatus status, ExcelImportResultDto totals, String message) {
+        copyTotals(job, totals);
+        job.setStatus(status);
+        job.setMessage(message);
+        job.setFinishedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getFinishedAt());
+        jobRepository.save(job);
+        if (job.getFilePath() != null) {
+            try {
+                Files.deleteIfExists(Paths.get(job.getFilePath()));
+            } catch (IOException e) {
+                log.warn("Could not delete workbook of import job {}: {}", job.getId(), e.getMessage());
+            }
+        }
+        log.info("Import job {} {}: {}", job.getId(), status, message);
+    }
+
+    // ─── Mapping ──────────────────────────────────────────────────────────────
+
+    private ExcelImportResultDto totalsOf(ImportJob job) {
+        ExcelImportResultDto totals = new ExcelImportResultDto();
+        totals.setContactsImported(job.getContactsImported());
+        totals.setTemplatesImported(job.getJobsCreated());
+        totals.setSkipped(job.getSkipped());
+        totals.setUnchanged(job.getUnchanged());
+        totals.setErrors(readList(job.getErrors()));
+        totals.setRemovedRows(readList(job.getRemovedRows()));
+        return totals;
+    }
+
+    private void copyTotals(ImportJob job, ExcelImportResultDto totals) {
+        job.setContactsImported(totals.getContactsImported());
+        job.setJobsCreated(totals.getTemplatesImported());
+        job.setSkipped(totals.getSkipped());
+        job.setUnchanged(totals.getUnchanged());
+        try {
+            job.setErrors(objectMapper.writeValueAsString(totals.getErrors()));
+            job.setRemovedRows(objectMapper.writeValueAsString(totals.getRemovedRows()));
+        } catch (IOException e) {
+            log.warn("Could not record errors of import job {}: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private List<String> readList(String json) {
+        if (json == null || json.isBlank()) return new ArrayList<>();
+        try {
+            return objectMapper.readValue(json, new TypeReference<ArrayList<String>>() {});
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    private ImportJobDto toDto(ImportJob job) {
+        ImportJobDto dto = new ImportJobDto();
+        dto.setId(job.getId());
+        dto.setCampaignId(job.getCampaignId());
+        dto.setSource(job.getSource());
+        dto.setStatus(job.getStatus());
+        dto.setDone(job.getStatus() == ImportJobStatus.COMPLETED || job.getStatus() == ImportJobStatus.FAILED);
+        dto.setRowsProcessed(Math.max(0, job.getCheckpointRow() - 1)); // row 1 is the header
+        dto.setAttempts(job.getAttempts());
+        dto.setContactsImported(job.getContactsImported());
+        dto.setTemplatesImported(job.getJobsCreated());
+        dto.setSkipped(job.getSkipped());
+        dto.setUnchanged(job.getUnchanged());
+        dto.setRemovedRows(readList(job.getRemovedRows()));
+        dto.setErrors(readList(job.getErrors()));
+        dto.setMessage(job.getMessage());
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setUpdatedAt(job.getUpdatedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+
+        if (job.getStartedAt() != null && job.getUpdatedAt() != null) {
+            long millis = Duration.between(job.getStartedAt(), job.getUpdatedAt()).toMillis();
+            int rows = job.getCheckpointRow() - Math.max(1, job.getRunStartRow());
+            if (millis > 0 && rows > 0) dto.setRowsPerSecond(rows * 1000.0 / millis);
+        }
+        return dto;
+    }
+}
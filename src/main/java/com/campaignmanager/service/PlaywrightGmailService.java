@@ -1,189 +1,205 @@
 package com.campaignmanager.service;
 
+import com.campaignmanager.browser.BrowserCallTimeoutException;
+import com.campaignmanager.browser.MailResult;
+import com.campaignmanager.browser.OutgoingMail;
 import com.campaignmanager.model.EmailJob;
-import com.microsoft.playwright.*;
-import com.microsoft.playwright.options.WaitForSelectorState;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Sends emails by automating Gmail web UI using Playwright.
  *
  * Uses the persistent Gmail session managed by {@link PlaywrightSessionService}.
  * No credentials are stored here — the user logs in once via the Settings page.
+ *
+ * Jobs are grouped by sender account and each group is sent as one pipelined batch
+ * (see {@code GmailComposer}) by the session service's browser backend — in-process
+ * or in a worker process.  Accounts on different browser workers send at the same
+ * time, one task per worker.  The recipient, subject and body are read from the
+ * entities here, so only plain data crosses to the browser side.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PlaywrightGmailService {
 
+    private static final int MAX_PIPELINE_DEPTH = 4;
+
     private final PlaywrightSessionService sessionService;
 
+    /** Compose windows open at once per account; 1 = compose only after the previous send is confirmed. */
+    @Value("${playwright.gmail.pipeline-depth:1}")
+    private int defaultPipelineDepth;
+
+    /** Per-account overrides, e.g. {@code alice@x.com=3,bob@y.com=1}. */
+    @Value("${playwright.gmail.pipeline-depth-overrides:}")
+    private String pipelineDepthOverrides;
+
+    private final Map<String, Integer> depthByAccount = new HashMap<>();
+
+    /**
+     * Outcome of one job in {@link #sendAll}; {@code error} is null when the email was sent.
+     * {@code unknown} means the browser side timed out and may still have sent it.
+     */
+    public record SendOutcome(EmailJob job, Exception error, boolean unknown) {
+        public SendOutcome(EmailJob job, Exception error) { this(job, error, false); }
+        public boolean sent() { return error == null; }
+    }
+
+    /** One sender account's jobs, with the plain mail data read from them. */
+    private record AccountBatch(String account, List<EmailJob> jobs, List<OutgoingMail> mails) {}
+
+    @PostConstruct
+    void parseDepthOverrides() {
+        if (pipelineDepthOverrides == null || pipelineDepthOverrides.isBlank()) return;
+        for (String entry : pipelineDepthOverrides.split(",")) {
+            String[] kv = entry.trim().split("=");
+            if (kv.length != 2) continue;
+            try {
+                depthByAccount.put(kv[0].trim().toLowerCase(), Integer.parseInt(kv[1].trim()));
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring invalid pipeline depth override '{}'", entry);
+            }
+        }
+    }
+
     /**
      * Sends a single email job via Gmail web UI using the stored session.
      * Throws an exception if sending fails.
      */
     public void send(EmailJob job) throws Exception {
-        String toEmail     = job.getCampaignContact().getContact().getEmail();
-        String senderEmail = job.getCampaignContact().getCampaign().getGmailEmail();
-
-        // Route to the campaign-specific session.
-        // If no account is assigned: allow fallback only when exactly 1 session exists
-        // (backward compat for campaigns created before multi-session support).
-        // With 2+ sessions and no assignment, fail clearly rather than silently
-        // sending from the wrong account.
-        BrowserContext context;
-        if (senderEmail != null && !senderEmail.isBlank()) {
-            context = sessionService.getSessionContext(senderEmail);
-        } else {
-            java.util.List<String> available = sessionService.listConnectedEmails();
-            if (available.size() == 1) {
-                context = sessionService.getSessionContext(available.get(0));
-            } else if (available.isEmpty()) {
-                throw new Exception("No Gmail session connected. Go to Settings → Gmail Sessions and upload a session file.");
-            } else {
-                throw new Exception("This campaign has no Gmail account assigned. " +
-                        "Edit the campaign and set 'Send From' to a specific Gmail account before sending.");
-            }
+        List<SendOutcome> outcomes = sendAll(List.of(job));
+        if (outcomes.isEmpty()) {
+            throw new Exception("Playwright Gmail send failed: job was not attempted");
         }
+        if (!outcomes.get(0).sent()) throw outcomes.get(0).error();
+    }
 
-        Page page = context.newPage();
-
-        try {
-            page.navigate("https://mail.google.com/mail/u/0/");
-
-            // If session expired and redirected to login, invalidate only that account's context
-            if (page.url().contains("accounts.google.com")) {
-                invalidateContext(senderEmail);
-                throw new Exception(
-                        "Gmail session has expired for " +
-                        (senderEmail != null ? senderEmail : "the connected account") +
-                        ". Go to Settings → Gmail Sessions and upload a new session.");
+    /**
+     * Sends a batch of jobs, pipelining compose and confirmation within each sender account.
+     * Returns one outcome per job that was attempted, in send order.
+     */
+    public List<SendOutcome> sendAll(List<EmailJob> jobs) {
+        List<SendOutcome> outcomes = new ArrayList<>();
+
+        // Route each job to its sender account, keeping the original order within each.
+        Map<String, List<EmailJob>> byAccount = new LinkedHashMap<>();
+        for (EmailJob job : jobs) {
+            try {
+                String account = resolveAccount(job.getCampaignContact().getCampaign().getGmailEmail());
+                byAccount.computeIfAbsent(account, k -> new ArrayList<>()).add(job);
+            } catch (Exception e) {
+                outcomes.add(new SendOutcome(job, new Exception("Playwright Gmail send failed: " + e.getMessage(), e)));
             }
+        }
 
-            composeAndSend(page, toEmail, job.getSubject(), job.getBody());
-            log.info("Email sent via Gmail to {} from {} (job id: {})",
-                    toEmail, senderEmail != null ? senderEmail : "default", job.getId());
+        // Entities are read here, on the caller's thread; the send tasks only see plain data.
+        Map<Integer, List<AccountBatch>> byLane = new LinkedHashMap<>();
+        byAccount.forEach((account, accountJobs) -> {
+            List<OutgoingMail> mails = new ArrayList<>();
+            for (EmailJob job : accountJobs) {
+                mails.add(new OutgoingMail(job.getId(), job.getCampaignContact().getContact().getEmail(),
+                        job.getSubject(), job.getBody()));
+            }
+            byLane.computeIfAbsent(sessionService.sendLane(account), k -> new ArrayList<>())
+                    .add(new AccountBatch(account, accountJobs, mails));
+        });
 
-        } catch (Exception e) {
-            invalidateContext(senderEmail);
-            throw new Exception("Playwright Gmail send failed: " + e.getMessage(), e);
+        if (byLane.size() <= 1) {
+            byLane.values().forEach(batches -> outcomes.addAll(sendLane(batches)));
+            return outcomes;
+        }
+        ExecutorService lanes = Executors.newFixedThreadPool(byLane.size(), r -> {
+            Thread t = new Thread(r, "gmail-send-lane");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<CompletableFuture<List<SendOutcome>>> futures = byLane.values().stream()
+                    .map(batches -> CompletableFuture.supplyAsync(() -> sendLane(batches), lanes))
+                    .toList();
+            futures.forEach(f -> outcomes.addAll(f.join()));
         } finally {
-            try { page.close(); } catch (Exception ignored) {}
+            lanes.shutdown();
         }
+        return outcomes;
     }
 
-    private void invalidateContext(String senderEmail) {
-        if (senderEmail != null && !senderEmail.isBlank()) {
-            sessionService.invalidateCachedContext(senderEmail);
-        } else {
-            sessionService.invalidateCachedContext();
+    /** Sends the batches of one lane (one browser worker) one after another. */
+    private List<SendOutcome> sendLane(List<AccountBatch> batches) {
+        List<SendOutcome> outcomes = new ArrayList<>();
+        for (AccountBatch batch : batches) {
+            outcomes.addAll(sendBatch(batch));
         }
+        return outcomes;
     }
 
-    private void composeAndSend(Page page, String to, String subject, String body) {
-        // ── Step 1: Open compose window ──────────────────────────────────────────
-        page.waitForSelector("[gh='cm'], .T-I.T-I-KE", new Page.WaitForSelectorOptions().setTimeout(15_000));
-        page.click("[gh='cm'], .T-I.T-I-KE");
-        page.waitForSelector("div[aria-label='To']", new Page.WaitForSelectorOptions().setTimeout(10_000));
-
-        // ── Step 2: Fill the To field ────────────────────────────────────────────
-        // Click the To area, type the address, then press Tab.
-        // Tab is Gmail's standard mechanism to confirm the address as a chip
-        // and move focus to the Subject field. We wait 1 second after Tab
-        // to let Gmail render the chip before we proceed.
-        page.click("div[aria-label='To']");
-        page.keyboard().type(to);
-        page.keyboard().press("Tab");
-        page.waitForTimeout(1_000);
-
-        // ── Step 3: Fill Subject ─────────────────────────────────────────────────
-        // page.fill() is reliable for standard input elements and does not depend
-        // on keyboard focus.
-        page.fill("input[name='subjectbox']", subject);
-
-        // ── Step 4: Fill Body (above Gmail signature) ───────────────────────────
-        // Uses direct DOM manipulation (no execCommand) to avoid Chrome's Trusted Types
-        // policy which blocks execCommand('insertHTML', false, plainString).
-        // Builds a styled wrapper div from text nodes + <br> elements so the font
-        // colour is explicitly black regardless of Gmail's compose theme.
-        page.click("div[aria-label='Message Body']");
-        page.waitForTimeout(300);
-        page.evaluate(
-            "(text) => {" +
-            "  const body = document.querySelector('div[aria-label=\"Message Body\"]');" +
-            "  if (!body) return;" +
-            "  body.focus();" +
-            "  const wrapper = document.createElement('div');" +
-            "  wrapper.style.color = '#000000';" +
-            "  wrapper.style.fontFamily = 'Arial,sans-serif';" +
-            "  wrapper.style.fontSize = '14px';" +
-            "  const lines = text.split('\\n');" +
-            "  lines.forEach((line, i) => {" +
-            "    if (line) wrapper.appendChild(document.createTextNode(line));" +
-            "    if (i < lines.length - 1) wrapper.appendChild(document.createElement('br'));" +
-            "  });" +
-            "  const sig = body.querySelector('.gmail_signature, [data-smartmail=\"gmail_signature\"]');" +
-            "  if (sig) {" +
-            "    let sigTop = sig;" +
-            "    while (sigTop.parentElement && sigTop.parentElement !== body) sigTop = sigTop.parentElement;" +
-            "    const frag = document.createDocumentFragment();" +
-            "    frag.appendChild(wrapper);" +
-            "    frag.appendChild(document.createElement('br'));" +
-            "    frag.appendChild(document.createElement('br'));" +
-            "    body.insertBefore(frag, sigTop);" +
-            "  } else {" +
-            "    body.insertBefore(wrapper, body.firstChild);" +
-            "  }" +
-            "}",
-            body);
-
-        // ── Step 5: Send ─────────────────────────────────────────────────────────
-        // Primary: click Gmail's Send button (.aoO is the compose Send button class).
-        // This is more reliable than keyboard shortcuts because it does not depend
-        // on which element currently has keyboard focus.
-        // Fallback: Ctrl+Enter if the button cannot be located.
-        log.info("Clicking Send for job to={} subject='{}'", to, subject);
-        boolean clickedSend = false;
+    private List<SendOutcome> sendBatch(AccountBatch batch) {
+        List<SendOutcome> outcomes = new ArrayList<>();
+        List<MailResult> results;
         try {
-            page.click(".T-I.aoO", new Page.ClickOptions().setTimeout(6_000));
-            clickedSend = true;
-            log.info("Clicked Send button (.aoO) for {}", to);
+            results = sessionService.sendAll(batch.account(), batch.mails(), pipelineDepthFor(batch.account()));
+        } catch (BrowserCallTimeoutException e) {
+            // The browser side may still be sending this batch, so nothing is known about any
+            // of these; the caller must not retry them automatically.
+            String msg = "Playwright Gmail send timed out: " + e.getMessage() +
+                    " — the email may still have gone out; check the Gmail Sent folder before releasing";
+            batch.jobs().forEach(job -> outcomes.add(new SendOutcome(job, new Exception(msg, e), true)));
+            return outcomes;
         } catch (Exception e) {
-            log.warn("Send button (.aoO) not clickable for {} — trying Ctrl+Enter fallback", to);
+            // The browser side died mid-batch (e.g. a worker crashed), so some of these may
+            // have gone out.  FAILED needs a manual retry, which avoids double-sending.
+            String msg = "Playwright Gmail send failed: " + e.getMessage() +
+                    " — check the Gmail Sent folder before retrying";
+            batch.jobs().forEach(job -> outcomes.add(new SendOutcome(job, new Exception(msg, e))));
+            return outcomes;
         }
-        if (!clickedSend) {
-            page.keyboard().press("Control+Enter");
+        Map<Long, EmailJob> byId = new HashMap<>();
+        batch.jobs().forEach(job -> byId.put(job.getId(), job));
+        for (MailResult result : results) {
+            EmailJob job = byId.get(result.id());
+            if (job == null) continue;
+            outcomes.add(new SendOutcome(job, result.sent() ? null : new Exception(result.error())));
         }
+        return outcomes;
+    }
 
-        // Give Gmail 1 second to process the send before checking the compose window
-        page.waitForTimeout(1_000);
-
-        // ── Step 6: Confirm compose window closed ────────────────────────────────
-        // Gmail's compose container (div.T-P) disappears when the email is accepted.
-        // If it stays open, Gmail is showing a validation error.
-        try {
-            page.waitForSelector("div.T-P", new Page.WaitForSelectorOptions()
-                    .setState(WaitForSelectorState.HIDDEN)
-                    .setTimeout(15_000));
-        } catch (Exception e) {
-            throw new RuntimeException(
-                    "Compose window did not close after Send — email NOT sent to " + to +
-                    ". Check Gmail for a validation error (invalid recipient address?).", e);
+    /**
+     * Maps a campaign's "Send From" value to the connected account that will send it.
+     * If no account is assigned: allow fallback only when exactly 1 session exists
+     * (backward compat for campaigns created before multi-session support).
+     * With 2+ sessions and no assignment, fail clearly rather than silently
+     * sending from the wrong account.
+     */
+    public String resolveAccount(String senderEmail) throws Exception {
+        if (senderEmail != null && !senderEmail.isBlank()) return senderEmail;
+
+        List<String> available = sessionService.listConnectedEmails();
+        if (available.size() == 1) {
+            return available.get(0);
+        } else if (available.isEmpty()) {
+            throw new Exception("No Gmail session connected. Go to Settings → Gmail Sessions and upload a session file.");
+        } else {
+            throw new Exception("This campaign has no Gmail account assigned. " +
+                    "Edit the campaign and set 'Send From' to a specific Gmail account before sending.");
         }
+    }
 
-        // ── Step 7: Require snackbar confirmation ────────────────────────────────
-        // The .vh snackbar ("Message sent") appears ONLY on a successful send, NOT
-        // on a draft save. Treating its absence as a failure prevents emails silently
-        // ending up in Drafts instead of being delivered.
-        try {
-            page.waitForSelector(".vh", new Page.WaitForSelectorOptions().setTimeout(8_000));
-            log.info("'Message sent' snackbar confirmed for {}", to);
-        } catch (Exception e) {
-            throw new RuntimeException(
-                    "Gmail did not confirm send for " + to +
-                    " — email may have been saved as Draft. Job will be retried.", e);
-        }
+    int pipelineDepthFor(String account) {
+        int depth = depthByAccount.getOrDefault(account.toLowerCase(), defaultPipelineDepth);
+        return Math.max(1, Math.min(MAX_PIPELINE_DEPTH, depth));
     }
 }
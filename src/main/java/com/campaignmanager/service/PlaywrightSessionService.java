@@ -1,5 +1,14 @@
 package com.campaignmanager.service;
 
+import com.campaignmanager.browser.BrowserBackend;
+import com.campaignmanager.browser.BrowserEngine;
+import com.campaignmanager.browser.BrowserWorkerPool;
+import com.campaignmanager.browser.EngineSettings;
+import com.campaignmanager.browser.FetchResult;
+import com.campaignmanager.browser.MailResult;
+import com.campaignmanager.browser.OutgoingMail;
+import com.campaignmanager.dto.BrowserContextStatsDto;
+import com.campaignmanager.repository.EmailJobRepository;
 import com.microsoft.playwright.*;
 import com.microsoft.playwright.options.LoadState;
 import jakarta.annotation.PostConstruct;
@@ -7,22 +16,28 @@ import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
@@ -36,27 +51,87 @@ import java.util.stream.Collectors;
  * sending.  If a campaign has no Gmail email assigned it falls back to the first
  * available session (backward-compatible with single-session deployments).
  *
- * On startup the service automatically migrates the legacy single-session file
- * {@code ./data/gmail-session.json} to the new per-email layout.
+ * Browser setup (CF system libs, the Playwright driver and browser binaries, worker
+ * processes, and the one-time migration of the legacy {@code ./data/gmail-session.json}
+ * to the per-email layout) runs on a background thread so the web tier comes up right
+ * away.  Until it finishes {@link #isReady()} is false: the scheduler skips its cycles,
+ * and imports and uploads wait up to {@code playwright.init.await-seconds} before
+ * answering 503.
+ *
+ * The browser itself lives behind a {@link BrowserBackend}: a {@link BrowserEngine}
+ * inside the app by default, or — with {@code playwright.workers.enabled=true} — a
+ * {@link BrowserWorkerPool} of separate worker processes, each with its own heap and
+ * context budget.  This service owns the session files, the interactive connect flow
+ * and the scheduling decisions (idle eviction, keep-warm pinning), and delegates every
+ * send, pre-warm and authenticated download to the backend.
+ *
+ * Resident BrowserContexts are bounded: at most {@code playwright.contexts.max-resident}
+ * (further capped by {@code playwright.contexts.memory-budget-mb}) per engine, least
+ * recently used first out.  Contexts idle longer than
+ * {@code playwright.contexts.idle-timeout-minutes} are closed unless the account has jobs
+ * due soon; an evicted context is recreated just in time on the next send.
  */
 @Service
-@DependsOn("playwrightSystemDepsInstaller")
 @RequiredArgsConstructor
 @Slf4j
 public class PlaywrightSessionService {
 
     private static final String SESSIONS_DIR   = "./data/sessions";
     private static final String LEGACY_SESSION = "./data/gmail-session.json";
+    private static final String GMAIL_URL      = "https://mail.google.com/mail/u/0/";
     private final PlaywrightSystemDepsInstaller systemDepsInstaller;
+    private final EmailJobRepository emailJobRepository;
 
     @Value("${playwright.headless:false}")
     private boolean headless;
 
-    private Playwright playwright;
-    private Browser browser;
+    @Value("${playwright.contexts.max-resident:8}")
+    private int maxResidentContexts;
+
+    /** Rough Chromium cost of one logged-in Gmail context; used to turn the budget into a count. */
+    @Value("${playwright.contexts.estimated-mb-per-context:120}")
+    private long estimatedMbPerContext;
+
+    @Value("${playwright.contexts.memory-budget-mb:1024}")
+    private long contextMemoryBudgetMb;
+
+    @Value("${playwright.contexts.idle-timeout-minutes:20}")
+    private long idleTimeoutMinutes;
+
+    /** Accounts with jobs due within this window are never evicted for idleness. */
+    @Value("${playwright.contexts.keep-warm-minutes:15}")
+    private long keepWarmMinutes;
+
+    /** Parallel Google export downloads per engine; each lane runs its own Playwright driver. */
+    @Value("${playwright.fetch.lanes:2}")
+    private int fetchLanes;
+
+    /** Run sends and downloads in separate worker processes instead of inside the app. */
+    @Value("${playwright.workers.enabled:false}")
+    private boolean workersEnabled;
+
+    @Value("${playwright.workers.count:2}")
+    private int workerCount;
+
+    /** -Xmx for each worker JVM; Chromium itself is bounded by the context budget above. */
+    @Value("${playwright.workers.heap-mb:256}")
+    private int workerHeapMb;
+
+    @Value("${playwright.workers.jvm-args:}")
+    private String workerJvmArgs;
+
+    @Value("${playwright.workers.call-timeout-seconds:900}")
+    private long workerCallTimeoutSeconds;
+
+    /** How long imports and uploads wait for browser setup before answering 503. */
+    @Value("${playwright.init.await-seconds:60}")
+    private long initAwaitSeconds;
 
-    /** BrowserContext pool — one per Gmail account email. */
-    private final Map<String, BrowserContext> sessionContexts = new ConcurrentHashMap<>();
+    private BrowserBackend backend;
+
+    // Background init state
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile String initError = null;
 
     /** Email address of the most recently connected/uploaded account. */
     private volatile String lastConnectedEmail = null;
@@ -65,46 +140,68 @@ public class PlaywrightSessionService {
     private final AtomicBoolean connecting = new AtomicBoolean(false);
     private final AtomicReference<String> connectError = new AtomicReference<>(null);
 
-    // ─── Playwright Factory ───────────────────────────────────────────────────
-
-    private Playwright createPlaywright() {
-        String libPath = systemDepsInstaller.getLibraryPath();
-        if (libPath != null) {
-            Map<String, String> env = new HashMap<>(System.getenv());
-            env.put("LD_LIBRARY_PATH", libPath);
-            log.info("Playwright: creating with CF LD_LIBRARY_PATH={}", libPath);
-            return Playwright.create(new Playwright.CreateOptions().setEnv(env));
-        }
-        return Playwright.create();
-    }
-
-    private BrowserType.LaunchOptions launchOptions(boolean headless) {
-        BrowserType.LaunchOptions opts = new BrowserType.LaunchOptions().setHeadless(headless);
-        if (systemDepsInstaller.isCloudFoundry()) {
-            opts.setArgs(List.of("--no-sandbox", "--disable-setuid-sandbox"));
-        }
-        return opts;
+    // ─── Backend ──────────────────────────────────────────────────────────────
+
+    private EngineSettings engineSettings() {
+        return new EngineSettings(
+                Paths.get(SESSIONS_DIR).toAbsolutePath().toString(),
+                headless,
+                systemDepsInstaller.getLibraryPath(),
+                systemDepsInstaller.isCloudFoundry(),
+                maxResidentContexts,
+                estimatedMbPerContext,
+                contextMemoryBudgetMb,
+                fetchLanes);
     }
 
     // ─── Init / Migration ─────────────────────────────────────────────────────
 
     @PostConstruct
-    public synchronized void initialize() {
-        log.info("Playwright: initializing and verifying browser binaries...");
+    public void initialize() {
+        EngineSettings settings = engineSettings();
+        if (workersEnabled) {
+            backend = new BrowserWorkerPool(settings, new BrowserWorkerPool.Settings(
+                    workerCount, workerHeapMb, workerJvmArgs, Duration.ofSeconds(workerCallTimeoutSeconds)));
+        } else {
+            backend = new BrowserEngine(settings);
+        }
+
+        Thread thread = new Thread(this::initializeBrowser, "playwright-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void initializeBrowser() {
+        long start = System.currentTimeMillis();
         try {
-            if (playwright == null) playwright = createPlaywright();
-            log.info("Playwright: browser binaries ready.");
-        } catch (Exception e) {
-            log.warn("Playwright: initialization warning: {}", e.getMessage());
+            // CF system libs first: the Playwright driver needs them on LD_LIBRARY_PATH.
+            systemDepsInstaller.ensureInstalled();
+
+            log.info("Playwright: initializing and verifying browser binaries...");
+            try {
+                backend.start();
+                log.info("Playwright: browser binaries ready.");
+            } catch (Exception e) {
+                initError = e.getMessage();
+                log.warn("Playwright: initialization warning: {}", e.getMessage());
+            }
+
+            migrateLegacySession();
+        } finally {
+            ready.complete(null);
+            log.info("Playwright: background initialization finished in {} ms",
+                    System.currentTimeMillis() - start);
         }
+    }
 
-        // Migrate legacy single-session file to per-email layout
+    /** Migrates the legacy single-session file to the per-email layout. */
+    private void migrateLegacySession() {
         Path legacy = Paths.get(LEGACY_SESSION);
         if (Files.exists(legacy)) {
             log.info("Migrating legacy gmail-session.json to per-email layout...");
             try {
                 Files.createDirectories(Paths.get(SESSIONS_DIR));
-                String email = detectEmailSync(legacy);
+                String email = backend.detectEmail(legacy);
                 if (email != null) {
                     Path dest = getSessionPath(email);
                     Files.move(legacy, dest, StandardCopyOption.REPLACE_EXISTING);
@@ -119,6 +216,50 @@ public class PlaywrightSessionService {
         }
     }
 
+    // ─── Readiness ────────────────────────────────────────────────────────────
+
+    /** True once background browser setup has finished (successfully or not). */
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    /** Error from background setup, if the browser could not be started. */
+    public String getInitError() {
+        return initError;
+    }
+
+    /**
+     * Blocks until background setup has finished, for up to
+     * {@code playwright.init.await-seconds}; then answers 503 so the client retries.
+     */
+    public void awaitReady() {
+        if (ready.isDone()) return;
+        try {
+            ready.get(initAwaitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "The browser is still starting up. Try again in a minute.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Interrupted while waiting for the browser to start.");
+        } catch (Exception e) {
+            // ready is only ever completed normally
+        }
+    }
+
+    /**
+     * Blocks until background setup has finished, however long that takes. For background
+     * work (import jobs) that has no client waiting on it and should not fail with a 503.
+     */
+    public void awaitReadyIndefinitely() throws InterruptedException {
+        try {
+            ready.get();
+        } catch (ExecutionException e) {
+            // ready is only ever completed normally
+        }
+    }
+
     // ─── Session Paths & Discovery ────────────────────────────────────────────
 
     /** Path for a specific Gmail account's session file. */
@@ -194,21 +335,21 @@ public class PlaywrightSessionService {
     }
 
     private void doConnectSession() throws Exception {
+        awaitReady();
         log.info("Starting Gmail session setup — opening browser for user login");
         Files.createDirectories(Paths.get(SESSIONS_DIR));
 
-        synchronized (this) {
-            if (playwright == null) playwright = createPlaywright();
-        }
-
-        Browser connectBrowser = playwright.chromium().launch(launchOptions(false));
+        // A dedicated Playwright instance: this thread must not touch the backend's objects.
+        EngineSettings settings = engineSettings();
+        Playwright connectPlaywright = BrowserEngine.createPlaywright(settings);
+        Browser connectBrowser = connectPlaywright.chromium().launch(BrowserEngine.launchOptions(settings, false));
         BrowserContext context = connectBrowser.newContext(
                 new Browser.NewContextOptions().setViewportSize(1280, 900));
         Page page = context.newPage();
         page.setDefaultTimeout(120_000);
 
         try {
-            page.navigate("https://mail.google.com/mail/u/0/");
+            page.navigate(GMAIL_URL);
             log.info("Browser open — waiting for Gmail login (up to 2 minutes)...");
 
             try {
@@ -233,7 +374,7 @@ public class PlaywrightSessionService {
             Path tempPath = Paths.get(SESSIONS_DIR, "connecting-temp.json");
             context.storageState(new BrowserContext.StorageStateOptions().setPath(tempPath));
 
-            String detectedEmail = extractEmailFromTitle(page.title());
+            String detectedEmail = BrowserEngine.extractEmailFromTitle(page.title());
             if (detectedEmail != null) {
                 Path finalPath = getSessionPath(detectedEmail);
                 Files.move(tempPath, finalPath, StandardCopyOption.REPLACE_EXISTING);
@@ -251,67 +392,119 @@ public class PlaywrightSessionService {
             try { page.close(); }         catch (Exception ignored) {}
             try { context.close(); }      catch (Exception ignored) {}
             try { connectBrowser.close(); } catch (Exception ignored) {}
+            try { connectPlaywright.close(); } catch (Exception ignored) {}
             // Don't invalidate ALL contexts — only this temp connect browser is closing
         }
     }
 
-    // ─── BrowserContext Pool ──────────────────────────────────────────────────
+    // ─── Sending & Fetching ───────────────────────────────────────────────────
 
     /**
-     * Returns (or creates) a cached BrowserContext for the given Gmail account.
-     * Throws if no session file exists for that email.
+     * Sends {@code mails} from {@code account} as one pipelined batch.  Returns one result
+     * per mail that was attempted; throws if the backend failed outright (e.g. a worker died).
      */
-    public synchronized BrowserContext getSessionContext(String email) {
-        if (!isSessionActive(email)) {
-            throw new IllegalStateException(
-                    "No Gmail session for " + email +
-                    ". Upload a session file in Settings → Gmail Sessions.");
-        }
-        if (playwright == null) playwright = createPlaywright();
-        if (browser == null || !browser.isConnected()) {
-            browser = playwright.chromium().launch(launchOptions(headless));
-            sessionContexts.clear();
+    public List<MailResult> sendAll(String account, List<OutgoingMail> mails, int depth) {
+        awaitReady();
+        return backend.sendAll(account, mails, depth);
+    }
+
+    /** Sends for accounts in different lanes can run at the same time; see {@link BrowserBackend#laneOf}. */
+    public int sendLane(String account) {
+        return backend.laneOf(account);
+    }
+
+    /**
+     * Ensures the account has a resident context with a Gmail tab already loaded, so the
+     * next send skips both context creation and the inbox load.
+     */
+    public void prewarm(String email) {
+        if (!isReady()) return;
+        try {
+            backend.prewarm(email);
+        } catch (Exception e) {
+            log.warn("Pre-warm failed for {}: {}", email, e.getMessage());
         }
-        return sessionContexts.computeIfAbsent(email, e ->
-                browser.newContext(new Browser.NewContextOptions()
-                        .setStorageStatePath(getSessionPath(e))
-                        .setViewportSize(1280, 900)));
     }
 
     /**
-     * Backward-compatible no-arg version — returns context for the first
-     * available session. Used by campaigns with no gmailEmail assigned.
+     * GETs {@code url} with the cookies of the first connected Gmail account — used for
+     * Google Docs / Sheets / Drive exports.  Runs apart from the send path, so downloads
+     * proceed while a send wave is in progress.
      */
-    public synchronized BrowserContext getSessionContext() {
+    public FetchResult fetch(String url) {
+        return fetch(url, Map.of());
+    }
+
+    /** {@link #fetch(String)} with extra request headers, e.g. If-None-Match. */
+    public FetchResult fetch(String url, Map<String, String> headers) {
         List<String> emails = listConnectedEmails();
         if (emails.isEmpty()) {
             throw new IllegalStateException(
                     "No Gmail session found. Go to Settings → Connect Gmail first.");
         }
-        return getSessionContext(emails.get(0));
+        awaitReady();
+        return backend.fetch(emails.get(0), url, headers);
     }
 
-    /** Invalidates the cached context for one email (on send failure / expiry). */
-    public synchronized void invalidateCachedContext(String email) {
-        BrowserContext ctx = sessionContexts.remove(email);
-        if (ctx != null) {
-            try { ctx.close(); } catch (Exception ignored) {}
-            log.info("Invalidated cached context for {}", email);
-        }
+    /** Invalidates the cached context for one email (on send failure / expiry / re-upload). */
+    public void invalidateCachedContext(String email) {
+        backend.invalidate(email);
     }
 
     /** Invalidates ALL cached contexts (e.g. on browser restart). */
-    public synchronized void invalidateCachedContext() {
-        sessionContexts.forEach((email, ctx) -> {
-            try { ctx.close(); } catch (Exception ignored) {}
-        });
-        sessionContexts.clear();
+    public void invalidateCachedContext() {
+        backend.invalidate(null);
+    }
+
+    // ─── Context Eviction ─────────────────────────────────────────────────────
+
+    /**
+     * Closes contexts that have been idle longer than the idle timeout, except for
+     * accounts with jobs due within the keep-warm window.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleContexts() {
+        if (!isReady()) return;
+        Set<String> pinned = sendersWithJobsDueWithin(Duration.ofMinutes(keepWarmMinutes));
+        try {
+            backend.evictIdle(Duration.ofMinutes(idleTimeoutMinutes), pinned);
+        } catch (Exception e) {
+            log.warn("Idle context eviction failed: {}", e.getMessage());
+        }
+    }
+
+    /** Snapshot of the context cache for the admin Settings API. */
+    public BrowserContextStatsDto getContextStats() {
+        awaitReady();
+        return backend.stats();
+    }
+
+    /**
+     * Gmail accounts with SCHEDULED jobs due within {@code window} on active campaigns.
+     * Campaigns without an assigned account resolve to the only connected session, if any.
+     */
+    private Set<String> sendersWithJobsDueWithin(Duration window) {
+        Set<String> senders = new HashSet<>();
+        try {
+            List<String> assigned = emailJobRepository.findSenderEmailsDueBefore(LocalDateTime.now().plus(window));
+            for (String email : assigned) {
+                if (email != null && !email.isBlank()) {
+                    senders.add(email);
+                } else {
+                    List<String> available = listConnectedEmails();
+                    if (available.size() == 1) senders.add(available.get(0));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Could not look up upcoming senders: {}", e.getMessage());
+        }
+        return senders;
     }
 
     // ─── Disconnect ───────────────────────────────────────────────────────────
 
     /** Removes the session file and context for a specific Gmail account. */
-    public synchronized void disconnectSession(String email) throws IOException {
+    public void disconnectSession(String email) throws IOException {
         invalidateCachedContext(email);
         Path p = getSessionPath(email);
         if (Files.exists(p)) {
@@ -330,51 +523,8 @@ public class PlaywrightSessionService {
      * Used synchronously during upload/import to name the session file correctly.
      */
     public String detectEmailSync(Path sessionPath) {
-        try {
-            synchronized (this) {
-                if (playwright == null) playwright = createPlaywright();
-                if (browser == null || !browser.isConnected()) {
-                    browser = playwright.chromium().launch(launchOptions(headless));
-                }
-            }
-            BrowserContext tempCtx = browser.newContext(
-                    new Browser.NewContextOptions()
-                            .setStorageStatePath(sessionPath)
-                            .setViewportSize(1280, 900));
-            Page page = tempCtx.newPage();
-            try {
-                page.navigate("https://mail.google.com/mail/u/0/");
-                page.waitForSelector("[gh='cm'], .T-I.T-I-KE",
-                        new Page.WaitForSelectorOptions().setTimeout(20_000));
-                String email = extractEmailFromTitle(page.title());
-                if (email != null) log.info("detectEmailSync: detected {}", email);
-                else log.warn("detectEmailSync: could not parse email from title '{}'", page.title());
-                return email;
-            } finally {
-                try { page.close(); }    catch (Exception ignored) {}
-                try { tempCtx.close(); } catch (Exception ignored) {}
-            }
-        } catch (Exception e) {
-            log.warn("detectEmailSync failed: {}", e.getMessage());
-            return null;
-        }
-    }
-
-    /**
-     * Parses the Gmail account email from the Gmail inbox page title.
-     * Typical formats:
-     *   "Inbox - user@example.com - Gmail"
-     *   "Inbox (5) - user@example.com - Gmail"
-     */
-    private String extractEmailFromTitle(String title) {
-        if (title == null) return null;
-        for (String part : title.split(" - ")) {
-            part = part.trim();
-            if (part.contains("@") && part.contains(".")) {
-                return part;
-            }
-        }
-        return null;
+        awaitReady();
+        return backend.detectEmail(sessionPath);
     }
 
     // ─── Backward-Compat Accessors ────────────────────────────────────────────
@@ -401,14 +551,6 @@ public class PlaywrightSessionService {
 
     @PreDestroy
     public void cleanup() {
-        invalidateCachedContext();
-        if (browser != null) {
-            try { browser.close(); } catch (Exception ignored) {}
-            browser = null;
-        }
-        if (playwright != null) {
-            try { playwright.close(); } catch (Exception ignored) {}
-            playwright = null;
-        }
+        if (backend != null) backend.close();
     }
 }
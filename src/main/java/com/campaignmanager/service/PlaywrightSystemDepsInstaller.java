@@ -1,12 +1,23 @@
 package com.campaignmanager.service;
 
-import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Installs Playwright/Chromium system library dependencies in Cloud Foundry.
@@ -14,7 +25,8 @@ import java.util.List;
  * CF containers use cflinuxfs4 (Ubuntu 22.04) but do not pre-install graphics
  * and accessibility libs (libgbm1, libatk-bridge2.0-0, etc.) that Chromium needs.
  * Since we deploy a single JAR (path: dist/campaign-manager-1.0.0.jar), we cannot
- * use .profile.d scripts. Instead this bean runs at startup before Playwright.create():
+ * use .profile.d scripts. Instead {@link #ensureInstalled()} runs before Playwright.create()
+ * — on the session service's background init thread, so it never delays startup:
  *
  *  1. apt-get download  — downloads .deb packages (no root needed; reads the
  *                         existing Ubuntu package lists in /var/lib/apt/lists/)
@@ -24,6 +36,13 @@ import java.util.List;
  *                         Playwright.CreateOptions.setEnv(), so the Playwright
  *                         Node.js driver and Chromium subprocess pick up the libs.
  *
+ * Downloaded .debs are kept in a content-addressed cache ({@code debs/<sha256>.deb})
+ * with a lock file per stack + package list naming the exact files.  An instance
+ * whose cache already has a lock for its key skips apt-get entirely and just
+ * extracts the cached .debs, in parallel.  Point {@code playwright.system-deps.cache-dir}
+ * (or PLAYWRIGHT_DEPS_CACHE) at a mounted volume to share the cache across instances;
+ * by default it lives next to the sysroot and only survives app restarts.
+ *
  * Runs only when the CF_INSTANCE_GUID / VCAP_APPLICATION env var is present (i.e.
  * running on CF). Skipped on local dev where system libs are already available.
  */
@@ -36,6 +55,7 @@ public class PlaywrightSystemDepsInstaller {
     private static final Path MARKER  = DEPS_DIR.resolve(".installed");
     private static final Path DEBS    = DEPS_DIR.resolve("debs");
     private static final Path SYSROOT = DEPS_DIR.resolve("sysroot");
+    private static final int EXTRACT_THREADS = 4;
 
     private static final List<String> PACKAGES = List.of(
             "libnss3", "libnspr4",
@@ -55,24 +75,42 @@ public class PlaywrightSystemDepsInstaller {
             "libwayland-cursor0", "libwayland-egl1", "libwayland-client0" // required by libgtk-3-0
     );
 
+    @Value("${playwright.system-deps.cache-dir:${PLAYWRIGHT_DEPS_CACHE:}}")
+    private String cacheDir;
+
     /** True when running in a Cloud Foundry container. */
     public boolean isCloudFoundry() {
         return System.getenv("CF_INSTANCE_GUID") != null
                 || System.getenv("VCAP_APPLICATION") != null;
     }
 
-    @PostConstruct
-    public void setup() {
+    private volatile boolean done = false;
+
+    /**
+     * Downloads and extracts the libs once per container (idempotent; later calls return
+     * immediately).  Slow on a fresh container, so call it off the startup path.
+     */
+    public synchronized void ensureInstalled() {
+        if (done) return;
+        done = true;
         if (!isCloudFoundry()) {
             log.debug("PlaywrightSystemDepsInstaller: not on CF, skipping.");
             return;
         }
         try {
-            if (!Files.exists(MARKER)) {
-                downloadAndExtract();
-            } else {
+            String key = cacheKey();
+            if (Files.exists(MARKER) && key.equals(Files.readString(MARKER).trim())) {
                 log.info("PlaywrightSystemDepsInstaller: libs already extracted, skipping download.");
+                return;
             }
+            List<Path> debs = cachedDebs(key);
+            if (debs == null) {
+                debs = downloadToCache(key);
+            } else {
+                log.info("PlaywrightSystemDepsInstaller: {} cached packages for key {}, skipping apt-get.",
+                         debs.size(), key.substring(0, 12));
+            }
+            extract(debs, key);
         } catch (Exception e) {
             log.error("PlaywrightSystemDepsInstaller: setup failed — {}", e.getMessage());
         }
@@ -81,7 +119,7 @@ public class PlaywrightSystemDepsInstaller {
     /**
      * Returns the LD_LIBRARY_PATH value that includes the extracted sysroot lib dirs.
      * Returns null when not on CF (no patching needed on local dev).
-     * Call this after {@link #setup()} to pass to {@code Playwright.CreateOptions.setEnv()}.
+     * Call this after {@link #ensureInstalled()} to pass to {@code Playwright.CreateOptions.setEnv()}.
      */
     public String getLibraryPath() {
         if (!isCloudFoundry()) return null;
@@ -91,10 +129,111 @@ public class PlaywrightSystemDepsInstaller {
         return lib64 + ":" + lib + (current != null ? ":" + current : "");
     }
 
-    private void downloadAndExtract() throws Exception {
+    // ─── Cache ────────────────────────────────────────────────────────────────
+
+    private Path cacheRoot() {
+        return cacheDir == null || cacheDir.isBlank() ? DEPS_DIR.resolve("cache") : Path.of(cacheDir);
+    }
+
+    /**
+     * Identifies the set of libs this container needs: the stack (the libs must match
+     * its glibc and Ubuntu release) plus the package list.  Versions are pinned by the
+     * lock file written under this key, so a stack update starts a fresh entry.
+     */
+    private String cacheKey() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        sb.append(System.getenv().getOrDefault("CF_STACK", "")).append('\n');
+        Path osRelease = Path.of("/etc/os-release");
+        if (Files.exists(osRelease)) sb.append(Files.readString(osRelease)).append('\n');
+        sb.append(System.getProperty("os.arch")).append('\n');
+        new TreeSet<>(PACKAGES).forEach(p -> sb.append(p).append('\n'));
+        return sha256(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Path lockFile(String key) {
+        return cacheRoot().resolve("locks").resolve(key + ".lock");
+    }
+
+    /**
+     * The cached .debs for {@code key}, or null when there is no lock for it or any
+     * file it names is missing or corrupt.  Lock lines are {@code <sha256> <apt file name>}.
+     */
+    private List<Path> cachedDebs(String key) throws Exception {
+        Path lock = lockFile(key);
+        if (!Files.exists(lock)) return null;
+        List<Path> debs = new ArrayList<>();
+        for (String line : Files.readAllLines(lock)) {
+            if (line.isBlank()) continue;
+            String hash = line.split(" ", 2)[0];
+            Path deb = cacheRoot().resolve("debs").resolve(hash + ".deb");
+            if (!Files.exists(deb) || !hash.equals(sha256(deb))) {
+                log.warn("PlaywrightSystemDepsInstaller: cache entry {} missing or corrupt, re-downloading.", line);
+                return null;
+            }
+            debs.add(deb);
+        }
+        return debs.isEmpty() ? null : debs;
+    }
+
+    /** Downloads the packages with apt-get and stores them in the cache under {@code key}. */
+    private List<Path> downloadToCache(String key) throws Exception {
+        boolean complete = download();
+
+        Path store = cacheRoot().resolve("debs");
+        Files.createDirectories(store);
+        Files.createDirectories(lockFile(key).getParent());
+
+        List<Path> debs = new ArrayList<>();
+        StringBuilder lock = new StringBuilder();
+        try (var files = Files.list(DEBS)) {
+            for (Path deb : files.filter(f -> f.toString().endsWith(".deb")).sorted().toList()) {
+                String hash = sha256(deb);
+                Path cached = store.resolve(hash + ".deb");
+                if (!Files.exists(cached)) {
+                    // Copy then rename so a concurrent reader never sees a partial file.
+                    Path tmp = store.resolve(hash + ".deb.tmp-" + ProcessHandle.current().pid());
+                    Files.copy(deb, tmp, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+                debs.add(cached);
+                lock.append(hash).append(' ').append(deb.getFileName()).append('\n');
+            }
+        }
+
+        // A partial download is still extracted, but not locked in for other instances.
+        if (complete && !debs.isEmpty()) {
+            Path tmp = lockFile(key).resolveSibling(key + ".lock.tmp-" + ProcessHandle.current().pid());
+            Files.writeString(tmp, lock);
+            Files.move(tmp, lockFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("PlaywrightSystemDepsInstaller: cached {} packages under {}", debs.size(), cacheRoot());
+        }
+        return debs;
+    }
+
+    private static String sha256(Path file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buf = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buf)) > 0) digest.update(buf, 0, n);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    }
+
+    // ─── apt-get / dpkg-deb ───────────────────────────────────────────────────
+
+    /** Runs apt-get update + download into DEBS; true when every package was downloaded. */
+    private boolean download() throws Exception {
         log.info("PlaywrightSystemDepsInstaller: downloading Chromium system libs...");
         Files.createDirectories(DEBS);
-        Files.createDirectories(SYSROOT);
+        // Leftovers from an earlier download would end up in the new lock file.
+        try (var files = Files.list(DEBS)) {
+            for (Path f : files.filter(f -> f.toString().endsWith(".deb")).toList()) Files.delete(f);
+        }
 
         // apt-get needs a writable lists directory.  In CF containers the system
         // /var/lib/apt/lists/ is often empty or stale, so we run apt-get update
@@ -120,7 +259,7 @@ public class PlaywrightSystemDepsInstaller {
         }
 
         // apt-get download saves .deb files to the current directory; no root needed.
-        var cmd = new java.util.ArrayList<String>();
+        var cmd = new ArrayList<String>();
         cmd.add("apt-get");
         cmd.add("-o");
         cmd.add(listsArg);
@@ -137,30 +276,51 @@ public class PlaywrightSystemDepsInstaller {
             log.warn("PlaywrightSystemDepsInstaller: apt-get download exit code {}; " +
                      "some libs may be missing", rc);
         }
+        return rc == 0;
+    }
 
-        // dpkg-deb -x extracts to an arbitrary directory; no root needed.
-        long extractedCount;
-        try (var files = Files.list(DEBS)) {
-            extractedCount = files.filter(f -> f.toString().endsWith(".deb"))
-                    .peek(deb -> {
-                        try {
-                            new ProcessBuilder("dpkg-deb", "-x",
-                                    deb.toAbsolutePath().toString(),
-                                    SYSROOT.toAbsolutePath().toString())
-                                    .redirectErrorStream(true)
-                                    .start()
-                                    .waitFor();
-                        } catch (Exception e) {
-                            log.warn("PlaywrightSystemDepsInstaller: failed to extract {}: {}",
-                                     deb.getFileName(), e.getMessage());
-                        }
-                    })
-                    .count();
+    /**
+     * Extracts the .debs into the sysroot, several at once (each dpkg-deb is mostly
+     * waiting on decompression and disk), then writes the marker for {@code key}.
+     */
+    private void extract(List<Path> debs, String key) throws Exception {
+        Files.createDirectories(SYSROOT);
+        AtomicInteger extracted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(EXTRACT_THREADS, r -> {
+            Thread t = new Thread(r, "playwright-deps-extract");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Path deb : debs) {
+                // dpkg-deb -x extracts to an arbitrary directory; no root needed.
+                futures.add(pool.submit(() -> {
+                    try {
+                        int rc = new ProcessBuilder("dpkg-deb", "-x",
+                                deb.toAbsolutePath().toString(),
+                                SYSROOT.toAbsolutePath().toString())
+                                .redirectErrorStream(true)
+                                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                                .start()
+                                .waitFor();
+                        if (rc == 0) extracted.incrementAndGet();
+                        else log.warn("PlaywrightSystemDepsInstaller: dpkg-deb exit code {} for {}",
+                                      rc, deb.getFileName());
+                    } catch (Exception e) {
+                        log.warn("PlaywrightSystemDepsInstaller: failed to extract {}: {}",
+                                 deb.getFileName(), e.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdown();
         }
 
-        log.info("PlaywrightSystemDepsInstaller: extracted {} packages to {}", extractedCount, SYSROOT);
-        if (extractedCount > 0) {
-            Files.writeString(MARKER, "installed");
+        log.info("PlaywrightSystemDepsInstaller: extracted {} packages to {}", extracted.get(), SYSROOT);
+        if (extracted.get() > 0) {
+            Files.writeString(MARKER, key);
         } else {
             log.warn("PlaywrightSystemDepsInstaller: no packages extracted — marker NOT written, " +
                      "will retry on next startup");
@@ -0,0 +1,119 @@
+package com.campaignmanager.storage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps the blob store and the document tables in step:
+ * <ul>
+ *   <li>after startup, moves documents still held in file_content columns into the
+ *       store, one row at a time, and empties the column;</li>
+ *   <li>periodically deletes blobs no row refers to any more (deleted briefings and
+ *       plans, uploads whose transaction rolled back).</li>
+ * </ul>
+ * Both do nothing when no store is configured.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BlobMigrator {
+
+    /** Tables whose rows carry file_content / content_hash / content_size. */
+    private static final List<String> DOCUMENT_TABLES = List.of("client_briefings", "campaign_plan_documents");
+
+    private static final int BATCH_SIZE = 50;
+
+    private final BlobStore blobStore;
+    private final JdbcTemplate jdbcTemplate;
+
+    /** A blob younger than this may belong to an upload whose row is not committed yet. */
+    @Value("${storage.blobs.orphan-min-age-minutes:60}")
+    private long orphanMinAgeMinutes;
+
+    // ─── Legacy column → store ────────────────────────────────────────────────
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyContent() {
+        if (!blobStore.isEnabled()) return;
+        for (String table : DOCUMENT_TABLES) {
+            try {
+                int moved = migrateTable(table);
+                if (moved > 0) log.info("Moved {} document(s) from {}.file_content into the blob store", moved, table);
+            } catch (Exception e) {
+                log.error("Moving {} documents into the blob store stopped: {}", table, e.getMessage(), e);
+            }
+        }
+    }
+
+    private int migrateTable(String table) {
+        int moved = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM " + table + " WHERE file_content IS NOT NULL"
+                            + " AND id > ? ORDER BY id LIMIT " + BATCH_SIZE, Long.class, afterId);
+            if (ids.isEmpty()) return moved;
+            for (Long id : ids) {
+                try {
+                    if (migrateRow(table, id)) moved++;
+                } catch (Exception e) {
+                    // Left in the column; retried on the next startup
+                    log.warn("Could not move {} {} into the blob store: {}", table, id, e.getMessage());
+                }
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+    }
+
+    /** Streams one row's content into the store, then empties the column. */
+    private boolean migrateRow(String table, Long id) {
+        StoredBlob blob = jdbcTemplate.query("SELECT file_content FROM " + table + " WHERE id = ?", rs -> {
+            if (!rs.next()) return null;
+            try (InputStream in = rs.getBinaryStream(1)) {
+                return in == null ? null : blobStore.put(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, id);
+        if (blob == null) return false;
+        return jdbcTemplate.update("UPDATE " + table
+                + " SET content_hash = ?, content_size = ?, file_content = NULL"
+                + " WHERE id = ? AND file_content IS NOT NULL", blob.hash(), blob.size(), id) == 1;
+    }
+
+    // ─── Orphan sweep ─────────────────────────────────────────────────────────
+
+    @Scheduled(initialDelayString = "PT10M", fixedDelayString = "PT6H")
+    public void deleteOrphans() {
+        if (!blobStore.isEnabled()) return;
+        try {
+            Set<String> orphans = new HashSet<>(blobStore.hashes());
+            for (String table : DOCUMENT_TABLES) {
+                orphans.removeAll(jdbcTemplate.queryForList(
+                        "SELECT DISTINCT content_hash FROM " + table + " WHERE content_hash IS NOT NULL", String.class));
+            }
+            long minAgeMillis = orphanMinAgeMinutes * 60_000;
+            for (String hash : orphans) {
+                blobStore.deleteIfOlderThan(hash, minAgeMillis);
+            }
+            if (!orphans.isEmpty()) log.info("Blob sweep: {} unreferenced blob(s) checked for deletion", orphans.size());
+        } catch (Exception e) {
+            log.warn("Blob sweep failed: {}", e.getMessage());
+        }
+    }
+}
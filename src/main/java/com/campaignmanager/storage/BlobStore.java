@@ -0,0 +1,32 @@
+package com.campaignmanager.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * Content-addressed storage for uploaded files: a blob is written once and found by
+ * the SHA-256 of its bytes, so the same file uploaded twice is stored once.  The
+ * database keeps only the hash (and the file's metadata).
+ */
+public interface BlobStore {
+
+    /** False when no store is configured; callers then keep content in the database. */
+    boolean isEnabled();
+
+    /** Streams {@code content} into the store (the caller closes it). */
+    StoredBlob put(InputStream content) throws IOException;
+
+    InputStream open(String hash) throws IOException;
+
+    /** The blob as a Spring resource (length, ranges), for serving it over HTTP. */
+    Resource resource(String hash);
+
+    /** Every stored hash; used to find blobs nothing refers to any more. */
+    Set<String> hashes() throws IOException;
+
+    /** Deletes the blob if it is older than {@code minAgeMillis} (uploads in flight are younger). */
+    void deleteIfOlderThan(String hash, long minAgeMillis) throws IOException;
+}
@@ -0,0 +1,126 @@
+package com.campaignmanager.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link BlobStore} on a local directory or mounted volume ({@code storage.blobs.dir}).
+ *
+ * Blobs live at {@code <dir>/ab/cd/<sha256>}.  A write streams into a temp file under
+ * {@code <dir>/tmp} while hashing, then moves it into place, so readers never see a
+ * partial file and two uploads of the same content end up as one file.
+ */
+@Component
+@Slf4j
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public FileSystemBlobStore(@Value("${storage.blobs.dir:}") String dir) throws IOException {
+        this.root = dir == null || dir.isBlank() ? null : Paths.get(dir).toAbsolutePath().normalize();
+        if (root != null) {
+            Files.createDirectories(root.resolve("tmp"));
+            log.info("Blob store at {}", root);
+        } else {
+            log.info("No blob store configured (storage.blobs.dir); documents stay in the database");
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return root != null;
+    }
+
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        requireEnabled();
+        Path tmp = Files.createTempFile(root.resolve("tmp"), "upload-", ".part");
+        try {
+            MessageDigest sha256 = StoredBlob.sha256();
+            long size;
+            try (DigestInputStream in = new DigestInputStream(content, sha256);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                size = in.transferTo(out);
+            }
+            String hash = HexFormat.of().formatHex(sha256.digest());
+            Path target = path(hash);
+            if (Files.exists(target)) {
+                // Already stored; touch it so a concurrent sweep keeps it.
+                Files.setLastModifiedTime(target, Files.getLastModifiedTime(tmp));
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Same content written concurrently — either copy will do.
+                }
+            }
+            return new StoredBlob(hash, size);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @Override
+    public InputStream open(String hash) throws IOException {
+        requireEnabled();
+        return Files.newInputStream(path(hash));
+    }
+
+    @Override
+    public Resource resource(String hash) {
+        requireEnabled();
+        return new FileSystemResource(path(hash));
+    }
+
+    @Override
+    public Set<String> hashes() throws IOException {
+        if (root == null) return Set.of();
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            return files.filter(Files::isRegularFile)
+                    .map(p -> p.getFileName().toString())
+                    .filter(name -> HASH.matcher(name).matches())
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    @Override
+    public void deleteIfOlderThan(String hash, long minAgeMillis) throws IOException {
+        requireEnabled();
+        Path file = path(hash);
+        if (Files.exists(file)
+                && System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis() >= minAgeMillis) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Path path(String hash) {
+        if (!HASH.matcher(hash).matches()) throw new IllegalArgumentException("Not a blob hash: " + hash);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private void requireEnabled() {
+        if (root == null) throw new IllegalStateException("No blob store configured (storage.blobs.dir)");
+    }
+}
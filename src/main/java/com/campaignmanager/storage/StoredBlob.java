@@ -0,0 +1,22 @@
+package com.campaignmanager.storage;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/** A blob as written to a {@link BlobStore}: its SHA-256 (hex) and size in bytes. */
+public record StoredBlob(String hash, long size) {
+
+    /** The hash and size {@code content} would be stored under. */
+    public static StoredBlob of(byte[] content) {
+        return new StoredBlob(HexFormat.of().formatHex(sha256().digest(content)), content.length);
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.campaignmanager.util;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A single-sheet CSV file (e.g. one tab of a Google Sheets CSV export) read as a
+ * {@link WorkbookRowReader}.  Records are parsed as they are consumed.
+ *
+ * CSV carries displayed text only: values are trimmed and blank ones are null, as for
+ * workbook cells, but there are no date cells ({@link SheetRow#getDate} is always null)
+ * and formulas arrive as their results.
+ */
+final class CsvRowReader implements WorkbookRowReader {
+
+    private final CSVParser parser;
+    private boolean consumed;
+
+    CsvRowReader(InputStream in) throws IOException {
+        this.parser = CSVFormat.DEFAULT.parse(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public List<String> sheetNames() {
+        return List.of("Sheet1");
+    }
+
+    @Override
+    public Iterator<SheetRow> rows(int index) {
+        if (index != 0) throw new IllegalArgumentException("Sheet index " + index + " out of range");
+        if (consumed) throw new IllegalStateException("CSV rows can only be read once");
+        consumed = true;
+        Iterator<CSVRecord> records = parser.iterator();
+        return new Iterator<>() {
+            @Override public boolean hasNext() { return records.hasNext(); }
+            @Override public SheetRow next() { return toRow(records.next()); }
+        };
+    }
+
+    private static SheetRow toRow(CSVRecord record) {
+        List<String> values = new ArrayList<>(record.size());
+        int lastCol = -1;
+        for (int col = 0; col < record.size(); col++) {
+            String value = record.get(col).trim();
+            values.add(value.isEmpty() ? null : value);
+            if (!value.isEmpty()) lastCol = col;
+        }
+        return new CsvRow((int) record.getRecordNumber(), lastCol, values);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private record CsvRow(int rowNum, int lastColumn, List<String> values) implements SheetRow {
+
+        @Override
+        public String getString(int col) {
+            return col < 0 || col >= values.size() ? null : values.get(col);
+        }
+
+        @Override
+        public LocalDateTime getDate(int col) {
+            return null;
+        }
+    }
+}
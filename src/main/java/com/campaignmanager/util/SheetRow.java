@@ -0,0 +1,30 @@
+package com.campaignmanager.util;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of a spreadsheet, as produced by {@link WorkbookRowReader}.
+ *
+ * Cell typing follows the rules the Excel import has always used:
+ * <ul>
+ *   <li>text cells are trimmed;</li>
+ *   <li>whole numbers print without a decimal point ({@code 42}, not {@code 42.0});</li>
+ *   <li>booleans print as {@code true} / {@code false};</li>
+ *   <li>formula cells return the formula text;</li>
+ *   <li>blank and error cells are null.</li>
+ * </ul>
+ */
+public interface SheetRow {
+
+    /** 1-based row number in the sheet. */
+    int rowNum();
+
+    /** Index of the last non-empty cell, or -1 if the row has none. */
+    int lastColumn();
+
+    /** The cell's value as text, or null when blank or {@code col < 0}. */
+    String getString(int col);
+
+    /** The cell's value when it is a date-formatted number, otherwise null. */
+    LocalDateTime getDate(int col);
+}
@@ -0,0 +1,49 @@
+package com.campaignmanager.util;
+
+import org.apache.poi.poifs.filesystem.FileMagic;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads spreadsheet rows one at a time.
+ *
+ * .xlsx files are streamed with POI's event model (shared strings + a StAX pass over
+ * the sheet XML), so heap use stays flat however many rows the sheet has.  Legacy .xls
+ * files have no streaming reader in POI and are loaded as a workbook; the 10 MB upload
+ * limit keeps those small.  Both present rows as {@link SheetRow} with the same typing.
+ * A CSV file can be read the same way as a one-sheet workbook ({@link #openCsv}).
+ *
+ * Rows must be consumed before the reader is closed.
+ */
+public interface WorkbookRowReader extends Closeable {
+
+    /** Opens a workbook, detecting .xlsx vs .xls from the content. */
+    static WorkbookRowReader open(InputStream in) throws IOException {
+        InputStream stream = FileMagic.prepareToCheckMagic(in);
+        if (FileMagic.valueOf(stream) == FileMagic.OLE2) {
+            return new XlsRowReader(stream);
+        }
+        return XlsxRowReader.open(stream);
+    }
+
+    /** Opens a UTF-8 CSV file as a one-sheet workbook (see {@link CsvRowReader}). */
+    static WorkbookRowReader openCsv(InputStream in) throws IOException {
+        return new CsvRowReader(in);
+    }
+
+    /** Sheet names in workbook order. */
+    List<String> sheetNames();
+
+    /** Rows of the sheet at {@code index}, in order; rows absent from the file are skipped. */
+    Iterator<SheetRow> rows(int index) throws IOException;
+
+    /** Rows of the named sheet, or null if the workbook has no such sheet. */
+    default Iterator<SheetRow> rows(String name) throws IOException {
+        int index = sheetNames().indexOf(name);
+        return index < 0 ? null : rows(index);
+    }
+}
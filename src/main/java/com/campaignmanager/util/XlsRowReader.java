@@ -0,0 +1,83 @@
+package com.campaignmanager.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/** {@link WorkbookRowReader} for legacy .xls files, backed by an in-memory workbook. */
+final class XlsRowReader implements WorkbookRowReader {
+
+    private final Workbook workbook;
+
+    XlsRowReader(InputStream in) throws IOException {
+        this.workbook = WorkbookFactory.create(in);
+    }
+
+    @Override
+    public List<String> sheetNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < workbook.getNumberOfSheets(); i++) names.add(workbook.getSheetName(i));
+        return names;
+    }
+
+    @Override
+    public Iterator<SheetRow> rows(int index) {
+        Sheet sheet = workbook.getSheetAt(index);
+        Iterator<Row> rows = sheet.iterator();
+        return new Iterator<>() {
+            @Override public boolean hasNext() { return rows.hasNext(); }
+            @Override public SheetRow next() { return new PoiRow(rows.next()); }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.close();
+    }
+
+    private record PoiRow(Row row) implements SheetRow {
+
+        @Override
+        public int rowNum() { return row.getRowNum() + 1; }
+
+        @Override
+        public int lastColumn() { return row.getLastCellNum() - 1; }
+
+        @Override
+        public String getString(int col) {
+            Cell cell = cell(col);
+            if (cell == null) return null;
+            return switch (cell.getCellType()) {
+                case STRING  -> cell.getStringCellValue().trim();
+                case NUMERIC -> XlsxRowReader.formatNumber(cell.getNumericCellValue());
+                case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
+                case FORMULA -> cell.getCellFormula();
+                default -> null;
+            };
+        }
+
+        @Override
+        public LocalDateTime getDate(int col) {
+            Cell cell = cell(col);
+            if (cell != null && cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
+                return cell.getLocalDateTimeCellValue();
+            }
+            return null;
+        }
+
+        private Cell cell(int col) {
+            return col < 0 ? null : row.getCell(col, Row.MissingCellPolicy.RETURN_BLANK_AS_NULL);
+        }
+    }
+}
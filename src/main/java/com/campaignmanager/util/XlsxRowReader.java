@@ -0,0 +1,278 @@
+package com.campaignmanager.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming {@link WorkbookRowReader} for .xlsx files.
+ *
+ * The upload is spooled to a temp file so the package is read through a ZipFile
+ * rather than unpacked into memory.  Shared strings and styles are loaded once (both
+ * are small next to the sheet); the sheet XML itself is pulled one row at a time, so
+ * only the current row is ever held.
+ */
+final class XlsxRowReader implements WorkbookRowReader {
+
+    private static final XMLInputFactory XML = XMLHelper.newXMLInputFactory();
+
+    private final Path file;
+    private final OPCPackage pkg;
+    private final XSSFReader reader;
+    private final SharedStrings strings;
+    private final StylesTable styles;
+    private final boolean date1904;
+    private final List<String> sheetNames = new ArrayList<>();
+    private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+    private final List<RowIterator> openSheets = new ArrayList<>();
+
+    static XlsxRowReader open(InputStream in) throws IOException {
+        Path file = Files.createTempFile("workbook-", ".xlsx");
+        try {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            return new XlsxRowReader(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    private XlsxRowReader(Path file) throws IOException {
+        this.file = file;
+        OPCPackage opened = null;
+        try {
+            opened = OPCPackage.open(file.toFile(), PackageAccess.READ);
+            this.reader = new XSSFReader(opened);
+            this.strings = new ReadOnlySharedStringsTable(opened);
+            this.styles = reader.getStylesTable();
+            this.date1904 = readDate1904();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                sheetNames.add(sheets.getSheetName());
+            }
+            this.pkg = opened;
+        } catch (IOException e) {
+            if (opened != null) opened.revert();
+            throw e;
+        } catch (Exception e) {
+            if (opened != null) opened.revert();
+            throw new IOException("Not a readable .xlsx file: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<String> sheetNames() {
+        return List.copyOf(sheetNames);
+    }
+
+    @Override
+    public Iterator<SheetRow> rows(int index) throws IOException {
+        if (index < 0 || index >= sheetNames.size()) {
+            throw new IllegalArgumentException("Sheet index " + index + " out of range");
+        }
+        try {
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            for (int i = 0; i < index; i++) sheets.next().close();
+            RowIterator rows = new RowIterator(sheets.next());
+            openSheets.add(rows);
+            return rows;
+        } catch (OpenXML4JException | XMLStreamException e) {
+            throw new IOException("Could not read sheet " + index + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        openSheets.forEach(RowIterator::close);
+        pkg.revert();
+        Files.deleteIfExists(file);
+    }
+
+    /** Whole numbers without a decimal point, as the import has always printed them. */
+    static String formatNumber(double v) {
+        return (v == Math.floor(v)) ? String.valueOf((long) v) : String.valueOf(v);
+    }
+
+    private boolean readDate1904() throws IOException, OpenXML4JException, XMLStreamException {
+        try (InputStream in = reader.getWorkbookData()) {
+            XMLStreamReader xml = XML.createXMLStreamReader(in);
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "workbookPr".equals(xml.getLocalName())) {
+                        String v = xml.getAttributeValue(null, "date1904");
+                        return "1".equals(v) || "true".equalsIgnoreCase(v);
+                    }
+                }
+                return false;
+            } finally {
+                xml.close();
+            }
+        }
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        return dateStyles.computeIfAbsent(styleIndex, i -> {
+            if (styles == null || i >= styles.getNumCellStyles()) return false;
+            XSSFCellStyle style = styles.getStyleAt(i);
+            return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+        });
+    }
+
+    // ─── Sheet XML ────────────────────────────────────────────────────────────
+
+    private final class RowIterator implements Iterator<SheetRow> {
+        private final InputStream in;
+        private final XMLStreamReader xml;
+        private SheetRow next;
+        private int lastRowNum = 0;
+        private boolean done = false;
+
+        RowIterator(InputStream in) throws XMLStreamException {
+            this.in = in;
+            this.xml = XML.createXMLStreamReader(in);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = readRow();
+                } catch (XMLStreamException e) {
+                    throw new IllegalStateException("Malformed sheet XML: " + e.getMessage(), e);
+                }
+                if (next == null) {
+                    done = true;
+                    close();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public SheetRow next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            SheetRow row = next;
+            next = null;
+            return row;
+        }
+
+        void close() {
+            try { xml.close(); } catch (XMLStreamException ignored) {}
+            try { in.close(); } catch (IOException ignored) {}
+        }
+
+        /** Advances to the next {@code <row>} and reads it whole; null at the end of the sheet. */
+        private SheetRow readRow() throws XMLStreamException {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                    String r = xml.getAttributeValue(null, "r");
+                    int rowNum = r != null ? Integer.parseInt(r) : lastRowNum + 1;
+                    lastRowNum = rowNum;
+                    return readCells(rowNum);
+                }
+            }
+            return null;
+        }
+
+        private SheetRow readCells(int rowNum) throws XMLStreamException {
+            Map<Integer, String> text = new HashMap<>();
+            Map<Integer, LocalDateTime> dates = new HashMap<>();
+            int col = -1;
+            int lastCol = -1;
+
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) break;
+                if (event != XMLStreamConstants.START_ELEMENT || !"c".equals(xml.getLocalName())) continue;
+
+                String ref = xml.getAttributeValue(null, "r");
+                col = ref != null ? new CellReference(ref).getCol() : col + 1;
+                String type = xml.getAttributeValue(null, "t");
+                String s = xml.getAttributeValue(null, "s");
+                int style = s != null ? Integer.parseInt(s) : 0;
+
+                String value = null, formula = null;
+                StringBuilder inline = null;
+                while (xml.hasNext()) {
+                    event = xml.next();
+                    if (event == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) break;
+                    if (event != XMLStreamConstants.START_ELEMENT) continue;
+                    switch (xml.getLocalName()) {
+                        case "v" -> value = xml.getElementText();
+                        case "f" -> formula = xml.getElementText();
+                        case "t" -> (inline != null ? inline : (inline = new StringBuilder())).append(xml.getElementText());
+                        default -> { }
+                    }
+                }
+
+                String cellText;
+                if (formula != null && !formula.isEmpty()) {
+                    cellText = formula;
+                } else if ("s".equals(type)) {
+                    cellText = value != null ? strings.getItemAt(Integer.parseInt(value)).getString().trim() : null;
+                } else if ("inlineStr".equals(type)) {
+                    cellText = inline != null ? inline.toString().trim() : null;
+                } else if ("str".equals(type)) {
+                    cellText = value != null ? value.trim() : null;
+                } else if ("b".equals(type)) {
+                    cellText = value != null ? String.valueOf("1".equals(value)) : null;
+                } else if ("e".equals(type) || value == null || value.isEmpty()) {
+                    cellText = null;
+                } else {
+                    double d = Double.parseDouble(value);
+                    cellText = formatNumber(d);
+                    if (isDateStyle(style) && DateUtil.isValidExcelDate(d)) {
+                        dates.put(col, DateUtil.getLocalDateTime(d, date1904));
+                    }
+                }
+
+                if (cellText != null) {
+                    text.put(col, cellText);
+                    lastCol = Math.max(lastCol, col);
+                }
+            }
+            return new StreamedRow(rowNum, lastCol, text, dates);
+        }
+    }
+
+    private record StreamedRow(int rowNum, int lastColumn,
+                               Map<Integer, String> text,
+                               Map<Integer, LocalDateTime> dates) implements SheetRow {
+
+        @Override
+        public String getString(int col) {
+            return col < 0 ? null : text.get(col);
+        }
+
+        @Override
+        public LocalDateTime getDate(int col) {
+            return col < 0 ? null : dates.get(col);
+        }
+    }
+}
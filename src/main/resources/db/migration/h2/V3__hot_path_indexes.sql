@@ -0,0 +1,31 @@
+-- Composite indexes for the hot queries. Plans captured with H2 EXPLAIN on a seeded copy
+-- of the V1 schema (20 users, 400 campaigns, 20k contacts, 140k email jobs; ANALYZE run);
+-- MySQL gets the same set (mysql/V3__hot_path_indexes.sql).
+
+-- EmailScheduler.findDueJobs, the prewarm look-ahead and the dashboard counts filter on
+-- status (+ scheduled_at):
+--   before: SELECT * FROM email_jobs WHERE status = 'SCHEDULED' AND scheduled_at <= ?
+--           /* PUBLIC.EMAIL_JOBS.tableScan */
+--   after:  /* PUBLIC.IDX_EMAIL_JOBS_STATUS_SCHEDULED: STATUS = 'SCHEDULED' AND SCHEDULED_AT <= ? */
+--   (countByStatus: tableScan -> IDX_EMAIL_JOBS_STATUS_SCHEDULED: STATUS = 'SENT')
+CREATE INDEX IF NOT EXISTS idx_email_jobs_status_scheduled ON email_jobs (status, scheduled_at);
+
+-- Import: "which steps does this enrollment already have" (findJobSteps, existsBy...StepNumber):
+--   before: /* PUBLIC.FK..._INDEX: CAMPAIGN_CONTACT_ID = ? */, step_number checked row by row
+--   after:  /* PUBLIC.IDX_EMAIL_JOBS_CC_STEP: CAMPAIGN_CONTACT_ID = ? AND STEP_NUMBER = ? */
+CREATE INDEX IF NOT EXISTS idx_email_jobs_cc_step ON email_jobs (campaign_contact_id, step_number);
+
+-- Per-owner contact index built once per import (SELECT id, email ... WHERE owner_id = ?)
+-- and contact lists by owner:
+--   before: /* PUBLIC.FK..._INDEX: OWNER_ID = ? */, email fetched from each row
+--   after:  /* PUBLIC.IDX_CONTACTS_OWNER_EMAIL: OWNER_ID = ? */, email (and id) in the index
+CREATE INDEX IF NOT EXISTS idx_contacts_owner_email ON contacts (owner_id, email);
+
+-- Dashboard / campaign lists: countByStatusAndOwner, findByStatusAndOwner:
+--   before: /* PUBLIC.FK..._INDEX: OWNER_ID = ? */, status filtered row by row
+--   after:  /* PUBLIC.IDX_CAMPAIGNS_OWNER_STATUS: STATUS = ? AND OWNER_ID = ? */
+CREATE INDEX IF NOT EXISTS idx_campaigns_owner_status ON campaigns (owner_id, status);
+
+-- campaign_contacts(campaign_id) is not added: the (campaign_id, contact_id) unique key
+-- already leads with it, and findByCampaignId uses it:
+--   /* PUBLIC.UKH6438GKMYXOUFSY1B703W5CCV_INDEX: CAMPAIGN_ID = ? */
@@ -0,0 +1,11 @@
+-- Job listings page newest first on (scheduled_at, id) (EmailJobRepository.findPage).
+-- Plans captured as for V3:
+--   before: SELECT * FROM email_jobs ORDER BY scheduled_at DESC, id DESC LIMIT 101
+--           /* PUBLIC.EMAIL_JOBS.tableScan */, all 140k rows sorted for every page
+--   after:  /* PUBLIC.IDX_EMAIL_JOBS_SCHEDULED_ID */ /* index sorted */
+--   next page (scheduled_at <= ? AND (scheduled_at < ? OR id < ?)):
+--           /* PUBLIC.IDX_EMAIL_JOBS_SCHEDULED_ID: SCHEDULED_AT <= ? */ /* index sorted */
+-- H2 only reads an index in reverse when it is declared DESC, hence the column order.
+-- Status-filtered pages use idx_email_jobs_status_scheduled (STATUS = ?); H2 still
+-- sorts that subset, MySQL reads it backwards with the primary key completing the order.
+CREATE INDEX IF NOT EXISTS idx_email_jobs_scheduled_id ON email_jobs (scheduled_at DESC, id DESC);
@@ -0,0 +1,12 @@
+-- Uploaded documents move out of the LONGBLOB columns into the content-addressed blob
+-- store (storage.blobs.dir). A row then keeps only the SHA-256 of its content and the
+-- size; file_content stays for rows written while no store is configured and is emptied
+-- by BlobMigrator once their bytes are in the store.
+ALTER TABLE client_briefings ADD COLUMN IF NOT EXISTS content_hash varchar(64);
+ALTER TABLE client_briefings ADD COLUMN IF NOT EXISTS content_size bigint;
+ALTER TABLE campaign_plan_documents ADD COLUMN IF NOT EXISTS content_hash varchar(64);
+ALTER TABLE campaign_plan_documents ADD COLUMN IF NOT EXISTS content_size bigint;
+
+-- The orphan sweep asks "is this hash still referenced" for every stored blob.
+CREATE INDEX IF NOT EXISTS idx_client_briefings_content_hash ON client_briefings (content_hash);
+CREATE INDEX IF NOT EXISTS idx_campaign_plan_documents_content_hash ON campaign_plan_documents (content_hash);
@@ -0,0 +1,13 @@
+-- Text extracted from campaign plan documents, keyed by the SHA-256 of the document's
+-- content (content_hash, V5) and the extractor version. Generation prompts assemble
+-- their corpus from here; a document is only parsed again when its content or the
+-- extractor changes (DocumentTextExtractorService.EXTRACTOR_VERSION).
+CREATE TABLE IF NOT EXISTS extracted_texts (
+    id bigint generated by default as identity,
+    content_hash varchar(64) not null,
+    extractor_version integer not null,
+    content LONGTEXT not null,
+    created_at timestamp(6) not null,
+    primary key (id),
+    constraint uk_extracted_texts_hash_version unique (content_hash, extractor_version)
+);
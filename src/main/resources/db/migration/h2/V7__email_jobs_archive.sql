@@ -0,0 +1,26 @@
+-- Cold storage for finished email jobs. EmailJobArchiver moves SENT and SKIPPED jobs
+-- older than email-jobs.archive.min-age-days here in small batches, so email_jobs (read
+-- by the scheduler, the dashboard counts and the listings) stays sized to active work.
+-- Rows keep their email_jobs id, so job links and listing cursors carry on working.
+-- There is no foreign key to campaign_contacts: enrollments are deleted through JPA,
+-- which only knows about email_jobs; the archiver purges rows left without one.
+CREATE TABLE IF NOT EXISTS email_jobs_archive (
+    id bigint not null,
+    campaign_contact_id bigint not null,
+    step_number integer not null,
+    subject varchar(255) not null,
+    body TEXT not null,
+    scheduled_at timestamp(6) not null,
+    sent_at timestamp(6),
+    status VARCHAR(20) not null,
+    error_message TEXT,
+    archived_at timestamp(6) not null,
+    primary key (id)
+);
+
+-- Import "steps already created" and the scheduler's previous-step check
+CREATE INDEX IF NOT EXISTS idx_email_jobs_archive_cc_step ON email_jobs_archive (campaign_contact_id, step_number);
+-- Listings with includeArchived=true, same keyset as idx_email_jobs_scheduled_id (V4)
+CREATE INDEX IF NOT EXISTS idx_email_jobs_archive_scheduled_id ON email_jobs_archive (scheduled_at DESC, id DESC);
+-- Dashboard "total sent"
+CREATE INDEX IF NOT EXISTS idx_email_jobs_archive_status ON email_jobs_archive (status);
@@ -0,0 +1,3 @@
+-- An import started with ?sync=true turns on the campaign's sheet sync only once it has
+-- completed, so a sheet that can't be imported is never synced on a schedule.
+ALTER TABLE import_jobs ADD COLUMN IF NOT EXISTS enable_sheet_sync boolean default false not null;
@@ -0,0 +1,3 @@
+-- A sheet re-import compares the row's Google Doc as well as its cells, so an edited doc
+-- is picked up for a row whose cells haven't changed. Null for rows imported before.
+ALTER TABLE import_row_states ADD COLUMN IF NOT EXISTS doc_hash varchar(64);
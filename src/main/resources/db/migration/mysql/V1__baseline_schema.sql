@@ -0,0 +1,242 @@
+-- Baseline schema: every table as Hibernate mapped it when schema changes moved to
+-- migrations (spring.jpa.hibernate.ddl-auto is now "validate").
+--
+-- Databases created by the old ddl-auto=update are baselined at version 0, so this
+-- script runs on them too: IF NOT EXISTS creates only the tables they are missing and
+-- leaves existing ones alone. Columns they may lack are added by V2 (LegacySchemaUpgrade).
+--
+-- Status columns are plain VARCHAR(20), without the enum CHECK constraints Hibernate
+-- would generate, so new enum values need no schema change.
+
+CREATE TABLE IF NOT EXISTS users (
+    id bigint not null auto_increment,
+    password varchar(255) not null,
+    role varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id),
+    constraint UK_r43af9ap4edm43mmtq01oddj6 unique (username)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS gems (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    owner_id bigint not null,
+    gem_type varchar(30) not null,
+    name varchar(100) not null,
+    description varchar(500),
+    system_instructions TEXT not null,
+    primary key (id),
+    constraint FKpsdnorwia5ggngmoukevo3qi3 foreign key (owner_id) references users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS campaigns (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    launched_at datetime(6),
+    owner_id bigint,
+    sheet_synced_at datetime(6),
+    sheet_sync_url varchar(2048),
+    company varchar(255),
+    description varchar(255),
+    gmail_email varchar(255),
+    interval_days varchar(255) not null,
+    name varchar(255) not null,
+    status VARCHAR(20) not null,
+    tanzu_contact varchar(255),
+    primary key (id),
+    constraint FKppm1bi09wp1gwlyi876acgbn foreign key (owner_id) references users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS contacts (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    owner_id bigint,
+    email_link varchar(2048),
+    ae_role varchar(255),
+    category varchar(255),
+    company varchar(255),
+    email varchar(255) not null,
+    name varchar(255) not null,
+    phone varchar(255),
+    play varchar(255),
+    role varchar(255),
+    sub_play varchar(255),
+    primary key (id),
+    constraint uk_contact_email_owner unique (email, owner_id),
+    constraint FKspu9vhmjqtqa0x4lf3orn48x2 foreign key (owner_id) references users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS campaign_contacts (
+    id bigint not null auto_increment,
+    campaign_id bigint not null,
+    contact_id bigint not null,
+    enrolled_at datetime(6) not null,
+    primary key (id),
+    constraint UKh6438gkmyxoufsy1b703w5ccv unique (campaign_id, contact_id),
+    constraint FKrgyfd4mf13lehtih8e2ka1w7k foreign key (campaign_id) references campaigns (id),
+    constraint FKll5iw9ihdyb166el1knpqkscf foreign key (contact_id) references contacts (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS email_jobs (
+    id bigint not null auto_increment,
+    step_number integer not null,
+    campaign_contact_id bigint not null,
+    scheduled_at datetime(6) not null,
+    sent_at datetime(6),
+    body TEXT not null,
+    error_message TEXT,
+    status VARCHAR(20) not null,
+    subject varchar(255) not null,
+    primary key (id),
+    constraint FKq4bo7imesjcvu7wg2hk1e448 foreign key (campaign_contact_id) references campaign_contacts (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS email_templates (
+    id bigint not null auto_increment,
+    step_number integer not null,
+    campaign_id bigint not null,
+    scheduled_at datetime(6),
+    body_template TEXT not null,
+    subject varchar(255) not null,
+    primary key (id),
+    constraint FKspswlirord983u6xu9pqrd8tw foreign key (campaign_id) references campaigns (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS campaign_plans (
+    id bigint not null auto_increment,
+    contact_gem_id bigint,
+    created_at datetime(6) not null,
+    email_gem_id bigint,
+    owner_id bigint not null,
+    result_campaign_id bigint,
+    status varchar(20) not null,
+    drive_folder_url varchar(2048),
+    customer varchar(255),
+    email_format varchar(255),
+    gmail_email varchar(255),
+    name varchar(255) not null,
+    tanzu_contact varchar(255),
+    primary key (id),
+    constraint FKpfjxnbhmxnclcpwvr6p5dw4yo foreign key (contact_gem_id) references gems (id),
+    constraint FK775wkcxoci8dm6x5nxlpb1nnf foreign key (email_gem_id) references gems (id),
+    constraint FKhdkhmc5a2cu4dllbuoas6tsi foreign key (owner_id) references users (id),
+    constraint FKdxu3ild0dqqj2g1wp4p3lqb32 foreign key (result_campaign_id) references campaigns (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS campaign_plan_documents (
+    id bigint not null auto_increment,
+    campaign_plan_id bigint not null,
+    created_at datetime(6) not null,
+    mime_type varchar(255),
+    original_file_name varchar(255),
+    file_content LONGBLOB,
+    primary key (id),
+    constraint FK7m0cu47h4sgaol5agtbtujox3 foreign key (campaign_plan_id) references campaign_plans (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS prospect_contacts (
+    id bigint not null auto_increment,
+    selected bit not null,
+    campaign_plan_id bigint not null,
+    created_at datetime(6) not null,
+    email varchar(255),
+    influence_indicators TEXT,
+    name varchar(255) not null,
+    role_type varchar(255),
+    seniority_signal varchar(255),
+    source varchar(255),
+    tanzu_relevance varchar(255),
+    tanzu_team varchar(255),
+    team_domain varchar(255),
+    technical_strengths TEXT,
+    title varchar(255),
+    primary key (id),
+    constraint FKn0s5q1nlckhiin38xdpadrfcp foreign key (campaign_plan_id) references campaign_plans (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS generated_emails (
+    id bigint not null auto_increment,
+    step_number integer not null,
+    created_at datetime(6) not null,
+    prospect_contact_id bigint not null,
+    scheduled_at datetime(6),
+    subject varchar(500) not null,
+    body TEXT not null,
+    primary key (id),
+    constraint FKp8lk149y8j9moc8aryul5b008 foreign key (prospect_contact_id) references prospect_contacts (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS client_briefings (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    document_link varchar(2048),
+    client_name varchar(255) not null,
+    mime_type varchar(255),
+    original_file_name varchar(255),
+    uploaded_file_name varchar(255),
+    file_content LONGBLOB,
+    primary key (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS user_gemini_settings (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    updated_at datetime(6),
+    user_id bigint not null,
+    model varchar(100),
+    api_key varchar(500) not null,
+    primary key (id),
+    constraint UK_4bfhoagql0lmdxmu1qq73hnd3 unique (user_id),
+    constraint FKb8tr1ll54b46vp1ny4wun9fl4 foreign key (user_id) references users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS google_doc_cache (
+    id bigint not null auto_increment,
+    checked_at datetime(6) not null,
+    fetched_at datetime(6) not null,
+    last_modified varchar(100),
+    doc_id varchar(200) not null,
+    etag varchar(500),
+    content LONGTEXT not null,
+    primary key (id),
+    constraint UK_qkt7mn0mddnapavsxply6avfm unique (doc_id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+    id bigint not null auto_increment,
+    attempts integer not null,
+    checkpoint_row integer not null,
+    cleared bit not null,
+    contacts_imported integer not null,
+    jobs_created integer not null,
+    replace_existing bit not null,
+    run_start_row integer not null,
+    skipped integer not null,
+    unchanged INT DEFAULT 0 not null,
+    campaign_id bigint not null,
+    created_at datetime(6) not null,
+    finished_at datetime(6),
+    started_at datetime(6),
+    updated_at datetime(6),
+    file_path varchar(1024),
+    sheet_url varchar(2048),
+    source varchar(2048),
+    created_by varchar(255),
+    message TEXT,
+    status VARCHAR(20) not null,
+    errors LONGTEXT,
+    removed_rows LONGTEXT,
+    primary key (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS import_row_states (
+    id bigint not null auto_increment,
+    campaign_id bigint not null,
+    updated_at datetime(6) not null,
+    row_hash varchar(64) not null,
+    sheet_key varchar(200) not null,
+    row_key varchar(320) not null,
+    primary key (id),
+    constraint UKlxx07hmfgjo3ilt1ycvnrtl1 unique (campaign_id, sheet_key, row_key)
+) ENGINE=InnoDB;
+
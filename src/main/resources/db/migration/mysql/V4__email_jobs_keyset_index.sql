@@ -0,0 +1,6 @@
+-- MySQL copy of h2/V4__email_jobs_keyset_index.sql: job listings page newest first on
+-- (scheduled_at, id) (EmailJobRepository.findPage). Without it an unfiltered page is a
+-- full scan plus filesort of email_jobs; with it each page is a short index range read.
+-- Status-filtered pages already use idx_email_jobs_status_scheduled (InnoDB appends the
+-- primary key to secondary indexes, so (status, scheduled_at, id) is in index order).
+CREATE INDEX idx_email_jobs_scheduled_id ON email_jobs (scheduled_at DESC, id DESC);
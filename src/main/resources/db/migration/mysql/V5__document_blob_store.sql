@@ -0,0 +1,10 @@
+-- MySQL copy of h2/V5__document_blob_store.sql: documents keep the SHA-256 and size of
+-- their content, the bytes live in the blob store (storage.blobs.dir). file_content is
+-- kept for rows written without a store and emptied by BlobMigrator after the move.
+ALTER TABLE client_briefings ADD COLUMN content_hash varchar(64);
+ALTER TABLE client_briefings ADD COLUMN content_size bigint;
+ALTER TABLE campaign_plan_documents ADD COLUMN content_hash varchar(64);
+ALTER TABLE campaign_plan_documents ADD COLUMN content_size bigint;
+
+CREATE INDEX idx_client_briefings_content_hash ON client_briefings (content_hash);
+CREATE INDEX idx_campaign_plan_documents_content_hash ON campaign_plan_documents (content_hash);
@@ -0,0 +1,11 @@
+-- MySQL copy of h2/V6__extracted_texts.sql: text extracted from campaign plan documents,
+-- keyed by content hash and extractor version so each document is parsed once.
+CREATE TABLE IF NOT EXISTS extracted_texts (
+    id bigint not null auto_increment,
+    content_hash varchar(64) not null,
+    extractor_version integer not null,
+    content LONGTEXT not null,
+    created_at datetime(6) not null,
+    primary key (id),
+    constraint uk_extracted_texts_hash_version unique (content_hash, extractor_version)
+) ENGINE=InnoDB;
@@ -0,0 +1,20 @@
+-- MySQL copy of h2/V7__email_jobs_archive.sql: finished (SENT, SKIPPED) jobs moved out of
+-- email_jobs by EmailJobArchiver. Rows keep their email_jobs id; no foreign key to
+-- campaign_contacts (the archiver purges rows whose enrollment is gone).
+CREATE TABLE IF NOT EXISTS email_jobs_archive (
+    id bigint not null,
+    campaign_contact_id bigint not null,
+    step_number integer not null,
+    subject varchar(255) not null,
+    body TEXT not null,
+    scheduled_at datetime(6) not null,
+    sent_at datetime(6),
+    status VARCHAR(20) not null,
+    error_message TEXT,
+    archived_at datetime(6) not null,
+    primary key (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_email_jobs_archive_cc_step ON email_jobs_archive (campaign_contact_id, step_number);
+CREATE INDEX idx_email_jobs_archive_scheduled_id ON email_jobs_archive (scheduled_at DESC, id DESC);
+CREATE INDEX idx_email_jobs_archive_status ON email_jobs_archive (status);
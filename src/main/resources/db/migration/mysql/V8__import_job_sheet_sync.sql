@@ -0,0 +1,3 @@
+-- MySQL copy of h2/V8__import_job_sheet_sync.sql: sheet sync is turned on by the import
+-- job once it completes, not when it is submitted.
+ALTER TABLE import_jobs ADD COLUMN enable_sheet_sync bit not null default 0;
@@ -0,0 +1,3 @@
+-- MySQL copy of h2/V9__import_row_doc_hash.sql: the hash of the row's Google Doc as
+-- last imported, next to the hash of its cells.
+ALTER TABLE import_row_states ADD COLUMN doc_hash varchar(64);
@@ -0,0 +1,167 @@
+package com.campaignmanager.browser;
+
+import com.campaignmanager.dto.ResidentContextDto;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Playwright;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** The resident BrowserContext cache: LRU eviction at capacity, idle eviction, keep-warm pins. */
+class BrowserEngineEvictionTest {
+
+    /** A clock the test moves by hand. */
+    private static final class ManualClock extends Clock {
+        private Instant now = Instant.parse("2030-01-01T09:00:00Z");
+
+        void advance(Duration by) { now = now.plus(by); }
+        @Override public Instant instant() { return now; }
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+    }
+
+    @TempDir Path sessionsDir;
+
+    private final ManualClock clock = new ManualClock();
+    private final Browser browser = mock(Browser.class);
+    /** Every context the fake browser has handed out, by account; the latest wins. */
+    private final Map<String, BrowserContext> created = new HashMap<>();
+    private BrowserEngine engine;
+
+    private void start(int maxResident, long memoryBudgetMb) throws IOException {
+        for (String email : new String[] {"a@example.com", "b@example.com", "c@example.com"}) {
+            Files.writeString(sessionsDir.resolve(email + ".json"), "{}");
+        }
+        engine = new BrowserEngine(new EngineSettings(sessionsDir.toString(), true, null, false,
+                maxResident, 100, memoryBudgetMb, 1), clock);
+        when(browser.isConnected()).thenReturn(true);
+        when(browser.newContext(any(Browser.NewContextOptions.class))).thenAnswer(inv -> {
+            String state = ((Browser.NewContextOptions) inv.getArgument(0)).storageStatePath.getFileName().toString();
+            BrowserContext context = mock(BrowserContext.class);
+            created.put(state.substring(0, state.length() - ".json".length()), context);
+            return context;
+        });
+        ReflectionTestUtils.setField(engine, "playwright", mock(Playwright.class));
+        ReflectionTestUtils.setField(engine, "browser", browser);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) engine.close();
+    }
+
+    /** Uses the account's context the way a send does, on the browser actor. */
+    private BrowserContext use(String email) {
+        PlaywrightActor actor = (PlaywrightActor) ReflectionTestUtils.getField(engine, "browserActor");
+        return actor.call(() -> engine.contextFor(email));
+    }
+
+    @Test
+    void leastRecentlyUsedContextIsClosedAtCapacity() throws IOException {
+        start(2, 1024);
+        use("a@example.com");
+        BrowserContext b = use("b@example.com");
+        use("a@example.com");
+
+        use("c@example.com");
+
+        verify(b).close();
+        verify(created.get("a@example.com"), never()).close();
+        assertThat(engine.stats().getContexts()).extracting(ResidentContextDto::getEmail)
+                .containsExactly("a@example.com", "c@example.com");
+        assertThat(engine.stats().getCapacityEvictions()).isEqualTo(1);
+        assertThat(engine.stats().getIdleEvictions()).isZero();
+    }
+
+    @Test
+    void memoryBudgetCapsTheResidentCount() throws IOException {
+        // 250 MB at 100 MB per context leaves room for two, below max-resident 8
+        start(8, 250);
+        use("a@example.com");
+        use("b@example.com");
+        use("c@example.com");
+
+        assertThat(engine.stats().getCapacity()).isEqualTo(2);
+        assertThat(engine.stats().getResidentCount()).isEqualTo(2);
+        verify(created.get("c@example.com"), never()).close();
+    }
+
+    @Test
+    void residentContextIsReusedNotRecreated() throws IOException {
+        start(2, 1024);
+        BrowserContext first = use("a@example.com");
+
+        assertThat(use("a@example.com")).isSameAs(first);
+        verify(browser, times(1)).newContext(any(Browser.NewContextOptions.class));
+    }
+
+    @Test
+    void contextsIdlePastTheTimeoutAreClosed() throws IOException {
+        start(8, 1024);
+        BrowserContext a = use("a@example.com");
+        use("b@example.com");
+        clock.advance(Duration.ofMinutes(30));
+        BrowserContext b = use("b@example.com");
+
+        engine.evictIdle(Duration.ofMinutes(20), Set.of());
+
+        verify(a).close();
+        verify(b, never()).close();
+        assertThat(engine.stats().getContexts()).extracting(ResidentContextDto::getEmail).containsExactly("b@example.com");
+        assertThat(engine.stats().getIdleEvictions()).isEqualTo(1);
+        assertThat(engine.stats().getCapacityEvictions()).isZero();
+    }
+
+    @Test
+    void pinnedAccountsSurviveIdleEviction() throws IOException {
+        start(8, 1024);
+        BrowserContext a = use("a@example.com");
+        BrowserContext b = use("b@example.com");
+        clock.advance(Duration.ofMinutes(30));
+
+        engine.evictIdle(Duration.ofMinutes(20), Set.of("a@example.com"));
+
+        verify(a, never()).close();
+        verify(b).close();
+        assertThat(engine.stats().getContexts()).singleElement().satisfies(context -> {
+            assertThat(context.getEmail()).isEqualTo("a@example.com");
+            assertThat(context.getIdleSeconds()).isEqualTo(30 * 60);
+        });
+    }
+
+    @Test
+    void evictedContextIsRecreatedOnNextUse() throws IOException {
+        start(8, 1024);
+        BrowserContext before = use("a@example.com");
+        clock.advance(Duration.ofMinutes(30));
+        engine.evictIdle(Duration.ofMinutes(20), Set.of());
+
+        BrowserContext after = use("a@example.com");
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(engine.stats().getResidentCount()).isEqualTo(1);
+        verify(browser, times(2)).newContext(any(Browser.NewContextOptions.class));
+    }
+}
@@ -0,0 +1,90 @@
+package com.campaignmanager.browser;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PlaywrightActorTest {
+
+    private final PlaywrightActor actor = new PlaywrightActor("test-actor");
+
+    @AfterEach
+    void tearDown() {
+        actor.close();
+    }
+
+    @Test
+    void callsFromManyThreadsAllRunOnTheOneOwnerThread() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> results = IntStream.range(0, 64)
+                    .mapToObj(i -> callers.submit(() -> actor.call(() -> {
+                        threads.add(Thread.currentThread().getName());
+                        return i;
+                    })))
+                    .toList();
+            for (int i = 0; i < results.size(); i++) assertThat(results.get(i).get()).isEqualTo(i);
+        } finally {
+            callers.shutdown();
+        }
+
+        assertThat(threads).containsExactly("test-actor");
+    }
+
+    @Test
+    void nestedCallsOnTheOwnerThreadRunInline() {
+        String inner = actor.call(() -> actor.call(() -> {
+            actor.checkOwnerThread();
+            return Thread.currentThread().getName();
+        }));
+
+        assertThat(inner).isEqualTo("test-actor");
+    }
+
+    @Test
+    void ownerOnlyMethodsRejectOtherThreads() {
+        assertThat(actor.isOwnerThread()).isFalse();
+        assertThatThrownBy(actor::checkOwnerThread)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("test-actor");
+    }
+
+    @Test
+    void runtimeExceptionsReachTheCallerUnwrappedAndCheckedOnesWrapped() {
+        IllegalArgumentException boom = new IllegalArgumentException("boom");
+        assertThatThrownBy(() -> actor.call(() -> { throw boom; })).isSameAs(boom);
+
+        assertThatThrownBy(() -> actor.call(() -> { throw new IOException("disk"); }))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("disk")
+                .hasCauseInstanceOf(IOException.class);
+    }
+
+    @Test
+    void postedTasksRunInOrderAndAFailureDoesNotStopTheActor() throws Exception {
+        StringBuilder order = new StringBuilder();
+        CountDownLatch done = new CountDownLatch(1);
+
+        actor.post(() -> order.append('a'));
+        actor.post(() -> { throw new IllegalStateException("ignored"); });
+        actor.post(() -> order.append('b'));
+        actor.post(done::countDown);
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(actor.call(order::toString)).isEqualTo("ab");
+    }
+}
@@ -0,0 +1,195 @@
+package com.campaignmanager.browser;
+
+import com.campaignmanager.browser.SendPipeline.Compose;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SendPipelineTest {
+
+    /** A tab that records every step and fails the ones it is told to. */
+    private static final class FakeTab implements SendPipeline.Steps {
+        final List<String> events = new ArrayList<>();
+        final Set<Long> failCompose = new HashSet<>();
+        final Set<Long> failClick = new HashSet<>();
+        final Set<Long> failConfirm = new HashSet<>();
+        final List<Integer> baselines = new ArrayList<>();
+        final Set<Long> open = new HashSet<>();
+        int sent;
+        int clickedUnconfirmed;
+        int maxOpen;
+        int maxClickedUnconfirmed;
+
+        @Override public Compose compose(OutgoingMail mail) {
+            events.add("compose " + mail.id());
+            if (failCompose.contains(mail.id())) throw new RuntimeException("no compose window");
+            open.add(mail.id());
+            maxOpen = Math.max(maxOpen, open.size());
+            return new Compose(mail);
+        }
+
+        @Override public int sentCount() {
+            return sent;
+        }
+
+        @Override public void clickSend(Compose c) {
+            events.add("send " + c.mail().id());
+            if (failClick.contains(c.mail().id())) throw new RuntimeException("no send button");
+            clickedUnconfirmed++;
+            maxClickedUnconfirmed = Math.max(maxClickedUnconfirmed, clickedUnconfirmed);
+        }
+
+        @Override public MailResult confirm(Compose c, int baseline) {
+            events.add("confirm " + c.mail().id());
+            baselines.add(baseline);
+            clickedUnconfirmed--;
+            open.remove(c.mail().id());
+            if (failConfirm.contains(c.mail().id())) return new MailResult(c.mail().id(), "not confirmed");
+            sent++;
+            return new MailResult(c.mail().id(), null);
+        }
+
+        @Override public void discard(Compose c) {
+            events.add("discard " + c.mail().id());
+            open.remove(c.mail().id());
+        }
+    }
+
+    private static Deque<OutgoingMail> mails(long... ids) {
+        Deque<OutgoingMail> mails = new ArrayDeque<>();
+        for (long id : ids) mails.add(new OutgoingMail(id, "to" + id + "@example.com", "Subject " + id, "Body"));
+        return mails;
+    }
+
+    private static List<Long> ids(Deque<OutgoingMail> mails) {
+        return mails.stream().map(OutgoingMail::id).toList();
+    }
+
+    @Test
+    void depthOneSendsStrictlyOneAfterAnother() {
+        FakeTab tab = new FakeTab();
+        Deque<OutgoingMail> remaining = mails(1, 2, 3);
+        List<MailResult> outcomes = new ArrayList<>();
+
+        assertThat(SendPipeline.run(tab, 1, remaining, outcomes)).isTrue();
+
+        assertThat(tab.events).containsExactly(
+                "compose 1", "send 1", "confirm 1",
+                "compose 2", "send 2", "confirm 2",
+                "compose 3", "send 3", "confirm 3");
+        assertThat(outcomes).extracting(MailResult::id).containsExactly(1L, 2L, 3L);
+        assertThat(outcomes).allMatch(MailResult::sent);
+        assertThat(remaining).isEmpty();
+    }
+
+    @Test
+    void deeperPipelineTypesAheadButKeepsOneMessageUnconfirmed() {
+        FakeTab tab = new FakeTab();
+        Deque<OutgoingMail> remaining = mails(LongStream.rangeClosed(1, 6).toArray());
+        List<MailResult> outcomes = new ArrayList<>();
+
+        assertThat(SendPipeline.run(tab, 3, remaining, outcomes)).isTrue();
+
+        assertThat(tab.maxOpen).isEqualTo(3);
+        assertThat(tab.maxClickedUnconfirmed).isEqualTo(1);
+        assertThat(tab.events.indexOf("compose 2")).isLessThan(tab.events.indexOf("confirm 1"));
+        assertThat(outcomes).extracting(MailResult::id).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(outcomes).allMatch(MailResult::sent);
+    }
+
+    @Test
+    void eachConfirmationWaitsForTheCountTakenJustBeforeItsOwnClick() {
+        FakeTab tab = new FakeTab();
+        List<MailResult> outcomes = new ArrayList<>();
+
+        SendPipeline.run(tab, 2, mails(1, 2, 3), outcomes);
+
+        // Message n is confirmed by the counter moving past n - 1, never by an earlier snackbar.
+        assertThat(tab.baselines).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void unconfirmedMessageFailsAloneAndTypedOnesGoBackInOrder() {
+        FakeTab tab = new FakeTab();
+        tab.failConfirm.add(2L);
+        Deque<OutgoingMail> remaining = mails(1, 2, 3, 4, 5);
+        List<MailResult> outcomes = new ArrayList<>();
+
+        assertThat(SendPipeline.run(tab, 3, remaining, outcomes)).isFalse();
+
+        assertThat(outcomes).extracting(MailResult::id).containsExactly(1L, 2L);
+        assertThat(outcomes.get(0).sent()).isTrue();
+        assertThat(outcomes.get(1).sent()).isFalse();
+        // 3 and 4 were typed but never sent: discarded and requeued ahead of 5.
+        assertThat(ids(remaining)).containsExactly(3L, 4L, 5L);
+        assertThat(tab.events).contains("discard 3", "discard 4").doesNotContain("send 3", "send 4");
+        assertThat(tab.open).isEmpty();
+    }
+
+    @Test
+    void composeFailureStillConfirmsTheMessageInFlight() {
+        FakeTab tab = new FakeTab();
+        tab.failCompose.add(3L);
+        Deque<OutgoingMail> remaining = mails(1, 2, 3, 4);
+        List<MailResult> outcomes = new ArrayList<>();
+
+        assertThat(SendPipeline.run(tab, 2, remaining, outcomes)).isFalse();
+
+        // 3 is typed while 2 is in flight; 2 still gets its own confirmation.
+        assertThat(tab.events).containsSubsequence("send 2", "compose 3", "confirm 2");
+        assertThat(outcomes).extracting(MailResult::id).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(outcomes).filteredOn(MailResult::sent).extracting(MailResult::id).containsExactly(1L, 2L);
+        assertThat(tab.events).contains("discard 3");
+        assertThat(ids(remaining)).containsExactly(4L);
+    }
+
+    @Test
+    void composeFailureBeforeAnySendRequeuesTheTypedMessage() {
+        FakeTab tab = new FakeTab();
+        tab.failCompose.add(2L);
+        Deque<OutgoingMail> remaining = mails(1, 2, 3);
+        List<MailResult> outcomes = new ArrayList<>();
+
+        assertThat(SendPipeline.run(tab, 2, remaining, outcomes)).isFalse();
+
+        assertThat(outcomes).extracting(MailResult::id).containsExactly(2L);
+        assertThat(ids(remaining)).containsExactly(1L, 3L);
+        assertThat(tab.events).doesNotContain("send 1");
+    }
+
+    @Test
+    void sendClickFailureFailsThatMessageAndRequeuesTheTypedOnes() {
+        FakeTab tab = new FakeTab();
+        tab.failClick.add(1L);
+        Deque<OutgoingMail> remaining = mails(1, 2, 3);
+        List<MailResult> outcomes = new ArrayList<>();
+
+        assertThat(SendPipeline.run(tab, 2, remaining, outcomes)).isFalse();
+
+        assertThat(outcomes).extracting(MailResult::id).containsExactly(1L);
+        assertThat(outcomes.get(0).sent()).isFalse();
+        assertThat(ids(remaining)).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void everyMailGetsExactlyOneOutcomeOrIsRequeued() {
+        FakeTab tab = new FakeTab();
+        tab.failConfirm.add(4L);
+        Deque<OutgoingMail> remaining = mails(LongStream.rangeClosed(1, 8).toArray());
+        List<MailResult> outcomes = new ArrayList<>();
+
+        SendPipeline.run(tab, 4, remaining, outcomes);
+
+        List<Long> accounted = new ArrayList<>(outcomes.stream().map(MailResult::id).toList());
+        accounted.addAll(ids(remaining));
+        assertThat(accounted).containsExactlyInAnyOrder(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+    }
+}
@@ -0,0 +1,88 @@
+package com.campaignmanager.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replica);
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+    }
+
+    @AfterEach
+    void clearTransaction() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private Connection connectionInReplicaReads() {
+        return ReadReplicaRoutingDataSource.replicaReads(() -> {
+            try {
+                return routing.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    @Test
+    void writesUseThePrimary() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(connectionInReplicaReads()).isSameAs(primaryConnection);
+        assertThat(routing.getReplicaConnections()).isZero();
+    }
+
+    @Test
+    void readOnlyTransactionsStayOnThePrimaryUnlessTheyOptIn() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(routing.getPrimaryConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void optedInReadOnlyTransactionsUseTheReplica() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(connectionInReplicaReads()).isSameAs(replicaConnection);
+        assertThat(routing.getReplicaConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void failedReplicaFallsBackToThePrimary() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(connectionInReplicaReads()).isSameAs(primaryConnection);
+        assertThat(connectionInReplicaReads()).isSameAs(primaryConnection);
+        assertThat(routing.getReplicaFallbacks()).isEqualTo(2);
+        assertThat(routing.getReplicaConnections()).isZero();
+    }
+
+    @Test
+    void scopeEndsWithTheOutermostCall() throws SQLException {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Connection inner = ReadReplicaRoutingDataSource.replicaReads(() -> connectionInReplicaReads());
+        assertThat(inner).isSameAs(replicaConnection);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+}
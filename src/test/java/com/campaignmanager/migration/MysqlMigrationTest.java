@@ -0,0 +1,107 @@
+package com.campaignmanager.migration;
+
+import com.campaignmanager.model.EmailJobStatus;
+import com.campaignmanager.repository.EmailJobRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The MySQL migrations (V1-V9, with the Java V2) run against a copy of the schema the old
+ * ddl-auto=update left on MySQL, then Hibernate validates the result.  Runs on H2 in
+ * MySQL mode, which takes the MySQL scripts and native ENUM columns; V2's
+ * information_schema queries take their H2 branch here.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:legacy-mysql;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.flyway.locations=classpath:db/migration/mysql",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@Import({V2__Upgrade_legacy_schema.class, MysqlMigrationTest.LegacySchema.class})
+class MysqlMigrationTest {
+
+    @TestConfiguration
+    static class LegacySchema {
+        /** Creates the legacy schema before Flyway baselines and migrates it. */
+        @Bean
+        FlywayMigrationStrategy migrateLegacySchema() {
+            return flyway -> {
+                new ResourceDatabasePopulator(new ClassPathResource("db/legacy/mysql-ddl-auto-update.sql"))
+                        .execute(flyway.getConfiguration().getDataSource());
+                flyway.migrate();
+            };
+        }
+    }
+
+    @Autowired private Flyway flyway;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private EmailJobRepository emailJobRepository;
+
+    @Test
+    void legacyDatabaseIsMigratedToTheLatestVersion() {
+        assertThat(flyway.info().current().getVersion().getVersion()).isEqualTo("9");
+    }
+
+    @Test
+    void statusColumnsTakeValuesAddedToTheEnumsLater() {
+        jdbcTemplate.update("UPDATE email_jobs SET status = 'HOLD'");
+
+        assertThat(emailJobRepository.findAll()).singleElement()
+                .satisfies(job -> assertThat(job.getStatus()).isEqualTo(EmailJobStatus.HOLD));
+    }
+
+    @Test
+    void contactEmailIsUniquePerOwnerOnly() {
+        jdbcTemplate.update("INSERT INTO contacts (created_at, email, name, owner_id) " +
+                "VALUES (NOW(), 'shared@example.com', 'Ann''s copy', 2)");
+
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO contacts (created_at, email, name, owner_id) " +
+                "VALUES (NOW(), 'shared@example.com', 'Second copy', 2)"))
+                .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void ownerlessRowsBelongToAdmin() {
+        assertThat(jdbcTemplate.queryForList("SELECT owner_id FROM campaigns", Long.class)).containsExactly(1L);
+        assertThat(jdbcTemplate.queryForList("SELECT owner_id FROM contacts", Long.class)).containsExactly(1L);
+    }
+
+    @Test
+    void freshDatabaseEndsUpWithTheSameColumns() {
+        DriverManagerDataSource fresh = new DriverManagerDataSource("jdbc:h2:mem:fresh-mysql;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        Flyway.configure()
+                .dataSource(fresh)
+                .locations("classpath:db/migration/mysql")
+                .javaMigrations(new V2__Upgrade_legacy_schema())
+                .load()
+                .migrate();
+
+        assertThat(columns(new JdbcTemplate(fresh))).isNotEmpty().containsExactlyElementsOf(columns(jdbcTemplate));
+    }
+
+    private static List<String> columns(JdbcTemplate jdbc) {
+        return jdbc.queryForList("SELECT TABLE_NAME || '.' || COLUMN_NAME || ' ' || DATA_TYPE || " +
+                "COALESCE('(' || CHARACTER_MAXIMUM_LENGTH || ')', '') || ' ' || IS_NULLABLE " +
+                "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'PUBLIC' " +
+                "AND TABLE_NAME <> 'flyway_schema_history' ORDER BY TABLE_NAME, COLUMN_NAME", String.class);
+    }
+}
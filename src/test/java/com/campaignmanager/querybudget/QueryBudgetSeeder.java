@@ -0,0 +1,70 @@
+package com.campaignmanager.querybudget;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Fills the (in-memory H2) database with production-like volumes before
+ * {@link QueryBudgetTest} runs, so a per-row query shows up as hundreds of statements
+ * rather than two.
+ *
+ * Past jobs are SENT and pending ones are scheduled a day ahead, so the email
+ * scheduler finds nothing due until a test makes some jobs due.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class QueryBudgetSeeder {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Seeds once per database; later calls find the data and return. */
+    void seed(int users, int campaigns, int contacts, int steps) {
+        Integer seeded = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE username LIKE 'qb-user-%'", Integer.class);
+        if (seeded != null && seeded > 0) {
+            log.info("Query-budget data already present");
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        // Owners: the seeded users plus admin (id 1), so admin-wide lists see everything.
+        jdbcTemplate.update("INSERT INTO users (username, password, role) " +
+                "SELECT 'qb-user-' || X, 'x', 'ROLE_USER' FROM SYSTEM_RANGE(1, ?)", users);
+        Long firstUser = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM users WHERE username LIKE 'qb-user-%'", Long.class);
+
+        jdbcTemplate.update("INSERT INTO campaigns (name, gmail_email, status, interval_days, owner_id, created_at) " +
+                "SELECT 'QB campaign ' || X, 'sender' || MOD(X, 5) || '@example.com', " +
+                "CASE MOD(X, 4) WHEN 0 THEN 'ACTIVE' WHEN 1 THEN 'DRAFT' WHEN 2 THEN 'PAUSED' ELSE 'COMPLETED' END, " +
+                "'0,3,7', ? + MOD(X, ?), NOW() FROM SYSTEM_RANGE(1, ?)", firstUser, users, campaigns);
+        Long firstCampaign = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM campaigns WHERE name LIKE 'QB campaign %'", Long.class);
+
+        jdbcTemplate.update("INSERT INTO email_templates (campaign_id, step_number, subject, body_template) " +
+                "SELECT c.id, s.X, 'Step ' || s.X, REPEAT('Template body. ', 40) " +
+                "FROM campaigns c, SYSTEM_RANGE(1, ?) s WHERE c.id >= ?", steps, firstCampaign);
+
+        jdbcTemplate.update("INSERT INTO contacts (name, email, company, role, email_link, owner_id, created_at) " +
+                "SELECT 'Contact ' || X, 'qb' || X || '@example.org', 'Company ' || MOD(X, 300), 'CIO', " +
+                "'https://docs.google.com/document/d/qb' || X, ? + MOD(X, ?), NOW() FROM SYSTEM_RANGE(1, ?)",
+                firstUser, users, contacts);
+        Long firstContact = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM contacts WHERE email LIKE 'qb%@example.org'", Long.class);
+
+        jdbcTemplate.update("INSERT INTO campaign_contacts (campaign_id, contact_id, enrolled_at) " +
+                "SELECT ? + MOD(id - ?, ?), id, NOW() FROM contacts WHERE id >= ?",
+                firstCampaign, firstContact, campaigns, firstContact);
+
+        jdbcTemplate.update("INSERT INTO email_jobs (campaign_contact_id, step_number, subject, body, scheduled_at, sent_at, status) " +
+                "SELECT cc.id, s.X, 'Step ' || s.X, REPEAT('Email body. ', 150), " +
+                "DATEADD('DAY', (s.X - 4) * 3 + CASE WHEN s.X < 4 THEN 0 ELSE 1 END, NOW()), " +
+                "CASE WHEN s.X < 4 THEN DATEADD('DAY', (s.X - 4) * 3, NOW()) END, " +
+                "CASE WHEN s.X < 4 THEN 'SENT' WHEN MOD(cc.id, 10) = 0 THEN 'HOLD' ELSE 'SCHEDULED' END " +
+                "FROM campaign_contacts cc, SYSTEM_RANGE(1, ?) s WHERE cc.contact_id >= ?", steps, firstContact);
+
+        jdbcTemplate.execute("ANALYZE");
+        log.info("Query-budget data seeded in {} ms: {} users, {} campaigns, {} contacts, {} jobs",
+                System.currentTimeMillis() - started, users, campaigns, contacts, contacts * steps);
+    }
+}
@@ -0,0 +1,394 @@
+package com.campaignmanager.querybudget;
+
+import com.campaignmanager.dto.ExcelImportResultDto;
+import com.campaignmanager.model.EmailJob;
+import com.campaignmanager.scheduler.EmailScheduler;
+import com.campaignmanager.security.JwtUtil;
+import com.campaignmanager.service.CampaignService;
+import com.campaignmanager.service.ContactService;
+import com.campaignmanager.service.DashboardService;
+import com.campaignmanager.service.EmailJobService;
+import com.campaignmanager.service.ExcelImportService;
+import com.campaignmanager.service.GoogleDocParserService;
+import com.campaignmanager.service.PlaywrightGmailService;
+import com.campaignmanager.service.PlaywrightSessionService;
+import com.campaignmanager.util.WorkbookRowReader;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Query budget: with production-like volumes seeded into H2, checks the SQL statements
+ * (and time) of every GET endpoint under /api, of the services behind the main lists, and
+ * of the write paths (sheet import, contact assignment, a scheduler cycle) against their
+ * budgets.  A failure lists where the statements came from, which is usually enough to
+ * spot the N+1.
+ *
+ * Statements are counted on the JDBC connection ({@link StatementCounter}), so the
+ * JdbcTemplate repositories count as well as Hibernate.  {id} path variables are filled
+ * with a seeded row the user can see; endpoints with other variables are not called.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("query-budget")
+@Import(QueryBudgetTest.CountingDataSource.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    @TestConfiguration
+    static class CountingDataSource {
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds ? StatementCounter.wrap(ds) : bean;
+                }
+            };
+        }
+    }
+
+    /** Statements and milliseconds one call may take. */
+    record Budget(int statements, long millis) {}
+
+    // Browser, Gmail and Google Docs are not reachable from a test
+    @MockBean private PlaywrightSessionService sessionService;
+    @MockBean private PlaywrightGmailService gmailService;
+    @MockBean private GoogleDocParserService docParser;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private UserDetailsService userDetailsService;
+    @Autowired private RequestMappingHandlerMapping handlerMapping;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private EntityManager entityManager;
+
+    @Autowired private CampaignService campaignService;
+    @Autowired private ContactService contactService;
+    @Autowired private EmailJobService emailJobService;
+    @Autowired private DashboardService dashboardService;
+    @Autowired private ExcelImportService excelImportService;
+    @Autowired private EmailScheduler emailScheduler;
+
+    @Value("${query-budget.seed.users}") private int seedUsers;
+    @Value("${query-budget.seed.campaigns}") private int seedCampaigns;
+    @Value("${query-budget.seed.contacts}") private int seedContacts;
+    @Value("${query-budget.seed.steps}") private int seedSteps;
+    @Value("${query-budget.users}") private String users;
+    @Value("${query-budget.max-statements}") private int maxStatements;
+    @Value("${query-budget.max-millis}") private long maxMillis;
+    @Value("${query-budget.overrides:}") private String overrides;
+    @Value("${query-budget.skip:}") private String skip;
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final Map<String, Budget> budgetByPattern = new LinkedHashMap<>();
+
+    @BeforeAll
+    void seed() {
+        new QueryBudgetSeeder(jdbcTemplate).seed(seedUsers, seedCampaigns, seedContacts, seedSteps);
+        for (String entry : overrides.split(",")) {
+            String[] kv = entry.trim().split("=");
+            if (kv.length != 2) continue;
+            String[] limits = kv[1].trim().split(":");
+            budgetByPattern.put(kv[0].trim(), new Budget(Integer.parseInt(limits[0].trim()),
+                    limits.length > 1 ? Long.parseLong(limits[1].trim()) : maxMillis));
+        }
+    }
+
+    // ─── GET endpoints ────────────────────────────────────────────────────────
+
+    @TestFactory
+    List<DynamicTest> everyGetEndpointIsWithinBudget() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (String username : users.split(",")) {
+            String user = username.trim();
+            Map<String, Long> ids = sampleIds(user);
+            for (String pattern : getEndpoints()) {
+                String path = expand(pattern, ids);
+                if (path == null) continue;
+                tests.add(DynamicTest.dynamicTest(user + " GET " + path, () -> {
+                    String token = jwtUtil.generateToken(userDetailsService.loadUserByUsername(user));
+                    call(path, token);                       // warm-up: caches, first-use init
+                    long started = System.nanoTime();
+                    MvcResult result;
+                    StatementCounter.Recording recording;
+                    StatementCounter.start();
+                    try {
+                        result = call(path, token);
+                    } finally {
+                        recording = StatementCounter.stop();
+                    }
+                    long millis = (System.nanoTime() - started) / 1_000_000;
+
+                    Budget budget = budgetFor("GET", pattern);
+                    // A slow call is timed again (best of three), so a GC pause on a busy
+                    // host doesn't fail the budget; a real regression is slow every time.
+                    for (int retry = 0; retry < 2 && millis > budget.millis(); retry++) {
+                        long again = System.nanoTime();
+                        call(path, token);
+                        millis = Math.min(millis, (System.nanoTime() - again) / 1_000_000);
+                    }
+                    assertThat(result.getResponse().getStatus()).as(path).isLessThan(500);
+                    assertThat(recording.statements()).as("%s: %s", path, recording).isLessThanOrEqualTo(budget.statements());
+                    assertThat(millis).as("%s took %d ms", path, millis).isLessThanOrEqualTo(budget.millis());
+                }));
+            }
+        }
+        return tests;
+    }
+
+    private MvcResult call(String path, String token) throws Exception {
+        return mockMvc.perform(get(path).header("Authorization", "Bearer " + token)).andReturn();
+    }
+
+    /** GET endpoint patterns under /api, minus the configured skips. */
+    private List<String> getEndpoints() {
+        List<String> skips = Arrays.stream(skip.split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList();
+        TreeSet<String> patterns = new TreeSet<>();
+        for (RequestMappingInfo info : handlerMapping.getHandlerMethods().keySet()) {
+            var methods = info.getMethodsCondition().getMethods();
+            if (!methods.isEmpty() && !methods.contains(RequestMethod.GET)) continue;
+            for (String pattern : info.getPatternValues()) {
+                if (pattern.startsWith("/api/") && skips.stream().noneMatch(s -> matcher.match(s, pattern))) {
+                    patterns.add(pattern);
+                }
+            }
+        }
+        return new ArrayList<>(patterns);
+    }
+
+    private Budget budgetFor(String method, String pattern) {
+        for (Map.Entry<String, Budget> e : budgetByPattern.entrySet()) {
+            String[] key = e.getKey().split("\\s+", 2);
+            if (key[0].equalsIgnoreCase(method) && matcher.match(key[1], pattern)) return e.getValue();
+        }
+        return new Budget(maxStatements, maxMillis);
+    }
+
+    /** Ids to substitute for {id}, by the collection path in front of it. */
+    private Map<String, Long> sampleIds(String username) {
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, username);
+        boolean admin = "ROLE_ADMIN".equals(jdbcTemplate.queryForObject(
+                "SELECT role FROM users WHERE id = ?", String.class, userId));
+        String owned = admin ? "" : " AND c.owner_id = " + userId;
+        Map<String, Long> ids = new HashMap<>();
+        putFirst(ids, "/api/campaigns/", "SELECT c.id FROM campaigns c JOIN campaign_contacts cc ON cc.campaign_id = c.id " +
+                "WHERE c.name LIKE 'QB campaign %'" + owned + " GROUP BY c.id ORDER BY COUNT(*) DESC LIMIT 1");
+        putFirst(ids, "/api/contacts/", "SELECT c.id FROM contacts c WHERE 1 = 1" + owned + " ORDER BY c.id LIMIT 1");
+        putFirst(ids, "/api/email-jobs/", "SELECT ej.id FROM email_jobs ej " +
+                "JOIN campaign_contacts cc ON cc.id = ej.campaign_contact_id JOIN campaigns c ON c.id = cc.campaign_id " +
+                "WHERE 1 = 1" + owned + " ORDER BY ej.id LIMIT 1");
+        putFirst(ids, "/api/client-briefings/", "SELECT id FROM client_briefings ORDER BY id LIMIT 1");
+        putFirst(ids, "/api/campaign-plans/", "SELECT c.id FROM campaign_plans c WHERE 1 = 1" + owned + " ORDER BY c.id LIMIT 1");
+        return ids;
+    }
+
+    private void putFirst(Map<String, Long> ids, String prefix, String sql) {
+        jdbcTemplate.query(sql, rs -> { ids.put(prefix, rs.getLong(1)); });
+    }
+
+    /** The pattern with {id} filled in, or null when it has a variable we can't fill. */
+    private String expand(String pattern, Map<String, Long> ids) {
+        if (!pattern.contains("{")) return pattern;
+        int var = pattern.indexOf("{id}");
+        if (var < 0 || pattern.indexOf('{', var + 1) >= 0) return null;
+        Long id = ids.get(pattern.substring(0, var));
+        return id == null ? null : pattern.replace("{id}", String.valueOf(id));
+    }
+
+    // ─── Services ─────────────────────────────────────────────────────────────
+
+    private Authentication authenticate(String username) {
+        UserDetails user = userDetailsService.loadUserByUsername(username);
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+
+    @Test
+    void campaignListIsOneQueryPlusCounts() {
+        for (String user : List.of("admin", "qb-user-1")) {
+            Authentication auth = authenticate(user);
+            StatementCounter.Recording recording = StatementCounter.record(() -> campaignService.findAll(auth));
+            assertThat(recording.statements()).as("%s: %s", user, recording).isLessThanOrEqualTo(3);
+        }
+    }
+
+    @Test
+    void contactListDoesNotLoadPerContact() {
+        for (String user : List.of("admin", "qb-user-1")) {
+            Authentication auth = authenticate(user);
+            StatementCounter.Recording recording = StatementCounter.record(() -> contactService.findAll(null, auth));
+            assertThat(recording.statements()).as("%s: %s", user, recording).isLessThanOrEqualTo(3);
+        }
+    }
+
+    @Test
+    void jobPagesDoNotLoadPerJob() {
+        Long campaignId = sampleIds("admin").get("/api/campaigns/");
+        StatementCounter.Recording recording = StatementCounter.record(() -> emailJobService.findPage(
+                campaignId, null, null, null, null, null, 200, true, false));
+        assertThat(recording.statements()).as(recording.toString()).isLessThanOrEqualTo(4);
+
+        recording = StatementCounter.record(() -> emailJobService.findPage(
+                null, "SCHEDULED", null, null, null, null, 500, false, true));
+        assertThat(recording.statements()).as(recording.toString()).isLessThanOrEqualTo(4);
+    }
+
+    @Test
+    void dashboardStatsAreAggregatedInTheDatabase() {
+        for (String user : List.of("admin", "qb-user-1")) {
+            Authentication auth = authenticate(user);
+            StatementCounter.Recording recording = StatementCounter.record(() -> dashboardService.getStats(auth));
+            assertThat(recording.statements()).as("%s: %s", user, recording).isLessThanOrEqualTo(12);
+        }
+    }
+
+    // ─── Write paths ──────────────────────────────────────────────────────────
+
+    private Long newCampaign(String name) {
+        jdbcTemplate.update("INSERT INTO campaigns (name, gmail_email, status, interval_days, owner_id, created_at) " +
+                "SELECT ?, 'sender0@example.com', 'ACTIVE', '0,3,7', id, NOW() FROM users WHERE username = 'admin'", name);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM campaigns WHERE name = ?", Long.class, name);
+    }
+
+    private StatementCounter.Recording importRows(int rows) throws Exception {
+        Long campaignId = newCampaign("QB import " + rows);
+        LocalDate first = LocalDate.now().plusDays(5);
+        StringBuilder csv = new StringBuilder("Name,Email,Email Link,Email 1,Email 2\n");
+        for (int i = 1; i <= rows; i++) {
+            csv.append("Imported ").append(i).append(",import").append(rows).append('-').append(i)
+                    .append("@example.net,https://docs.google.com/document/d/import-").append(rows).append('-').append(i)
+                    .append(',').append(first).append(" 09:00,").append(first.plusDays(3)).append(" 09:00\n");
+        }
+        ExcelImportResultDto result = new ExcelImportResultDto();
+        StatementCounter.Recording recording;
+        try (WorkbookRowReader workbook = WorkbookRowReader.openCsv(
+                new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)))) {
+            StatementCounter.start();
+            try {
+                excelImportService.importWorkbook(campaignId, workbook, "qb-sheet-" + rows, result,
+                        ExcelImportService.Progress.NONE);
+            } finally {
+                recording = StatementCounter.stop();
+            }
+        }
+        assertThat(result.getContactsImported()).isEqualTo(rows);
+        return recording;
+    }
+
+    @Test
+    void sheetImportWritesInBatchesNotPerRow() throws Exception {
+        when(docParser.parseDoc(anyString())).thenReturn(Map.of(
+                1, new GoogleDocParserService.ParsedEmail("Hello", "Hi, first."),
+                2, new GoogleDocParserService.ParsedEmail("Following up", "Hi, second.")));
+
+        StatementCounter.Recording small = importRows(100);
+        StatementCounter.Recording large = importRows(500);
+
+        // import.batch-size is 50: four times the rows is 8 more batches, not 400 more rows' worth
+        assertThat(small.statements()).as(small.toString()).isLessThanOrEqualTo(30);
+        assertThat(large.statements() - small.statements()).as(large.toString()).isLessThanOrEqualTo(8 * 12);
+    }
+
+    @Test
+    void assigningContactsIsSetBased() throws Exception {
+        Long campaignId = newCampaign("QB assign");
+        List<Long> contactIds = jdbcTemplate.queryForList(
+                "SELECT id FROM contacts ORDER BY id LIMIT 2000", Long.class);
+        String body = "{\"contactIds\":" + contactIds + "}";
+        String token = jwtUtil.generateToken(userDetailsService.loadUserByUsername("admin"));
+
+        MvcResult result;
+        StatementCounter.Recording recording;
+        StatementCounter.start();
+        try {
+            result = mockMvc.perform(post("/api/campaigns/" + campaignId + "/contacts")
+                    .header("Authorization", "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON).content(body)).andReturn();
+        } finally {
+            recording = StatementCounter.stop();
+        }
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM campaign_contacts WHERE campaign_id = ?",
+                Integer.class, campaignId)).isEqualTo(contactIds.size());
+        assertThat(recording.statements()).as(recording.toString()).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void schedulerCycleDoesNotLoadPerJob() {
+        when(sessionService.isReady()).thenReturn(true);
+        when(gmailService.sendAll(anyList())).thenAnswer(invocation -> invocation.<List<EmailJob>>getArgument(0).stream()
+                .map(job -> new PlaywrightGmailService.SendOutcome(job, null)).collect(Collectors.toList()));
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        StatementCounter.Recording recording = tx.execute(status -> {
+            // 200 step-4 jobs in ACTIVE campaigns fall due; rolled back afterwards so the
+            // other tests see the seeded data
+            jdbcTemplate.update("UPDATE email_jobs SET scheduled_at = DATEADD('MINUTE', -1, NOW()) WHERE id IN (" +
+                    "SELECT ej.id FROM email_jobs ej JOIN campaign_contacts cc ON cc.id = ej.campaign_contact_id " +
+                    "JOIN campaigns c ON c.id = cc.campaign_id " +
+                    "WHERE ej.status = 'SCHEDULED' AND ej.step_number = 4 AND c.status = 'ACTIVE' " +
+                    "ORDER BY ej.id LIMIT 200)");
+            StatementCounter.Recording cycle = StatementCounter.record(() -> {
+                emailScheduler.processEmailQueue();
+                entityManager.flush();
+            });
+            assertThat(jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM email_jobs WHERE status = 'SENT' AND step_number = 4", Integer.class))
+                    .isEqualTo(200);
+            status.setRollbackOnly();
+            return cycle;
+        });
+
+        // One query for the due jobs and what they are checked against, then the updates in JDBC batches of 50
+        assertThat(recording.statements()).as(recording.toString()).isLessThanOrEqualTo(1 + 200 / 50 + 1);
+    }
+}
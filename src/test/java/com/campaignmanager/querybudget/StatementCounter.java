@@ -0,0 +1,160 @@
+package com.campaignmanager.querybudget;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements executed on the current thread and remembers where each one
+ * came from.
+ *
+ * Counting happens at the JDBC level ({@link #wrap} puts a proxy around the DataSource),
+ * so Hibernate, Spring Data and JdbcTemplate statements are all seen.  A JDBC batch
+ * counts once, as it is one round trip.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    /** Statements seen between {@link #start()} and {@link #stop()}, by origin. */
+    public static final class Recording {
+        private final Map<String, Integer> bySource = new LinkedHashMap<>();
+        private int statements;
+
+        public int statements() { return statements; }
+
+        /** Origin ("Caller.method:line -> repositoryMethod" or "lazy load from ...") to statement count. */
+        public Map<String, Integer> bySource() { return bySource; }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(statements + " statement(s)");
+            bySource.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                    .forEach(e -> sb.append(String.format("%n  %5d  %s", e.getValue(), e.getKey())));
+            return sb.toString();
+        }
+    }
+
+    private StatementCounter() {}
+
+    public static void start() {
+        CURRENT.set(new Recording());
+    }
+
+    public static Recording stop() {
+        Recording recording = CURRENT.get();
+        CURRENT.remove();
+        return recording != null ? recording : new Recording();
+    }
+
+    /** Runs {@code work} and returns the statements it executed on this thread. */
+    public static Recording record(Runnable work) {
+        start();
+        try {
+            work.run();
+        } catch (RuntimeException | Error e) {
+            stop();
+            throw e;
+        }
+        return stop();
+    }
+
+    // ─── JDBC proxies ─────────────────────────────────────────────────────────
+
+    public static DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object value = invoke(target, method, args);
+            return value instanceof Connection c ? proxy(Connection.class, c, StatementCounter::onConnection) : value;
+        });
+    }
+
+    private static Object onConnection(Object target, Method method, Object[] args) throws Throwable {
+        Object value = invoke(target, method, args);
+        if (value instanceof CallableStatement s) return proxy(CallableStatement.class, s, StatementCounter::onStatement);
+        if (value instanceof PreparedStatement s) return proxy(PreparedStatement.class, s, StatementCounter::onStatement);
+        if (value instanceof Statement s) return proxy(Statement.class, s, StatementCounter::onStatement);
+        return value;
+    }
+
+    private static Object onStatement(Object target, Method method, Object[] args) throws Throwable {
+        if (method.getName().startsWith("execute")) {
+            Recording recording = CURRENT.get();
+            if (recording != null) {
+                recording.statements++;
+                recording.bySource.merge(source(), 1, Integer::sum);
+            }
+        }
+        return invoke(target, method, args);
+    }
+
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        InvocationHandler h = (p, method, args) -> {
+            if (method.getName().equals("unwrap") && args[0] instanceof Class<?> c && c.isInstance(target)) return target;
+            if (method.getName().equals("isWrapperFor") && args[0] instanceof Class<?> c && c.isInstance(target)) return true;
+            return handler.handle(target, method, args);
+        };
+        return type.cast(Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type}, h));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ─── Attribution ──────────────────────────────────────────────────────────
+
+    /**
+     * Names the code that issued the statement: the Spring Data repository method when
+     * the call went through a repository proxy, the method of a JdbcTemplate-based
+     * repository, or a lazy load (with the app frame that touched the association).  The
+     * caller is the first app frame outside the repository package, so helpers like
+     * {@code IdCount.byId} report their service.
+     */
+    static String source() {
+        return StackWalker.getInstance().walk(frames -> {
+            boolean pastJdbc = false;
+            String lazy = null;
+            String repository = null;
+            for (StackWalker.StackFrame f : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String cls = f.getClassName();
+                if (!pastJdbc) {
+                    // Skip this class and the statement proxy that called it
+                    pastJdbc = cls.contains("$Proxy");
+                    continue;
+                }
+                if (lazy == null && repository == null
+                        && (cls.endsWith("AbstractLazyInitializer") || cls.endsWith("AbstractPersistentCollection"))) {
+                    lazy = "lazy load";
+                } else if (repository == null && cls.contains("$Proxy")) {
+                    repository = f.getMethodName();
+                } else if (repository == null && cls.startsWith("com.campaignmanager.repository.")) {
+                    repository = cls.substring(cls.lastIndexOf('.') + 1) + "." + f.getMethodName();
+                } else if (cls.startsWith("com.campaignmanager.") && !cls.startsWith("com.campaignmanager.querybudget.")
+                        && !cls.startsWith("com.campaignmanager.repository.")) {
+                    String caller = cls.substring(cls.lastIndexOf('.') + 1) + "." + f.getMethodName()
+                            + ":" + f.getLineNumber();
+                    if (lazy != null) return lazy + " from " + caller;
+                    if (repository != null) return caller + " -> " + repository;
+                    return caller;
+                }
+            }
+            return lazy != null ? lazy : repository != null ? repository : "(unknown)";
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.campaignmanager.repository;
+
+import com.campaignmanager.model.Contact;
+import com.campaignmanager.model.EmailJobStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** The JDBC batch writes behind imports, and their case-insensitive email matching. */
+@DataJpaTest
+@Import(ImportBulkRepository.class)
+class ImportBulkRepositoryTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Autowired private ImportBulkRepository bulkRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private long ann;
+    private long bob;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES ('ann', 'x', 'ROLE_USER'), " +
+                "('bob', 'x', 'ROLE_USER')");
+        ann = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'ann'", Long.class);
+        bob = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'bob'", Long.class);
+    }
+
+    private long contact(String email, Long ownerId) {
+        jdbcTemplate.update("INSERT INTO contacts (name, email, owner_id, created_at) VALUES ('Someone', ?, ?, NOW())",
+                email, ownerId);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM contacts", Long.class);
+    }
+
+    private static Contact newContact(String email) {
+        Contact c = new Contact();
+        c.setName("New");
+        c.setEmail(email);
+        return c;
+    }
+
+    @Test
+    void findContactsMatchesEmailsRegardlessOfCaseWithinTheOwner() {
+        long mixed = contact("Alice@Example.com", ann);
+        contact("alice@example.com", bob);
+
+        Map<String, Contact> found = bulkRepository.findContacts(ann, List.of("ALICE@example.COM", "nobody@example.com"));
+
+        assertThat(found).containsOnlyKeys("alice@example.com");
+        assertThat(found.get("alice@example.com").getId()).isEqualTo(mixed);
+        assertThat(found.get("alice@example.com").getEmail()).isEqualTo("Alice@Example.com");
+    }
+
+    @Test
+    void contactIndexIsKeyedByLowerCaseEmailOldestFirst() {
+        long first = contact("Alice@Example.com", ann);
+        contact("alice@example.com", bob);
+        long other = contact("carol@example.com", bob);
+
+        assertThat(bulkRepository.findContactIds(ann)).containsExactlyEntriesOf(Map.of("alice@example.com", first));
+        assertThat(bulkRepository.findContactIds(null))
+                .containsOnly(Map.entry("alice@example.com", first), Map.entry("carol@example.com", other));
+    }
+
+    @Test
+    void saveContactsInsertsAndUpdatesInBatchesAndSetsNewIds() {
+        long existingId = contact("alice@example.com", ann);
+        Contact existing = newContact("alice@example.com");
+        existing.setId(existingId);
+        existing.setName("Alice Updated");
+        Contact inserted = newContact("Dave@Example.com");
+
+        bulkRepository.saveContacts(List.of(existing, inserted), ann);
+
+        assertThat(inserted.getId()).isNotNull();
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM contacts WHERE id = ?", String.class, existingId))
+                .isEqualTo("Alice Updated");
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM contacts WHERE id = ? AND owner_id = ?",
+                String.class, inserted.getId(), ann)).isEqualTo("Dave@Example.com");
+    }
+
+    @Test
+    void enrollOnlyInsertsMissingEnrollments() {
+        jdbcTemplate.update("INSERT INTO campaigns (name, interval_days, status, created_at) VALUES ('C', '0', 'ACTIVE', NOW())");
+        long campaignId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM campaigns", Long.class);
+        long a = contact("a@example.com", ann);
+        long b = contact("b@example.com", ann);
+
+        ImportBulkRepository.Enrollments first = bulkRepository.enroll(campaignId, List.of(a));
+        ImportBulkRepository.Enrollments second = bulkRepository.enroll(campaignId, List.of(a, b, b));
+
+        assertThat(first.inserted()).isEqualTo(1);
+        assertThat(second.inserted()).isEqualTo(1);
+        assertThat(second.byContact()).containsOnlyKeys(a, b).containsEntry(a, first.byContact().get(a));
+    }
+
+    @Test
+    void jobStepsIncludeArchivedJobsAndOnlyScheduledJobsAreRefreshed() {
+        jdbcTemplate.update("INSERT INTO campaigns (name, interval_days, status, created_at) VALUES ('C', '0', 'ACTIVE', NOW())");
+        long campaignId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM campaigns", Long.class);
+        long enrollment = bulkRepository.enroll(campaignId, List.of(contact("a@example.com", ann))).byContact().values()
+                .iterator().next();
+        bulkRepository.insertJobs(List.of(
+                new ImportBulkRepository.JobRow(enrollment, 1, "One", "Body", AT, EmailJobStatus.SENT),
+                new ImportBulkRepository.JobRow(enrollment, 2, "Two", "Body", AT, EmailJobStatus.SCHEDULED)));
+        jdbcTemplate.update("INSERT INTO email_jobs_archive (id, campaign_contact_id, step_number, subject, body, " +
+                "scheduled_at, status, archived_at) VALUES (9999, ?, 3, 'Three', 'Body', ?, 'SENT', NOW())", enrollment, AT);
+
+        bulkRepository.updateScheduledJobs(List.of(
+                new ImportBulkRepository.JobRow(enrollment, 1, "One again", "Body", AT, EmailJobStatus.SCHEDULED),
+                new ImportBulkRepository.JobRow(enrollment, 2, "Two again", "Body", AT, EmailJobStatus.SCHEDULED)));
+
+        assertThat(bulkRepository.findJobSteps(List.of(enrollment)).get(enrollment)).containsExactlyInAnyOrder(1, 2, 3);
+        assertThat(jdbcTemplate.queryForList("SELECT subject FROM email_jobs ORDER BY step_number", String.class))
+                .containsExactly("One", "Two again");
+    }
+}
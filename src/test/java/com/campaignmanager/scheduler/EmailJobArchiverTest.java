@@ -0,0 +1,151 @@
+package com.campaignmanager.scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Archival moves old SENT / SKIPPED jobs in batches that commit or roll back whole.  Runs
+ * outside the test transaction so each batch commits the way it does in production.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailJobArchiverTest {
+
+    private static final LocalDateTime OLD = LocalDateTime.now().minusDays(40);
+
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private NamedParameterJdbcTemplate namedJdbcTemplate;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private long enrollmentId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO campaigns (name, interval_days, status, created_at) " +
+                "VALUES ('Archive', '0', 'ACTIVE', NOW())");
+        jdbcTemplate.update("INSERT INTO contacts (name, email, created_at) VALUES ('Ann', 'ann@example.com', NOW())");
+        jdbcTemplate.update("INSERT INTO campaign_contacts (campaign_id, contact_id, enrolled_at) " +
+                "SELECT c.id, ct.id, NOW() FROM campaigns c, contacts ct");
+        enrollmentId = jdbcTemplate.queryForObject("SELECT id FROM campaign_contacts", Long.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM email_jobs_archive");
+        jdbcTemplate.update("DELETE FROM email_jobs");
+        jdbcTemplate.update("DELETE FROM campaign_contacts");
+        jdbcTemplate.update("DELETE FROM contacts");
+        jdbcTemplate.update("DELETE FROM campaigns");
+    }
+
+    private EmailJobArchiver archiver(NamedParameterJdbcTemplate named, int batchSize) {
+        EmailJobArchiver archiver = new EmailJobArchiver(jdbcTemplate, named, transactionManager);
+        ReflectionTestUtils.setField(archiver, "enabled", true);
+        ReflectionTestUtils.setField(archiver, "minAgeDays", 30);
+        ReflectionTestUtils.setField(archiver, "batchSize", batchSize);
+        return archiver;
+    }
+
+    private long job(LocalDateTime scheduledAt, String status) {
+        jdbcTemplate.update("INSERT INTO email_jobs (campaign_contact_id, step_number, subject, body, " +
+                "scheduled_at, sent_at, status, error_message) VALUES (?, 1, 'Hello', 'Hi', ?, ?, ?, 'note')",
+                enrollmentId, scheduledAt, scheduledAt, status);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM email_jobs", Long.class);
+    }
+
+    private List<Long> liveIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM email_jobs ORDER BY id", Long.class);
+    }
+
+    private List<Long> archivedIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM email_jobs_archive ORDER BY id", Long.class);
+    }
+
+    @Test
+    void movesOnlyOldSentAndSkippedJobsKeepingTheirIds() {
+        long sent = job(OLD, "SENT");
+        long skipped = job(OLD, "SKIPPED");
+        long failed = job(OLD, "FAILED");
+        long held = job(OLD, "HOLD");
+        long scheduled = job(OLD, "SCHEDULED");
+        long recent = job(LocalDateTime.now().minusDays(2), "SENT");
+
+        archiver(namedJdbcTemplate, 500).archive();
+
+        assertThat(archivedIds()).containsExactly(sent, skipped);
+        assertThat(liveIds()).containsExactly(failed, held, scheduled, recent);
+        assertThat(jdbcTemplate.queryForMap("SELECT campaign_contact_id, status, error_message, archived_at " +
+                "FROM email_jobs_archive WHERE id = ?", sent))
+                .containsEntry("CAMPAIGN_CONTACT_ID", enrollmentId)
+                .containsEntry("STATUS", "SENT")
+                .containsEntry("ERROR_MESSAGE", "note")
+                .extractingByKey("ARCHIVED_AT").isNotNull();
+    }
+
+    @Test
+    void keepsGoingUntilABatchComesBackShort() {
+        for (int i = 0; i < 5; i++) job(OLD.plusMinutes(i), "SENT");
+
+        archiver(namedJdbcTemplate, 2).archive();
+
+        assertThat(liveIds()).isEmpty();
+        assertThat(archivedIds()).hasSize(5);
+    }
+
+    @Test
+    void failedBatchRollsBackWholeAndEarlierBatchesStay() {
+        long first = job(OLD, "SENT");
+        long second = job(OLD.plusMinutes(1), "SENT");
+        long third = job(OLD.plusMinutes(2), "SENT");
+        long fourth = job(OLD.plusMinutes(3), "SENT");
+        // The second batch's delete fails after its rows were copied into the archive
+        NamedParameterJdbcTemplate named = spy(namedJdbcTemplate);
+        AtomicInteger deletes = new AtomicInteger();
+        doAnswer(inv -> {
+            if (deletes.incrementAndGet() == 2) throw new IllegalStateException("connection lost");
+            return inv.callRealMethod();
+        }).when(named).update(startsWith("DELETE FROM email_jobs "), any(SqlParameterSource.class));
+
+        archiver(named, 2).archive();
+
+        assertThat(archivedIds()).containsExactly(first, second);
+        assertThat(liveIds()).containsExactly(third, fourth);
+
+        archiver(namedJdbcTemplate, 2).archive();
+
+        assertThat(archivedIds()).containsExactly(first, second, third, fourth);
+        assertThat(liveIds()).isEmpty();
+    }
+
+    @Test
+    void purgesArchivedJobsWhoseEnrollmentWasDeleted() {
+        long kept = job(OLD, "SENT");
+        jdbcTemplate.update("INSERT INTO email_jobs_archive (id, campaign_contact_id, step_number, subject, body, " +
+                "scheduled_at, status, archived_at) VALUES (9999, ?, 1, 'Gone', 'Hi', ?, 'SENT', NOW())",
+                enrollmentId + 1000, OLD);
+
+        archiver(namedJdbcTemplate, 500).archive();
+
+        assertThat(archivedIds()).containsExactly(kept);
+    }
+}
@@ -0,0 +1,102 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.dto.CsvImportResultDto;
+import com.campaignmanager.repository.ImportBulkRepository;
+import com.campaignmanager.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contact CSV imports: one index lookup per import, batched upserts, per-row fallback.  Runs
+ * outside the test transaction so a failed batch rolls back the way it does in production.
+ */
+@DataJpaTest
+@Import(ImportBulkRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CsvImportServiceTest {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private ImportBulkRepository bulkRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private CsvImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new CsvImportService(userRepository, bulkRepository, transactionManager);
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM contacts");
+    }
+
+    private CsvImportResultDto importCsv(String rows) {
+        String csv = "Name,Email,Company\n" + rows;
+        return importService.importContacts(new MockMultipartFile("file", "contacts.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private int contacts() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM contacts", Integer.class);
+    }
+
+    @Test
+    void repeatedEmailAcrossBatchesIsAnUpdate() {
+        CsvImportResultDto result = importCsv("""
+                Ann,ann@example.com,Acme
+                Bob,bob@example.com,Acme
+                Cat,cat@example.com,Acme
+                Ann Again,ANN@example.com,Initech
+                """);
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getUpdated()).isEqualTo(1);
+        assertThat(contacts()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT company FROM contacts WHERE email = 'ann@example.com'",
+                String.class)).isEqualTo("Initech");
+    }
+
+    @Test
+    void existingContactsAreUpdatedRegardlessOfCase() {
+        importCsv("Ann,Ann@Example.com,Acme\n");
+
+        CsvImportResultDto again = importCsv("Ann,ann@example.com,Initech\n");
+
+        assertThat(again.getImported()).isZero();
+        assertThat(again.getUpdated()).isEqualTo(1);
+        assertThat(contacts()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidRowsFailAloneAndTheRestOfTheirBatchIsWritten() {
+        String tooLong = "x".repeat(300) + "@example.com";
+
+        CsvImportResultDto result = importCsv("Ann,ann@example.com,Acme\n" +
+                "Bob," + tooLong + ",Acme\n" +
+                ",nameless@example.com,Acme\n" +
+                "Cat,cat@example.com,Acme\n");
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).hasSize(2).anySatisfy(e -> assertThat(e).startsWith("Row 3: Name is required"));
+        assertThat(jdbcTemplate.queryForList("SELECT email FROM contacts ORDER BY email", String.class))
+                .containsExactly("ann@example.com", "cat@example.com");
+    }
+}
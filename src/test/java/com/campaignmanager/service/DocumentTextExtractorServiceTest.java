@@ -0,0 +1,121 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.model.CampaignPlanDocument;
+import com.campaignmanager.model.ExtractedText;
+import com.campaignmanager.repository.CampaignPlanDocumentRepository;
+import com.campaignmanager.repository.ExtractedTextRepository;
+import com.campaignmanager.storage.FileSystemBlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Extracted text is cached by content hash and extractor version.  Runs outside the test
+ * transaction since cache writes commit in a transaction of their own.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DocumentTextExtractorServiceTest {
+
+    @Autowired private ExtractedTextRepository extractedTextRepository;
+    @Autowired private CampaignPlanDocumentRepository documentRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private DocumentContentService contentService;
+    private DocumentTextExtractorService extractor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // No blob store: content stays on the document, as without storage.blobs.dir
+        contentService = new DocumentContentService(new FileSystemBlobStore(""));
+        extractor = new DocumentTextExtractorService(contentService, extractedTextRepository,
+                documentRepository, transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM extracted_texts");
+    }
+
+    /** A document as loaded from the database: it has an id, and its content. */
+    private CampaignPlanDocument doc(long id, String name, String content) throws Exception {
+        CampaignPlanDocument doc = new CampaignPlanDocument();
+        doc.setId(id);
+        doc.setOriginalFileName(name);
+        contentService.store(doc, content.getBytes(StandardCharsets.UTF_8));
+        return doc;
+    }
+
+    private List<String> cachedContents() {
+        return jdbcTemplate.queryForList("SELECT content FROM extracted_texts ORDER BY id", String.class);
+    }
+
+    @Test
+    void extractedTextIsCachedAndReusedInsteadOfParsingAgain() throws Exception {
+        CampaignPlanDocument page = doc(1, "brief.html", "<p>Hello&nbsp;<b>world</b></p>");
+
+        assertThat(extractor.extractAll(List.of(page))).contains("=== Document: brief.html ===\nHello world");
+        assertThat(cachedContents()).containsExactly("Hello world");
+
+        // Served from the cache from now on, so a changed cache entry shows through
+        jdbcTemplate.update("UPDATE extracted_texts SET content = 'From cache'");
+        assertThat(extractor.extractAll(List.of(page))).contains("From cache").doesNotContain("Hello world");
+    }
+
+    @Test
+    void identicalContentIsExtractedAndStoredOnce() throws Exception {
+        String corpus = extractor.extractAll(List.of(doc(1, "a.txt", "Same text"), doc(2, "b.txt", "Same text")));
+
+        assertThat(corpus).contains("=== Document: a.txt ===", "=== Document: b.txt ===");
+        assertThat(cachedContents()).containsExactly("Same text");
+    }
+
+    @Test
+    void textFromAnotherExtractorVersionIsIgnored() throws Exception {
+        CampaignPlanDocument notes = doc(1, "notes.txt", "Fresh text");
+        ExtractedText old = new ExtractedText();
+        old.setContentHash(notes.getContentHash());
+        old.setExtractorVersion(DocumentTextExtractorService.EXTRACTOR_VERSION - 1);
+        old.setContent("Old text");
+        extractedTextRepository.save(old);
+
+        assertThat(extractor.extractAll(List.of(notes))).contains("Fresh text").doesNotContain("Old text");
+        assertThat(cachedContents()).containsExactly("Old text", "Fresh text");
+    }
+
+    @Test
+    void unsupportedTypesAreCachedAsEmptyAndUnsavedDocumentsNotAtAll() throws Exception {
+        CampaignPlanDocument unsaved = doc(1, "adhoc.txt", "Ad hoc");
+        unsaved.setId(null);
+
+        String corpus = extractor.extractAll(List.of(doc(2, "image.png", "not text"), unsaved));
+
+        assertThat(corpus).contains("Ad hoc").doesNotContain("image.png");
+        assertThat(cachedContents()).containsExactly("");
+    }
+
+    @Test
+    void staleTextsAreDeletedOnceADayOld() {
+        jdbcTemplate.update("INSERT INTO extracted_texts (content_hash, extractor_version, content, created_at) " +
+                "VALUES ('old', ?, 'orphan', ?), ('new', ?, 'recent orphan', NOW())",
+                DocumentTextExtractorService.EXTRACTOR_VERSION, LocalDateTime.now().minusDays(2),
+                DocumentTextExtractorService.EXTRACTOR_VERSION);
+
+        extractor.deleteStaleTexts();
+
+        assertThat(cachedContents()).containsExactly("recent orphan");
+    }
+}
@@ -0,0 +1,161 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.dto.EmailJobDto;
+import com.campaignmanager.dto.EmailJobPageDto;
+import com.campaignmanager.model.Campaign;
+import com.campaignmanager.model.CampaignContact;
+import com.campaignmanager.model.Contact;
+import com.campaignmanager.repository.CampaignContactRepository;
+import com.campaignmanager.repository.CampaignRepository;
+import com.campaignmanager.repository.ContactRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Keyset paging of job lists: cursors continue exactly where the last page ended, ties included. */
+@DataJpaTest
+@Import(EmailJobService.class)
+class EmailJobPagingTest {
+
+    private static final LocalDateTime T = LocalDateTime.of(2030, 1, 1, 9, 0);
+
+    @Autowired private EmailJobService emailJobService;
+    @Autowired private CampaignRepository campaignRepository;
+    @Autowired private ContactRepository contactRepository;
+    @Autowired private CampaignContactRepository campaignContactRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private Long campaignId;
+    private Long enrollmentId;
+
+    @BeforeEach
+    void setUp() {
+        Campaign campaign = new Campaign();
+        campaign.setName("Paging");
+        campaignId = campaignRepository.save(campaign).getId();
+        Contact contact = new Contact();
+        contact.setName("Ann");
+        contact.setEmail("ann@example.com");
+        contact = contactRepository.save(contact);
+        CampaignContact enrollment = new CampaignContact();
+        enrollment.setCampaign(campaign);
+        enrollment.setContact(contact);
+        enrollmentId = campaignContactRepository.save(enrollment).getId();
+    }
+
+    private void job(LocalDateTime scheduledAt, String status) {
+        jdbcTemplate.update("INSERT INTO email_jobs (campaign_contact_id, step_number, subject, body, scheduled_at, status) " +
+                "VALUES (?, 1, 'Hello', 'Hi', ?, ?)", enrollmentId, scheduledAt, status);
+    }
+
+    private void archivedJob(long id, LocalDateTime scheduledAt) {
+        jdbcTemplate.update("INSERT INTO email_jobs_archive (id, campaign_contact_id, step_number, subject, body, " +
+                "scheduled_at, sent_at, status, archived_at) VALUES (?, ?, 1, 'Hello', 'Hi', ?, ?, 'SENT', ?)",
+                id, enrollmentId, scheduledAt, scheduledAt, T);
+    }
+
+    /** Seven live jobs, five of them sharing one scheduledAt so pages split inside the tie. */
+    private void seedLiveJobs() {
+        job(T.minusDays(1), "SENT");
+        for (int i = 0; i < 5; i++) job(T, "SCHEDULED");
+        job(T.plusDays(1), "SCHEDULED");
+    }
+
+    private List<Long> expectedOrder(boolean withArchive) {
+        String live = "SELECT id, scheduled_at FROM email_jobs";
+        String sql = withArchive ? live + " UNION ALL SELECT id, scheduled_at FROM email_jobs_archive" : live;
+        return jdbcTemplate.queryForList("SELECT id FROM (" + sql + ") j ORDER BY scheduled_at DESC, id DESC", Long.class);
+    }
+
+    /** Follows nextCursor to the end, checking hasMore on every page. */
+    private List<EmailJobDto> drain(int limit, boolean includeArchived) {
+        List<EmailJobDto> all = new ArrayList<>();
+        String cursor = null;
+        while (true) {
+            EmailJobPageDto page = emailJobService.findPage(campaignId, null, null, null, null,
+                    cursor, limit, false, includeArchived);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(limit);
+            all.addAll(page.getItems());
+            if (!page.isHasMore()) {
+                assertThat(page.getNextCursor()).isNull();
+                return all;
+            }
+            assertThat(page.getItems()).hasSize(limit);
+            assertThat(page.getNextCursor()).isNotBlank();
+            cursor = page.getNextCursor();
+        }
+    }
+
+    @Test
+    void cursorsVisitEveryJobOnceNewestFirstAcrossTies() {
+        seedLiveJobs();
+
+        for (int limit = 1; limit <= 8; limit++) {
+            assertThat(drain(limit, false)).as("limit %d", limit)
+                    .extracting(EmailJobDto::getId).containsExactlyElementsOf(expectedOrder(false));
+        }
+    }
+
+    @Test
+    void lastFullPageHasNoCursor() {
+        seedLiveJobs();
+
+        EmailJobPageDto page = emailJobService.findPage(campaignId, null, null, null, null, null, 7, false, false);
+
+        assertThat(page.getItems()).hasSize(7);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        assertThat(page.getTotal()).isNull();
+    }
+
+    @Test
+    void archivedJobsAreMergedInByTheSameKeyAndFlagged() {
+        seedLiveJobs();
+        archivedJob(1000, T);
+        archivedJob(1001, T.minusDays(2));
+        archivedJob(1002, T.plusDays(2));
+
+        for (int limit = 1; limit <= 4; limit++) {
+            List<EmailJobDto> all = drain(limit, true);
+            assertThat(all).as("limit %d", limit)
+                    .extracting(EmailJobDto::getId).containsExactlyElementsOf(expectedOrder(true));
+            assertThat(all).filteredOn(EmailJobDto::isArchived)
+                    .extracting(EmailJobDto::getId).containsExactlyInAnyOrder(1000L, 1001L, 1002L);
+        }
+        assertThat(drain(3, false)).extracting(EmailJobDto::getId).containsExactlyElementsOf(expectedOrder(false));
+    }
+
+    @Test
+    void totalCountsEveryPageAndTheArchiveWhenAsked() {
+        seedLiveJobs();
+        archivedJob(1000, T);
+
+        assertThat(emailJobService.findPage(campaignId, null, null, null, null, null, 2, true, false).getTotal())
+                .isEqualTo(7);
+        assertThat(emailJobService.findPage(campaignId, null, null, null, null, null, 2, true, true).getTotal())
+                .isEqualTo(8);
+        // The archive only holds SENT / SKIPPED jobs, so a SCHEDULED filter leaves it out
+        assertThat(emailJobService.findPage(campaignId, "scheduled", null, null, null, null, 2, true, true).getTotal())
+                .isEqualTo(6);
+    }
+
+    @Test
+    void invalidCursorIsABadRequest() {
+        assertThatThrownBy(() -> emailJobService.findPage(campaignId, null, null, null, null,
+                "not a cursor", 10, false, false))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+}
@@ -0,0 +1,199 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.browser.FetchResult;
+import com.campaignmanager.model.GoogleDocCache;
+import com.campaignmanager.repository.GoogleDocCacheRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GoogleDocParserServiceTest {
+
+    private static final String DOC_URL = "https://docs.google.com/document/d/doc-1/edit";
+    private static final String DOC_TEXT = """
+            Email 1: Intro
+            Subject: Hello there
+            Hi Ann, first body.
+            Email 2: Follow-up
+            Subject: Checking in
+            Hi Ann, second body.
+            """;
+
+    @Mock private PlaywrightSessionService sessionService;
+    @Mock private GoogleDocCacheRepository docCacheRepository;
+
+    @InjectMocks private GoogleDocParserService parser;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(parser, "freshMinutes", 10L);
+    }
+
+    private static FetchResult ok(String text, String etag) {
+        return new FetchResult(200, text.getBytes(StandardCharsets.UTF_8), Map.of("etag", etag));
+    }
+
+    private static GoogleDocCache cached(String text, LocalDateTime checkedAt) {
+        GoogleDocCache entry = new GoogleDocCache();
+        entry.setId(5L);
+        entry.setDocId("doc-1");
+        entry.setContent(text);
+        entry.setEtag("\"v1\"");
+        entry.setFetchedAt(checkedAt);
+        entry.setCheckedAt(checkedAt);
+        return entry;
+    }
+
+    @Test
+    void parseDocStoresWhatItFetched() throws Exception {
+        when(docCacheRepository.findByDocId("doc-1")).thenReturn(Optional.empty());
+        when(sessionService.fetch(anyString(), anyMap())).thenReturn(ok(DOC_TEXT, "\"v1\""));
+
+        Map<Integer, GoogleDocParserService.ParsedEmail> parsed = parser.parseDoc(DOC_URL);
+
+        assertThat(parsed).containsOnlyKeys(1, 2);
+        assertThat(parsed.get(2).subject()).isEqualTo("Checking in");
+        verify(docCacheRepository).save(argThat(e -> "doc-1".equals(e.getDocId()) && "\"v1\"".equals(e.getEtag())));
+    }
+
+    @Test
+    void probeOfAnUncachedDocWritesNothing() throws Exception {
+        when(docCacheRepository.findByDocId("doc-1")).thenReturn(Optional.empty());
+        when(sessionService.fetch(anyString(), anyMap())).thenReturn(ok(DOC_TEXT, "\"v1\""));
+
+        assertThat(parser.probeDoc(DOC_URL)).containsOnlyKeys(1, 2);
+
+        verify(docCacheRepository, never()).save(any());
+    }
+
+    @Test
+    void probeUsesAFreshCachedCopyWithoutARequest() throws Exception {
+        when(docCacheRepository.findByDocId("doc-1"))
+                .thenReturn(Optional.of(cached(DOC_TEXT, LocalDateTime.now().minusMinutes(1))));
+
+        assertThat(parser.probeDoc(DOC_URL)).containsOnlyKeys(1, 2);
+
+        verify(sessionService, never()).fetch(anyString(), anyMap());
+        verify(docCacheRepository, never()).save(any());
+    }
+
+    @Test
+    void probeRevalidatesAStaleCopyButLeavesItsCheckTimeAlone() throws Exception {
+        LocalDateTime checkedAt = LocalDateTime.now().minusHours(2);
+        GoogleDocCache entry = cached(DOC_TEXT, checkedAt);
+        when(docCacheRepository.findByDocId("doc-1")).thenReturn(Optional.of(entry));
+        when(sessionService.fetch(anyString(), eq(Map.of("If-None-Match", "\"v1\""))))
+                .thenReturn(new FetchResult(304, new byte[0], Map.of()));
+
+        assertThat(parser.probeDoc(DOC_URL)).containsOnlyKeys(1, 2);
+
+        assertThat(entry.getCheckedAt()).isEqualTo(checkedAt);
+        verify(docCacheRepository, never()).save(any());
+    }
+
+    @Test
+    void concurrentParsesOfOneDocShareOneFetch() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(docCacheRepository.findByDocId("doc-1")).thenReturn(Optional.empty());
+        when(sessionService.fetch(anyString(), anyMap())).thenAnswer(inv -> {
+            fetching.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return ok(DOC_TEXT, "\"v1\"");
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<Map<Integer, GoogleDocParserService.ParsedEmail>> first = callers.submit(() -> parser.parseDoc(DOC_URL));
+            assertThat(fetching.await(10, TimeUnit.SECONDS)).isTrue();
+            AtomicReference<Thread> secondThread = new AtomicReference<>();
+            Future<Map<Integer, GoogleDocParserService.ParsedEmail>> second = callers.submit(() -> {
+                secondThread.set(Thread.currentThread());
+                return parser.parseDoc(DOC_URL);
+            });
+            // Let the second caller block (on the first one's fetch, or on a fetch of its own)
+            while (secondThread.get() == null || secondThread.get().getState() != Thread.State.WAITING
+                    && secondThread.get().getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).containsOnlyKeys(1, 2);
+            assertThat(second.get(10, TimeUnit.SECONDS)).containsOnlyKeys(1, 2);
+        } finally {
+            callers.shutdownNow();
+        }
+        verify(sessionService, times(1)).fetch(anyString(), anyMap());
+        verify(docCacheRepository, times(1)).save(any());
+    }
+
+    @Test
+    void failedFetchIsNotRememberedForTheNextCaller() throws Exception {
+        when(docCacheRepository.findByDocId("doc-1")).thenReturn(Optional.empty());
+        when(sessionService.fetch(anyString(), anyMap()))
+                .thenReturn(new FetchResult(403, new byte[0], Map.of()))
+                .thenReturn(ok(DOC_TEXT, "\"v1\""));
+
+        assertThatThrownBy(() -> parser.parseDoc(DOC_URL)).hasMessageContaining("HTTP 403");
+        assertThat(parser.parseDoc(DOC_URL)).containsOnlyKeys(1, 2);
+    }
+
+    @Test
+    void losingTheInsertRaceUpdatesTheWinningRow() throws Exception {
+        GoogleDocCache winner = cached("older text", LocalDateTime.now().minusHours(2));
+        when(docCacheRepository.findByDocId("doc-1")).thenReturn(Optional.empty(), Optional.of(winner));
+        when(sessionService.fetch(anyString(), anyMap())).thenReturn(ok(DOC_TEXT, "\"v2\""));
+        when(docCacheRepository.save(any()))
+                .thenThrow(new DuplicateKeyException("uk_google_doc_cache_doc_id"))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        assertThat(parser.parseDoc(DOC_URL)).containsOnlyKeys(1, 2);
+
+        ArgumentCaptor<GoogleDocCache> saved = ArgumentCaptor.forClass(GoogleDocCache.class);
+        verify(docCacheRepository, times(2)).save(saved.capture());
+        assertThat(saved.getValue().getId()).isEqualTo(5L);
+        assertThat(saved.getValue().getEtag()).isEqualTo("\"v2\"");
+    }
+
+    @Test
+    void otherCacheWriteErrorsAreNotRetriedAndDoNotFailTheParse() throws Exception {
+        when(docCacheRepository.findByDocId("doc-1")).thenReturn(Optional.empty());
+        when(sessionService.fetch(anyString(), anyMap())).thenReturn(ok(DOC_TEXT, "\"v1\""));
+        when(docCacheRepository.save(any())).thenThrow(new DataIntegrityViolationException("value too long"));
+
+        assertThat(parser.parseDoc(DOC_URL)).containsOnlyKeys(1, 2);
+
+        verify(docCacheRepository, times(1)).findByDocId("doc-1");
+        verify(docCacheRepository, times(1)).save(any());
+    }
+}
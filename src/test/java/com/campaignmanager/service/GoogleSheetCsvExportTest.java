@@ -0,0 +1,105 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.browser.FetchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** When {@link ExcelImportService#downloadGoogleSheet} may use the CSV export instead of the XLSX. */
+@ExtendWith(MockitoExtension.class)
+class GoogleSheetCsvExportTest {
+
+    private static final String SHEET_URL = "https://docs.google.com/spreadsheets/d/abc123/edit#gid=42";
+    private static final String HEADER = "Name,Email,Email Link,Email 1,Email 2\n";
+    private static final byte[] XLSX = {0x50, 0x4B, 0x03, 0x04};
+
+    @Mock
+    private PlaywrightSessionService sessionService;
+
+    @InjectMocks
+    private ExcelImportService importService;
+
+    @BeforeEach
+    void enableCsvExport() {
+        ReflectionTestUtils.setField(importService, "csvExport", true);
+    }
+
+    private void csvExportReturns(String csv) {
+        when(sessionService.fetch(contains("format=csv")))
+                .thenReturn(new FetchResult(200, csv.getBytes(StandardCharsets.UTF_8), Map.of()));
+    }
+
+    private void xlsxExportReturnsWorkbook() {
+        when(sessionService.fetch(contains("format=xlsx"))).thenReturn(new FetchResult(200, XLSX, Map.of()));
+    }
+
+    @Test
+    void directFormatWithReadableDatesAndUrlsUsesTheCsv() throws Exception {
+        csvExportReturns(HEADER +
+                "Ann,ann@example.com,https://docs.google.com/document/d/d1,2026-11-02 09:00,11/9/2026 9:30\n" +
+                "Bob,bob@example.com,https://docs.google.com/document/d/d2,,\n");
+
+        ExcelImportService.SheetDownload download = importService.downloadGoogleSheet(SHEET_URL);
+
+        assertThat(download.csv()).isTrue();
+        verify(sessionService).fetch("https://docs.google.com/spreadsheets/d/abc123/export?format=csv&gid=42");
+        verify(sessionService, never()).fetch(contains("format=xlsx"));
+    }
+
+    @Test
+    void unreadableDateFallsBackToXlsx() throws Exception {
+        csvExportReturns(HEADER + "Ann,ann@example.com,https://docs.google.com/document/d/d1,Nov 2nd 9am,\n");
+        xlsxExportReturnsWorkbook();
+
+        ExcelImportService.SheetDownload download = importService.downloadGoogleSheet(SHEET_URL);
+
+        assertThat(download.csv()).isFalse();
+        assertThat(download.body()).isEqualTo(XLSX);
+    }
+
+    @Test
+    void linkTextInsteadOfUrlFallsBackToXlsx() throws Exception {
+        csvExportReturns(HEADER + "Ann,ann@example.com,Ann's brief,2026-11-02 09:00,\n");
+        xlsxExportReturnsWorkbook();
+
+        assertThat(importService.downloadGoogleSheet(SHEET_URL).csv()).isFalse();
+    }
+
+    @Test
+    void templateFormatNeedsEveryTabAndFallsBackToXlsx() throws Exception {
+        csvExportReturns("Name,Email,Company\nAnn,ann@example.com,Acme\n");
+        xlsxExportReturnsWorkbook();
+
+        assertThat(importService.downloadGoogleSheet(SHEET_URL).csv()).isFalse();
+    }
+
+    @Test
+    void loginPageInsteadOfCsvFallsBackToXlsx() throws Exception {
+        csvExportReturns("<!DOCTYPE html><html>Sign in</html>");
+        xlsxExportReturnsWorkbook();
+
+        assertThat(importService.downloadGoogleSheet(SHEET_URL).csv()).isFalse();
+    }
+
+    @Test
+    void disabledCsvExportGoesStraightToXlsx() throws Exception {
+        ReflectionTestUtils.setField(importService, "csvExport", false);
+        xlsxExportReturnsWorkbook();
+
+        assertThat(importService.downloadGoogleSheet(SHEET_URL).csv()).isFalse();
+        verify(sessionService, never()).fetch(contains("format=csv"));
+    }
+}
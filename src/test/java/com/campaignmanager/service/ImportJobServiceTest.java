@@ -0,0 +1,160 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.dto.ExcelImportResultDto;
+import com.campaignmanager.model.ImportJob;
+import com.campaignmanager.model.ImportJobStatus;
+import com.campaignmanager.repository.ImportJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    @Mock private ImportJobRepository jobRepository;
+    @Mock private ExcelImportService excelImportService;
+    @Mock private PlaywrightSessionService sessionService;
+    @Mock private CampaignService campaignService;
+
+    @TempDir Path jobsDir;
+
+    private ImportJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ImportJobService(jobRepository, excelImportService, sessionService, campaignService,
+                new ObjectMapper());
+        ReflectionTestUtils.setField(service, "jobsDir", jobsDir.toString());
+        ReflectionTestUtils.setField(service, "concurrency", 1);
+        service.initialize();
+        lenient().when(jobRepository.save(any(ImportJob.class))).thenAnswer(inv -> {
+            ImportJob job = inv.getArgument(0);
+            if (job.getId() == null) job.setId(7L);
+            return job;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void uploadKeepsItsExtensionAndTheJobIsSavedOnce() throws Exception {
+        lenient().when(jobRepository.findById(anyLong())).thenReturn(Optional.empty()); // the job thread may not get there
+        MockMultipartFile upload = new MockMultipartFile("file", "Contacts.CSV", "text/csv",
+                "Email,Email Link,Email 1\n".getBytes());
+
+        service.submitExcel(3L, upload, false, "alice");
+
+        verify(jobRepository, times(1)).save(any(ImportJob.class));
+        try (var files = Files.list(jobsDir)) {
+            List<Path> stored = files.toList();
+            assertThat(stored).singleElement().satisfies(p -> {
+                assertThat(p.getFileName().toString()).endsWith(".csv");
+                assertThat(Files.readString(p)).startsWith("Email,Email Link");
+            });
+        }
+    }
+
+    @Test
+    void googleSheetJobIsSavedOnce() {
+        lenient().when(jobRepository.findById(anyLong())).thenReturn(Optional.empty()); // the job thread may not get there
+
+        service.submitGoogleSheet(3L, "https://docs.google.com/spreadsheets/d/abc/edit", false, "alice", true);
+
+        verify(jobRepository, times(1)).save(any(ImportJob.class));
+    }
+
+    @Test
+    void resumedJobStartsFromTheTotalsSavedWithItsCheckpoint() throws Exception {
+        Path workbook = Files.writeString(jobsDir.resolve("import-7.csv"), "Email,Email Link,Email 1\n");
+        ImportJob job = new ImportJob();
+        job.setId(7L);
+        job.setCampaignId(3L);
+        job.setFilePath(workbook.toString());
+        job.setStatus(ImportJobStatus.RUNNING);
+        job.setAttempts(1);
+        job.setCheckpointRow(101);
+        job.setContactsImported(90);
+        job.setJobsCreated(270);
+        job.setSkipped(6);
+        job.setUnchanged(4);
+        job.setErrors("[\"Row 12 (a@example.com): no Email Link — skipping job creation.\"]");
+        job.setRemovedRows("[\"gone@example.com\"]");
+        when(jobRepository.findByStatusInOrderByIdAsc(any())).thenReturn(List.of(job));
+        when(jobRepository.findById(7L)).thenReturn(Optional.of(job));
+
+        AtomicReference<ExcelImportResultDto> startTotals = new AtomicReference<>();
+        AtomicReference<ExcelImportService.Progress> startProgress = new AtomicReference<>();
+        doAnswer(inv -> {
+            ExcelImportResultDto totals = inv.getArgument(3);
+            ExcelImportService.Progress progress = inv.getArgument(4);
+            startTotals.set(copy(totals));
+            startProgress.set(progress);
+            // The redone batch: rows 102–151
+            totals.setContactsImported(totals.getContactsImported() + 50);
+            totals.setTemplatesImported(totals.getTemplatesImported() + 150);
+            progress.committed(151, totals);
+            totals.setMessage("done");
+            return null;
+        }).when(excelImportService).importWorkbook(eq(3L), any(), any(), any(), any());
+
+        service.resumeInterrupted();
+
+        verify(excelImportService, timeout(5000)).importWorkbook(eq(3L), any(), any(), any(), any());
+        verify(jobRepository, timeout(5000).atLeastOnce())
+                .save(argThat(j -> j.getStatus() == ImportJobStatus.COMPLETED));
+
+        assertThat(startProgress.get().resumed()).isTrue();
+        assertThat(startProgress.get().resumeAfterRow()).isEqualTo(101);
+        assertThat(startTotals.get().getContactsImported()).isEqualTo(90);
+        assertThat(startTotals.get().getTemplatesImported()).isEqualTo(270);
+        assertThat(startTotals.get().getSkipped()).isEqualTo(6);
+        assertThat(startTotals.get().getUnchanged()).isEqualTo(4);
+        assertThat(startTotals.get().getErrors()).hasSize(1);
+        assertThat(startTotals.get().getRemovedRows()).containsExactly("gone@example.com");
+
+        assertThat(job.getAttempts()).isEqualTo(2);
+        assertThat(job.getCheckpointRow()).isEqualTo(151);
+        assertThat(job.getContactsImported()).isEqualTo(140);
+        assertThat(job.getJobsCreated()).isEqualTo(420);
+        assertThat(job.getRemovedRows()).isEqualTo("[\"gone@example.com\"]");
+    }
+
+    private static ExcelImportResultDto copy(ExcelImportResultDto totals) {
+        ExcelImportResultDto c = new ExcelImportResultDto();
+        c.setContactsImported(totals.getContactsImported());
+        c.setTemplatesImported(totals.getTemplatesImported());
+        c.setSkipped(totals.getSkipped());
+        c.setUnchanged(totals.getUnchanged());
+        c.getErrors().addAll(totals.getErrors());
+        c.getRemovedRows().addAll(totals.getRemovedRows());
+        return c;
+    }
+}
@@ -0,0 +1,61 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.dto.ExcelImportResultDto;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Opted-out and unchanged rows only count once a checkpoint covers them. */
+class ImportReadAheadTest {
+
+    private final ExcelImportService.ReadAhead readAhead = new ExcelImportService.ReadAhead();
+    private final ExcelImportResultDto totals = new ExcelImportResultDto();
+
+    @Test
+    void rowsBeforeTheFirstQueuedRowCountWithItsBatch() {
+        readAhead.skipped(2);
+        readAhead.unchanged(3);
+        readAhead.queued(4);
+
+        readAhead.release(1, totals);
+        assertThat(totals.getSkipped()).isZero();
+
+        readAhead.release(4, totals);
+        assertThat(totals.getSkipped()).isEqualTo(1);
+        assertThat(totals.getUnchanged()).isEqualTo(1);
+    }
+
+    @Test
+    void rowsReadPastTheCheckpointWaitForALaterOne() {
+        readAhead.queued(2);
+        readAhead.unchanged(3);
+        readAhead.queued(4);
+        readAhead.skipped(5);
+        readAhead.unchanged(6);
+
+        // The batch holding row 2 commits while rows 3–6 have already been read.
+        readAhead.release(2, totals);
+        assertThat(totals.getUnchanged()).isZero();
+        assertThat(totals.getSkipped()).isZero();
+
+        readAhead.release(4, totals);
+        assertThat(totals.getUnchanged()).isEqualTo(1);
+        assertThat(totals.getSkipped()).isZero();
+
+        // End of sheet
+        readAhead.release(6, totals);
+        assertThat(totals.getUnchanged()).isEqualTo(2);
+        assertThat(totals.getSkipped()).isEqualTo(1);
+    }
+
+    @Test
+    void eachRowIsCountedOnce() {
+        readAhead.skipped(2);
+        readAhead.queued(3);
+        readAhead.release(3, totals);
+        readAhead.release(3, totals);
+        readAhead.release(10, totals);
+
+        assertThat(totals.getSkipped()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,163 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.browser.BrowserCallTimeoutException;
+import com.campaignmanager.browser.MailResult;
+import com.campaignmanager.browser.OutgoingMail;
+import com.campaignmanager.model.Campaign;
+import com.campaignmanager.model.CampaignContact;
+import com.campaignmanager.model.Contact;
+import com.campaignmanager.model.EmailJob;
+import com.campaignmanager.service.PlaywrightGmailService.SendOutcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Sending grouped by account and browser lane, and how each kind of failure is reported. */
+@ExtendWith(MockitoExtension.class)
+class PlaywrightGmailServiceTest {
+
+    @Mock private PlaywrightSessionService sessionService;
+
+    private PlaywrightGmailService gmailService;
+
+    @BeforeEach
+    void setUp() {
+        gmailService = new PlaywrightGmailService(sessionService);
+        ReflectionTestUtils.setField(gmailService, "defaultPipelineDepth", 1);
+        lenient().when(sessionService.sendLane("a@gmail.com")).thenReturn(0);
+        lenient().when(sessionService.sendLane("b@gmail.com")).thenReturn(1);
+        lenient().when(sessionService.sendLane("c@gmail.com")).thenReturn(0);
+    }
+
+    private static EmailJob job(long id, String sender) {
+        Campaign campaign = new Campaign();
+        campaign.setGmailEmail(sender);
+        Contact contact = new Contact();
+        contact.setEmail("to" + id + "@example.com");
+        CampaignContact enrollment = new CampaignContact();
+        enrollment.setCampaign(campaign);
+        enrollment.setContact(contact);
+        EmailJob job = new EmailJob();
+        job.setId(id);
+        job.setCampaignContact(enrollment);
+        job.setSubject("Subject " + id);
+        job.setBody("Body");
+        return job;
+    }
+
+    private static List<MailResult> allSent(List<OutgoingMail> mails) {
+        return mails.stream().map(m -> new MailResult(m.id(), null)).toList();
+    }
+
+    @Test
+    void accountsOnDifferentLanesSendAtTheSameTime() throws Exception {
+        CountDownLatch bothSending = new CountDownLatch(2);
+        when(sessionService.sendAll(anyString(), anyList(), anyInt())).thenAnswer(inv -> {
+            bothSending.countDown();
+            // Returns only once the other lane is sending too; sequential lanes would time out here.
+            if (!bothSending.await(10, TimeUnit.SECONDS)) throw new IllegalStateException("lanes ran one after another");
+            return allSent(inv.getArgument(1));
+        });
+
+        List<SendOutcome> outcomes = gmailService.sendAll(List.of(job(1, "a@gmail.com"), job(2, "b@gmail.com")));
+
+        assertThat(outcomes).hasSize(2).allMatch(SendOutcome::sent);
+    }
+
+    @Test
+    void accountsOnOneLaneSendOneAfterAnother() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(sessionService.sendAll(anyString(), anyList(), anyInt())).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return allSent(inv.getArgument(1));
+        });
+
+        List<SendOutcome> outcomes = gmailService.sendAll(List.of(job(1, "a@gmail.com"), job(2, "c@gmail.com"),
+                job(3, "a@gmail.com")));
+
+        assertThat(maxInFlight).hasValue(1);
+        assertThat(outcomes).extracting(o -> o.job().getId()).containsExactly(1L, 3L, 2L);
+        verify(sessionService).sendAll(eq("a@gmail.com"), anyList(), eq(1));
+    }
+
+    @Test
+    void timedOutBatchIsUnknownAndOtherLanesAreUnaffected() {
+        when(sessionService.sendAll(eq("a@gmail.com"), anyList(), anyInt()))
+                .thenThrow(new BrowserCallTimeoutException("worker 0 did not answer"));
+        when(sessionService.sendAll(eq("b@gmail.com"), anyList(), anyInt()))
+                .thenAnswer(inv -> allSent(inv.getArgument(1)));
+
+        List<SendOutcome> outcomes = gmailService.sendAll(List.of(job(1, "a@gmail.com"), job(2, "a@gmail.com"),
+                job(3, "b@gmail.com")));
+
+        assertThat(outcomes).filteredOn(o -> o.job().getId() < 3).hasSize(2).allSatisfy(o -> {
+            assertThat(o.sent()).isFalse();
+            assertThat(o.unknown()).isTrue();
+            assertThat(o.error()).hasMessageContaining("may still have gone out");
+        });
+        assertThat(outcomes).filteredOn(o -> o.job().getId() == 3).singleElement().matches(SendOutcome::sent);
+    }
+
+    @Test
+    void crashedBatchFailsWithoutBeingUnknownAndPerMailErrorsAreKept() {
+        when(sessionService.sendAll(eq("a@gmail.com"), anyList(), anyInt()))
+                .thenThrow(new IllegalStateException("worker 0 exited"));
+        when(sessionService.sendAll(eq("b@gmail.com"), anyList(), anyInt()))
+                .thenReturn(List.of(new MailResult(3, "no send button"), new MailResult(4, null)));
+
+        List<SendOutcome> outcomes = gmailService.sendAll(List.of(job(1, "a@gmail.com"), job(3, "b@gmail.com"),
+                job(4, "b@gmail.com")));
+
+        assertThat(outcomes).filteredOn(o -> o.job().getId() == 1).singleElement().satisfies(o -> {
+            assertThat(o.unknown()).isFalse();
+            assertThat(o.error()).hasMessageContaining("worker 0 exited");
+        });
+        assertThat(outcomes).filteredOn(o -> o.job().getId() == 3).singleElement()
+                .satisfies(o -> assertThat(o.error()).hasMessage("no send button"));
+        assertThat(outcomes).filteredOn(o -> o.job().getId() == 4).singleElement().matches(SendOutcome::sent);
+    }
+
+    @Test
+    void jobWithoutASenderFailsWhenSeveralAccountsAreConnected() {
+        when(sessionService.listConnectedEmails()).thenReturn(List.of("a@gmail.com", "b@gmail.com"));
+
+        List<SendOutcome> outcomes = gmailService.sendAll(List.of(job(1, null)));
+
+        assertThat(outcomes).singleElement().satisfies(o -> {
+            assertThat(o.unknown()).isFalse();
+            assertThat(o.error()).hasMessageContaining("no Gmail account assigned");
+        });
+        verify(sessionService, never()).sendAll(anyString(), anyList(), anyInt());
+    }
+
+    @Test
+    void pipelineDepthOverridesAreClamped() {
+        ReflectionTestUtils.setField(gmailService, "pipelineDepthOverrides", "A@gmail.com=3, b@gmail.com=9, bad");
+        gmailService.parseDepthOverrides();
+
+        assertThat(gmailService.pipelineDepthFor("a@gmail.com")).isEqualTo(3);
+        assertThat(gmailService.pipelineDepthFor("b@gmail.com")).isEqualTo(4);
+        assertThat(gmailService.pipelineDepthFor("c@gmail.com")).isEqualTo(1);
+    }
+}
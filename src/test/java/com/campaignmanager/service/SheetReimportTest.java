@@ -0,0 +1,142 @@
+package com.campaignmanager.service;
+
+import com.campaignmanager.dto.ExcelImportResultDto;
+import com.campaignmanager.model.Campaign;
+import com.campaignmanager.repository.CampaignContactRepository;
+import com.campaignmanager.repository.CampaignRepository;
+import com.campaignmanager.repository.ContactRepository;
+import com.campaignmanager.repository.EmailTemplateRepository;
+import com.campaignmanager.repository.ImportBulkRepository;
+import com.campaignmanager.util.WorkbookRowReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Re-imports of a Google Sheet skip rows whose cells and Google Doc are both as last imported. */
+@DataJpaTest
+@Import(ImportBulkRepository.class)
+class SheetReimportTest {
+
+    private static final String SHEET_KEY = "sheet-1";
+    private static final String DOC = "https://docs.google.com/document/d/doc-1/edit";
+
+    @Autowired private ContactRepository contactRepository;
+    @Autowired private CampaignRepository campaignRepository;
+    @Autowired private CampaignContactRepository campaignContactRepository;
+    @Autowired private EmailTemplateRepository templateRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private ImportBulkRepository bulkRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    private final GoogleDocParserService docParser = mock(GoogleDocParserService.class);
+    private final PlaywrightSessionService sessionService = mock(PlaywrightSessionService.class);
+
+    private ExcelImportService importService;
+    private Long campaignId;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ExcelImportService(contactRepository, campaignRepository, campaignContactRepository,
+                templateRepository, docParser, sessionService, transactionManager, bulkRepository);
+        ReflectionTestUtils.setField(importService, "docFetchConcurrency", 2);
+        ReflectionTestUtils.setField(importService, "importBatchSize", 10);
+
+        Campaign campaign = new Campaign();
+        campaign.setName("Re-import");
+        campaignId = campaignRepository.save(campaign).getId();
+    }
+
+    private void docSays(String subject) throws Exception {
+        when(docParser.parseDoc(DOC)).thenReturn(Map.of(1, new GoogleDocParserService.ParsedEmail(subject, "Hi Ann, hello.")));
+    }
+
+    private ExcelImportResultDto importSheet(String rows) throws Exception {
+        String csv = "Name,Email,Email Link,Email 1\n" + rows;
+        ExcelImportResultDto result = new ExcelImportResultDto();
+        try (WorkbookRowReader workbook = WorkbookRowReader.openCsv(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)))) {
+            importService.importWorkbook(campaignId, workbook, SHEET_KEY, result, ExcelImportService.Progress.NONE);
+        }
+        return result;
+    }
+
+    private String jobSubject() {
+        return jdbcTemplate.queryForObject("SELECT subject FROM email_jobs", String.class);
+    }
+
+    @Test
+    void unchangedRowAndDocAreSkipped() throws Exception {
+        docSays("First subject");
+        importSheet("Ann,ann@example.com," + DOC + ",2030-01-01 09:00\n");
+
+        ExcelImportResultDto again = importSheet("Ann,ann@example.com," + DOC + ",2030-01-01 09:00\n");
+
+        assertThat(again.getUnchanged()).isEqualTo(1);
+        assertThat(again.getContactsImported()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_jobs", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void editedDocIsPickedUpForARowWhoseCellsDidNotChange() throws Exception {
+        docSays("First subject");
+        importSheet("Ann,ann@example.com," + DOC + ",2030-01-01 09:00\n");
+        assertThat(jobSubject()).isEqualTo("First subject");
+
+        docSays("Edited subject");
+        ExcelImportResultDto again = importSheet("Ann,ann@example.com," + DOC + ",2030-01-01 09:00\n");
+
+        assertThat(again.getUnchanged()).isZero();
+        assertThat(again.getContactsImported()).isEqualTo(1);
+        assertThat(jobSubject()).isEqualTo("Edited subject");
+
+        // The new doc is now the recorded one
+        assertThat(importSheet("Ann,ann@example.com," + DOC + ",2030-01-01 09:00\n").getUnchanged()).isEqualTo(1);
+    }
+
+    @Test
+    void editedCellsAreImportedEvenWithTheSameDoc() throws Exception {
+        docSays("First subject");
+        importSheet("Ann,ann@example.com," + DOC + ",2030-01-01 09:00\n");
+
+        ExcelImportResultDto again = importSheet("Ann B,ann@example.com," + DOC + ",2030-01-01 09:00\n");
+
+        assertThat(again.getUnchanged()).isZero();
+        assertThat(again.getContactsImported()).isEqualTo(1);
+    }
+
+    @Test
+    void rowWithoutADocIsSkippedWithoutAFetch() throws Exception {
+        importSheet("Bob,bob@example.com,,2030-01-01 09:00\n");
+
+        ExcelImportResultDto again = importSheet("Bob,bob@example.com,,2030-01-01 09:00\n");
+
+        assertThat(again.getUnchanged()).isEqualTo(1);
+        verify(docParser, never()).parseDoc(anyString());
+    }
+
+    @Test
+    void rowStateRecordsTheDocHash() throws Exception {
+        docSays("First subject");
+        importSheet("Ann,ann@example.com," + DOC + ",2030-01-01 09:00\n");
+
+        ImportBulkRepository.RowState state = bulkRepository.findRowStates(campaignId, SHEET_KEY).get("ann@example.com");
+        assertThat(state.rowHash()).hasSize(64);
+        assertThat(state.docHash()).hasSize(64);
+    }
+}
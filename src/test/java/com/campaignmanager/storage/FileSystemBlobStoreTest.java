@@ -0,0 +1,108 @@
+package com.campaignmanager.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemBlobStoreTest {
+
+    private static final byte[] HELLO = "hello, blob".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir Path dir;
+
+    private FileSystemBlobStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new FileSystemBlobStore(dir.toString());
+    }
+
+    private StoredBlob put(byte[] content) throws IOException {
+        return store.put(new ByteArrayInputStream(content));
+    }
+
+    private long blobFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    @Test
+    void storesUnderTheSha256OfTheContent() throws IOException {
+        StoredBlob blob = put(HELLO);
+
+        assertThat(blob).isEqualTo(StoredBlob.of(HELLO));
+        assertThat(dir.resolve(blob.hash().substring(0, 2)).resolve(blob.hash().substring(2, 4)).resolve(blob.hash()))
+                .hasBinaryContent(HELLO);
+        try (InputStream in = store.open(blob.hash())) {
+            assertThat(in.readAllBytes()).isEqualTo(HELLO);
+        }
+        assertThat(store.resource(blob.hash()).contentLength()).isEqualTo(HELLO.length);
+    }
+
+    @Test
+    void sameContentIsStoredOnceAndNoTempFilesRemain() throws IOException {
+        StoredBlob first = put(HELLO);
+        StoredBlob second = put(HELLO.clone());
+        put("something else".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(blobFiles()).isEqualTo(2);
+        assertThat(store.hashes()).hasSize(2).contains(first.hash());
+        try (Stream<Path> tmp = Files.list(dir.resolve("tmp"))) {
+            assertThat(tmp).isEmpty();
+        }
+    }
+
+    @Test
+    void storingAgainRefreshesTheBlobSoASweepKeepsIt() throws IOException {
+        StoredBlob blob = put(HELLO);
+        Path file = dir.resolve(blob.hash().substring(0, 2)).resolve(blob.hash().substring(2, 4)).resolve(blob.hash());
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+
+        put(HELLO);
+        store.deleteIfOlderThan(blob.hash(), Duration.ofDays(1).toMillis());
+
+        assertThat(file).exists();
+    }
+
+    @Test
+    void deletesOnlyBlobsOlderThanTheMinimumAge() throws IOException {
+        StoredBlob blob = put(HELLO);
+
+        store.deleteIfOlderThan(blob.hash(), Duration.ofHours(1).toMillis());
+        assertThat(store.hashes()).containsExactly(blob.hash());
+
+        store.deleteIfOlderThan(blob.hash(), 0);
+        assertThat(store.hashes()).isEmpty();
+    }
+
+    @Test
+    void rejectsAnythingButAHash() {
+        assertThatThrownBy(() -> store.open("../../etc/passwd")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> store.resource("ABC")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void withoutADirectoryTheStoreIsDisabled() throws IOException {
+        FileSystemBlobStore disabled = new FileSystemBlobStore("");
+
+        assertThat(disabled.isEnabled()).isFalse();
+        assertThat(disabled.hashes()).isEmpty();
+        assertThatThrownBy(() -> disabled.put(new ByteArrayInputStream(HELLO))).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,98 @@
+package com.campaignmanager.util;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** The streamed .xlsx reader and the .xls reader present the same rows with the same typing. */
+class WorkbookRowReaderTest {
+
+    private static final LocalDateTime SEND_AT = LocalDateTime.of(2030, 1, 1, 9, 30);
+
+    private static byte[] workbook(boolean xlsx) throws IOException {
+        try (Workbook wb = xlsx ? new XSSFWorkbook() : new HSSFWorkbook();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            CellStyle dateStyle = wb.createCellStyle();
+            dateStyle.setDataFormat(wb.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+
+            Sheet contacts = wb.createSheet("Contacts");
+            Row header = contacts.createRow(0);
+            header.createCell(0).setCellValue("Name");
+            header.createCell(1).setCellValue("Count");
+            header.createCell(2).setCellValue("Send at");
+            Row ann = contacts.createRow(1);
+            ann.createCell(0).setCellValue("  Ann  ");
+            ann.createCell(1).setCellValue(42);
+            ann.createCell(2).setCellValue(SEND_AT);
+            ann.getCell(2).setCellStyle(dateStyle);
+            ann.createCell(3).setCellValue(true);
+            ann.createCell(4).setCellFormula("B2*2");
+            // Row 3 is left out entirely
+            Row bob = contacts.createRow(3);
+            bob.createCell(0).setCellValue("Bob");
+            bob.createCell(1).setCellValue(1.5);
+            bob.createCell(2);
+
+            wb.createSheet("Notes").createRow(0).createCell(0).setCellValue("hello");
+            wb.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static List<SheetRow> drain(Iterator<SheetRow> rows) {
+        List<SheetRow> all = new ArrayList<>();
+        rows.forEachRemaining(all::add);
+        return all;
+    }
+
+    @ParameterizedTest(name = "xlsx={0}")
+    @ValueSource(booleans = {true, false})
+    void rowsAreTypedTheSameWayForBothFormats(boolean xlsx) throws IOException {
+        try (WorkbookRowReader reader = WorkbookRowReader.open(new ByteArrayInputStream(workbook(xlsx)))) {
+            assertThat(reader).isInstanceOf(xlsx ? XlsxRowReader.class : XlsRowReader.class);
+            assertThat(reader.sheetNames()).containsExactly("Contacts", "Notes");
+
+            List<SheetRow> rows = drain(reader.rows(0));
+
+            assertThat(rows).extracting(SheetRow::rowNum).containsExactly(1, 2, 4);
+            SheetRow ann = rows.get(1);
+            assertThat(ann.lastColumn()).isEqualTo(4);
+            assertThat(ann.getString(0)).isEqualTo("Ann");
+            assertThat(ann.getString(1)).isEqualTo("42");
+            assertThat(ann.getDate(2)).isEqualTo(SEND_AT);
+            assertThat(ann.getDate(1)).isNull();
+            assertThat(ann.getString(3)).isEqualTo("true");
+            assertThat(ann.getString(4)).isEqualTo("B2*2");
+            assertThat(ann.getString(-1)).isNull();
+            SheetRow bob = rows.get(2);
+            assertThat(bob.getString(1)).isEqualTo("1.5");
+            assertThat(bob.getString(2)).isNull();
+            assertThat(bob.getString(7)).isNull();
+        }
+    }
+
+    @ParameterizedTest(name = "xlsx={0}")
+    @ValueSource(booleans = {true, false})
+    void sheetsAreFoundByName(boolean xlsx) throws IOException {
+        try (WorkbookRowReader reader = WorkbookRowReader.open(new ByteArrayInputStream(workbook(xlsx)))) {
+            assertThat(drain(reader.rows("Notes"))).singleElement()
+                    .satisfies(row -> assertThat(row.getString(0)).isEqualTo("hello"));
+            assertThat(reader.rows("Missing")).isNull();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+-- A database as the old spring.jpa.hibernate.ddl-auto=update left it on MySQL, before the
+-- move to Flyway: status columns are native ENUMs without HOLD, contacts.email is still
+-- globally unique, some rows have no owner, and columns added later are missing
+-- (campaigns.sheet_sync_*, import_jobs.unchanged / removed_rows, client_briefings.mime_type /
+-- file_content, campaign_plans.email_format / gmail_email).  Tables that came later
+-- (google_doc_cache, import_row_states, ...) are absent; V1 creates them.
+
+CREATE TABLE users (
+    id bigint not null auto_increment,
+    password varchar(255) not null,
+    role varchar(255) not null,
+    username varchar(255) not null,
+    primary key (id),
+    constraint UK_r43af9ap4edm43mmtq01oddj6 unique (username)
+) ENGINE=InnoDB;
+
+CREATE TABLE gems (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    owner_id bigint not null,
+    gem_type varchar(30) not null,
+    name varchar(100) not null,
+    description varchar(500),
+    system_instructions TEXT not null,
+    primary key (id),
+    constraint FKpsdnorwia5ggngmoukevo3qi3 foreign key (owner_id) references users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE campaigns (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    launched_at datetime(6),
+    owner_id bigint,
+    company varchar(255),
+    description varchar(255),
+    gmail_email varchar(255),
+    interval_days varchar(255) not null,
+    name varchar(255) not null,
+    status enum ('ACTIVE','COMPLETED','DRAFT','PAUSED') not null,
+    tanzu_contact varchar(255),
+    primary key (id),
+    constraint FKppm1bi09wp1gwlyi876acgbn foreign key (owner_id) references users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE contacts (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    owner_id bigint,
+    email_link varchar(2048),
+    ae_role varchar(255),
+    category varchar(255),
+    company varchar(255),
+    email varchar(255) not null,
+    name varchar(255) not null,
+    phone varchar(255),
+    play varchar(255),
+    role varchar(255),
+    sub_play varchar(255),
+    primary key (id),
+    constraint UK_728mksvqr0n907kujew6p3jc0 unique (email),
+    constraint uk_contact_email_owner unique (email, owner_id),
+    constraint FKspu9vhmjqtqa0x4lf3orn48x2 foreign key (owner_id) references users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE campaign_contacts (
+    id bigint not null auto_increment,
+    campaign_id bigint not null,
+    contact_id bigint not null,
+    enrolled_at datetime(6) not null,
+    primary key (id),
+    constraint UKh6438gkmyxoufsy1b703w5ccv unique (campaign_id, contact_id),
+    constraint FKrgyfd4mf13lehtih8e2ka1w7k foreign key (campaign_id) references campaigns (id),
+    constraint FKll5iw9ihdyb166el1knpqkscf foreign key (contact_id) references contacts (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE email_jobs (
+    id bigint not null auto_increment,
+    step_number integer not null,
+    campaign_contact_id bigint not null,
+    scheduled_at datetime(6) not null,
+    sent_at datetime(6),
+    body TEXT not null,
+    error_message TEXT,
+    status enum ('FAILED','SCHEDULED','SENT','SKIPPED') not null,
+    subject varchar(255) not null,
+    primary key (id),
+    constraint FKq4bo7imesjcvu7wg2hk1e448 foreign key (campaign_contact_id) references campaign_contacts (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE email_templates (
+    id bigint not null auto_increment,
+    step_number integer not null,
+    campaign_id bigint not null,
+    scheduled_at datetime(6),
+    body_template TEXT not null,
+    subject varchar(255) not null,
+    primary key (id),
+    constraint FKspswlirord983u6xu9pqrd8tw foreign key (campaign_id) references campaigns (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE campaign_plans (
+    id bigint not null auto_increment,
+    contact_gem_id bigint,
+    created_at datetime(6) not null,
+    email_gem_id bigint,
+    owner_id bigint not null,
+    result_campaign_id bigint,
+    status varchar(20) not null,
+    drive_folder_url varchar(2048),
+    customer varchar(255),
+    name varchar(255) not null,
+    tanzu_contact varchar(255),
+    primary key (id),
+    constraint FKpfjxnbhmxnclcpwvr6p5dw4yo foreign key (contact_gem_id) references gems (id),
+    constraint FK775wkcxoci8dm6x5nxlpb1nnf foreign key (email_gem_id) references gems (id),
+    constraint FKhdkhmc5a2cu4dllbuoas6tsi foreign key (owner_id) references users (id),
+    constraint FKdxu3ild0dqqj2g1wp4p3lqb32 foreign key (result_campaign_id) references campaigns (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE client_briefings (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    document_link varchar(2048),
+    client_name varchar(255) not null,
+    original_file_name varchar(255),
+    uploaded_file_name varchar(255),
+    primary key (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE import_jobs (
+    id bigint not null auto_increment,
+    attempts integer not null,
+    checkpoint_row integer not null,
+    cleared bit not null,
+    contacts_imported integer not null,
+    jobs_created integer not null,
+    replace_existing bit not null,
+    run_start_row integer not null,
+    skipped integer not null,
+    campaign_id bigint not null,
+    created_at datetime(6) not null,
+    finished_at datetime(6),
+    started_at datetime(6),
+    updated_at datetime(6),
+    file_path varchar(1024),
+    sheet_url varchar(2048),
+    source varchar(2048),
+    created_by varchar(255),
+    message TEXT,
+    status enum ('COMPLETED','FAILED','QUEUED','RUNNING') not null,
+    errors LONGTEXT,
+    primary key (id)
+) ENGINE=InnoDB;
+
+INSERT INTO users (id, password, role, username) VALUES
+    (1, 'x', 'ROLE_ADMIN', 'admin'),
+    (2, 'x', 'ROLE_USER', 'ann');
+
+-- From before multi-user support: no owner
+INSERT INTO campaigns (id, created_at, interval_days, name, status)
+    VALUES (1, NOW(), '0,3,7', 'Legacy campaign', 'ACTIVE');
+INSERT INTO contacts (id, created_at, email, name)
+    VALUES (1, NOW(), 'shared@example.com', 'Legacy contact');
+INSERT INTO campaign_contacts (id, campaign_id, contact_id, enrolled_at) VALUES (1, 1, 1, NOW());
+INSERT INTO email_jobs (campaign_contact_id, step_number, subject, body, scheduled_at, status)
+    VALUES (1, 1, 'Hello', 'Hi', NOW(), 'SCHEDULED');